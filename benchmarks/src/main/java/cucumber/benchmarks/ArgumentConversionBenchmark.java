@@ -0,0 +1,81 @@
+package cucumber.benchmarks;
+
+import cucumber.runtime.RuntimeGlue;
+import cucumber.runtime.StepDefinitionMatch;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running a matched step: converting its arguments to the parameter types of the step definition and
+ * invoking it. The step definitions do nothing, so this is the cost of the conversion and the call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentConversionBenchmark {
+    private static final PickleLocation LOCATION = new PickleLocation(1, 1);
+
+    private StepDefinitionMatch noArguments;
+    private StepDefinitionMatch string;
+    private StepDefinitionMatch numbers;
+    private StepDefinitionMatch enumValue;
+    private StepDefinitionMatch docString;
+    private StepDefinitionMatch table;
+
+    @Setup
+    public void setUp() {
+        RuntimeGlue glue = Fixtures.glue(0);
+        noArguments = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("the order is placed"));
+        string = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("a customer named \"Aslak\""));
+        numbers = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("the basket holds 12 items at 3.99 each"));
+        enumValue = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("the basket is GREEN"));
+        docString = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("the order note says:",
+                new PickleString(LOCATION, "Please leave the order at the back door.\nThe dog is friendly.")));
+        table = glue.stepDefinitionMatch("benchmark.feature", Fixtures.step("the stock is:", Fixtures.stockTable(20)));
+    }
+
+    @Benchmark
+    public void noArguments() throws Throwable {
+        noArguments.runStep("en", null);
+    }
+
+    @Benchmark
+    public void string() throws Throwable {
+        string.runStep("en", null);
+    }
+
+    @Benchmark
+    public void intAndDouble() throws Throwable {
+        numbers.runStep("en", null);
+    }
+
+    @Benchmark
+    public void enumValue() throws Throwable {
+        enumValue.runStep("en", null);
+    }
+
+    @Benchmark
+    public void docString() throws Throwable {
+        docString.runStep("en", null);
+    }
+
+    @Benchmark
+    public void tableOfPojos() throws Throwable {
+        table.runStep("en", null);
+    }
+}
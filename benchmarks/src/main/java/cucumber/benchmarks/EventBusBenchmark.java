@@ -0,0 +1,60 @@
+package cucumber.benchmarks;
+
+import cucumber.api.Result;
+import cucumber.api.TestStep;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestStepFinished;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
+import cucumber.runner.PickleTestStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sending an event to a number of handlers, as the bus does for every step with every plugin listening.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventBusBenchmark {
+    @Param({"1", "10", "100"})
+    public int handlers;
+
+    private EventBus bus;
+    private TestStepFinished event;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) {
+        bus = new EventBus(TimeService.SYSTEM);
+        for (int i = 0; i < handlers; i++) {
+            bus.registerHandlerFor(TestStepFinished.class, new EventHandler<TestStepFinished>() {
+                @Override
+                public void receive(TestStepFinished event) {
+                    blackhole.consume(event.result);
+                }
+            });
+        }
+        TestStep testStep = new PickleTestStep("benchmark.feature", Fixtures.step("the order is placed"), null);
+        event = new TestStepFinished(0L, testStep, new Result(Result.Type.PASSED, 1000L, null));
+    }
+
+    @Benchmark
+    public void send() {
+        bus.send(event);
+    }
+}
@@ -0,0 +1,49 @@
+package cucumber.benchmarks;
+
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.model.CucumberFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing feature files with {@link cucumber.runtime.FeatureBuilder}, from memory so the disk doesn't
+ * take part. Every feature has 20 examples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeatureParseBenchmark {
+    @Param({"1", "100"})
+    public int features;
+
+    private List<Resource> resources;
+
+    @Setup
+    public void setUp() {
+        resources = new ArrayList<Resource>();
+        for (int i = 0; i < features; i++) {
+            resources.add(Fixtures.resource("features/shop_" + i + ".feature", Fixtures.featureSource(i, 20)));
+        }
+    }
+
+    @Benchmark
+    public List<CucumberFeature> parse() {
+        return Fixtures.parse(resources);
+    }
+}
@@ -0,0 +1,367 @@
+package cucumber.benchmarks;
+
+import cucumber.api.event.EmbedEvent;
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestSourceRead;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.event.TestStepStarted;
+import cucumber.api.event.WriteEvent;
+import cucumber.api.java.ObjectFactory;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
+import cucumber.runtime.Backend;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.FeatureBuilder;
+import cucumber.runtime.Glue;
+import cucumber.runtime.JdkPatternArgumentMatcher;
+import cucumber.runtime.MethodFormat;
+import cucumber.runtime.MethodInvoker;
+import cucumber.runtime.ParameterInfo;
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeGlue;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.StepDefinition;
+import cucumber.runtime.UndefinedStepsTracker;
+import cucumber.runtime.UnreportedStepExecutor;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.Resource;
+import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.java.JavaBackend;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.snippets.FunctionNameGenerator;
+import cucumber.runtime.xstream.LocalizedXStreams;
+import gherkin.pickles.Argument;
+import gherkin.pickles.PickleCell;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleRow;
+import gherkin.pickles.PickleStep;
+import gherkin.pickles.PickleTable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Glue, features and events for the benchmarks.
+ */
+public final class Fixtures {
+    private static final String[] SUBJECTS = {"the customer", "the clerk", "the manager", "a visitor", "the courier", "the auditor", "I"};
+    private static final String[] VERBS = {"orders", "returns", "counts", "ships", "scans", "reserves", "inspects", "cancels"};
+    private static final String[] NOUNS = {"apples", "parcels", "invoices", "tickets", "crates", "coupons", "batteries", "pallets", "licences"};
+
+    /**
+     * The events of a run of {@link #formatterFeature()}: a {@link TestSourceRead}, 50 test cases with a
+     * hook, six steps and another hook that writes, and a {@link TestRunFinished}.
+     */
+    public static final int FORMATTER_EVENTS = 1 + 50 * (1 + 8 * 2 + 1 + 1) + 1;
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param fillerStepDefinitions step definitions to add to the ones the features use, to make the glue as
+     *                              big as the glue of a larger project
+     * @return glue with the step definitions and hooks of {@link Steps}
+     */
+    public static RuntimeGlue glue(int fillerStepDefinitions) {
+        ClassLoader classLoader = Fixtures.class.getClassLoader();
+        ObjectFactory objectFactory = new SingletonObjectFactory();
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(classLoader));
+        JavaBackend backend = new JavaBackend(objectFactory, new ResourceLoaderClassFinder(new MultiLoader(classLoader), classLoader));
+        for (Method method : Steps.class.getMethods()) {
+            backend.loadGlue(glue, method, Steps.class);
+        }
+        Method filler = method("filler", int.class, String.class);
+        for (int i = 0; i < fillerStepDefinitions; i++) {
+            glue.addStepDefinition(new FillerStepDefinition(filler, Pattern.compile("^" + fillerStepText(i, "(\\d+)", "\"([^\"]*)\"") + "$"), objectFactory));
+        }
+        return glue;
+    }
+
+    /**
+     * @return the text of a step matched by the filler step definition {@code index} of {@link #glue(int)}
+     */
+    public static String fillerStepText(int index, int count, String name) {
+        return fillerStepText(index, Integer.toString(count), "\"" + name + "\"");
+    }
+
+    private static String fillerStepText(int index, String count, String name) {
+        // Different words up front, like the step definitions of a real project
+        return SUBJECTS[index % SUBJECTS.length] + " " + VERBS[(index / SUBJECTS.length) % VERBS.length] + " " +
+                count + " " + NOUNS[(index / (SUBJECTS.length * VERBS.length)) % NOUNS.length] + " for account " + index + " named " + name;
+    }
+
+    public static PickleStep step(String text, Argument... arguments) {
+        return new PickleStep(text, asList(arguments), Collections.<PickleLocation>emptyList());
+    }
+
+    /**
+     * @return a table of {@link Steps.Item}s with a header row and {@code items} rows
+     */
+    public static PickleTable stockTable(int items) {
+        List<PickleRow> rows = new ArrayList<PickleRow>();
+        rows.add(row("name", "quantity", "price"));
+        for (int i = 0; i < items; i++) {
+            rows.add(row("item " + i, Integer.toString(i), i + ".5"));
+        }
+        return new PickleTable(rows);
+    }
+
+    private static PickleRow row(String... values) {
+        List<PickleCell> cells = new ArrayList<PickleCell>();
+        for (String value : values) {
+            cells.add(new PickleCell(new PickleLocation(1, 1), value));
+        }
+        return new PickleRow(cells);
+    }
+
+    /**
+     * @return a feature with a background and a scenario outline with {@code examples} rows, using every
+     * step definition of {@link Steps}.
+     */
+    public static String featureSource(int index, int examples) {
+        StringBuilder source = new StringBuilder();
+        source.append("@shop\n");
+        source.append("Feature: Shop ").append(index).append("\n");
+        source.append("\n");
+        source.append("  Background:\n");
+        source.append("    Given a customer named \"Aslak\"\n");
+        source.append("\n");
+        source.append("  @orders\n");
+        source.append("  Scenario Outline: Placing order <order>\n");
+        source.append("    Given the basket holds <count> items at <price> each\n");
+        source.append("    And the basket is <color>\n");
+        source.append("    And the order note says:\n");
+        source.append("      \"\"\"\n");
+        source.append("      Please leave the order <order> at the back door.\n");
+        source.append("      \"\"\"\n");
+        source.append("    And the stock is:\n");
+        source.append("      | name    | quantity | price |\n");
+        source.append("      | apples  | 12       | 0.5   |\n");
+        source.append("      | pears   | 7        | 0.75  |\n");
+        source.append("      | lemons  | 30       | 0.2   |\n");
+        source.append("    When the order is placed\n");
+        source.append("\n");
+        source.append("    Examples:\n");
+        source.append("      | order | count | price | color |\n");
+        String[] colors = {"RED", "GREEN", "BLUE"};
+        for (int i = 0; i < examples; i++) {
+            source.append("      | ").append(i).append(" | ").append(i % 10 + 1).append(" | ").append(i % 7).append(".99 | ").append(colors[i % colors.length]).append(" |\n");
+        }
+        return source.toString();
+    }
+
+    public static String formatterFeature() {
+        return featureSource(0, 50);
+    }
+
+    public static Resource resource(final String path, final String source) {
+        return new Resource() {
+            @Override
+            public String getPath() {
+                return path;
+            }
+
+            @Override
+            public String getAbsolutePath() {
+                return "/" + path;
+            }
+
+            @Override
+            public InputStream getInputStream() {
+                try {
+                    return new ByteArrayInputStream(source.getBytes("UTF-8"));
+                } catch (UnsupportedEncodingException e) {
+                    throw new CucumberException(e);
+                }
+            }
+
+            @Override
+            public String getClassName(String extension) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public static List<CucumberFeature> parse(List<Resource> resources) {
+        List<CucumberFeature> features = new ArrayList<CucumberFeature>();
+        new FeatureBuilder(features).parse(resources);
+        return features;
+    }
+
+    /**
+     * Runs the features against {@link #glue(int)} and returns the events of the run, so they can be sent
+     * to plugins without running anything.
+     */
+    public static List<Event> record(List<CucumberFeature> features) {
+        ClassLoader classLoader = Fixtures.class.getClassLoader();
+        Runtime runtime = new Runtime(new MultiLoader(classLoader), classLoader, asList(new NullBackend()),
+                new RuntimeOptions("--plugin null"), TimeService.SYSTEM, glue(0));
+        final List<Event> events = new ArrayList<Event>();
+        EventHandler<Event> recorder = new EventHandler<Event>() {
+            @Override
+            public void receive(Event event) {
+                events.add(event);
+            }
+        };
+        EventBus bus = runtime.getEventBus();
+        registerHandlerFor(bus, recorder, TestSourceRead.class, TestCaseStarted.class, TestStepStarted.class, TestStepFinished.class,
+                TestCaseFinished.class, WriteEvent.class, EmbedEvent.class, TestRunFinished.class);
+        for (CucumberFeature feature : features) {
+            feature.sendTestSourceRead(bus);
+            runtime.runFeature(feature);
+        }
+        bus.send(new TestRunFinished(bus.getTime()));
+        if (!runtime.getErrors().isEmpty()) {
+            throw new CucumberException(runtime.getErrors().get(0));
+        }
+        return events;
+    }
+
+    private static void registerHandlerFor(EventBus bus, EventHandler<Event> handler, Class<?>... eventTypes) {
+        for (Class<?> eventType : eventTypes) {
+            @SuppressWarnings("unchecked") // Every event type is a subclass of Event, the handler takes any Event
+            Class<Event> type = (Class<Event>) eventType;
+            bus.registerHandlerFor(type, handler);
+        }
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) {
+        try {
+            return Steps.class.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new CucumberException(e);
+        }
+    }
+
+    private static class SingletonObjectFactory implements ObjectFactory {
+        private final Map<Class<?>, Object> instances = new HashMap<Class<?>, Object>();
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public boolean addClass(Class<?> glueClass) {
+            return true;
+        }
+
+        @Override
+        public synchronized <T> T getInstance(Class<T> glueClass) {
+            Object instance = instances.get(glueClass);
+            if (instance == null) {
+                try {
+                    instance = glueClass.newInstance();
+                } catch (Exception e) {
+                    throw new CucumberException(e);
+                }
+                instances.put(glueClass, instance);
+            }
+            return glueClass.cast(instance);
+        }
+    }
+
+    /**
+     * A step definition made from a method with a pattern given at runtime, as the Java backend makes them
+     * from annotated methods.
+     */
+    private static class FillerStepDefinition implements StepDefinition {
+        private final Method method;
+        private final MethodInvoker invoker;
+        private final Pattern pattern;
+        private final ObjectFactory objectFactory;
+        private final JdkPatternArgumentMatcher argumentMatcher;
+        private final List<ParameterInfo> parameterInfos;
+
+        FillerStepDefinition(Method method, Pattern pattern, ObjectFactory objectFactory) {
+            this.method = method;
+            this.invoker = new MethodInvoker(method);
+            this.pattern = pattern;
+            this.objectFactory = objectFactory;
+            this.argumentMatcher = new JdkPatternArgumentMatcher(pattern);
+            this.parameterInfos = ParameterInfo.fromMethod(method);
+        }
+
+        @Override
+        public List<cucumber.runtime.Argument> matchedArguments(PickleStep step) {
+            return argumentMatcher.argumentsFrom(step.getText());
+        }
+
+        @Override
+        public String getLocation(boolean detail) {
+            return (detail ? MethodFormat.FULL : MethodFormat.SHORT).format(method);
+        }
+
+        @Override
+        public Integer getParameterCount() {
+            return parameterInfos.size();
+        }
+
+        @Override
+        public ParameterInfo getParameterType(int n, Type argumentType) {
+            return parameterInfos.get(n);
+        }
+
+        @Override
+        public void execute(String language, Object[] args) throws Throwable {
+            invoker.invoke(objectFactory.getInstance(method.getDeclaringClass()), 0, args);
+        }
+
+        @Override
+        public boolean isDefinedAt(StackTraceElement stackTraceElement) {
+            return stackTraceElement.getClassName().equals(method.getDeclaringClass().getName())
+                    && stackTraceElement.getMethodName().equals(method.getName());
+        }
+
+        @Override
+        public String getPattern() {
+            return pattern.pattern();
+        }
+
+        @Override
+        public boolean isScenarioScoped() {
+            return false;
+        }
+    }
+
+    private static class NullBackend implements Backend {
+        @Override
+        public void loadGlue(Glue glue, List<String> gluePaths) {
+        }
+
+        @Override
+        public void setUnreportedStepExecutor(UnreportedStepExecutor executor) {
+        }
+
+        @Override
+        public void buildWorld() {
+        }
+
+        @Override
+        public void disposeWorld() {
+        }
+
+        @Override
+        public String getSnippet(PickleStep step, String keyword, FunctionNameGenerator functionNameGenerator) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cucumber.benchmarks;
+
+import cucumber.api.event.Event;
+import cucumber.api.event.EventListener;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.formatter.PluginFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The cost per event of each built-in plugin. The events of a run of {@link Fixtures#formatterFeature()}
+ * are recorded once and sent to a new plugin on every invocation, so the result is the average time a
+ * plugin takes to handle an event, including writing its report at the end of the run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatterBenchmark {
+    @Param({"json", "json-stream", "html", "pretty", "progress", "junit", "testng", "rerun", "usage", "event-log", "duration-history"})
+    public String plugin;
+
+    private List<Event> events;
+    private File directory;
+    private EventBus bus;
+
+    @Setup(Level.Trial)
+    public void recordEvents() throws IOException {
+        events = Fixtures.record(Fixtures.parse(Collections.singletonList(
+                Fixtures.resource("features/shop.feature", Fixtures.formatterFeature()))));
+        if (events.size() != Fixtures.FORMATTER_EVENTS) {
+            throw new CucumberException("Expected " + Fixtures.FORMATTER_EVENTS + " events, recorded " + events.size());
+        }
+        directory = File.createTempFile("cucumber-benchmarks", "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Couldn't create " + directory);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createPlugin() {
+        // Directory plugins get a directory, the others a file in it
+        String path = new File(directory, asList("html", "event-log").contains(plugin) ? plugin : plugin + ".out").getPath();
+        bus = new EventBus(TimeService.SYSTEM);
+        ((EventListener) new PluginFactory().create(plugin + ":" + path)).setEventPublisher(bus);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteReports() {
+        delete(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Fixtures.FORMATTER_EVENTS)
+    public void sendEvents() {
+        for (Event event : events) {
+            bus.send(event);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,70 @@
+package cucumber.benchmarks;
+
+import cucumber.runtime.RuntimeGlue;
+import cucumber.runtime.StepDefinitionMatch;
+import gherkin.pickles.PickleStep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finding the step definition of a step, with glue of different sizes.
+ * <p/>
+ * {@link #uncached()} cycles through more step texts than {@link RuntimeGlue} caches matches for, so
+ * every step is matched against the step definitions. {@link #cached()} matches the same step again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepDefinitionMatchBenchmark {
+    private static final int STEP_TEXTS = 8192;
+
+    @Param({"100", "1000", "10000"})
+    public int stepDefinitions;
+
+    private RuntimeGlue glue;
+    private PickleStep[] steps;
+    private PickleStep undefinedStep;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        glue = Fixtures.glue(stepDefinitions);
+        steps = new PickleStep[STEP_TEXTS];
+        for (int i = 0; i < steps.length; i++) {
+            // Spread over all step definitions, with different arguments so the texts differ
+            steps[i] = Fixtures.step(Fixtures.fillerStepText((i * 7919) % stepDefinitions, i, "item " + i));
+        }
+        undefinedStep = Fixtures.step("the customer orders 12 bananas that nobody defined");
+    }
+
+    @Benchmark
+    public StepDefinitionMatch uncached() {
+        PickleStep step = steps[next];
+        next = (next + 1) % steps.length;
+        return glue.stepDefinitionMatch("benchmark.feature", step);
+    }
+
+    @Benchmark
+    public StepDefinitionMatch cached() {
+        return glue.stepDefinitionMatch("benchmark.feature", steps[0]);
+    }
+
+    @Benchmark
+    public StepDefinitionMatch undefined() {
+        return glue.stepDefinitionMatch("benchmark.feature", undefinedStep);
+    }
+}
@@ -0,0 +1,70 @@
+package cucumber.benchmarks;
+
+import cucumber.api.Scenario;
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.When;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The glue of the benchmarks. {@link #filler(int, String)} has no annotation, {@link Fixtures}
+ * makes as many step definitions with it as a benchmark asks for.
+ */
+public class Steps {
+    public enum Color {
+        RED, GREEN, BLUE
+    }
+
+    public static class Item {
+        public String name;
+        public int quantity;
+        public double price;
+    }
+
+    @Given("^a customer named \"([^\"]*)\"$")
+    public void customerNamed(String name) {
+    }
+
+    @Given("^the basket holds (\\d+) items at ([\\d.]+) each$")
+    public void basketHolds(int count, double price) {
+    }
+
+    @Given("^the basket is (RED|GREEN|BLUE)$")
+    public void basketIs(Color color) {
+    }
+
+    @Given("^the order note says:$")
+    public void orderNote(String note) {
+    }
+
+    @Given("^the stock is:$")
+    public void stock(List<Item> items) {
+    }
+
+    @Given("^the rows are:$")
+    public void rows(List<List<String>> rows) {
+    }
+
+    @Given("^the records are:$")
+    public void records(List<Map<String, String>> records) {
+    }
+
+    @When("^the order is placed$")
+    public void orderIsPlaced() {
+    }
+
+    public void filler(int count, String name) {
+    }
+
+    @Before
+    public void beforeScenario(Scenario scenario) {
+    }
+
+    @After
+    public void afterScenario(Scenario scenario) {
+        scenario.write("order placed");
+    }
+}
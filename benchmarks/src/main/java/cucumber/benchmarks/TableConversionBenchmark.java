@@ -0,0 +1,77 @@
+package cucumber.benchmarks;
+
+import cucumber.api.DataTable;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.ParameterInfo;
+import cucumber.runtime.table.TableConverter;
+import cucumber.runtime.xstream.LocalizedXStreams;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting a data table to the types step definitions declare: lists of lists, lists of maps and
+ * lists of POJOs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableConversionBenchmark {
+    @Param({"10", "100"})
+    public int rows;
+
+    private TableConverter tableConverter;
+    private DataTable table;
+    private Type listsType;
+    private Type mapsType;
+    private Type pojosType;
+
+    @Setup
+    public void setUp() {
+        LocalizedXStreams.LocalizedXStream xStream = new LocalizedXStreams(getClass().getClassLoader()).get(Locale.ENGLISH);
+        tableConverter = new TableConverter(xStream, new ParameterInfo(null, null, null, null));
+        table = new DataTable(Fixtures.stockTable(rows), tableConverter);
+        listsType = parameterType("rows");
+        mapsType = parameterType("records");
+        pojosType = parameterType("stock");
+    }
+
+    @Benchmark
+    public Object toLists() {
+        return tableConverter.convert(table, listsType, false);
+    }
+
+    @Benchmark
+    public Object toMaps() {
+        return tableConverter.convert(table, mapsType, false);
+    }
+
+    @Benchmark
+    public Object toPojos() {
+        return tableConverter.convert(table, pojosType, false);
+    }
+
+    private static Type parameterType(String methodName) {
+        try {
+            return Steps.class.getMethod(methodName, List.class).getGenericParameterTypes()[0];
+        } catch (NoSuchMethodException e) {
+            throw new CucumberException(e);
+        }
+    }
+}
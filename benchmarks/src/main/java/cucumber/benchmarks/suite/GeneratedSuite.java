@@ -0,0 +1,14 @@
+package cucumber.benchmarks.suite;
+
+import cucumber.api.CucumberOptions;
+import cucumber.api.junit.Cucumber;
+import org.junit.runner.RunWith;
+
+/**
+ * Runs a generated suite with JUnit. The features are given by {@link Throughput} in the
+ * {@code cucumber.options} system property.
+ */
+@RunWith(Cucumber.class)
+@CucumberOptions(glue = "cucumber.benchmarks.suite", strict = true)
+public class GeneratedSuite {
+}
@@ -0,0 +1,117 @@
+package cucumber.benchmarks.suite;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Writes a suite of features for {@link SuiteSteps}. Every feature has a background, a number of scenarios
+ * with a table and a doc string, and a number of scenario outlines. The step texts differ between scenarios,
+ * as they do in real suites, so they aren't all matched once and then found in the match cache.
+ * <p/>
+ * The suite only depends on the sizes, so runs of the same sizes can be compared.
+ */
+public class SuiteGenerator {
+    private static final String[] SERVICES = {"inventory", "billing", "shipping", "catalog", "accounts"};
+    private static final String[] CURRENCIES = {"EUR", "USD", "GBP", "NOK"};
+
+    private final int features;
+    private final int scenarios;
+    private final int outlines;
+    private final int examples;
+    private final int tableRows;
+
+    /**
+     * @param features  the number of features
+     * @param scenarios the number of scenarios in each feature
+     * @param outlines  the number of scenario outlines in each feature
+     * @param examples  the number of example rows of each outline
+     * @param tableRows the number of rows of the table in each scenario
+     */
+    public SuiteGenerator(int features, int scenarios, int outlines, int examples, int tableRows) {
+        this.features = features;
+        this.scenarios = scenarios;
+        this.outlines = outlines;
+        this.examples = examples;
+        this.tableRows = tableRows;
+    }
+
+    /**
+     * @return the number of pickles in the suite
+     */
+    public int getScenarioCount() {
+        return features * (scenarios + outlines * examples);
+    }
+
+    /**
+     * Writes the features to {@code directory}, replacing the features of an earlier suite.
+     */
+    public void write(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Couldn't create " + directory);
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().endsWith(".feature") && !file.delete()) {
+                    throw new IOException("Couldn't delete " + file);
+                }
+            }
+        }
+        for (int i = 0; i < features; i++) {
+            Writer out = new OutputStreamWriter(new FileOutputStream(new File(directory, String.format("generated_%05d.feature", i))), "UTF-8");
+            try {
+                out.write(feature(i));
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    String feature(int index) {
+        StringBuilder source = new StringBuilder();
+        source.append("@generated\n");
+        source.append("Feature: Generated feature ").append(index).append("\n");
+        source.append("\n");
+        source.append("  Background:\n");
+        source.append("    Given the ").append(SERVICES[index % SERVICES.length]).append(" service is running\n");
+        for (int i = 0; i < scenarios; i++) {
+            int id = index * scenarios + i;
+            source.append("\n");
+            source.append("  @scenario\n");
+            source.append("  Scenario: Generated scenario ").append(index).append('.').append(i).append("\n");
+            source.append("    Given user \"user-").append(id).append("\" has ").append(id % 1000).append(" credits\n");
+            source.append("    And the following accounts exist:\n");
+            source.append("      | name | balance | currency |\n");
+            for (int row = 0; row < tableRows; row++) {
+                source.append("      | account-").append(id).append('-').append(row).append(" | ").append(row * 100)
+                        .append(" | ").append(CURRENCIES[row % CURRENCIES.length]).append(" |\n");
+            }
+            source.append("    When the user requests ").append(id % 7 + 1).append(" items of \"product-").append(id % 97).append("\"\n");
+            source.append("    Then the request succeeds\n");
+            source.append("    And the response contains:\n");
+            source.append("      \"\"\"\n");
+            source.append("      Order ").append(id).append(" for user-").append(id).append("\n");
+            source.append("      \"\"\"\n");
+        }
+        for (int i = 0; i < outlines; i++) {
+            source.append("\n");
+            source.append("  @outline\n");
+            source.append("  Scenario Outline: Generated outline ").append(index).append('.').append(i).append("\n");
+            source.append("    Given user \"<user>\" has <credits> credits\n");
+            source.append("    When the user requests <quantity> items of \"<product>\"\n");
+            source.append("    Then the request <outcome>\n");
+            source.append("\n");
+            source.append("    Examples:\n");
+            source.append("      | user | credits | quantity | product | outcome |\n");
+            for (int row = 0; row < examples; row++) {
+                int id = (index * outlines + i) * examples + row;
+                source.append("      | buyer-").append(id).append(" | ").append(id % 1000).append(" | ").append(row % 7 + 1)
+                        .append(" | product-").append(id % 97).append(" | ").append(row % 5 == 4 ? "fails" : "succeeds").append(" |\n");
+            }
+        }
+        return source.toString();
+    }
+}
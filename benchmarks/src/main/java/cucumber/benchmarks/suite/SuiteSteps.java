@@ -0,0 +1,53 @@
+package cucumber.benchmarks.suite;
+
+import cucumber.api.java.After;
+import cucumber.api.java.Before;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+
+import java.util.List;
+
+/**
+ * The glue of the suites written by {@link SuiteGenerator}. The step definitions do nothing, so a run of a
+ * suite only measures Cucumber itself.
+ */
+public class SuiteSteps {
+    public static class Account {
+        public String name;
+        public int balance;
+        public String currency;
+    }
+
+    @Before
+    public void before() {
+    }
+
+    @Given("^the (\\w+) service is running$")
+    public void serviceIsRunning(String service) {
+    }
+
+    @Given("^user \"([^\"]*)\" has (\\d+) credits$")
+    public void userHasCredits(String user, int credits) {
+    }
+
+    @Given("^the following accounts exist:$")
+    public void accountsExist(List<Account> accounts) {
+    }
+
+    @When("^the user requests (\\d+) items? of \"([^\"]*)\"$")
+    public void userRequests(int quantity, String product) {
+    }
+
+    @Then("^the request (succeeds|fails)$")
+    public void requestOutcome(String outcome) {
+    }
+
+    @Then("^the response contains:$")
+    public void responseContains(String body) {
+    }
+
+    @After
+    public void after() {
+    }
+}
@@ -0,0 +1,307 @@
+package cucumber.benchmarks.suite;
+
+import cucumber.api.cli.Main;
+import cucumber.runtime.CucumberException;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Runs generated suites end to end, with the command line or with JUnit, and reports how long they take,
+ * how much they allocate and how much the garbage collector has to do.
+ * <p/>
+ * Unlike the JMH benchmarks this measures a whole run: parsing, pickle compilation, matching, hooks, plugins
+ * and the runner. Running it with growing suites shows where the time or memory per scenario stops being
+ * constant.
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar cucumber.benchmarks.suite.Throughput --features 100,1000 --runner junit
+ * </pre>
+ */
+public class Throughput {
+    static final String USAGE = "" +
+            "Usage: java -cp benchmarks.jar cucumber.benchmarks.suite.Throughput [options] [-- cucumber options]\n" +
+            "\n" +
+            "Options:\n" +
+            "\n" +
+            "  --features N[,N...]   Features in a suite, a run is made for every size. Default 100.\n" +
+            "  --scenarios N         Scenarios in each feature. Default 20.\n" +
+            "  --outlines N          Scenario outlines in each feature. Default 5.\n" +
+            "  --examples N          Example rows of each outline. Default 10.\n" +
+            "  --table-rows N        Table rows of each scenario. Default 5.\n" +
+            "  --runner cli|junit    Run with cucumber.api.cli.Main or with JUnit. Default cli.\n" +
+            "  --warmup N            Runs of each size that aren't reported. Default 1.\n" +
+            "  --runs N              Reported runs of each size. Default 3.\n" +
+            "  --dir DIR             Where to write the features. Default a temporary directory\n" +
+            "                        that is deleted afterwards.\n" +
+            "\n" +
+            "The cucumber options after -- are added to every run, for instance -- --plugin json:report.json\n" +
+            "or -- --threads 4. The null plugin is used if no plugin is given.\n";
+
+    private List<Integer> featureCounts = asList(100);
+    private int scenarios = 20;
+    private int outlines = 5;
+    private int examples = 10;
+    private int tableRows = 5;
+    private boolean junit = false;
+    private int warmup = 1;
+    private int runs = 3;
+    private File directory;
+    private final List<String> cucumberOptions = new ArrayList<String>();
+
+    public static void main(String[] argv) throws Exception {
+        Throughput throughput = new Throughput();
+        try {
+            throughput.parse(new ArrayList<String>(asList(argv)));
+        } catch (CucumberException e) {
+            System.err.println(e.getMessage());
+            System.err.println();
+            System.err.print(USAGE);
+            System.exit(2);
+        }
+        throughput.run();
+    }
+
+    void parse(List<String> args) {
+        while (!args.isEmpty()) {
+            String arg = args.remove(0).trim();
+            if (arg.equals("--")) {
+                cucumberOptions.addAll(args);
+                args.clear();
+            } else if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.print(USAGE);
+                System.exit(0);
+            } else if (arg.equals("--features")) {
+                featureCounts = new ArrayList<Integer>();
+                for (String count : value(arg, args).split(",")) {
+                    featureCounts.add(parseCount(arg, count.trim()));
+                }
+            } else if (arg.equals("--scenarios")) {
+                scenarios = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--outlines")) {
+                outlines = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--examples")) {
+                examples = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--table-rows")) {
+                tableRows = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--runner")) {
+                String runner = value(arg, args);
+                if (!runner.equals("cli") && !runner.equals("junit")) {
+                    throw new CucumberException("--runner must be cli or junit, but was: " + runner);
+                }
+                junit = runner.equals("junit");
+            } else if (arg.equals("--warmup")) {
+                warmup = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--runs")) {
+                runs = parseCount(arg, value(arg, args));
+            } else if (arg.equals("--dir")) {
+                directory = new File(value(arg, args));
+            } else {
+                throw new CucumberException("Unknown option: " + arg);
+            }
+        }
+        if (!cucumberOptions.contains("--plugin") && !cucumberOptions.contains("-p")) {
+            cucumberOptions.addAll(asList("--plugin", "null", "--plugin", "null_summary"));
+        }
+    }
+
+    void run() throws IOException {
+        boolean temporary = directory == null;
+        if (temporary) {
+            directory = File.createTempFile("cucumber-suite", "");
+            if (!directory.delete() || !directory.mkdir()) {
+                throw new IOException("Couldn't create " + directory);
+            }
+        }
+        if (junit) {
+            // Read once by cucumber.runtime.Env, so the suites of all sizes are written to the same directory
+            System.setProperty("cucumber.options", "'" + directory.getAbsolutePath() + "' " + join(cucumberOptions));
+        }
+        try {
+            System.out.printf("%-6s %8s %10s %10s %12s %6s %9s %14s %16s %14s%n", "runner", "features", "scenarios", "wall (ms)",
+                    "scenarios/s", "gcs", "gc (ms)", "allocated (MB)", "per scenario (KB)", "peak heap (MB)");
+            for (int featureCount : featureCounts) {
+                SuiteGenerator generator = new SuiteGenerator(featureCount, scenarios, outlines, examples, tableRows);
+                generator.write(directory);
+                for (int i = 0; i < warmup + runs; i++) {
+                    Stats stats = measure();
+                    if (i >= warmup) {
+                        print(featureCount, generator.getScenarioCount(), stats);
+                    }
+                }
+            }
+        } finally {
+            if (temporary) {
+                delete(directory);
+            }
+        }
+    }
+
+    private Stats measure() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+        Map<Long, Long> allocatedBefore = allocatedBytesByThread();
+        Stats before = Stats.now();
+        runSuite();
+        Stats after = Stats.now();
+        Map<Long, Long> allocatedAfter = allocatedBytesByThread();
+
+        long allocatedBytes = allocatedBefore == null ? -1 : 0;
+        if (allocatedBefore != null) {
+            for (Map.Entry<Long, Long> thread : allocatedAfter.entrySet()) {
+                Long bytesBefore = allocatedBefore.get(thread.getKey());
+                allocatedBytes += thread.getValue() - (bytesBefore != null ? bytesBefore : 0);
+            }
+        }
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        return new Stats(after.nanos - before.nanos, after.gcCount - before.gcCount, after.gcMillis - before.gcMillis,
+                allocatedBytes, peakHeap);
+    }
+
+    private void runSuite() {
+        if (junit) {
+            Result result = JUnitCore.runClasses(GeneratedSuite.class);
+            if (!result.wasSuccessful()) {
+                throw new CucumberException("The generated suite failed: " + result.getFailures().get(0).getMessage());
+            }
+            return;
+        }
+        List<String> argv = new ArrayList<String>();
+        argv.add(directory.getAbsolutePath());
+        argv.addAll(asList("--glue", "cucumber.benchmarks.suite", "--strict"));
+        argv.addAll(cucumberOptions);
+        byte exitStatus;
+        try {
+            exitStatus = Main.run(argv.toArray(new String[argv.size()]), Thread.currentThread().getContextClassLoader());
+        } catch (IOException e) {
+            throw new CucumberException(e);
+        }
+        if (exitStatus != 0) {
+            throw new CucumberException("The generated suite failed");
+        }
+    }
+
+    private void print(int featureCount, int scenarioCount, Stats stats) {
+        double seconds = stats.nanos / 1e9;
+        String allocated = stats.allocatedBytes < 0 ? "n/a" : String.format("%.1f", stats.allocatedBytes / 1048576.0);
+        String perScenario = stats.allocatedBytes < 0 ? "n/a" : String.format("%.1f", stats.allocatedBytes / 1024.0 / scenarioCount);
+        System.out.printf("%-6s %8d %10d %10d %12.0f %6d %9d %14s %16s %14.1f%n", junit ? "junit" : "cli", featureCount, scenarioCount,
+                stats.nanos / 1000000, scenarioCount / seconds, stats.gcCount, stats.gcMillis, allocated, perScenario,
+                stats.peakHeapBytes / 1048576.0);
+    }
+
+    /**
+     * @return the bytes allocated by each live thread, by thread id, or null if the JVM doesn't count them
+     */
+    private static Map<Long, Long> allocatedBytesByThread() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+        if (!sunThreads.isThreadAllocatedMemorySupported() || !sunThreads.isThreadAllocatedMemoryEnabled()) {
+            return null;
+        }
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = sunThreads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> bytesByThread = new HashMap<Long, Long>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) {
+                bytesByThread.put(ids[i], bytes[i]);
+            }
+        }
+        return bytesByThread;
+    }
+
+    private static String value(String option, List<String> args) {
+        if (args.isEmpty()) {
+            throw new CucumberException(option + " needs a value");
+        }
+        return args.remove(0);
+    }
+
+    private static int parseCount(String option, String value) {
+        try {
+            int count = Integer.parseInt(value);
+            if (count < 0) {
+                throw new CucumberException(option + " must not be negative, but was: " + value);
+            }
+            return count;
+        } catch (NumberFormatException e) {
+            throw new CucumberException(option + " must be a number, but was: " + value, e);
+        }
+    }
+
+    private static String join(List<String> strings) {
+        StringBuilder joined = new StringBuilder();
+        for (String string : strings) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            joined.append(string.contains(" ") ? "'" + string + "'" : string);
+        }
+        return joined.toString();
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /**
+     * What a run took. Allocations are counted for the threads that are alive when the run ends, so with
+     * {@code --threads} the worker threads are only counted if they are still around.
+     */
+    static class Stats {
+        final long nanos;
+        final long gcCount;
+        final long gcMillis;
+        final long allocatedBytes;
+        final long peakHeapBytes;
+
+        Stats(long nanos, long gcCount, long gcMillis, long allocatedBytes, long peakHeapBytes) {
+            this.nanos = nanos;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+
+        static Stats now() {
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(collector.getCollectionCount(), 0);
+                gcMillis += Math.max(collector.getCollectionTime(), 0);
+            }
+            return new Stats(System.nanoTime(), gcCount, gcMillis, 0, 0);
+        }
+    }
+}
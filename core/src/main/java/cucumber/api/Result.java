@@ -12,6 +12,8 @@ public class Result {
     private final Long duration;
     private final Throwable error;
     private final List<String> snippets;
+    private final Long cpuTime;
+    private final Long allocatedBytes;
     public static final Result SKIPPED = new Result(Result.Type.SKIPPED, null, null);
     public static enum Type {
         PASSED,
@@ -55,10 +57,26 @@ public class Result {
      * @param snippets
      */
     public Result(Result.Type status, Long duration, Throwable error, List<String> snippets) {
+        this(status, duration, error, snippets, null, null);
+    }
+
+    /**
+     * Used at runtime, when the resources of the steps are measured
+     *
+     * @param status
+     * @param duration
+     * @param error
+     * @param snippets
+     * @param cpuTime        the CPU time in nanoseconds, or null if it wasn't measured
+     * @param allocatedBytes the bytes allocated, or null if they weren't measured
+     */
+    public Result(Result.Type status, Long duration, Throwable error, List<String> snippets, Long cpuTime, Long allocatedBytes) {
         this.status = status;
         this.duration = duration;
         this.error = error;
         this.snippets = snippets;
+        this.cpuTime = cpuTime;
+        this.allocatedBytes = allocatedBytes;
     }
 
     public Result.Type getStatus() {
@@ -69,6 +87,22 @@ public class Result {
         return duration;
     }
 
+    /**
+     * @return the CPU time the step took on its thread in nanoseconds, or null if it wasn't measured
+     * (see {@code --measure-resources})
+     */
+    public Long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * @return the bytes the step allocated on its thread, or null if they weren't measured
+     * (see {@code --measure-resources})
+     */
+    public Long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
     public String getErrorMessage() {
         return error != null ? getErrorMessage(error) : null;
     }
@@ -9,6 +9,7 @@ import gherkin.pickles.Argument;
 import gherkin.pickles.PickleStep;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public abstract class TestStep {
@@ -54,6 +55,8 @@ public abstract class TestStep {
     public Result run(EventBus bus, String language, Scenario scenario, boolean skipSteps) {
         Long startTime = bus.getTime();
         bus.send(new TestStepStarted(startTime, this));
+        long startCpuTime = bus.getCpuTime();
+        long startAllocatedBytes = bus.getAllocatedBytes();
         Result.Type status;
         Throwable error = null;
         try {
@@ -62,8 +65,10 @@ public abstract class TestStep {
             error = t;
             status = mapThrowableToStatus(t);
         }
+        Long cpuTime = difference(startCpuTime, bus.getCpuTime());
+        Long allocatedBytes = difference(startAllocatedBytes, bus.getAllocatedBytes());
         Long stopTime = bus.getTime();
-        Result result = mapStatusToResult(status, error, stopTime - startTime);
+        Result result = mapStatusToResult(status, error, stopTime - startTime, cpuTime, allocatedBytes);
         bus.send(new TestStepFinished(stopTime, this, result));
         return result;
     }
@@ -92,7 +97,7 @@ public abstract class TestStep {
         return Result.Type.FAILED;
     }
 
-    private Result mapStatusToResult(Result.Type status, Throwable error, long duration) {
+    private Result mapStatusToResult(Result.Type status, Throwable error, long duration, Long cpuTime, Long allocatedBytes) {
         Long resultDuration = duration;
         if (status == Result.Type.SKIPPED) {
             return Result.SKIPPED;
@@ -100,6 +105,11 @@ public abstract class TestStep {
         if (status == Result.Type.UNDEFINED) {
             return new Result(status, null, null, definitionMatch.getSnippets());
         }
-        return new Result(status, resultDuration, error);
+        return new Result(status, resultDuration, error, Collections.<String>emptyList(), cpuTime, allocatedBytes);
+    }
+
+    private static Long difference(long start, long stop) {
+        // -1 when the resource isn't measured
+        return start < 0 || stop < 0 ? null : stop - start;
     }
 }
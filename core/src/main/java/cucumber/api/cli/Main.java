@@ -1,11 +1,18 @@
 package cucumber.api.cli;
 
+import cucumber.api.Result;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestStepFinished;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
 import cucumber.runtime.ClassFinder;
 import cucumber.runtime.Runtime;
 import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.IndexedResourceLoader;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.remote.EventLog;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -29,11 +36,37 @@ public class Main {
      */
     public static byte run(String[] argv, ClassLoader classLoader) throws IOException {
         RuntimeOptions runtimeOptions = new RuntimeOptions(new ArrayList<String>(asList(argv)));
+        if (runtimeOptions.getReplayDir() != null) {
+            return replay(runtimeOptions);
+        }
 
-        ResourceLoader resourceLoader = new MultiLoader(classLoader);
+        ResourceLoader resourceLoader = new IndexedResourceLoader(new MultiLoader(classLoader), classLoader);
         ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
         Runtime runtime = new Runtime(resourceLoader, classFinder, classLoader, runtimeOptions);
         runtime.run();
         return runtime.exitStatus();
     }
+
+    /**
+     * Sends the events of an event log to the formatter plugins.
+     *
+     * @return 0 if the recorded run was successful, 1 if it was not
+     */
+    private static byte replay(final RuntimeOptions runtimeOptions) throws IOException {
+        final byte[] exitStatus = new byte[]{0x0};
+        EventBus bus = new EventBus(TimeService.SYSTEM);
+        bus.registerHandlerFor(TestStepFinished.class, new EventHandler<TestStepFinished>() {
+            @Override
+            public void receive(TestStepFinished event) {
+                Result result = event.result;
+                if (result.is(Result.Type.FAILED) || (runtimeOptions.isStrict() && (result.is(Result.Type.PENDING) || result.is(Result.Type.UNDEFINED)))) {
+                    exitStatus[0] = 0x1;
+                }
+            }
+        });
+        runtimeOptions.setEventBus(bus);
+        runtimeOptions.getPlugins();
+        EventLog.replay(runtimeOptions.getReplayDir(), bus);
+        return exitStatus[0];
+    }
 }
@@ -0,0 +1,12 @@
+package cucumber.api.event;
+
+/**
+ * Implement this interface as well as {@link cucumber.api.formatter.Formatter} if your plugin
+ * wants the events as soon as they are sent.
+ * <p/>
+ * Other plugins get the events of a test case in one go when it has finished if the test cases run
+ * in parallel. These plugins get them right away, on the thread that sends them, so the events of
+ * different test cases are interleaved and the handlers must be thread safe.
+ */
+public interface ConcurrentEventListener extends EventListener {
+}
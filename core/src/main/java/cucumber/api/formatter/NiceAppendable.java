@@ -3,22 +3,67 @@ package cucumber.api.formatter;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.PrintStream;
 
 /**
  * A nice appendable that doesn't throw checked exceptions
+ * <p/>
+ * When the underlying appendable is {@link Flushable} it is flushed according to a
+ * {@link FlushPolicy}. By default it is flushed after every append.
  */
 public class NiceAppendable {
     private static final CharSequence NL = "\n";
     private final Appendable out;
+    private final FlushPolicy flushPolicy;
+
+    /**
+     * When to flush the underlying appendable.
+     */
+    public enum FlushPolicy {
+        /**
+         * After every append.
+         */
+        ALWAYS,
+        /**
+         * After every line.
+         */
+        LINE,
+        /**
+         * When {@link NiceAppendable#testCaseFinished()} is called.
+         */
+        TEST_CASE,
+        /**
+         * Only when the appendable is closed.
+         */
+        CLOSE;
+
+        /**
+         * Picks the policy for a plugin's output.
+         *
+         * @param out           the output of the plugin
+         * @param consolePolicy the policy when {@code out} is a console
+         * @param filePolicy    the policy otherwise
+         * @return {@code consolePolicy} when {@code out} is a {@link PrintStream} such as
+         * {@code System.out}, {@code filePolicy} otherwise.
+         */
+        public static FlushPolicy forOutput(Appendable out, FlushPolicy consolePolicy, FlushPolicy filePolicy) {
+            return out instanceof PrintStream ? consolePolicy : filePolicy;
+        }
+    }
 
     public NiceAppendable(Appendable out) {
+        this(out, FlushPolicy.ALWAYS);
+    }
+
+    public NiceAppendable(Appendable out, FlushPolicy flushPolicy) {
         this.out = out;
+        this.flushPolicy = flushPolicy;
     }
 
     public NiceAppendable append(CharSequence csq) {
         try {
             out.append(csq);
-            tryFlush();
+            flushAfterAppend(csq != null && containsNewLine(csq, 0, csq.length()));
             return this;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -28,7 +73,7 @@ public class NiceAppendable {
     public NiceAppendable append(CharSequence csq, int start, int end) {
         try {
             out.append(csq, start, end);
-            tryFlush();
+            flushAfterAppend(csq != null && containsNewLine(csq, start, end));
             return this;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -38,7 +83,7 @@ public class NiceAppendable {
     public NiceAppendable append(char c) {
         try {
             out.append(c);
-            tryFlush();
+            flushAfterAppend(c == '\n');
             return this;
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -55,13 +100,23 @@ public class NiceAppendable {
             buffer.append(csq);
             buffer.append(NL);
             out.append(buffer.toString());
-            tryFlush();
+            flushAfterAppend(true);
             return this;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Tells this appendable that a test case has finished. Flushes unless the policy is
+     * to only flush when closed.
+     */
+    public void testCaseFinished() {
+        if (flushPolicy != FlushPolicy.CLOSE) {
+            tryFlush();
+        }
+    }
+
     public void close() {
         try {
             tryFlush();
@@ -73,6 +128,21 @@ public class NiceAppendable {
         }
     }
 
+    private void flushAfterAppend(boolean endOfLine) {
+        if (flushPolicy == FlushPolicy.ALWAYS || (flushPolicy == FlushPolicy.LINE && endOfLine)) {
+            tryFlush();
+        }
+    }
+
+    private static boolean containsNewLine(CharSequence csq, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (csq.charAt(i) == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private void tryFlush()  {
         if (!(out instanceof Flushable))
             return;
@@ -0,0 +1,187 @@
+package cucumber.runner;
+
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestRunFinished;
+import cucumber.runtime.CucumberException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Publishes the events of an {@link EventBus} to its handlers on a dedicated thread.
+ * <p/>
+ * Plugins that register with this publisher instead of with the bus itself no longer add
+ * their processing time to the test thread. Events are put in a bounded queue and drained
+ * in batches by a single consumer thread, which preserves the order in which the bus
+ * sent them. When the queue is full the sending thread blocks until the consumer has made
+ * room (plugins rely on seeing every event, so events are never dropped).
+ * <p/>
+ * {@link TestRunFinished} acts as a flush barrier: the thread sending it waits until all
+ * queued events, including the {@code TestRunFinished} itself, have been handled. A failure
+ * of a handler is rethrown at that point. The consumer thread is started by the first event
+ * and stops once it has handled the {@code TestRunFinished} and the queue is empty, so a
+ * publisher doesn't keep a thread after its run.
+ * <p/>
+ * Handlers registered directly with the bus (such as the ones updating the statistics) are
+ * not affected and stay synchronous.
+ */
+public class AsyncEventPublisher implements EventPublisher {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_BATCH_SIZE = 256;
+
+    private final EventBus bus;
+    private final BlockingQueue<Object> queue;
+    private final Map<Class<? extends Event>, List<EventHandler>> handlers = new ConcurrentHashMap<Class<? extends Event>, List<EventHandler>>();
+    private volatile Throwable handlerError;
+    private Thread consumer;
+    // Only used by the consumer thread
+    private boolean runFinished;
+
+    public AsyncEventPublisher(EventBus bus) {
+        this(bus, DEFAULT_CAPACITY);
+    }
+
+    public AsyncEventPublisher(EventBus bus, int capacity) {
+        this.bus = bus;
+        this.queue = new ArrayBlockingQueue<Object>(capacity);
+        bus.registerHandlerFor(TestRunFinished.class, new EventHandler<TestRunFinished>() {
+            @Override
+            public void receive(TestRunFinished event) {
+                if (!handlers.isEmpty()) {
+                    // Queued even without handlers for it, it tells the consumer to stop
+                    put(event);
+                    flush();
+                }
+            }
+        });
+    }
+
+    @Override
+    public synchronized <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+        List<EventHandler> list = handlers.get(eventType);
+        if (list == null) {
+            list = new CopyOnWriteArrayList<EventHandler>();
+            handlers.put(eventType, list);
+            if (eventType != TestRunFinished.class) {
+                bus.registerHandlerFor(eventType, new EventHandler<T>() {
+                    @Override
+                    public void receive(T event) {
+                        enqueue(event);
+                    }
+                });
+            }
+        }
+        list.add(handler);
+    }
+
+    /**
+     * Blocks until all events queued so far have been handled.
+     *
+     * @throws CucumberException if a handler failed.
+     */
+    public void flush() {
+        if (handlers.isEmpty()) {
+            return;
+        }
+        CountDownLatch barrier = new CountDownLatch(1);
+        put(barrier);
+        try {
+            barrier.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while waiting for plugins to handle events", e);
+        }
+        Throwable error = handlerError;
+        if (error != null) {
+            handlerError = null;
+            throw new CucumberException("A plugin failed to handle an event", error);
+        }
+    }
+
+    private void enqueue(Event event) {
+        if (handlers.containsKey(event.getClass())) {
+            put(event);
+        }
+    }
+
+    private void put(Object item) {
+        try {
+            queue.put(item);
+            startConsumer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while queueing an event for plugins", e);
+        }
+    }
+
+    private synchronized void startConsumer() {
+        if (consumer == null) {
+            consumer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    consume();
+                }
+            }, "cucumber-plugin-events");
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+    }
+
+    private void consume() {
+        List<Object> batch = new ArrayList<Object>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+            for (Object item : batch) {
+                if (item instanceof CountDownLatch) {
+                    ((CountDownLatch) item).countDown();
+                } else {
+                    dispatch((Event) item);
+                    runFinished = item instanceof TestRunFinished;
+                }
+            }
+            batch.clear();
+            if (runFinished && stopIfIdle()) {
+                return;
+            }
+        }
+    }
+
+    private synchronized boolean stopIfIdle() {
+        // Events put after this start a new consumer
+        if (queue.isEmpty()) {
+            consumer = null;
+            return true;
+        }
+        return false;
+    }
+
+    private void dispatch(Event event) {
+        List<EventHandler> eventHandlers = handlers.get(event.getClass());
+        if (eventHandlers == null) {
+            return;
+        }
+        for (EventHandler handler : eventHandlers) {
+            try {
+                //noinspection unchecked: protected by registerHandlerFor
+                handler.receive(event);
+            } catch (Throwable t) {
+                if (handlerError == null) {
+                    handlerError = t;
+                }
+            }
+        }
+    }
+}
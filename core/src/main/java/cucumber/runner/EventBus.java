@@ -8,20 +8,78 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class EventBus implements EventPublisher {
     private final TimeService stopWatch;
-    private Map<Class<? extends Event>, List<EventHandler>> handlers = new HashMap<Class<? extends Event>, List<EventHandler>>();
+    private final ResourceMeter resourceMeter;
+    private final Map<Class<? extends Event>, List<EventHandler>> handlers = new HashMap<Class<? extends Event>, List<EventHandler>>();
+    private final ConcurrentMap<Class<? extends Event>, List<EventHandler>> concurrentHandlers = new ConcurrentHashMap<Class<? extends Event>, List<EventHandler>>();
+    private final EventPublisher concurrentEventPublisher = new EventPublisher() {
+        @Override
+        public <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+            List<EventHandler> list = concurrentHandlers.get(eventType);
+            if (list == null) {
+                List<EventHandler> newList = new CopyOnWriteArrayList<EventHandler>();
+                list = concurrentHandlers.putIfAbsent(eventType, newList);
+                if (list == null) {
+                    list = newList;
+                }
+            }
+            list.add(handler);
+        }
+    };
 
     public EventBus(TimeService stopWatch) {
+        this(stopWatch, ResourceMeter.NONE);
+    }
+
+    public EventBus(TimeService stopWatch, ResourceMeter resourceMeter) {
         this.stopWatch = stopWatch;
+        this.resourceMeter = resourceMeter;
     }
 
     public Long getTime() {
         return stopWatch.time();
     }
 
+    /**
+     * @return the CPU time of the current thread in nanoseconds, or -1 if it isn't measured
+     */
+    public long getCpuTime() {
+        return resourceMeter.cpuTime();
+    }
+
+    /**
+     * @return the bytes allocated by the current thread, or -1 if they aren't measured
+     */
+    public long getAllocatedBytes() {
+        return resourceMeter.allocatedBytes();
+    }
+
+    ResourceMeter getResourceMeter() {
+        return resourceMeter;
+    }
+
+    /**
+     * Handlers registered with this publisher get the events as soon as they are sent, on the thread that
+     * sends them. When test cases run in parallel the events of different test cases are interleaved and
+     * the handlers are called concurrently. See {@link cucumber.api.event.ConcurrentEventListener}.
+     *
+     * @return the publisher for handlers that don't need the events of a test case together
+     */
+    public EventPublisher getConcurrentEventPublisher() {
+        return concurrentEventPublisher;
+    }
+
     public void send(Event event) {
+        sendToConcurrentHandlers(event);
+        sendToHandlers(event);
+    }
+
+    synchronized void sendToHandlers(Event event) {
         if (handlers.containsKey(event.getClass())) {
             for (EventHandler handler : handlers.get(event.getClass())) {
                 //noinspection unchecked: protected by registerHandlerFor
@@ -30,8 +88,18 @@ public class EventBus implements EventPublisher {
         }
     }
 
+    void sendToConcurrentHandlers(Event event) {
+        List<EventHandler> list = concurrentHandlers.get(event.getClass());
+        if (list != null) {
+            for (EventHandler handler : list) {
+                //noinspection unchecked: protected by registerHandlerFor
+                handler.receive(event);
+            }
+        }
+    }
+
     @Override
-    public <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+    public synchronized <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
         if (handlers.containsKey(eventType)) {
             handlers.get(eventType).add(handler);
         } else {
@@ -0,0 +1,61 @@
+package cucumber.runner;
+
+/**
+ * Measures the resources the current thread has used so far. What a step used is the difference
+ * between the measurements before and after it.
+ */
+public interface ResourceMeter {
+    /**
+     * @return the CPU time of the current thread in nanoseconds, or -1 if it isn't measured
+     */
+    long cpuTime();
+
+    /**
+     * @return the bytes allocated by the current thread, or -1 if they aren't measured
+     */
+    long allocatedBytes();
+
+    ResourceMeter NONE = new ResourceMeter() {
+        @Override
+        public long cpuTime() {
+            return -1;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return -1;
+        }
+    };
+
+    class Stub implements ResourceMeter {
+        private final long cpuTime;
+        private final long allocatedBytes;
+        private final ThreadLocal<long[]> current = new ThreadLocal<long[]>();
+
+        public Stub(long cpuTime, long allocatedBytes) {
+            this.cpuTime = cpuTime;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        @Override
+        public long cpuTime() {
+            return next(0, cpuTime);
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return next(1, allocatedBytes);
+        }
+
+        private long next(int index, long increment) {
+            long[] values = current.get();
+            if (values == null) {
+                values = new long[2];
+                current.set(values);
+            }
+            long result = values[index];
+            values[index] += increment;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package cucumber.runner;
+
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event bus used by a single worker thread when pickles are executed in parallel.
+ * <p/>
+ * The events of the test case that is currently running are collected and handed over
+ * to the shared bus in one go when the test case finishes. Plugins listening on the
+ * shared bus will therefore never see the events of concurrently running test cases
+ * interleaved. Handlers registered with the {@link #getConcurrentEventPublisher() concurrent
+ * publisher} of the shared bus get the events right away.
+ */
+public class TestCaseEventBus extends EventBus {
+    private final EventBus delegate;
+    private final List<Event> queue = new ArrayList<Event>();
+
+    public TestCaseEventBus(TimeService stopWatch, EventBus delegate) {
+        super(stopWatch, delegate.getResourceMeter());
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void send(Event event) {
+        delegate.sendToConcurrentHandlers(event);
+        queue.add(event);
+        if (event instanceof TestCaseFinished) {
+            flush();
+        }
+    }
+
+    @Override
+    public EventPublisher getConcurrentEventPublisher() {
+        return delegate.getConcurrentEventPublisher();
+    }
+
+    @Override
+    public <T extends Event> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+        delegate.registerHandlerFor(eventType, handler);
+    }
+
+    private void flush() {
+        synchronized (delegate) {
+            for (Event event : queue) {
+                delegate.sendToHandlers(event);
+            }
+        }
+        queue.clear();
+    }
+}
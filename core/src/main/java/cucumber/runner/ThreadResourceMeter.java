@@ -0,0 +1,66 @@
+package cucumber.runner;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the CPU time and allocations of the current thread with the thread MXBean.
+ * <p/>
+ * Allocations are only counted on JVMs whose thread MXBean is a {@code com.sun.management.ThreadMXBean}
+ * (HotSpot and OpenJ9). Turning the measurements on costs a little time on every step, which is why
+ * they are only made with {@code --measure-resources}.
+ */
+public final class ThreadResourceMeter implements ResourceMeter {
+    private final ThreadMXBean threads;
+    private final boolean cpuTimeSupported;
+    private final com.sun.management.ThreadMXBean allocations;
+
+    private ThreadResourceMeter(ThreadMXBean threads, com.sun.management.ThreadMXBean allocations) {
+        this.threads = threads;
+        this.cpuTimeSupported = threads.isCurrentThreadCpuTimeSupported();
+        this.allocations = allocations;
+    }
+
+    /**
+     * @return a meter for the threads of this JVM, or {@link ResourceMeter#NONE} if it can't measure either
+     */
+    public static ResourceMeter create() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads.isCurrentThreadCpuTimeSupported() && !threads.isThreadCpuTimeEnabled()) {
+                threads.setThreadCpuTimeEnabled(true);
+            }
+            com.sun.management.ThreadMXBean allocations = null;
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                allocations = (com.sun.management.ThreadMXBean) threads;
+                if (allocations.isThreadAllocatedMemorySupported() && !allocations.isThreadAllocatedMemoryEnabled()) {
+                    allocations.setThreadAllocatedMemoryEnabled(true);
+                }
+                if (!allocations.isThreadAllocatedMemorySupported()) {
+                    allocations = null;
+                }
+            }
+            if (!threads.isCurrentThreadCpuTimeSupported() && allocations == null) {
+                return NONE;
+            }
+            return new ThreadResourceMeter(threads, allocations);
+        } catch (LinkageError e) {
+            // No java.lang.management or com.sun.management, like on Android
+            return NONE;
+        } catch (SecurityException e) {
+            return NONE;
+        } catch (UnsupportedOperationException e) {
+            return NONE;
+        }
+    }
+
+    @Override
+    public long cpuTime() {
+        return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return allocations != null ? allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) : -1;
+    }
+}
@@ -0,0 +1,18 @@
+package cucumber.runtime;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+
+/**
+ * A {@link ClassFinder} that can find the classes with annotated methods without loading
+ * every other class in the package.
+ */
+public interface AnnotatedMethodClassFinder extends ClassFinder {
+    /**
+     * @param packageName     where to look
+     * @param annotationTypes the annotations to look for
+     * @return the classes in {@code packageName} that have a public method, declared or
+     * inherited, annotated with one of {@code annotationTypes}. May contain a few more.
+     */
+    Collection<Class<?>> getClassesWithAnnotatedMethods(String packageName, Collection<? extends Class<? extends Annotation>> annotationTypes);
+}
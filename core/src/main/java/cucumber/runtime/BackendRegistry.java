@@ -0,0 +1,87 @@
+package cucumber.runtime;
+
+import cucumber.runtime.io.ResourceLoader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The backends registered in {@code META-INF/services/cucumber.runtime.Backend} files.
+ * <p/>
+ * The files have the format of {@link java.util.ServiceLoader} provider configuration files,
+ * but backends are created with their {@link ResourceLoader} constructor rather than a no-arg
+ * one. Looking up these files is a lot cheaper than scanning every class in the
+ * {@code cucumber.runtime} package of every jar on the classpath.
+ */
+class BackendRegistry {
+    static final String RESOURCE = "META-INF/services/" + Backend.class.getName();
+
+    private final ClassLoader classLoader;
+    private final Set<String> backendClassNames = new LinkedHashSet<String>();
+
+    BackendRegistry(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        try {
+            Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+            while (resources.hasMoreElements()) {
+                read(resources.nextElement());
+            }
+        } catch (IOException e) {
+            throw new CucumberException("Failed to read " + RESOURCE, e);
+        }
+    }
+
+    private void read(URL url) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String className = (comment == -1 ? line : line.substring(0, comment)).trim();
+                if (className.length() > 0) {
+                    backendClassNames.add(className);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    boolean isEmpty() {
+        return backendClassNames.isEmpty();
+    }
+
+    /**
+     * Creates the registered backends. Backends that can't be loaded, for example because the
+     * language they run isn't on the classpath, are skipped like the package scan skips them.
+     *
+     * @param resourceLoader passed to the constructor of every backend
+     * @return a new instance of every registered backend
+     */
+    Collection<? extends Backend> instantiate(ResourceLoader resourceLoader) {
+        List<Backend> backends = new ArrayList<Backend>();
+        Reflections reflections = new Reflections(null);
+        for (String className : backendClassNames) {
+            Class<? extends Backend> backendClass;
+            try {
+                backendClass = classLoader.loadClass(className).asSubclass(Backend.class);
+            } catch (ClassNotFoundException ignore) {
+                continue;
+            } catch (NoClassDefFoundError ignore) {
+                continue;
+            } catch (ClassCastException e) {
+                throw new CucumberException(className + " is registered in " + RESOURCE + " but isn't a " + Backend.class.getName(), e);
+            }
+            backends.add(reflections.newInstance(new Class[]{ResourceLoader.class}, new Object[]{resourceLoader}, backendClass));
+        }
+        return backends;
+    }
+}
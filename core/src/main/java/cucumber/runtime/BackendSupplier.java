@@ -0,0 +1,11 @@
+package cucumber.runtime;
+
+import java.util.Collection;
+
+/**
+ * Creates a new set of backends. Used when pickles are executed in parallel, where
+ * every worker thread needs backends (and hence worlds and object factories) of its own.
+ */
+public interface BackendSupplier {
+    Collection<? extends Backend> get();
+}
@@ -0,0 +1,207 @@
+package cucumber.runtime;
+
+import gherkin.events.PickleEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How long each pickle took in earlier runs, by pickle id ({@code uri:line}).
+ * <p/>
+ * The file has a line with the duration in milliseconds and the pickle id for every pickle.
+ * A new duration is averaged with the recorded one, so one slow run doesn't reorder the
+ * suite. Pickles that are no longer run keep their entry, so shards that only run part of
+ * the suite can share a file.
+ * <p/>
+ * The history is used to run the longest pickles first when running in parallel, and, read
+ * from {@code --shard-history}, to balance shards by duration instead of by count.
+ */
+public class DurationHistory {
+    private static final String HEADER = "# Cucumber duration history 1";
+    private static final String UTF8 = "UTF-8";
+
+    private final Map<String, Long> durations = new HashMap<String, Long>();
+
+    /**
+     * @param file the history file
+     * @return the history in {@code file}, or an empty history if it doesn't exist or can't be read.
+     */
+    public static DurationHistory load(File file) {
+        DurationHistory history = new DurationHistory();
+        try {
+            BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF8));
+            try {
+                if (!HEADER.equals(in.readLine())) {
+                    return history;
+                }
+                String line;
+                while ((line = in.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab > 0) {
+                        history.durations.put(line.substring(tab + 1), Long.parseLong(line.substring(0, tab)));
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException ignore) {
+            // Scheduling falls back to the order of the features.
+        } catch (NumberFormatException ignore) {
+        }
+        return history;
+    }
+
+    public static String pickleId(PickleEvent pickleEvent) {
+        return pickleId(pickleEvent.uri, pickleEvent.pickle.getLocations().get(0).getLine());
+    }
+
+    public static String pickleId(String uri, int line) {
+        return uri.replace('\\', '/') + ":" + line;
+    }
+
+    public synchronized boolean isEmpty() {
+        return durations.isEmpty();
+    }
+
+    /**
+     * @return the recorded duration in milliseconds, or null if the pickle hasn't been run before.
+     */
+    public synchronized Long getDuration(String pickleId) {
+        return durations.get(pickleId);
+    }
+
+    public synchronized void record(String pickleId, long millis) {
+        Long recorded = durations.get(pickleId);
+        durations.put(pickleId, recorded == null ? millis : (recorded + millis) / 2);
+    }
+
+    /**
+     * @return the recorded duration of the pickle, or the mean of all recorded durations if it
+     * hasn't been run before.
+     */
+    public synchronized long estimate(PickleEvent pickleEvent) {
+        Long duration = durations.get(pickleId(pickleEvent));
+        return duration != null ? duration : mean();
+    }
+
+    /**
+     * @return the pickles sorted by estimated duration, longest first. Pickles with the same
+     * estimate keep their order.
+     */
+    public List<PickleEvent> longestFirst(List<PickleEvent> pickleEvents) {
+        final Map<PickleEvent, Long> estimates = estimates(pickleEvents);
+        List<PickleEvent> sorted = new ArrayList<PickleEvent>(pickleEvents);
+        Collections.sort(sorted, new Comparator<PickleEvent>() {
+            @Override
+            public int compare(PickleEvent a, PickleEvent b) {
+                return estimates.get(b).compareTo(estimates.get(a));
+            }
+        });
+        return sorted;
+    }
+
+    /**
+     * Assigns the pickles to shards so that the shards take about as long. The longest pickle
+     * goes to the shard with the least work so far, until all pickles are assigned. The result
+     * only depends on the pickle ids and the history, so every JVM that reads the same history
+     * computes the same shards.
+     *
+     * @return the shard, from 1 to {@code total}, by pickle id
+     */
+    public Map<String, Integer> assignShards(List<PickleEvent> pickleEvents, int total) {
+        final Map<PickleEvent, Long> estimates = estimates(pickleEvents);
+        List<PickleEvent> sorted = new ArrayList<PickleEvent>(pickleEvents);
+        Collections.sort(sorted, new Comparator<PickleEvent>() {
+            @Override
+            public int compare(PickleEvent a, PickleEvent b) {
+                int byEstimate = estimates.get(b).compareTo(estimates.get(a));
+                return byEstimate != 0 ? byEstimate : pickleId(a).compareTo(pickleId(b));
+            }
+        });
+        long[] loads = new long[total];
+        Map<String, Integer> shards = new HashMap<String, Integer>();
+        for (PickleEvent pickleEvent : sorted) {
+            int leastLoaded = 0;
+            for (int i = 1; i < total; i++) {
+                if (loads[i] < loads[leastLoaded]) {
+                    leastLoaded = i;
+                }
+            }
+            // Pickles without duration still count, so they are spread over the shards too
+            loads[leastLoaded] += Math.max(estimates.get(pickleEvent), 1);
+            shards.put(pickleId(pickleEvent), leastLoaded + 1);
+        }
+        return shards;
+    }
+
+    /**
+     * Writes the history to {@code file}. Failing to write is not an error, the next run is
+     * just scheduled with the older history.
+     */
+    public synchronized void save(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File tmp = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                return;
+            }
+            tmp = File.createTempFile(file.getName(), ".tmp", directory);
+            Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF8));
+            try {
+                out.write(HEADER);
+                out.write('\n');
+                for (Map.Entry<String, Long> entry : new TreeMap<String, Long>(durations).entrySet()) {
+                    out.write(entry.getValue().toString());
+                    out.write('\t');
+                    out.write(entry.getKey());
+                    out.write('\n');
+                }
+            } finally {
+                out.close();
+            }
+            if (tmp.renameTo(file) || (file.delete() && tmp.renameTo(file))) {
+                tmp = null;
+            }
+        } catch (IOException ignore) {
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    private synchronized Map<PickleEvent, Long> estimates(List<PickleEvent> pickleEvents) {
+        long mean = mean();
+        Map<PickleEvent, Long> estimates = new HashMap<PickleEvent, Long>();
+        for (PickleEvent pickleEvent : pickleEvents) {
+            Long duration = durations.get(pickleId(pickleEvent));
+            estimates.put(pickleEvent, duration != null ? duration : mean);
+        }
+        return estimates;
+    }
+
+    private long mean() {
+        if (durations.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (Long duration : durations.values()) {
+            total += duration;
+        }
+        return total / durations.size();
+    }
+}
@@ -15,58 +15,147 @@ import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class FeatureBuilder {
     private static final Charset UTF8 = Charset.forName("UTF-8");
     private final List<CucumberFeature> cucumberFeatures;
     private final char fileSeparatorChar;
-    private final MessageDigest md5;
+    private final FeatureCache featureCache;
     private final Map<String, String> pathsByChecksum = new HashMap<String, String>();
 
     public FeatureBuilder(List<CucumberFeature> cucumberFeatures) {
-        this(cucumberFeatures, File.separatorChar);
+        this(cucumberFeatures, (FeatureCache) null);
+    }
+
+    /**
+     * @param cucumberFeatures the list to add the parsed features to
+     * @param featureCache     cache of previously parsed features, or null to parse every feature
+     */
+    public FeatureBuilder(List<CucumberFeature> cucumberFeatures, FeatureCache featureCache) {
+        this(cucumberFeatures, File.separatorChar, featureCache);
     }
 
     FeatureBuilder(List<CucumberFeature> cucumberFeatures, char fileSeparatorChar) {
+        this(cucumberFeatures, fileSeparatorChar, null);
+    }
+
+    FeatureBuilder(List<CucumberFeature> cucumberFeatures, char fileSeparatorChar, FeatureCache featureCache) {
         this.cucumberFeatures = cucumberFeatures;
         this.fileSeparatorChar = fileSeparatorChar;
-        try {
-            this.md5 = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException e) {
-            throw new CucumberException(e);
-        }
+        this.featureCache = featureCache;
     }
 
     public void parse(Resource resource) {
-        String gherkin = read(resource);
+        add(readAndParse(resource));
+    }
 
-        String checksum = checksum(gherkin);
-        String path = pathsByChecksum.get(checksum);
-        if (path != null) {
+    /**
+     * Reads, checksums and parses {@code resources} on as many threads as there are processors.
+     * <p/>
+     * The features are added in the order of {@code resources}, and of several resources with the
+     * same content the first one is kept, exactly as if each resource was passed to {@link #parse(Resource)}.
+     *
+     * @param resources the feature files to parse
+     */
+    public void parse(List<Resource> resources) {
+        int threads = Math.min(resources.size(), java.lang.Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            for (Resource resource : resources) {
+                parse(resource);
+            }
             return;
         }
-        pathsByChecksum.put(checksum, resource.getPath());
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory("cucumber-feature-parser-"));
+        try {
+            List<Future<ParsedResource>> futures = new ArrayList<Future<ParsedResource>>();
+            for (final Resource resource : resources) {
+                futures.add(executor.submit(new Callable<ParsedResource>() {
+                    @Override
+                    public ParsedResource call() {
+                        return readAndParse(resource);
+                    }
+                }));
+            }
+            for (Future<ParsedResource> future : futures) {
+                add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while parsing features", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CucumberException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    private ParsedResource readAndParse(Resource resource) {
+        String gherkin = read(resource);
+        String checksum = checksum(gherkin);
+        if (featureCache != null) {
+            GherkinDocument cached = featureCache.load(checksum);
+            if (cached != null) {
+                return new ParsedResource(resource.getPath(), gherkin, checksum, cached, null);
+            }
+        }
         Parser<GherkinDocument> parser = new Parser<GherkinDocument>(new AstBuilder());
         TokenMatcher matcher = new TokenMatcher();
         try {
             GherkinDocument gherkinDocument = parser.parse(gherkin, matcher);
-            CucumberFeature feature = new CucumberFeature(gherkinDocument, convertFileSeparatorToForwardSlash(resource.getPath()), gherkin);
-            cucumberFeatures.add(feature);
+            if (featureCache != null) {
+                featureCache.store(checksum, gherkinDocument);
+            }
+            return new ParsedResource(resource.getPath(), gherkin, checksum, gherkinDocument, null);
         } catch (ParserException e) {
-            throw new CucumberException(e);
+            return new ParsedResource(resource.getPath(), gherkin, checksum, null, e);
         }
-     }
+    }
+
+    private void add(ParsedResource parsed) {
+        String path = pathsByChecksum.get(parsed.checksum);
+        if (path != null) {
+            return;
+        }
+        pathsByChecksum.put(parsed.checksum, parsed.path);
+
+        if (parsed.parserException != null) {
+            throw new CucumberException(parsed.parserException);
+        }
+        CucumberFeature feature = new CucumberFeature(parsed.gherkinDocument, convertFileSeparatorToForwardSlash(parsed.path), parsed.gherkin);
+        cucumberFeatures.add(feature);
+    }
 
     private String convertFileSeparatorToForwardSlash(String path) {
         return path.replace(fileSeparatorChar, '/');
     }
 
     private String checksum(String gherkin) {
-        return new BigInteger(1, md5.digest(gherkin.getBytes(UTF8))).toString(16);
+        return new BigInteger(1, md5().digest(gherkin.getBytes(UTF8))).toString(16);
+    }
+
+    private static MessageDigest md5() {
+        // MessageDigest isn't thread safe
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new CucumberException(e);
+        }
     }
 
     public String read(Resource resource) {
@@ -77,4 +166,20 @@ public class FeatureBuilder {
             throw new CucumberException("Failed to read resource:" + resource.getPath(), e);
         }
     }
+
+    private static class ParsedResource {
+        private final String path;
+        private final String gherkin;
+        private final String checksum;
+        private final GherkinDocument gherkinDocument;
+        private final ParserException parserException;
+
+        ParsedResource(String path, String gherkin, String checksum, GherkinDocument gherkinDocument, ParserException parserException) {
+            this.path = path;
+            this.gherkin = gherkin;
+            this.checksum = checksum;
+            this.gherkinDocument = gherkinDocument;
+            this.parserException = parserException;
+        }
+    }
 }
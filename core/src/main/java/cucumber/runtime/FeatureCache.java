@@ -0,0 +1,418 @@
+package cucumber.runtime;
+
+import gherkin.Parser;
+import gherkin.ast.Background;
+import gherkin.ast.Comment;
+import gherkin.ast.DataTable;
+import gherkin.ast.DocString;
+import gherkin.ast.Examples;
+import gherkin.ast.Feature;
+import gherkin.ast.GherkinDocument;
+import gherkin.ast.Location;
+import gherkin.ast.Node;
+import gherkin.ast.Scenario;
+import gherkin.ast.ScenarioDefinition;
+import gherkin.ast.ScenarioOutline;
+import gherkin.ast.Step;
+import gherkin.ast.TableCell;
+import gherkin.ast.TableRow;
+import gherkin.ast.Tag;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Persistent cache of parsed feature files.
+ * <p/>
+ * Every {@link GherkinDocument} is stored in a compact binary form in a file named after the
+ * checksum of its source, in a sub directory named after the version of the gherkin parser
+ * that produced it. A feature file that hasn't changed since the previous run is therefore
+ * read from the cache instead of being parsed again, and upgrading gherkin starts with an
+ * empty cache.
+ * <p/>
+ * The cache is only an optimization: entries that can't be read (because they are truncated,
+ * written by another version of Cucumber, or removed while running) are ignored, and failing
+ * to write an entry is not an error either. Entries are written to a temporary file first, so
+ * several processes can share a cache directory.
+ */
+public class FeatureCache {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final int MAGIC = 0x43554b45;
+    private static final int FORMAT_VERSION = 1;
+    private static final String GHERKIN_POM_PROPERTIES = "/META-INF/maven/io.cucumber/gherkin/pom.properties";
+
+    private static final byte NULL = 0;
+    private static final byte SCENARIO = 1;
+    private static final byte SCENARIO_OUTLINE = 2;
+    private static final byte BACKGROUND = 3;
+    private static final byte DOC_STRING = 4;
+    private static final byte DATA_TABLE = 5;
+
+    private final File directory;
+
+    /**
+     * @param directory the cache directory. Created when the first entry is stored.
+     */
+    public FeatureCache(File directory) {
+        this(directory, gherkinVersion());
+    }
+
+    FeatureCache(File directory, String gherkinVersion) {
+        this.directory = gherkinVersion == null ? null : new File(directory, "gherkin-" + gherkinVersion);
+    }
+
+    /**
+     * @param checksum the checksum of the feature source
+     * @return the cached document, or null if there is no usable entry for {@code checksum}.
+     */
+    public GherkinDocument load(String checksum) {
+        if (directory == null) {
+            return null;
+        }
+        File file = new File(directory, checksum);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                return read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (RuntimeException e) {
+            // A corrupt entry can make the document constructors fail as well.
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code gherkinDocument} unless there already is an entry for {@code checksum}.
+     *
+     * @param checksum        the checksum of the feature source
+     * @param gherkinDocument the parsed feature source
+     */
+    public void store(String checksum, GherkinDocument gherkinDocument) {
+        if (directory == null) {
+            return;
+        }
+        File file = new File(directory, checksum);
+        if (file.isFile()) {
+            return;
+        }
+        File tmp = null;
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                return;
+            }
+            tmp = File.createTempFile(checksum, ".tmp", directory);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                write(out, gherkinDocument);
+            } finally {
+                out.close();
+            }
+            if (tmp.renameTo(file)) {
+                tmp = null;
+            }
+        } catch (IOException ignore) {
+            // Parsing again next time is all we lose.
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    static String gherkinVersion() {
+        InputStream in = Parser.class.getResourceAsStream(GHERKIN_POM_PROPERTIES);
+        if (in == null) {
+            return null;
+        }
+        try {
+            try {
+                Properties properties = new Properties();
+                properties.load(in);
+                return properties.getProperty("version");
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static void write(DataOutputStream out, GherkinDocument gherkinDocument) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        Feature feature = gherkinDocument.getFeature();
+        out.writeBoolean(feature != null);
+        if (feature != null) {
+            writeTags(out, feature.getTags());
+            writeLocation(out, feature.getLocation());
+            writeString(out, feature.getLanguage());
+            writeString(out, feature.getKeyword());
+            writeString(out, feature.getName());
+            writeString(out, feature.getDescription());
+            out.writeInt(feature.getChildren().size());
+            for (ScenarioDefinition child : feature.getChildren()) {
+                writeScenarioDefinition(out, child);
+            }
+        }
+        out.writeInt(gherkinDocument.getComments().size());
+        for (Comment comment : gherkinDocument.getComments()) {
+            writeLocation(out, comment.getLocation());
+            writeString(out, comment.getText());
+        }
+    }
+
+    static GherkinDocument read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+            throw new IOException("Not a feature cache entry");
+        }
+        Feature feature = null;
+        if (in.readBoolean()) {
+            List<Tag> tags = readTags(in);
+            Location location = readLocation(in);
+            String language = readString(in);
+            String keyword = readString(in);
+            String name = readString(in);
+            String description = readString(in);
+            int size = in.readInt();
+            List<ScenarioDefinition> children = new ArrayList<ScenarioDefinition>();
+            for (int i = 0; i < size; i++) {
+                children.add(readScenarioDefinition(in));
+            }
+            feature = new Feature(tags, location, language, keyword, name, description, children);
+        }
+        int size = in.readInt();
+        List<Comment> comments = new ArrayList<Comment>();
+        for (int i = 0; i < size; i++) {
+            comments.add(new Comment(readLocation(in), readString(in)));
+        }
+        return new GherkinDocument(feature, comments);
+    }
+
+    private static void writeScenarioDefinition(DataOutputStream out, ScenarioDefinition definition) throws IOException {
+        if (definition instanceof Scenario) {
+            out.writeByte(SCENARIO);
+            writeTags(out, ((Scenario) definition).getTags());
+        } else if (definition instanceof ScenarioOutline) {
+            out.writeByte(SCENARIO_OUTLINE);
+            writeTags(out, ((ScenarioOutline) definition).getTags());
+        } else if (definition instanceof Background) {
+            out.writeByte(BACKGROUND);
+        } else {
+            throw new IOException("Unknown scenario definition: " + definition.getClass());
+        }
+        writeLocation(out, definition.getLocation());
+        writeString(out, definition.getKeyword());
+        writeString(out, definition.getName());
+        writeString(out, definition.getDescription());
+        out.writeInt(definition.getSteps().size());
+        for (Step step : definition.getSteps()) {
+            writeStep(out, step);
+        }
+        if (definition instanceof ScenarioOutline) {
+            List<Examples> examples = ((ScenarioOutline) definition).getExamples();
+            out.writeInt(examples.size());
+            for (Examples example : examples) {
+                writeExamples(out, example);
+            }
+        }
+    }
+
+    private static ScenarioDefinition readScenarioDefinition(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        List<Tag> tags = type == BACKGROUND ? null : readTags(in);
+        Location location = readLocation(in);
+        String keyword = readString(in);
+        String name = readString(in);
+        String description = readString(in);
+        int size = in.readInt();
+        List<Step> steps = new ArrayList<Step>();
+        for (int i = 0; i < size; i++) {
+            steps.add(readStep(in));
+        }
+        switch (type) {
+            case SCENARIO:
+                return new Scenario(tags, location, keyword, name, description, steps);
+            case SCENARIO_OUTLINE:
+                int examplesSize = in.readInt();
+                List<Examples> examples = new ArrayList<Examples>();
+                for (int i = 0; i < examplesSize; i++) {
+                    examples.add(readExamples(in));
+                }
+                return new ScenarioOutline(tags, location, keyword, name, description, steps, examples);
+            case BACKGROUND:
+                return new Background(location, keyword, name, description, steps);
+            default:
+                throw new IOException("Unknown scenario definition type: " + type);
+        }
+    }
+
+    private static void writeExamples(DataOutputStream out, Examples examples) throws IOException {
+        writeLocation(out, examples.getLocation());
+        writeTags(out, examples.getTags());
+        writeString(out, examples.getKeyword());
+        writeString(out, examples.getName());
+        writeString(out, examples.getDescription());
+        out.writeBoolean(examples.getTableHeader() != null);
+        if (examples.getTableHeader() != null) {
+            writeTableRow(out, examples.getTableHeader());
+        }
+        writeTableRows(out, examples.getTableBody());
+    }
+
+    private static Examples readExamples(DataInputStream in) throws IOException {
+        Location location = readLocation(in);
+        List<Tag> tags = readTags(in);
+        String keyword = readString(in);
+        String name = readString(in);
+        String description = readString(in);
+        TableRow tableHeader = in.readBoolean() ? readTableRow(in) : null;
+        List<TableRow> tableBody = readTableRows(in);
+        return new Examples(location, tags, keyword, name, description, tableHeader, tableBody);
+    }
+
+    private static void writeStep(DataOutputStream out, Step step) throws IOException {
+        writeLocation(out, step.getLocation());
+        writeString(out, step.getKeyword());
+        writeString(out, step.getText());
+        Node argument = step.getArgument();
+        if (argument == null) {
+            out.writeByte(NULL);
+        } else if (argument instanceof DocString) {
+            DocString docString = (DocString) argument;
+            out.writeByte(DOC_STRING);
+            writeLocation(out, docString.getLocation());
+            writeString(out, docString.getContentType());
+            writeString(out, docString.getContent());
+        } else if (argument instanceof DataTable) {
+            out.writeByte(DATA_TABLE);
+            writeTableRows(out, ((DataTable) argument).getRows());
+        } else {
+            throw new IOException("Unknown step argument: " + argument.getClass());
+        }
+    }
+
+    private static Step readStep(DataInputStream in) throws IOException {
+        Location location = readLocation(in);
+        String keyword = readString(in);
+        String text = readString(in);
+        Node argument;
+        byte type = in.readByte();
+        switch (type) {
+            case NULL:
+                argument = null;
+                break;
+            case DOC_STRING:
+                argument = new DocString(readLocation(in), readString(in), readString(in));
+                break;
+            case DATA_TABLE:
+                argument = new DataTable(readTableRows(in));
+                break;
+            default:
+                throw new IOException("Unknown step argument type: " + type);
+        }
+        return new Step(location, keyword, text, argument);
+    }
+
+    private static void writeTableRows(DataOutputStream out, List<TableRow> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (TableRow row : rows) {
+            writeTableRow(out, row);
+        }
+    }
+
+    private static List<TableRow> readTableRows(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<TableRow> rows = new ArrayList<TableRow>();
+        for (int i = 0; i < size; i++) {
+            rows.add(readTableRow(in));
+        }
+        return rows;
+    }
+
+    private static void writeTableRow(DataOutputStream out, TableRow row) throws IOException {
+        writeLocation(out, row.getLocation());
+        out.writeInt(row.getCells().size());
+        for (TableCell cell : row.getCells()) {
+            writeLocation(out, cell.getLocation());
+            writeString(out, cell.getValue());
+        }
+    }
+
+    private static TableRow readTableRow(DataInputStream in) throws IOException {
+        Location location = readLocation(in);
+        int size = in.readInt();
+        List<TableCell> cells = new ArrayList<TableCell>();
+        for (int i = 0; i < size; i++) {
+            cells.add(new TableCell(readLocation(in), readString(in)));
+        }
+        return new TableRow(location, cells);
+    }
+
+    private static void writeTags(DataOutputStream out, List<Tag> tags) throws IOException {
+        out.writeInt(tags.size());
+        for (Tag tag : tags) {
+            writeLocation(out, tag.getLocation());
+            writeString(out, tag.getName());
+        }
+    }
+
+    private static List<Tag> readTags(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<Tag> tags = new ArrayList<Tag>();
+        for (int i = 0; i < size; i++) {
+            tags.add(new Tag(readLocation(in), readString(in)));
+        }
+        return tags;
+    }
+
+    private static void writeLocation(DataOutputStream out, Location location) throws IOException {
+        out.writeInt(location.getLine());
+        out.writeInt(location.getColumn());
+    }
+
+    private static Location readLocation(DataInputStream in) throws IOException {
+        return new Location(in.readInt(), in.readInt());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        // Not writeUTF, doc strings can be longer than 64K
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.available()) {
+            throw new IOException("Truncated feature cache entry");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF8);
+    }
+}
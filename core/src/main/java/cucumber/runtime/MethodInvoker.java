@@ -0,0 +1,81 @@
+package cucumber.runtime;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a method that is prepared once, when the glue is loaded.
+ * <p/>
+ * Unlike {@link Utils#invoke(Object, Method, long, Object...)}, which looks up the method to call
+ * and toggles its accessible flag on every invocation, the method is made accessible once. The method
+ * to call on the target (which differs from the given method when the target was loaded by another
+ * class loader) is resolved for the first target and reused for as long as the class of the target
+ * stays the same.
+ */
+public class MethodInvoker {
+    private final Method method;
+    private volatile TargetMethod targetMethod;
+
+    public MethodInvoker(Method method) {
+        this.method = method;
+        makeAccessible(method);
+    }
+
+    public Object invoke(final Object target, long timeoutMillis, final Object... args) throws Throwable {
+        final Method resolved = targetMethod(target);
+        if (timeoutMillis == 0) {
+            return invoke(target, resolved, args);
+        }
+        return Timeout.timeout(new Timeout.Callback<Object>() {
+            @Override
+            public Object call() throws Throwable {
+                return invoke(target, resolved, args);
+            }
+        }, timeoutMillis);
+    }
+
+    private Method targetMethod(Object target) throws NoSuchMethodException {
+        TargetMethod cached = targetMethod;
+        if (cached == null || cached.targetClass != target.getClass()) {
+            Method resolved = Utils.targetMethod(target, method);
+            if (resolved != method) {
+                makeAccessible(resolved);
+            }
+            cached = new TargetMethod(target.getClass(), resolved);
+            targetMethod = cached;
+        }
+        return cached.method;
+    }
+
+    static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalArgumentException e) {
+            throw new CucumberException("Failed to invoke " + MethodFormat.FULL.format(method) +
+                                        ", caused by " + e.getClass().getName() + ": " + e.getMessage(), e);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        } catch (IllegalAccessException e) {
+            throw new CucumberException("Failed to invoke " + MethodFormat.FULL.format(method) +
+                                        ", caused by " + e.getClass().getName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void makeAccessible(Method method) {
+        try {
+            method.setAccessible(true);
+        } catch (SecurityException e) {
+            // Public methods can still be invoked. Others fail with an IllegalAccessException.
+        }
+    }
+
+    private static class TargetMethod {
+        private final Class<?> targetClass;
+        private final Method method;
+
+        TargetMethod(Class<?> targetClass, Method method) {
+            this.targetClass = targetClass;
+            this.method = method;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -27,6 +28,8 @@ public class ParameterInfo {
     private final String delimiter;
     private final boolean transposed;
     private final Transformer<?> transformer;
+    // Converters are looked up once per XStream, i.e. once per locale. Copied on write, so it's read without locking.
+    private volatile ResolvedConverter[] converters = new ResolvedConverter[0];
 
     public static List<ParameterInfo> fromMethod(Method method) {
         List<ParameterInfo> result = new ArrayList<ParameterInfo>();
@@ -134,32 +137,11 @@ public class ParameterInfo {
         try {
             xStream.setParameterInfo(this);
             SingleValueConverter converter;
-            xStream.processAnnotations(getRawType());
-            xStream.autodetectAnnotations(true); // Needed to unlock annotation processing
-
             if (transformer != null) {
                 transformer.setParameterInfoAndLocale(this, xStream.getLocale());
                 converter = transformer;
             } else {
-                if (List.class.isAssignableFrom(getRawType())) {
-                    converter = getListConverter(type, xStream);
-                } else {
-                    converter = xStream.getSingleValueConverter(getRawType());
-                }
-                if (converter == null) {
-                    throw new CucumberException(String.format(
-                            "Don't know how to convert \"%s\" into %s.\n" +
-                                    "Try writing your own converter:\n" +
-                                    "\n" +
-                                    "@%s(%sConverter.class)\n" +
-                                    "public class %s {}\n",
-                            value,
-                            getRawType().getName(),
-                            XStreamConverter.class.getName(),
-                            getRawType().getSimpleName(),
-                            getRawType().getSimpleName()
-                    ));
-                }
+                converter = getConverter(value, xStream);
             }
             return converter.fromString(value);
         } finally {
@@ -167,6 +149,48 @@ public class ParameterInfo {
         }
     }
 
+    private SingleValueConverter getConverter(String value, LocalizedXStreams.LocalizedXStream xStream) {
+        ResolvedConverter[] resolvedConverters = converters;
+        for (ResolvedConverter resolvedConverter : resolvedConverters) {
+            if (resolvedConverter.xStream == xStream) {
+                return resolvedConverter.converter;
+            }
+        }
+        SingleValueConverter converter = lookupConverter(value, xStream);
+        // A converter added by another thread in the meantime may be lost, it is then looked up again
+        ResolvedConverter[] moreConverters = Arrays.copyOf(resolvedConverters, resolvedConverters.length + 1);
+        moreConverters[resolvedConverters.length] = new ResolvedConverter(xStream, converter);
+        converters = moreConverters;
+        return converter;
+    }
+
+    private SingleValueConverter lookupConverter(String value, LocalizedXStreams.LocalizedXStream xStream) {
+        xStream.processAnnotations(getRawType());
+        xStream.autodetectAnnotations(true); // Needed to unlock annotation processing
+
+        SingleValueConverter converter;
+        if (List.class.isAssignableFrom(getRawType())) {
+            converter = getListConverter(type, xStream);
+        } else {
+            converter = xStream.getSingleValueConverter(getRawType());
+        }
+        if (converter == null) {
+            throw new CucumberException(String.format(
+                    "Don't know how to convert \"%s\" into %s.\n" +
+                            "Try writing your own converter:\n" +
+                            "\n" +
+                            "@%s(%sConverter.class)\n" +
+                            "public class %s {}\n",
+                    value,
+                    getRawType().getName(),
+                    XStreamConverter.class.getName(),
+                    getRawType().getSimpleName(),
+                    getRawType().getSimpleName()
+            ));
+        }
+        return converter;
+    }
+
     private SingleValueConverter getListConverter(Type type, LocalizedXStreams.LocalizedXStream xStream) {
         Class elementType = type instanceof ParameterizedType
                 ? getRawType(((ParameterizedType) type).getActualTypeArguments()[0])
@@ -183,4 +207,14 @@ public class ParameterInfo {
     public String getFormat() {
         return format;
     }
+
+    private static class ResolvedConverter {
+        final LocalizedXStreams.LocalizedXStream xStream;
+        final SingleValueConverter converter;
+
+        ResolvedConverter(LocalizedXStreams.LocalizedXStream xStream, SingleValueConverter converter) {
+            this.xStream = xStream;
+            this.converter = converter;
+        }
+    }
 }
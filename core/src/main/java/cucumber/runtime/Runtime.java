@@ -10,15 +10,22 @@ import cucumber.api.event.TestRunFinished;
 import cucumber.api.event.TestStepFinished;
 import cucumber.api.formatter.Formatter;
 import cucumber.runner.EventBus;
+import cucumber.runner.ResourceMeter;
 import cucumber.runner.Runner;
+import cucumber.runner.TestCaseEventBus;
+import cucumber.runner.ThreadResourceMeter;
 import cucumber.runner.TimeService;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.remote.Coordinator;
+import cucumber.runtime.remote.Worker;
+import cucumber.runtime.remote.WorkerProcesses;
 import cucumber.runtime.xstream.LocalizedXStreams;
 import gherkin.events.PickleEvent;
 import gherkin.pickles.Compiler;
 import gherkin.pickles.Pickle;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
@@ -26,6 +33,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 /**
@@ -52,8 +63,11 @@ public class Runtime {
     private final List<Throwable> errors = new ArrayList<Throwable>();
     private final ResourceLoader resourceLoader;
     private final ClassLoader classLoader;
+    private final BackendSupplier backendSupplier;
+    private final TimeService stopWatch;
     private final Runner runner;
     private final List<PicklePredicate> filters;
+    private final ShardPredicate shardPredicate;
     private final EventBus bus;
     private final Compiler compiler = new Compiler();
     private final EventHandler<TestStepFinished> stepFinishedHandler = new EventHandler<TestStepFinished>() {
@@ -78,7 +92,7 @@ public class Runtime {
     };
 
     public Runtime(ResourceLoader resourceLoader, ClassFinder classFinder, ClassLoader classLoader, RuntimeOptions runtimeOptions) {
-        this(resourceLoader, classLoader, loadBackends(resourceLoader, classFinder), runtimeOptions);
+        this(resourceLoader, classLoader, classpathBackendSupplier(resourceLoader, classFinder, classLoader), runtimeOptions, TimeService.SYSTEM, null);
     }
 
     public Runtime(ResourceLoader resourceLoader, ClassLoader classLoader, Collection<? extends Backend> backends, RuntimeOptions runtimeOptions) {
@@ -92,15 +106,45 @@ public class Runtime {
 
     public Runtime(ResourceLoader resourceLoader, ClassLoader classLoader, Collection<? extends Backend> backends,
                    RuntimeOptions runtimeOptions, TimeService stopWatch, RuntimeGlue optionalGlue) {
+        this(resourceLoader, classLoader, backends, null, runtimeOptions, stopWatch, null, optionalGlue);
+    }
+
+    /**
+     * Creates a runtime that measures the resources of the steps and hooks with {@code resourceMeter}
+     * when the {@code --measure-resources} option is given.
+     */
+    public Runtime(ResourceLoader resourceLoader, ClassLoader classLoader, Collection<? extends Backend> backends,
+                   RuntimeOptions runtimeOptions, TimeService stopWatch, ResourceMeter resourceMeter, RuntimeGlue optionalGlue) {
+        this(resourceLoader, classLoader, backends, null, runtimeOptions, stopWatch, resourceMeter, optionalGlue);
+    }
+
+    /**
+     * Creates a runtime that can execute pickles in parallel (see the {@code --threads} option).
+     * The {@code backendSupplier} is asked for a fresh set of backends for every worker thread.
+     */
+    public Runtime(ResourceLoader resourceLoader, ClassLoader classLoader, BackendSupplier backendSupplier,
+                   RuntimeOptions runtimeOptions, TimeService stopWatch, RuntimeGlue optionalGlue) {
+        this(resourceLoader, classLoader, backendSupplier.get(), backendSupplier, runtimeOptions, stopWatch, null, optionalGlue);
+    }
+
+    private Runtime(ResourceLoader resourceLoader, ClassLoader classLoader, Collection<? extends Backend> backends,
+                    BackendSupplier backendSupplier, RuntimeOptions runtimeOptions, TimeService stopWatch, ResourceMeter optionalResourceMeter,
+                    RuntimeGlue optionalGlue) {
         if (backends.isEmpty()) {
             throw new CucumberException("No backends were found. Please make sure you have a backend module on your CLASSPATH.");
         }
         this.resourceLoader = resourceLoader;
         this.classLoader = classLoader;
+        this.backendSupplier = backendSupplier;
+        this.stopWatch = stopWatch;
         this.runtimeOptions = runtimeOptions;
         Glue glue = optionalGlue != null ? optionalGlue : new RuntimeGlue(undefinedStepsTracker, new LocalizedXStreams(classLoader));
         this.stats = new Stats(runtimeOptions.isMonochrome());
-        this.bus = new EventBus(stopWatch);
+        ResourceMeter resourceMeter = ResourceMeter.NONE;
+        if (runtimeOptions.isMeasureResources()) {
+            resourceMeter = optionalResourceMeter != null ? optionalResourceMeter : ThreadResourceMeter.create();
+        }
+        this.bus = new EventBus(stopWatch, resourceMeter);
         this.runner = new Runner(glue, bus, backends, runtimeOptions);
         this.filters = new ArrayList<PicklePredicate>();
         List<String> tagFilters = runtimeOptions.getTagFilters();
@@ -115,6 +159,13 @@ public class Runtime {
         if (!lineFilters.isEmpty()) {
             this.filters.add(new LinePredicate(lineFilters));
         }
+        // Last, so the shards split what is left after the other filters
+        if (runtimeOptions.getShardTotal() > 1) {
+            this.shardPredicate = new ShardPredicate(runtimeOptions.getShardIndex(), runtimeOptions.getShardTotal());
+            this.filters.add(shardPredicate);
+        } else {
+            this.shardPredicate = null;
+        }
 
         bus.registerHandlerFor(TestStepFinished.class, stepFinishedHandler);
         bus.registerHandlerFor(TestCaseFinished.class, testCaseFinishedHandler);
@@ -122,11 +173,25 @@ public class Runtime {
         runtimeOptions.setEventBus(bus);
     }
 
-    private static Collection<? extends Backend> loadBackends(ResourceLoader resourceLoader, ClassFinder classFinder) {
+    private static Collection<? extends Backend> loadBackends(ResourceLoader resourceLoader, ClassFinder classFinder, BackendRegistry backendRegistry) {
+        if (!backendRegistry.isEmpty()) {
+            return backendRegistry.instantiate(resourceLoader);
+        }
+        // Backends that don't register themselves yet
         Reflections reflections = new Reflections(classFinder);
         return reflections.instantiateSubclasses(Backend.class, "cucumber.runtime", new Class[]{ResourceLoader.class}, new Object[]{resourceLoader});
     }
 
+    private static BackendSupplier classpathBackendSupplier(final ResourceLoader resourceLoader, final ClassFinder classFinder, ClassLoader classLoader) {
+        final BackendRegistry backendRegistry = new BackendRegistry(classLoader);
+        return new BackendSupplier() {
+            @Override
+            public Collection<? extends Backend> get() {
+                return loadBackends(resourceLoader, classFinder, backendRegistry);
+            }
+        };
+    }
+
     public void addError(Throwable error) {
         errors.add(error);
     }
@@ -135,6 +200,10 @@ public class Runtime {
      * This is the main entry point. Used from CLI, but not from JUnit.
      */
     public void run() throws IOException {
+        if (runtimeOptions.getWorkerAddress() != null) {
+            runAsWorker(runtimeOptions.getWorkerAddress());
+            return;
+        }
         // Make sure all features parse before initialising any reporters/formatters
         List<CucumberFeature> features = runtimeOptions.cucumberFeatures(resourceLoader, bus);
 
@@ -144,9 +213,16 @@ public class Runtime {
         StepDefinitionReporter stepDefinitionReporter = runtimeOptions.stepDefinitionReporter(classLoader);
 
         reportStepDefinitions(stepDefinitionReporter);
-
-        for (CucumberFeature cucumberFeature : features) {
-            runFeature(cucumberFeature);
+        planShards(features);
+
+        if (runtimeOptions.getWorkers() > 0) {
+            runFeaturesOnWorkers(features);
+        } else if (runtimeOptions.getThreads() > 1) {
+            runFeaturesInParallel(features);
+        } else {
+            for (CucumberFeature cucumberFeature : features) {
+                runFeature(cucumberFeature);
+            }
         }
 
         bus.send(new TestRunFinished(bus.getTime()));
@@ -157,18 +233,171 @@ public class Runtime {
         runner.reportStepDefinitions(stepDefinitionReporter);
     }
 
-    public void runFeature(CucumberFeature feature) {
+    /**
+     * Balances the shards by the durations in the {@linkplain RuntimeOptions#getShardHistory() shard history},
+     * if there are shards and a history. Runners must call this with all features before asking which pickles
+     * {@linkplain #matchesFilters(PickleEvent) match}; without it the shards are assigned by hash.
+     * <p/>
+     * The shards only add up to the whole suite when every JVM plans with the same history, so a digest of
+     * the plan is printed to standard error to compare them.
+     *
+     * @param features all features of the run
+     */
+    public void planShards(List<CucumberFeature> features) {
+        File shardHistory = runtimeOptions.getShardHistory();
+        if (shardPredicate == null || shardHistory == null) {
+            return;
+        }
+        String shard = "Shard " + runtimeOptions.getShardIndex() + "/" + shardPredicate.getTotal();
+        DurationHistory durationHistory = DurationHistory.load(shardHistory);
+        if (durationHistory.isEmpty()) {
+            System.err.println(shard + " is assigned by hash, there are no durations in " + shardHistory);
+            return;
+        }
         List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
-        for (Pickle pickle : compiler.compile(feature.getGherkinFeature())) {
-            pickleEvents.add(new PickleEvent(feature.getPath(), pickle));
+        for (CucumberFeature feature : features) {
+            for (PickleEvent pickleEvent : compileFeature(feature)) {
+                if (matchesFiltersBeforeSharding(pickleEvent)) {
+                    pickleEvents.add(pickleEvent);
+                }
+            }
         }
-        for (PickleEvent pickleEvent : pickleEvents) {
+        Map<String, Integer> plannedShards = durationHistory.assignShards(pickleEvents, shardPredicate.getTotal());
+        shardPredicate.plan(plannedShards);
+        System.err.println(shard + " is planned with the durations in " + shardHistory + ", plan " + ShardPredicate.digest(plannedShards));
+    }
+
+    public void runFeature(CucumberFeature feature) {
+        for (PickleEvent pickleEvent : compileFeature(feature)) {
             if (matchesFilters(pickleEvent)) {
                 runner.runPickle(pickleEvent);
             }
         }
     }
 
+    /**
+     * Compiles the pickles of all features up front and executes them on a pool of
+     * {@link RuntimeOptions#getThreads()} worker threads. Every worker has its own
+     * {@link Runner}, glue and backends. The events of a test case are handed to the
+     * shared bus when the test case finishes.
+     */
+    void runFeaturesInParallel(List<CucumberFeature> features) {
+        if (backendSupplier == null) {
+            throw new CucumberException("Running with --threads requires backends that can be instantiated for every thread. " +
+                    "Please create the Runtime with a BackendSupplier.");
+        }
+        List<PickleEvent> pickleEvents = scheduledPickleEvents(features);
+
+        final ThreadLocal<Runner> workerRunners = new ThreadLocal<Runner>() {
+            @Override
+            protected Runner initialValue() {
+                return createWorkerRunner();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(runtimeOptions.getThreads(), new DaemonThreadFactory("cucumber-runner-"));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final PickleEvent pickleEvent : pickleEvents) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        workerRunners.get().runPickle(pickleEvent);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while running pickles in parallel", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CucumberException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts {@link RuntimeOptions#getWorkers()} worker JVMs and hands the pickles out to them
+     * as they ask for them. The events of the workers are published on this bus.
+     */
+    void runFeaturesOnWorkers(List<CucumberFeature> features) throws IOException {
+        Coordinator coordinator = new Coordinator(bus, scheduledPickleEvents(features));
+        int port = coordinator.bind();
+        WorkerProcesses workerProcesses = new WorkerProcesses();
+        try {
+            workerProcesses.start(runtimeOptions.getWorkers(), port, runtimeOptions.getWorkerArgs());
+            coordinator.serve(runtimeOptions.getWorkers());
+        } finally {
+            workerProcesses.destroy();
+        }
+        for (Throwable error : coordinator.getErrors()) {
+            addError(error);
+        }
+    }
+
+    /**
+     * Runs the pickles the coordinator at {@code address} hands out. The plugins of this
+     * runtime are not created, the coordinator reports.
+     *
+     * @param address HOST:PORT of the coordinator
+     */
+    public void runAsWorker(String address) throws IOException {
+        int colon = address.lastIndexOf(':');
+        if (colon == -1) {
+            throw new CucumberException("--worker must be HOST:PORT, but was: " + address);
+        }
+        int port;
+        try {
+            port = Integer.parseInt(address.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new CucumberException("--worker must be HOST:PORT, but was: " + address, e);
+        }
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        for (CucumberFeature feature : runtimeOptions.loadFeatures(resourceLoader)) {
+            pickleEvents.addAll(compileFeature(feature));
+        }
+        new Worker(runner, bus, pickleEvents).run(address.substring(0, colon), port);
+    }
+
+    private List<PickleEvent> scheduledPickleEvents(List<CucumberFeature> features) {
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        for (CucumberFeature feature : features) {
+            for (PickleEvent pickleEvent : compileFeature(feature)) {
+                if (matchesFilters(pickleEvent)) {
+                    pickleEvents.add(pickleEvent);
+                }
+            }
+        }
+        DurationHistory durationHistory = runtimeOptions.getDurationHistory();
+        if (durationHistory != null && !durationHistory.isEmpty()) {
+            // Start the longest pickles first, so they don't end up running last
+            pickleEvents = durationHistory.longestFirst(pickleEvents);
+        }
+        return pickleEvents;
+    }
+
+    private Runner createWorkerRunner() {
+        Glue glue = new RuntimeGlue(undefinedStepsTracker, new LocalizedXStreams(classLoader));
+        return new Runner(glue, new TestCaseEventBus(stopWatch, bus), backendSupplier.get(), runtimeOptions);
+    }
+
+    private List<PickleEvent> compileFeature(CucumberFeature feature) {
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        for (Pickle pickle : compiler.compile(feature.getGherkinFeature())) {
+            pickleEvents.add(new PickleEvent(feature.getPath(), pickle));
+        }
+        return pickleEvents;
+    }
+
     public boolean matchesFilters(PickleEvent pickleEvent) {
         for (PicklePredicate filter : filters) {
             if (!filter.apply(pickleEvent)) {
@@ -178,6 +407,15 @@ public class Runtime {
         return true;
     }
 
+    private boolean matchesFiltersBeforeSharding(PickleEvent pickleEvent) {
+        for (PicklePredicate filter : filters) {
+            if (filter != shardPredicate && !filter.apply(pickleEvent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public void printSummary() {
         SummaryPrinter summaryPrinter = runtimeOptions.summaryPrinter(classLoader);
         summaryPrinter.print(this);
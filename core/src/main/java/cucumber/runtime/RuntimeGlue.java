@@ -7,15 +7,29 @@ import gherkin.pickles.PickleStep;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
 public class RuntimeGlue implements Glue {
+    static final int MATCH_CACHE_SIZE = 4096;
+
     final Map<String, StepDefinition> stepDefinitionsByPattern = new TreeMap<String, StepDefinition>();
     final List<HookDefinition> beforeHooks = new ArrayList<HookDefinition>();
     final List<HookDefinition> afterHooks = new ArrayList<HookDefinition>();
+    private final StepDefinitionIndex stepDefinitionIndex = new StepDefinitionIndex();
+    // Step definitions (and their arguments) matching a step text, least recently used first.
+    final Map<String, List<MatchedStepDefinition>> matchCache = new LinkedHashMap<String, List<MatchedStepDefinition>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<MatchedStepDefinition>> eldest) {
+            return size() > MATCH_CACHE_SIZE;
+        }
+    };
+    // Formatted once per step definition instead of for every match
+    private final Map<StepDefinition, String> locations = new HashMap<StepDefinition, String>();
 
     private final UndefinedStepsTracker tracker;
     private final LocalizedXStreams localizedXStreams;
@@ -32,6 +46,8 @@ public class RuntimeGlue implements Glue {
             throw new DuplicateStepDefinitionException(previous, stepDefinition);
         }
         stepDefinitionsByPattern.put(stepDefinition.getPattern(), stepDefinition);
+        stepDefinitionIndex.add(stepDefinition);
+        matchCache.clear();
     }
 
     @Override
@@ -70,16 +86,59 @@ public class RuntimeGlue implements Glue {
     }
 
     private List<StepDefinitionMatch> stepDefinitionMatches(String featurePath, PickleStep step) {
-        List<StepDefinitionMatch> result = new ArrayList<StepDefinitionMatch>();
-        for (StepDefinition stepDefinition : stepDefinitionsByPattern.values()) {
-            List<Argument> arguments = stepDefinition.matchedArguments(step);
-            if (arguments != null) {
-                result.add(new StepDefinitionMatch(arguments, stepDefinition, featurePath, step, localizedXStreams));
-            }
+        List<MatchedStepDefinition> matchedStepDefinitions = matchedStepDefinitions(step);
+        List<StepDefinitionMatch> result = new ArrayList<StepDefinitionMatch>(matchedStepDefinitions.size());
+        for (MatchedStepDefinition matched : matchedStepDefinitions) {
+            result.add(new StepDefinitionMatch(matched.arguments, matched.stepDefinition, matched.location, matched.parameterInfos, featurePath, step, localizedXStreams));
         }
         return result;
     }
 
+    /**
+     * Matching a step only depends on its text, so the matching step definitions are cached
+     * by step text. The cache is cleared whenever step definitions are added or removed.
+     */
+    private List<MatchedStepDefinition> matchedStepDefinitions(PickleStep step) {
+        String stepText = step.getText();
+        List<MatchedStepDefinition> matchedStepDefinitions = matchCache.get(stepText);
+        if (matchedStepDefinitions == null) {
+            matchedStepDefinitions = new ArrayList<MatchedStepDefinition>(1);
+            for (StepDefinition stepDefinition : stepDefinitionIndex.candidates(stepText)) {
+                List<Argument> arguments = stepDefinition.matchedArguments(step);
+                if (arguments != null) {
+                    matchedStepDefinitions.add(new MatchedStepDefinition(stepDefinition, arguments, location(stepDefinition), parameterInfos(stepDefinition, arguments)));
+                }
+            }
+            matchCache.put(stepText, matchedStepDefinitions);
+        }
+        return matchedStepDefinitions;
+    }
+
+    /**
+     * @return the parameters of the arguments, which keep the converters they resolve, or null if the
+     * step definition doesn't have a parameter for each argument (which is reported when the step is run)
+     */
+    private static ParameterInfo[] parameterInfos(StepDefinition stepDefinition, List<Argument> arguments) {
+        Integer parameterCount = stepDefinition.getParameterCount();
+        if (parameterCount == null || parameterCount < arguments.size()) {
+            return null;
+        }
+        ParameterInfo[] parameterInfos = new ParameterInfo[arguments.size()];
+        for (int n = 0; n < parameterInfos.length; n++) {
+            parameterInfos[n] = StepDefinitionMatch.parameterInfo(stepDefinition, n, String.class);
+        }
+        return parameterInfos;
+    }
+
+    private String location(StepDefinition stepDefinition) {
+        String location = locations.get(stepDefinition);
+        if (location == null) {
+            location = stepDefinition.getLocation(false);
+            locations.put(stepDefinition, location);
+        }
+        return location;
+    }
+
     @Override
     public void reportStepDefinitions(StepDefinitionReporter stepDefinitionReporter) {
         for (StepDefinition stepDefinition : stepDefinitionsByPattern.values()) {
@@ -110,7 +169,24 @@ public class RuntimeGlue implements Glue {
             StepDefinition stepDefinition = stepdefs.next().getValue();
             if(stepDefinition.isScenarioScoped()) {
                 stepdefs.remove();
+                stepDefinitionIndex.remove(stepDefinition);
+                locations.remove(stepDefinition);
+                matchCache.clear();
             }
         }
     }
+
+    static class MatchedStepDefinition {
+        final StepDefinition stepDefinition;
+        final List<Argument> arguments;
+        final String location;
+        final ParameterInfo[] parameterInfos;
+
+        MatchedStepDefinition(StepDefinition stepDefinition, List<Argument> arguments, String location, ParameterInfo[] parameterInfos) {
+            this.stepDefinition = stepDefinition;
+            this.arguments = arguments;
+            this.location = location;
+            this.parameterInfos = parameterInfos;
+        }
+    }
 }
@@ -6,7 +6,11 @@ import cucumber.api.SummaryPrinter;
 import cucumber.api.formatter.ColorAware;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.StrictAware;
+import cucumber.api.event.ConcurrentEventListener;
+import cucumber.api.event.EventPublisher;
+import cucumber.runner.AsyncEventPublisher;
 import cucumber.runner.EventBus;
+import cucumber.runtime.formatter.DurationHistoryFormatter;
 import cucumber.runtime.formatter.PluginFactory;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.model.CucumberFeature;
@@ -18,6 +22,7 @@ import gherkin.GherkinDialect;
 import gherkin.GherkinDialectProvider;
 import gherkin.IGherkinDialectProvider;
 
+import java.io.File;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.lang.reflect.InvocationHandler;
@@ -25,6 +30,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
@@ -39,6 +45,7 @@ import static java.util.Arrays.asList;
 public class RuntimeOptions {
     public static final String VERSION = ResourceBundle.getBundle("cucumber.version").getString("cucumber-jvm.version");
     public static final String USAGE_RESOURCE = "/cucumber/api/cli/USAGE.txt";
+    private static final String DURATION_HISTORY_PLUGIN = "duration-history:";
 
     static String usageText;
 
@@ -70,8 +77,20 @@ public class RuntimeOptions {
     private boolean strict = false;
     private boolean monochrome = false;
     private SnippetType snippetType = SnippetType.UNDERSCORE;
+    private int threads = 1;
+    private boolean asyncPlugins = false;
+    private boolean measureResources = false;
+    private File featureCacheDir;
+    private File shardHistory;
+    private File replayDir;
+    private int shardIndex = 1;
+    private int workers = 0;
+    private String workerAddress;
+    private final List<String> workerArgs = new ArrayList<String>();
+    private int shardTotal = 1;
     private boolean pluginNamesInstantiated;
-    private EventBus bus;
+    private EventPublisher pluginEventPublisher;
+    private EventPublisher concurrentEventPublisher;
 
     /**
      * Create a new instance from a string of options, for example:
@@ -107,6 +126,7 @@ public class RuntimeOptions {
         this.pluginFactory = pluginFactory;
 
         argv = new ArrayList<String>(argv); // in case the one passed in is unmodifiable.
+        workerArgs.addAll(argv);
         parse(argv);
 
         String cucumberOptionsFromEnv = env.get("cucumber.options");
@@ -120,6 +140,15 @@ public class RuntimeOptions {
         if (pluginSummaryPrinterNames.isEmpty()) {
             pluginSummaryPrinterNames.add("default_summary");
         }
+        if (shardHistory != null) {
+            for (String pluginName : pluginFormatterNames) {
+                if (pluginName.startsWith(DURATION_HISTORY_PLUGIN)
+                        && new File(pluginName.substring(DURATION_HISTORY_PLUGIN.length())).getAbsoluteFile().equals(shardHistory.getAbsoluteFile())) {
+                    // Every shard has to plan with the same history, it can't change under them
+                    throw new CucumberException("--shard-history must be a file the run doesn't write, but the duration-history plugin writes " + shardHistory);
+                }
+            }
+        }
     }
 
     private void parse(List<String> args) {
@@ -159,6 +188,26 @@ public class RuntimeOptions {
                 strict = !arg.startsWith("--no-");
             } else if (arg.equals("--no-monochrome") || arg.equals("--monochrome") || arg.equals("-m")) {
                 monochrome = !arg.startsWith("--no-");
+            } else if (arg.equals("--no-async-plugins") || arg.equals("--async-plugins")) {
+                asyncPlugins = !arg.startsWith("--no-");
+            } else if (arg.equals("--no-measure-resources") || arg.equals("--measure-resources")) {
+                measureResources = !arg.startsWith("--no-");
+            } else if (arg.equals("--threads")) {
+                String threadsArg = args.remove(0);
+                threads = parseThreads(threadsArg);
+            } else if (arg.equals("--workers")) {
+                String workersArg = args.remove(0);
+                workers = parseWorkers(workersArg);
+            } else if (arg.equals("--worker")) {
+                workerAddress = args.remove(0);
+            } else if (arg.equals("--shard")) {
+                parseShard(args.remove(0));
+            } else if (arg.equals("--shard-history")) {
+                shardHistory = new File(args.remove(0));
+            } else if (arg.equals("--feature-cache")) {
+                featureCacheDir = new File(args.remove(0));
+            } else if (arg.equals("--replay")) {
+                replayDir = new File(args.remove(0));
             } else if (arg.equals("--snippets")) {
                 String nextArg = args.remove(0);
                 snippetType = SnippetType.fromString(nextArg);
@@ -211,6 +260,48 @@ public class RuntimeOptions {
         parsedPluginData.updatePluginSummaryPrinterNames(pluginSummaryPrinterNames);
     }
 
+    private int parseThreads(String threadsArg) {
+        try {
+            int parsedThreads = Integer.parseInt(threadsArg);
+            if (parsedThreads < 1) {
+                throw new CucumberException("--threads must be at least 1, but was: " + threadsArg);
+            }
+            return parsedThreads;
+        } catch (NumberFormatException e) {
+            throw new CucumberException("--threads must be a number, but was: " + threadsArg, e);
+        }
+    }
+
+    private int parseWorkers(String workersArg) {
+        try {
+            int parsedWorkers = Integer.parseInt(workersArg);
+            if (parsedWorkers < 1) {
+                throw new CucumberException("--workers must be at least 1, but was: " + workersArg);
+            }
+            return parsedWorkers;
+        } catch (NumberFormatException e) {
+            throw new CucumberException("--workers must be a number, but was: " + workersArg, e);
+        }
+    }
+
+    private void parseShard(String shardArg) {
+        String[] parts = shardArg.split("/");
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException();
+            }
+            int parsedIndex = Integer.parseInt(parts[0].trim());
+            int parsedTotal = Integer.parseInt(parts[1].trim());
+            if (parsedTotal < 1 || parsedIndex < 1 || parsedIndex > parsedTotal) {
+                throw new CucumberException("--shard must be INDEX/TOTAL with INDEX from 1 to TOTAL, but was: " + shardArg);
+            }
+            shardIndex = parsedIndex;
+            shardTotal = parsedTotal;
+        } catch (NumberFormatException e) {
+            throw new CucumberException("--shard must be INDEX/TOTAL, but was: " + shardArg, e);
+        }
+    }
+
     private void addLineFilters(Map<String, List<Long>> parsedLineFilters, String key, List<Long> lines) {
         if (parsedLineFilters.containsKey(key)) {
             parsedLineFilters.get(key).addAll(lines);
@@ -298,7 +389,7 @@ public class RuntimeOptions {
     }
 
     public List<CucumberFeature> cucumberFeatures(ResourceLoader resourceLoader, EventBus bus) {
-        List<CucumberFeature> features = load(resourceLoader, featurePaths, System.out);
+        List<CucumberFeature> features = loadFeatures(resourceLoader);
         getPlugins(); // to create the formatter objects
         for (CucumberFeature feature : features) {
             feature.sendTestSourceRead(bus);
@@ -306,8 +397,19 @@ public class RuntimeOptions {
         return features;
     }
 
+    /**
+     * Loads the features without creating the plugins or telling them about the features.
+     */
+    public List<CucumberFeature> loadFeatures(ResourceLoader resourceLoader) {
+        FeatureCache featureCache = featureCacheDir == null ? null : new FeatureCache(featureCacheDir);
+        return load(resourceLoader, featurePaths, featureCache, System.out);
+    }
+
+    /**
+     * @return the plugins, created on the first call. A worker has none, the coordinator reports.
+     */
     public List<Object> getPlugins() {
-        if (!pluginNamesInstantiated) {
+        if (!pluginNamesInstantiated && workerAddress == null) {
             for (String pluginName : pluginFormatterNames) {
                 Object plugin = pluginFactory.create(pluginName);
                 plugins.add(plugin);
@@ -385,9 +487,12 @@ public class RuntimeOptions {
     }
 
     private void setEventBusFormatterPlugins(Object plugin) {
-        if (plugin instanceof Formatter && bus != null) {
+        if (plugin instanceof ConcurrentEventListener && concurrentEventPublisher != null) {
+            ConcurrentEventListener listener = (ConcurrentEventListener) plugin;
+            listener.setEventPublisher(concurrentEventPublisher);
+        } else if (plugin instanceof Formatter && pluginEventPublisher != null) {
             Formatter formatter = (Formatter) plugin;
-            formatter.setEventPublisher(bus);
+            formatter.setEventPublisher(pluginEventPublisher);
         }
     }
 
@@ -446,6 +551,96 @@ public class RuntimeOptions {
         return snippetType;
     }
 
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isAsyncPlugins() {
+        return asyncPlugins;
+    }
+
+    /**
+     * @return whether the CPU time and allocated bytes of every step and hook are measured
+     */
+    public boolean isMeasureResources() {
+        return measureResources;
+    }
+
+    public File getFeatureCacheDir() {
+        return featureCacheDir;
+    }
+
+    /**
+     * @return the shard of the pickles to run, from 1 to {@link #getShardTotal()}.
+     */
+    public int getShardIndex() {
+        return shardIndex;
+    }
+
+    public int getShardTotal() {
+        return shardTotal;
+    }
+
+    /**
+     * @return the duration history to plan the shards with, or null to assign them by hash. The run only reads it.
+     */
+    public File getShardHistory() {
+        return shardHistory;
+    }
+
+    /**
+     * @return the number of worker JVMs to run the pickles on, or 0 to run them in this JVM.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * @return the HOST:PORT of the coordinator to ask for pickles, if this JVM is a worker.
+     */
+    public String getWorkerAddress() {
+        return workerAddress;
+    }
+
+    /**
+     * @return the command line arguments for the workers: those of this JVM without {@code --workers} and the
+     * plugins, which only the coordinator creates.
+     */
+    public List<String> getWorkerArgs() {
+        List<String> args = new ArrayList<String>();
+        List<String> coordinatorOnlyOptions = asList("--workers", "--plugin", "--add-plugin", "-p", "--format", "-f");
+        for (Iterator<String> iterator = workerArgs.iterator(); iterator.hasNext(); ) {
+            String arg = iterator.next();
+            if (coordinatorOnlyOptions.contains(arg)) {
+                if (iterator.hasNext()) {
+                    iterator.next(); // the value of the option
+                }
+            } else {
+                args.add(arg);
+            }
+        }
+        return args;
+    }
+
+    /**
+     * @return the directory of the event log to send to the plugins instead of running the features, or null to run them.
+     */
+    public File getReplayDir() {
+        return replayDir;
+    }
+
+    /**
+     * @return the history of the duration-history plugin, or null if there is none.
+     */
+    public DurationHistory getDurationHistory() {
+        for (Object plugin : getPlugins()) {
+            if (plugin instanceof DurationHistoryFormatter) {
+                return ((DurationHistoryFormatter) plugin).getDurationHistory();
+            }
+        }
+        return null;
+    }
+
     public List<String> getJunitOptions() {
         return junitOptions;
     }
@@ -501,7 +696,11 @@ public class RuntimeOptions {
         }
     }
 
-    void setEventBus(EventBus bus) {
-        this.bus = bus;
+    /**
+     * @param bus the bus that the formatter plugins will listen to.
+     */
+    public void setEventBus(EventBus bus) {
+        this.pluginEventPublisher = asyncPlugins ? new AsyncEventPublisher(bus) : bus;
+        this.concurrentEventPublisher = bus.getConcurrentEventPublisher();
     }
 }
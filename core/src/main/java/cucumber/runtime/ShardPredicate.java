@@ -0,0 +1,85 @@
+package cucumber.runtime;
+
+import gherkin.events.PickleEvent;
+import gherkin.pickles.PickleLocation;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Selects the pickles of one shard out of {@code total}. A pickle belongs to a shard by a
+ * hash of its uri and lines, so every JVM given the same features agrees on the shards
+ * without talking to the others, and the shards don't overlap.
+ * <p/>
+ * When the durations of the pickles are known, the shards can be {@linkplain #plan(Map) planned}
+ * instead, and pickles that aren't in the plan fall back to the hash. Every JVM has to make the
+ * same plan then, which their {@linkplain #digest(Map) digests} show.
+ */
+public class ShardPredicate implements PicklePredicate {
+    private final int index;
+    private final int total;
+    private volatile Map<String, Integer> plannedShards = Collections.emptyMap();
+
+    /**
+     * @param index the shard to select, from 1 to {@code total}
+     * @param total the number of shards
+     */
+    public ShardPredicate(int index, int total) {
+        if (total < 1 || index < 1 || index > total) {
+            throw new IllegalArgumentException("Shard " + index + "/" + total + " doesn't exist");
+        }
+        this.index = index;
+        this.total = total;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @param plannedShards the shard, from 1 to the total, by pickle id
+     * @see DurationHistory#assignShards(java.util.List, int)
+     */
+    public void plan(Map<String, Integer> plannedShards) {
+        this.plannedShards = plannedShards;
+    }
+
+    @Override
+    public boolean apply(PickleEvent pickleEvent) {
+        Integer plannedShard = plannedShards.get(DurationHistory.pickleId(pickleEvent));
+        return (plannedShard != null ? plannedShard : shard(pickleEvent, total)) == index;
+    }
+
+    /**
+     * @param plannedShards the shard, from 1 to the total, by pickle id
+     * @return a hash of the plan, the same in every JVM that made the same plan
+     */
+    public static String digest(Map<String, Integer> plannedShards) {
+        StringBuilder plan = new StringBuilder();
+        for (Map.Entry<String, Integer> plannedShard : new TreeMap<String, Integer>(plannedShards).entrySet()) {
+            plan.append(plannedShard.getKey()).append('\t').append(plannedShard.getValue()).append('\n');
+        }
+        return String.format("%08x", crc32(plan.toString()));
+    }
+
+    static int shard(PickleEvent pickleEvent, int total) {
+        StringBuilder key = new StringBuilder(pickleEvent.uri.replace('\\', '/'));
+        for (PickleLocation location : pickleEvent.pickle.getLocations()) {
+            key.append(':').append(location.getLine());
+        }
+        return (int) (crc32(key.toString()) % total) + 1;
+    }
+
+    private static long crc32(String text) {
+        CRC32 crc = new CRC32();
+        try {
+            crc.update(text.getBytes("UTF-8"));
+        } catch (UnsupportedEncodingException e) {
+            throw new CucumberException(e);
+        }
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,152 @@
+package cucumber.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of step definitions by the literal text their pattern starts with.
+ * <p/>
+ * Step definition patterns that are anchored with {@code ^} can only match step texts
+ * that start with the literal characters following the anchor. These literal prefixes
+ * are stored in a character trie, so finding the candidates for a step text only walks
+ * the trie along the text instead of trying every pattern. Patterns without a usable
+ * literal prefix (not anchored, using top level alternation, or starting with a group,
+ * class or escape) are candidates for every step.
+ * <p/>
+ * Candidates are returned in the same order as the patterns are iterated by
+ * {@link RuntimeGlue}, so ambiguous matches are reported as before.
+ */
+class StepDefinitionIndex {
+    private static final String META_CHARACTERS = "\\[](){}.*+?|$^";
+    private static final String QUANTIFIERS = "?*{+";
+    private static final Comparator<StepDefinition> PATTERN_ORDER = new Comparator<StepDefinition>() {
+        @Override
+        public int compare(StepDefinition a, StepDefinition b) {
+            return a.getPattern().compareTo(b.getPattern());
+        }
+    };
+
+    private final Node root = new Node();
+
+    void add(StepDefinition stepDefinition) {
+        String prefix = literalPrefix(stepDefinition.getPattern());
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.childFor(prefix.charAt(i));
+        }
+        node.stepDefinitions.add(stepDefinition);
+    }
+
+    void remove(StepDefinition stepDefinition) {
+        String prefix = literalPrefix(stepDefinition.getPattern());
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        if (node != null) {
+            node.stepDefinitions.remove(stepDefinition);
+        }
+    }
+
+    /**
+     * @param stepText the text of the step to match
+     * @return the step definitions that can possibly match {@code stepText}, ordered by pattern.
+     */
+    List<StepDefinition> candidates(String stepText) {
+        List<StepDefinition> candidates = new ArrayList<StepDefinition>(root.stepDefinitions);
+        Node node = root;
+        for (int i = 0; i < stepText.length(); i++) {
+            node = node.children.get(stepText.charAt(i));
+            if (node == null) {
+                break;
+            }
+            candidates.addAll(node.stepDefinitions);
+        }
+        if (candidates.size() > 1) {
+            Collections.sort(candidates, PATTERN_ORDER);
+        }
+        return candidates;
+    }
+
+    /**
+     * @param pattern a regular expression
+     * @return the literal text every match of {@code pattern} has to start with. May be empty.
+     */
+    static String literalPrefix(String pattern) {
+        if (!pattern.startsWith("^") || hasTopLevelAlternation(pattern)) {
+            return "";
+        }
+        StringBuilder prefix = new StringBuilder();
+        for (int i = 1; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (QUANTIFIERS.indexOf(c) != -1) {
+                // The previous character is optional or repeated
+                if (prefix.length() > 0) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            if (c == '\\' && i + 1 < pattern.length() && isEscapedLiteral(pattern.charAt(i + 1))) {
+                if (isQuantifierAt(pattern, i + 2)) {
+                    break;
+                }
+                prefix.append(pattern.charAt(++i));
+                continue;
+            }
+            if (META_CHARACTERS.indexOf(c) != -1) {
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String pattern) {
+        int depth = 0;
+        boolean inCharacterClass = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inCharacterClass) {
+                inCharacterClass = c != ']';
+            } else if (c == '[') {
+                inCharacterClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isEscapedLiteral(char c) {
+        // \d, \s, \Q, \1 etc. are not literals
+        return !Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isQuantifierAt(String pattern, int index) {
+        return index < pattern.length() && QUANTIFIERS.indexOf(pattern.charAt(index)) != -1;
+    }
+
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<Character, Node>();
+        private final List<StepDefinition> stepDefinitions = new ArrayList<StepDefinition>();
+
+        Node childFor(char c) {
+            Node child = children.get(c);
+            if (child == null) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+    }
+}
@@ -15,20 +15,31 @@ import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static cucumber.util.FixJava.map;
 
 public class StepDefinitionMatch extends Match implements DefinitionMatch {
+    private static final ConcurrentMap<String, Locale> LOCALES = new ConcurrentHashMap<String, Locale>();
+
     private final StepDefinition stepDefinition;
     private final transient String featurePath;
     // The official JSON gherkin format doesn't have a step attribute, so we're marking this as transient
     // to prevent it from ending up in the JSON.
     private final transient PickleStep step;
     private final LocalizedXStreams localizedXStreams;
+    // The parameters of the arguments, or null to ask the step definition for them
+    private final ParameterInfo[] parameterInfos;
 
     public StepDefinitionMatch(List<Argument> arguments, StepDefinition stepDefinition, String featurePath, PickleStep step, LocalizedXStreams localizedXStreams) {
-        super(arguments, stepDefinition.getLocation(false));
+        this(arguments, stepDefinition, stepDefinition.getLocation(false), null, featurePath, step, localizedXStreams);
+    }
+
+    StepDefinitionMatch(List<Argument> arguments, StepDefinition stepDefinition, String location, ParameterInfo[] parameterInfos, String featurePath, PickleStep step, LocalizedXStreams localizedXStreams) {
+        super(arguments, location);
         this.stepDefinition = stepDefinition;
+        this.parameterInfos = parameterInfos;
         this.featurePath = featurePath;
         this.step = step;
         this.localizedXStreams = localizedXStreams;
@@ -66,30 +77,30 @@ public class StepDefinitionMatch extends Match implements DefinitionMatch {
             throw arityMismatch(parameterCount);
         }
 
-        List<Object> result = new ArrayList<Object>();
-
+        List<Argument> arguments = getArguments();
+        Object[] result = new Object[argumentCount];
         int n = 0;
-        for (Argument a : getArguments()) {
-            ParameterInfo parameterInfo = getParameterType(n, String.class);
-            Object arg = parameterInfo.convert(a.getVal(), xStream);
-            result.add(arg);
-            n++;
+        for (; n < arguments.size(); n++) {
+            ParameterInfo parameterInfo = parameterInfos != null ? parameterInfos[n] : getParameterType(n, String.class);
+            result[n] = parameterInfo.convert(arguments.get(n).getVal(), xStream);
         }
 
         if (!step.getArgument().isEmpty()) {
             gherkin.pickles.Argument stepArgument = step.getArgument().get(0);
             if (stepArgument instanceof PickleTable) {
-                result.add(tableArgument((PickleTable) stepArgument, n, xStream));
+                result[n] = tableArgument((PickleTable) stepArgument, n, xStream);
             } else if (stepArgument instanceof PickleString) {
-                ParameterInfo parameterInfo = getParameterType(n, String.class);
-                Object arg = parameterInfo.convert(((PickleString) stepArgument).getContent(), xStream);
-                result.add(arg);
+                result[n] = getParameterType(n, String.class).convert(((PickleString) stepArgument).getContent(), xStream);
             }
         }
-        return result.toArray(new Object[result.size()]);
+        return result;
     }
 
     private ParameterInfo getParameterType(int n, Type argumentType) {
+        return parameterInfo(stepDefinition, n, argumentType);
+    }
+
+    static ParameterInfo parameterInfo(StepDefinition stepDefinition, int n, Type argumentType) {
         ParameterInfo parameterInfo = stepDefinition.getParameterType(n, argumentType);
         if (parameterInfo == null) {
             // Some backends return null because they don't know
@@ -162,6 +173,15 @@ public class StepDefinitionMatch extends Match implements DefinitionMatch {
     }
 
     private Locale localeFor(String language) {
+        Locale locale = LOCALES.get(language);
+        if (locale == null) {
+            locale = parseLocale(language);
+            LOCALES.putIfAbsent(language, locale);
+        }
+        return locale;
+    }
+
+    private static Locale parseLocale(String language) {
         String[] languageAndCountry = language.split("-");
         if (languageAndCountry.length == 1) {
             return new Locale(language);
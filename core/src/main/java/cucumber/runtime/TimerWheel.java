@@ -0,0 +1,163 @@
+package cucumber.runtime;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A hashed timer wheel that interrupts threads when their deadline has passed.
+ * <p/>
+ * All timeouts share a single daemon thread, which is started when the first timeout is
+ * scheduled and stops again after it has been idle for a while. The wheel advances one
+ * bucket per {@link #TICK_MILLIS} and only looks at the timeouts in the current bucket.
+ * Timeouts that are further away than one revolution of the wheel carry the number of
+ * revolutions they still have to wait.
+ * <p/>
+ * Timeouts are kept in doubly linked lists, so cancelling one is a constant time unlink
+ * that does not allocate. A timeout never fires early, and at most one tick late.
+ */
+class TimerWheel {
+    static final long TICK_MILLIS = 10;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final long IDLE_MILLIS = 1000;
+
+    static final TimerWheel INSTANCE = new TimerWheel();
+
+    private final Object lock = new Object();
+    private final Timer[] buckets = new Timer[WHEEL_SIZE];
+    private Thread worker;
+    private int pending;
+    private long startNanos;
+    private long currentTick;
+
+    /**
+     * Interrupts {@code thread} after {@code timeoutMillis} unless the returned timer is
+     * cancelled first.
+     */
+    Timer interruptAfter(Thread thread, long timeoutMillis) {
+        Timer timer = new Timer(thread);
+        synchronized (lock) {
+            long now = System.nanoTime();
+            if (pending == 0) {
+                // Nothing is scheduled, so the wheel can start counting from now.
+                startNanos = now;
+                currentTick = 0;
+            }
+            long deadlineTick = Math.max((now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - startNanos) / TICK_NANOS, currentTick);
+            timer.remainingRounds = (deadlineTick - currentTick) / WHEEL_SIZE;
+            link(timer, (int) (deadlineTick & MASK));
+            pending++;
+            if (worker == null) {
+                startWorker();
+            } else {
+                lock.notifyAll();
+            }
+        }
+        return timer;
+    }
+
+    private void startWorker() {
+        worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                advance();
+            }
+        }, "cucumber-timeout");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private void advance() {
+        synchronized (lock) {
+            try {
+                while (true) {
+                    if (pending == 0) {
+                        lock.wait(IDLE_MILLIS);
+                        if (pending == 0) {
+                            worker = null;
+                            return;
+                        }
+                        continue;
+                    }
+                    long sleepNanos = startNanos + (currentTick + 1) * TICK_NANOS - System.nanoTime();
+                    if (sleepNanos > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(lock, sleepNanos);
+                        continue;
+                    }
+                    expire(currentTick & MASK);
+                    currentTick++;
+                }
+            } catch (InterruptedException e) {
+                worker = null;
+            }
+        }
+    }
+
+    private void expire(long bucket) {
+        Timer timer = buckets[(int) bucket];
+        while (timer != null) {
+            Timer next = timer.next;
+            if (timer.remainingRounds <= 0) {
+                unlink(timer);
+                pending--;
+                timer.expired = true;
+                timer.thread.interrupt();
+            } else {
+                timer.remainingRounds--;
+            }
+            timer = next;
+        }
+    }
+
+    private void link(Timer timer, int bucket) {
+        timer.bucket = bucket;
+        timer.next = buckets[bucket];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        buckets[bucket] = timer;
+        timer.linked = true;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            buckets[timer.bucket] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.linked = false;
+    }
+
+    class Timer {
+        private final Thread thread;
+        private long remainingRounds;
+        private int bucket;
+        private Timer prev;
+        private Timer next;
+        private boolean linked;
+        private boolean expired;
+
+        private Timer(Thread thread) {
+            this.thread = thread;
+        }
+
+        /**
+         * @return true if the timer was cancelled before it expired, false if the thread has
+         * already been interrupted.
+         */
+        boolean cancel() {
+            synchronized (lock) {
+                if (linked) {
+                    unlink(this);
+                    pending--;
+                }
+                return !expired;
+            }
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package cucumber.runtime;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -37,15 +36,7 @@ public class Utils {
                 boolean accessible = targetMethod.isAccessible();
                 try {
                     targetMethod.setAccessible(true);
-                    return targetMethod.invoke(target, args);
-                } catch (IllegalArgumentException e) {
-                    throw new CucumberException("Failed to invoke " + MethodFormat.FULL.format(targetMethod) +
-                                                ", caused by " + e.getClass().getName() + ": " + e.getMessage(), e);
-                } catch (InvocationTargetException e) {
-                    throw e.getTargetException();
-                } catch (IllegalAccessException e) {
-                    throw new CucumberException("Failed to invoke " + MethodFormat.FULL.format(targetMethod) +
-                                                ", caused by " + e.getClass().getName() + ": " + e.getMessage(), e);
+                    return MethodInvoker.invoke(target, targetMethod, args);
                 } finally {
                     targetMethod.setAccessible(accessible);
                 }
@@ -53,7 +44,7 @@ public class Utils {
         }, timeoutMillis);
     }
 
-    private static Method targetMethod(final Object target, final Method method) throws NoSuchMethodException {
+    static Method targetMethod(final Object target, final Method method) throws NoSuchMethodException {
         final Class<?> targetClass = target.getClass();
         final Class<?> declaringClass = method.getDeclaringClass();
 
@@ -0,0 +1,62 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.formatter.Formatter;
+import cucumber.runtime.DurationHistory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link DurationHistory} of the test cases in a file.
+ * <p/>
+ * The history is read when the plugin is created, so it can be used to schedule the run,
+ * and written back with the durations of this run when the run finishes. Only test cases
+ * that passed or failed are recorded, the durations of skipped, pending or undefined ones
+ * say nothing about the next run.
+ */
+public class DurationHistoryFormatter implements Formatter {
+    private final File file;
+    private final DurationHistory durationHistory;
+
+    private final EventHandler<TestCaseFinished> testCaseFinishedHandler = new EventHandler<TestCaseFinished>() {
+        @Override
+        public void receive(TestCaseFinished event) {
+            handleTestCaseFinished(event);
+        }
+    };
+    private final EventHandler<TestRunFinished> runFinishedHandler = new EventHandler<TestRunFinished>() {
+        @Override
+        public void receive(TestRunFinished event) {
+            durationHistory.save(file);
+        }
+    };
+
+    public DurationHistoryFormatter(File file) {
+        this.file = file;
+        this.durationHistory = DurationHistory.load(file);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, testCaseFinishedHandler);
+        publisher.registerHandlerFor(TestRunFinished.class, runFinishedHandler);
+    }
+
+    public DurationHistory getDurationHistory() {
+        return durationHistory;
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        Result result = event.result;
+        if (result.getDuration() == null || !(result.is(Result.Type.PASSED) || result.is(Result.Type.FAILED))) {
+            return;
+        }
+        String pickleId = DurationHistory.pickleId(event.testCase.getPath(), event.testCase.getLine());
+        durationHistory.record(pickleId, TimeUnit.NANOSECONDS.toMillis(result.getDuration()));
+    }
+}
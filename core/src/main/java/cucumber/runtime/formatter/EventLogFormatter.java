@@ -0,0 +1,45 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.formatter.Formatter;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.remote.EventLog;
+import cucumber.runtime.remote.EventWriter;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Records the events of the run in an {@link EventLog}, so reports can be made from it later
+ * with {@code --replay}.
+ * <p/>
+ * Recording only appends the events to a buffered file in a compact binary form, which costs
+ * the test thread less than most of the formatters whose reports can be made from the log.
+ */
+public class EventLogFormatter implements Formatter {
+    private final EventWriter writer;
+
+    private final EventHandler<TestRunFinished> runFinishedHandler = new EventHandler<TestRunFinished>() {
+        @Override
+        public void receive(TestRunFinished event) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new CucumberException("Failed to close the event log", e);
+            }
+        }
+    };
+
+    public EventLogFormatter(File directory) throws IOException {
+        this.writer = EventLog.create(directory);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        // The writer writes the TestRunFinished before the log is closed
+        writer.setEventPublisher(publisher);
+        publisher.registerHandlerFor(TestRunFinished.class, runFinishedHandler);
+    }
+}
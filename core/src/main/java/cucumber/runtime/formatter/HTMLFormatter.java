@@ -14,6 +14,7 @@ import cucumber.api.event.TestStepStarted;
 import cucumber.api.event.WriteEvent;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.io.URLOutputStream;
 import gherkin.ast.Background;
@@ -493,7 +494,7 @@ class HTMLFormatter implements Formatter {
     private NiceAppendable jsOut() {
         if (jsOut == null) {
             try {
-                jsOut = new NiceAppendable(new OutputStreamWriter(reportFileOutputStream(JS_REPORT_FILENAME), "UTF-8"));
+                jsOut = new NiceAppendable(new OutputStreamWriter(reportFileOutputStream(JS_REPORT_FILENAME), "UTF-8"), FlushPolicy.CLOSE);
             } catch (IOException e) {
                 throw new CucumberException(e);
             }
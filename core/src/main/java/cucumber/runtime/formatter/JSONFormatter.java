@@ -7,6 +7,7 @@ import cucumber.api.TestStep;
 import cucumber.api.event.EmbedEvent;
 import cucumber.api.event.EventHandler;
 import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
 import cucumber.api.event.TestCaseStarted;
 import cucumber.api.event.TestRunFinished;
 import cucumber.api.event.TestSourceRead;
@@ -15,12 +16,14 @@ import cucumber.api.event.TestStepStarted;
 import cucumber.api.event.WriteEvent;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 import gherkin.ast.Background;
 import gherkin.ast.Feature;
 import gherkin.ast.ScenarioDefinition;
 import gherkin.ast.Step;
 import gherkin.deps.com.google.gson.Gson;
 import gherkin.deps.com.google.gson.GsonBuilder;
+import gherkin.deps.com.google.gson.stream.JsonWriter;
 import gherkin.deps.net.iharder.Base64;
 import gherkin.pickles.Argument;
 import gherkin.pickles.PickleCell;
@@ -29,12 +32,27 @@ import gherkin.pickles.PickleString;
 import gherkin.pickles.PickleTable;
 import gherkin.pickles.PickleTag;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Writes the results of the run as a JSON array of features.
+ * <p/>
+ * By default the whole report is kept in memory and written when the run has finished.
+ * In streaming mode every scenario is written as soon as it has finished and then
+ * discarded, so only the scenario that is currently running is kept in memory. The output
+ * is the same in both modes.
+ */
 class JSONFormatter implements Formatter {
+    private static final String INDENT = "  ";
+    private final boolean streaming;
+    private JsonWriter jsonWriter;
     private String currentFeatureFile;
     private List<Map<String, Object>> featureMaps = new ArrayList<Map<String, Object>>();
     private List<Map<String, Object>> currentElementsList;
@@ -58,6 +76,12 @@ class JSONFormatter implements Formatter {
             handleTestCaseStarted(event);
         }
     };
+    private EventHandler<TestCaseFinished> caseFinishedHandler = new EventHandler<TestCaseFinished>() {
+        @Override
+        public void receive(TestCaseFinished event) {
+            handleTestCaseFinished(event);
+        }
+    };
     private EventHandler<TestStepStarted> stepStartedHandler = new EventHandler<TestStepStarted>() {
         @Override
         public void receive(TestStepStarted event) {
@@ -90,13 +114,22 @@ class JSONFormatter implements Formatter {
     };
 
     public JSONFormatter(Appendable out) {
-        this.out = new NiceAppendable(out);
+        this(out, false);
+    }
+
+    JSONFormatter(Appendable out, boolean streaming) {
+        FlushPolicy filePolicy = streaming ? FlushPolicy.TEST_CASE : FlushPolicy.CLOSE;
+        this.out = new NiceAppendable(out, FlushPolicy.forOutput(out, FlushPolicy.LINE, filePolicy));
+        this.streaming = streaming;
     }
 
     @Override
     public void setEventPublisher(EventPublisher publisher) {
         publisher.registerHandlerFor(TestSourceRead.class, testSourceReadHandler);
         publisher.registerHandlerFor(TestCaseStarted.class, caseStartedHandler);
+        if (streaming) {
+            publisher.registerHandlerFor(TestCaseFinished.class, caseFinishedHandler);
+        }
         publisher.registerHandlerFor(TestStepStarted.class, stepStartedHandler);
         publisher.registerHandlerFor(TestStepFinished.class, stepFinishedHandler);
         publisher.registerHandlerFor(WriteEvent.class, writeEventhandler);
@@ -112,7 +145,11 @@ class JSONFormatter implements Formatter {
         if (currentFeatureFile == null || !currentFeatureFile.equals(event.testCase.getPath())) {
             currentFeatureFile = event.testCase.getPath();
             Map<String, Object> currentFeatureMap = createFeatureMap(event.testCase);
-            featureMaps.add(currentFeatureMap);
+            if (streaming) {
+                startFeature(currentFeatureMap);
+            } else {
+                featureMaps.add(currentFeatureMap);
+            }
             currentElementsList = (List<Map<String, Object>>) currentFeatureMap.get("elements");
         }
         currentTestCaseMap = createTestCase(event.testCase);
@@ -126,6 +163,23 @@ class JSONFormatter implements Formatter {
         currentStepsList = (List<Map<String, Object>>) currentElementMap.get("steps");
     }
 
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        try {
+            for (Map<String, Object> elementMap : currentElementsList) {
+                gson.toJson(elementMap, elementMap.getClass(), jsonWriter);
+            }
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        out.testCaseFinished();
+        currentElementsList.clear();
+        currentElementMap = null;
+        currentTestCaseMap = null;
+        currentStepsList = null;
+        currentStepOrHookMap = null;
+    }
+
     private void handleTestStepStarted(TestStepStarted event) {
         if (!event.testStep.isHook()) {
             if (isFirstStepAfterBackground(event.testStep)) {
@@ -154,14 +208,63 @@ class JSONFormatter implements Formatter {
     }
 
     private void finishReport() {
-        out.append(gson.toJson(featureMaps));
+        if (streaming) {
+            finishStreamedReport();
+        } else {
+            out.append(gson.toJson(featureMaps));
+        }
         out.close();
     }
 
+    private void startFeature(Map<String, Object> featureMap) {
+        try {
+            if (jsonWriter == null) {
+                jsonWriter = createJsonWriter();
+                jsonWriter.beginArray();
+            } else {
+                jsonWriter.endArray();
+                jsonWriter.endObject();
+            }
+            jsonWriter.beginObject();
+            for (Map.Entry<String, Object> entry : featureMap.entrySet()) {
+                if (!entry.getKey().equals("elements")) {
+                    jsonWriter.name(entry.getKey());
+                    gson.toJson(entry.getValue(), entry.getValue().getClass(), jsonWriter);
+                }
+            }
+            jsonWriter.name("elements");
+            jsonWriter.beginArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void finishStreamedReport() {
+        try {
+            if (jsonWriter == null) {
+                jsonWriter = createJsonWriter();
+                jsonWriter.beginArray();
+            } else {
+                jsonWriter.endArray();
+                jsonWriter.endObject();
+            }
+            jsonWriter.endArray();
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private JsonWriter createJsonWriter() {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new NiceAppendableWriter(out)));
+        writer.setIndent(INDENT);
+        return writer;
+    }
+
     private Map<String, Object> createFeatureMap(TestCase testCase) {
-        Map<String, Object> featureMap = new HashMap<String, Object>();
+        // Elements go last, so the streaming mode can write the other fields first
+        Map<String, Object> featureMap = new LinkedHashMap<String, Object>();
         featureMap.put("uri", testCase.getPath());
-        featureMap.put("elements", new ArrayList<Map<String, Object>>());
         Feature feature = testSources.getFeature(testCase.getPath());
         if (feature != null) {
             featureMap.put("keyword", feature.getKeyword());
@@ -170,6 +273,7 @@ class JSONFormatter implements Formatter {
             featureMap.put("line", feature.getLocation().getLine());
             featureMap.put("id", TestSourcesModel.convertToId(feature.getName()));
         }
+        featureMap.put("elements", new ArrayList<Map<String, Object>>());
         return featureMap;
     }
 
@@ -331,6 +435,33 @@ class JSONFormatter implements Formatter {
         if (result.getDuration() != null && result.getDuration() != 0) {
             resultMap.put("duration", result.getDuration());
         }
+        if (result.getCpuTime() != null) {
+            resultMap.put("cpu_time", result.getCpuTime());
+        }
+        if (result.getAllocatedBytes() != null) {
+            resultMap.put("allocated_bytes", result.getAllocatedBytes());
+        }
         return resultMap;
     }
+
+    private static class NiceAppendableWriter extends Writer {
+        private final NiceAppendable out;
+
+        NiceAppendableWriter(NiceAppendable out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            out.append(new String(cbuf, off, len));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
 }
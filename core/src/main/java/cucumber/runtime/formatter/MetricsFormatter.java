@@ -0,0 +1,190 @@
+package cucumber.runtime.formatter;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import cucumber.api.event.ConcurrentEventListener;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.formatter.Formatter;
+import cucumber.runner.TimeService;
+import cucumber.runtime.CucumberException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+
+/**
+ * Shows the progress of a run while it runs: the results of the scenarios so far, the scenarios per second,
+ * the scenarios in flight and the latency of the steps of every step definition.
+ * <p/>
+ * The metrics are registered with JMX as {@code cucumber:type=RunMetrics} for as long as the run runs, with a
+ * {@code run} key if another run in the same JVM has that name already. With
+ * {@code --plugin metrics:PORT} or {@code --plugin metrics:http://HOST:PORT/PATH} they are also served in the
+ * text format of Prometheus, on {@code http://127.0.0.1:PORT/metrics} for the first form.
+ * <p/>
+ * The plugin gets the events as soon as they are sent, so with {@code --threads} or {@code --workers} the
+ * scenarios in flight are counted too.
+ */
+public class MetricsFormatter implements Formatter, ConcurrentEventListener {
+    static final String OBJECT_NAME = "cucumber:type=RunMetrics";
+    private static final String DEFAULT_HOST = "127.0.0.1";
+    private static final String DEFAULT_PATH = "/metrics";
+
+    private final RunMetrics metrics;
+    private final InetSocketAddress endpointAddress;
+    private final String endpointPath;
+    private HttpServer server;
+    private ObjectName objectName;
+
+    private final EventHandler<TestCaseStarted> testCaseStartedHandler = new EventHandler<TestCaseStarted>() {
+        @Override
+        public void receive(TestCaseStarted event) {
+            metrics.testCaseStarted();
+        }
+    };
+    private final EventHandler<TestCaseFinished> testCaseFinishedHandler = new EventHandler<TestCaseFinished>() {
+        @Override
+        public void receive(TestCaseFinished event) {
+            metrics.testCaseFinished(event.result.getStatus());
+        }
+    };
+    private final EventHandler<TestStepFinished> stepFinishedHandler = new EventHandler<TestStepFinished>() {
+        @Override
+        public void receive(TestStepFinished event) {
+            if (!event.testStep.isHook() && event.result.getDuration() != null) {
+                metrics.testStepFinished(event.testStep.getPattern(), event.result.getDuration());
+            }
+        }
+    };
+    private final EventHandler<TestRunFinished> runFinishedHandler = new EventHandler<TestRunFinished>() {
+        @Override
+        public void receive(TestRunFinished event) {
+            stop();
+        }
+    };
+
+    public MetricsFormatter() {
+        this(null, TimeService.SYSTEM);
+    }
+
+    public MetricsFormatter(URI endpoint) {
+        this(endpoint, TimeService.SYSTEM);
+    }
+
+    MetricsFormatter(URI endpoint, TimeService timeService) {
+        this.metrics = new RunMetrics(timeService);
+        if (endpoint == null) {
+            this.endpointAddress = null;
+            this.endpointPath = null;
+        } else if (endpoint.getScheme() == null && endpoint.getPath() != null && endpoint.getPath().matches("\\d+")) {
+            this.endpointAddress = new InetSocketAddress(DEFAULT_HOST, Integer.parseInt(endpoint.getPath()));
+            this.endpointPath = DEFAULT_PATH;
+        } else if ("http".equals(endpoint.getScheme()) && endpoint.getPort() >= 0) {
+            String host = endpoint.getHost() != null ? endpoint.getHost() : DEFAULT_HOST;
+            String path = endpoint.getPath();
+            this.endpointAddress = new InetSocketAddress(host, endpoint.getPort());
+            this.endpointPath = path == null || path.isEmpty() ? DEFAULT_PATH : path;
+        } else {
+            throw new CucumberException("The metrics plugin takes PORT or http://HOST:PORT/PATH, not: " + endpoint);
+        }
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, testCaseStartedHandler);
+        publisher.registerHandlerFor(TestCaseFinished.class, testCaseFinishedHandler);
+        publisher.registerHandlerFor(TestStepFinished.class, stepFinishedHandler);
+        publisher.registerHandlerFor(TestRunFinished.class, runFinishedHandler);
+        start();
+    }
+
+    RunMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the address the metrics are served on, or null if they aren't
+     */
+    InetSocketAddress getEndpointAddress() {
+        return server != null ? server.getAddress() : null;
+    }
+
+    void start() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            // Runs in the same JVM at the same time get their own name
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            for (int run = 2; mBeanServer.isRegistered(name); run++) {
+                name = new ObjectName(OBJECT_NAME + ",run=" + run);
+            }
+            mBeanServer.registerMBean(metrics, name);
+            objectName = name;
+        } catch (JMException e) {
+            throw new CucumberException("Couldn't register the run metrics as " + OBJECT_NAME, e);
+        }
+        if (endpointAddress != null) {
+            try {
+                server = HttpServer.create(endpointAddress, 0);
+            } catch (IOException e) {
+                throw new CucumberException("Couldn't serve the run metrics on " + endpointAddress, e);
+            }
+            server.createContext(endpointPath, new HttpHandler() {
+                @Override
+                public void handle(HttpExchange exchange) throws IOException {
+                    serve(exchange);
+                }
+            });
+            server.start();
+        }
+    }
+
+    void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                throw new CucumberException("Couldn't unregister the run metrics " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder text = new StringBuilder();
+            metrics.writePrometheus(text);
+            byte[] body = text.toString().getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream out = exchange.getResponseBody();
+            out.write(body);
+            out.flush();
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -45,6 +45,8 @@ import static java.util.Arrays.asList;
  */
 public class PluginFactory {
     private final Class[] CTOR_ARGS = new Class[]{null, Appendable.class, URI.class, URL.class, File.class};
+    // With an argument a plugin that can take it is created with it, even if it has an empty constructor
+    private final Class[] CTOR_ARGS_WITH_ARGUMENT = new Class[]{Appendable.class, URI.class, URL.class, File.class, null};
 
     private static final Map<String, Class> PLUGIN_CLASSES = new HashMap<String, Class>() {{
         put("null", NullFormatter.class);
@@ -54,8 +56,12 @@ public class PluginFactory {
         put("pretty", PrettyFormatter.class);
         put("progress", ProgressFormatter.class);
         put("json", JSONFormatter.class);
+        put("json-stream", StreamingJSONFormatter.class);
         put("usage", UsageFormatter.class);
         put("rerun", RerunFormatter.class);
+        put("duration-history", DurationHistoryFormatter.class);
+        put("event-log", EventLogFormatter.class);
+        put("metrics", MetricsFormatter.class);
         put("default_summary", DefaultSummaryPrinter.class);
         put("null_summary", NullSummaryPrinter.class);
     }};
@@ -90,7 +96,7 @@ public class PluginFactory {
     }
 
     private <T> T instantiate(String pluginString, Class<T> pluginClass, String pathOrUrl) throws IOException, URISyntaxException {
-        for (Class ctorArgClass : CTOR_ARGS) {
+        for (Class ctorArgClass : pathOrUrl == null ? CTOR_ARGS : CTOR_ARGS_WITH_ARGUMENT) {
             Constructor<T> constructor = findConstructor(pluginClass, ctorArgClass);
             if (constructor != null) {
                 Object ctorArg = convertOrNull(pathOrUrl, ctorArgClass, pluginString);
@@ -14,6 +14,7 @@ import cucumber.api.event.WriteEvent;
 import cucumber.api.formatter.ColorAware;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 import cucumber.runtime.Argument;
 import cucumber.util.FixJava;
 import cucumber.util.Mapper;
@@ -91,7 +92,7 @@ class PrettyFormatter implements Formatter, ColorAware {
     };
 
     public PrettyFormatter(Appendable out) {
-        this.out = new NiceAppendable(out);
+        this.out = new NiceAppendable(out, FlushPolicy.forOutput(out, FlushPolicy.LINE, FlushPolicy.CLOSE));
         this.formats = new AnsiFormats();
     }
 
@@ -10,6 +10,7 @@ import cucumber.api.formatter.AnsiEscapes;
 import cucumber.api.formatter.ColorAware;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -52,7 +53,8 @@ class ProgressFormatter implements Formatter, ColorAware {
     };
 
     public ProgressFormatter(Appendable appendable) {
-        out = new NiceAppendable(appendable);
+        // Progress is shown one character at a time
+        out = new NiceAppendable(appendable, FlushPolicy.forOutput(appendable, FlushPolicy.ALWAYS, FlushPolicy.CLOSE));
     }
 
     @Override
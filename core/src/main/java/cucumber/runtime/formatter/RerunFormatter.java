@@ -7,6 +7,7 @@ import cucumber.api.event.TestCaseFinished;
 import cucumber.api.event.TestRunFinished;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 import cucumber.api.formatter.StrictAware;
 
 import java.util.ArrayList;
@@ -38,7 +39,7 @@ class RerunFormatter implements Formatter, StrictAware {
     };
 
     public RerunFormatter(Appendable out) {
-        this.out = new NiceAppendable(out);
+        this.out = new NiceAppendable(out, FlushPolicy.forOutput(out, FlushPolicy.LINE, FlushPolicy.CLOSE));
     }
 
     @Override
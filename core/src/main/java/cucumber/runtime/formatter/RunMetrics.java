@@ -0,0 +1,195 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.runner.TimeService;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and step latency histograms of a run. They are updated without locking, from the threads
+ * that run the scenarios, and can be read at any time.
+ */
+final class RunMetrics implements RunMetricsMXBean {
+    private static final long NOT_YET = Long.MIN_VALUE;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final TimeService timeService;
+    private final AtomicLongArray results = new AtomicLongArray(Result.Type.values().length);
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong firstStarted = new AtomicLong(NOT_YET);
+    private final AtomicLong lastFinished = new AtomicLong(NOT_YET);
+    private final ConcurrentMap<String, Histogram> stepDurations = new ConcurrentHashMap<String, Histogram>();
+
+    RunMetrics(TimeService timeService) {
+        this.timeService = timeService;
+    }
+
+    void testCaseStarted() {
+        firstStarted.compareAndSet(NOT_YET, timeService.time());
+        started.incrementAndGet();
+    }
+
+    void testCaseFinished(Result.Type status) {
+        results.incrementAndGet(status.ordinal());
+        lastFinished.set(timeService.time());
+    }
+
+    void testStepFinished(String pattern, long duration) {
+        Histogram histogram = stepDurations.get(pattern);
+        if (histogram == null) {
+            Histogram newHistogram = new Histogram();
+            histogram = stepDurations.putIfAbsent(pattern, newHistogram);
+            if (histogram == null) {
+                histogram = newHistogram;
+            }
+        }
+        histogram.record(duration);
+    }
+
+    @Override
+    public long getPassed() {
+        return results.get(Result.Type.PASSED.ordinal());
+    }
+
+    @Override
+    public long getFailed() {
+        return results.get(Result.Type.FAILED.ordinal());
+    }
+
+    @Override
+    public long getPending() {
+        return results.get(Result.Type.PENDING.ordinal());
+    }
+
+    @Override
+    public long getSkipped() {
+        return results.get(Result.Type.SKIPPED.ordinal());
+    }
+
+    @Override
+    public long getUndefined() {
+        return results.get(Result.Type.UNDEFINED.ordinal());
+    }
+
+    @Override
+    public long getStarted() {
+        return started.get();
+    }
+
+    @Override
+    public long getFinished() {
+        long finished = 0;
+        for (int i = 0; i < results.length(); i++) {
+            finished += results.get(i);
+        }
+        return finished;
+    }
+
+    @Override
+    public long getInFlight() {
+        // Finished is read before started, a scenario that finishes in between is then still in flight
+        long finished = getFinished();
+        return Math.max(getStarted() - finished, 0);
+    }
+
+    @Override
+    public double getScenariosPerSecond() {
+        long first = firstStarted.get();
+        if (first == NOT_YET) {
+            return 0;
+        }
+        long elapsed = timeService.time() - first;
+        return elapsed <= 0 ? 0 : getFinished() * NANOS_PER_SECOND / elapsed;
+    }
+
+    @Override
+    public double getSecondsSinceLastFinished() {
+        long last = lastFinished.get();
+        if (last == NOT_YET) {
+            last = firstStarted.get();
+        }
+        if (last == NOT_YET) {
+            return -1;
+        }
+        return Math.max(timeService.time() - last, 0) / NANOS_PER_SECOND;
+    }
+
+    @Override
+    public Map<String, StepLatency> getStepLatencies() {
+        Map<String, StepLatency> latencies = new TreeMap<String, StepLatency>();
+        for (Map.Entry<String, Histogram> stepDuration : stepDurations.entrySet()) {
+            Histogram histogram = stepDuration.getValue();
+            latencies.put(stepDuration.getKey(), new StepLatency(
+                    histogram.getCount(),
+                    histogram.getTotal() / NANOS_PER_SECOND,
+                    histogram.getValueAtPercentile(50) / NANOS_PER_SECOND,
+                    histogram.getValueAtPercentile(90) / NANOS_PER_SECOND,
+                    histogram.getValueAtPercentile(99) / NANOS_PER_SECOND,
+                    histogram.getMax() / NANOS_PER_SECOND));
+        }
+        return latencies;
+    }
+
+    /**
+     * Writes the metrics in the text format of Prometheus, version 0.0.4.
+     */
+    void writePrometheus(StringBuilder out) {
+        out.append("# HELP cucumber_scenarios_total Scenarios that finished, by result.\n");
+        out.append("# TYPE cucumber_scenarios_total counter\n");
+        for (Result.Type type : Result.Type.values()) {
+            out.append("cucumber_scenarios_total{result=\"").append(type.lowerCaseName()).append("\"} ")
+                    .append(results.get(type.ordinal())).append('\n');
+        }
+        gauge(out, "cucumber_scenarios_started_total", "counter", "Scenarios that started.", getStarted());
+        gauge(out, "cucumber_scenarios_in_flight", "gauge", "Scenarios that started and didn't finish yet.", getInFlight());
+        gauge(out, "cucumber_scenarios_per_second", "gauge", "Scenarios that finished per second since the first one started.",
+                getScenariosPerSecond());
+        gauge(out, "cucumber_seconds_since_last_scenario_finished", "gauge",
+                "Seconds since the last scenario finished, or since the first one started.", getSecondsSinceLastFinished());
+
+        SortedMap<String, Histogram> histograms = new TreeMap<String, Histogram>(stepDurations);
+        out.append("# HELP cucumber_step_duration_seconds Duration of the steps, by step definition.\n");
+        out.append("# TYPE cucumber_step_duration_seconds summary\n");
+        for (Map.Entry<String, Histogram> stepDuration : histograms.entrySet()) {
+            String label = "step_definition=\"" + escape(stepDuration.getKey()) + "\"";
+            Histogram histogram = stepDuration.getValue();
+            for (int percentile : new int[]{50, 90, 99}) {
+                out.append("cucumber_step_duration_seconds{").append(label).append(",quantile=\"").append(percentile / 100.0).append("\"} ")
+                        .append(format(histogram.getValueAtPercentile(percentile) / NANOS_PER_SECOND)).append('\n');
+            }
+            out.append("cucumber_step_duration_seconds_sum{").append(label).append("} ")
+                    .append(format(histogram.getTotal() / NANOS_PER_SECOND)).append('\n');
+            out.append("cucumber_step_duration_seconds_count{").append(label).append("} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+        out.append("# HELP cucumber_step_duration_max_seconds Longest duration of a step, by step definition.\n");
+        out.append("# TYPE cucumber_step_duration_max_seconds gauge\n");
+        for (Map.Entry<String, Histogram> stepDuration : histograms.entrySet()) {
+            out.append("cucumber_step_duration_max_seconds{step_definition=\"").append(escape(stepDuration.getKey())).append("\"} ")
+                    .append(format(stepDuration.getValue().getMax() / NANOS_PER_SECOND)).append('\n');
+        }
+    }
+
+    private static void gauge(StringBuilder out, String name, String type, String help, double value) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        out.append(name).append(' ').append(format(value)).append('\n');
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
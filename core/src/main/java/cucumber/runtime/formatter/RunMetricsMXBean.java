@@ -0,0 +1,93 @@
+package cucumber.runtime.formatter;
+
+import java.beans.ConstructorProperties;
+import java.util.Map;
+
+/**
+ * The progress of a run as it is seen by the metrics plugin, registered as {@code cucumber:type=RunMetrics}.
+ */
+public interface RunMetricsMXBean {
+    long getPassed();
+
+    long getFailed();
+
+    long getPending();
+
+    long getSkipped();
+
+    long getUndefined();
+
+    /**
+     * @return the scenarios that started
+     */
+    long getStarted();
+
+    /**
+     * @return the scenarios that finished, whatever their result
+     */
+    long getFinished();
+
+    /**
+     * @return the scenarios that started and didn't finish yet
+     */
+    long getInFlight();
+
+    /**
+     * @return the scenarios that finished per second since the first one started
+     */
+    double getScenariosPerSecond();
+
+    /**
+     * @return the seconds since the last scenario finished, or since the first one started if none finished
+     * yet, or -1 if none started. A value that keeps growing while scenarios are in flight means they are stuck.
+     */
+    double getSecondsSinceLastFinished();
+
+    /**
+     * @return the latency of the steps by step definition (pattern)
+     */
+    Map<String, StepLatency> getStepLatencies();
+
+    class StepLatency {
+        private final long count;
+        private final double totalSeconds;
+        private final double p50Seconds;
+        private final double p90Seconds;
+        private final double p99Seconds;
+        private final double maxSeconds;
+
+        @ConstructorProperties({"count", "totalSeconds", "p50Seconds", "p90Seconds", "p99Seconds", "maxSeconds"})
+        public StepLatency(long count, double totalSeconds, double p50Seconds, double p90Seconds, double p99Seconds, double maxSeconds) {
+            this.count = count;
+            this.totalSeconds = totalSeconds;
+            this.p50Seconds = p50Seconds;
+            this.p90Seconds = p90Seconds;
+            this.p99Seconds = p99Seconds;
+            this.maxSeconds = maxSeconds;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        public double getP50Seconds() {
+            return p50Seconds;
+        }
+
+        public double getP90Seconds() {
+            return p90Seconds;
+        }
+
+        public double getP99Seconds() {
+            return p99Seconds;
+        }
+
+        public double getMaxSeconds() {
+            return maxSeconds;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cucumber.runtime.formatter;
+
+/**
+ * Writes the same report as {@link JSONFormatter}, but writes every scenario as soon as
+ * it has finished instead of keeping the whole report in memory until the end of the run.
+ */
+class StreamingJSONFormatter extends JSONFormatter {
+    public StreamingJSONFormatter(Appendable out) {
+        super(out, true);
+    }
+}
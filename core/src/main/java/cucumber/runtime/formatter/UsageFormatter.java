@@ -7,24 +7,34 @@ import cucumber.api.event.TestRunFinished;
 import cucumber.api.event.TestStepFinished;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.NiceAppendable;
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
 import gherkin.deps.com.google.gson.Gson;
 import gherkin.deps.com.google.gson.GsonBuilder;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
 
 /**
- * Formatter to measure performance of steps. Aggregated results for all steps can be computed
- * by adding {@link UsageStatisticStrategy} to the usageFormatter
+ * Formatter to measure performance of steps. The durations of the steps of every step definition are kept
+ * in a {@link Histogram}, so the memory it needs doesn't grow with the number of steps that are run.
+ * <p/>
+ * The report lists the step definitions by the total duration of their steps, the slowest first, with
+ * their percentiles, their slowest steps and the buckets of the histogram. The buckets of the reports
+ * of several shards can be added up.
  */
 class UsageFormatter implements Formatter {
     private static final BigDecimal NANOS_PER_SECOND = BigDecimal.valueOf(1000000000);
-    final Map<String, List<StepContainer>> usageMap = new HashMap<String, List<StepContainer>>();
-    private final Map<String, UsageStatisticStrategy> statisticStrategies = new HashMap<String, UsageStatisticStrategy>();
+    static final int SLOWEST_STEPS = 10;
+    final Map<String, StepDefUsage> usageMap = new HashMap<String, StepDefUsage>();
 
     private final NiceAppendable out;
 
@@ -47,10 +57,7 @@ class UsageFormatter implements Formatter {
      * @param out {@link Appendable} to print the result
      */
     public UsageFormatter(Appendable out) {
-        this.out = new NiceAppendable(out);
-
-        addUsageStatisticStrategy("median", new MedianUsageStatisticStrategy());
-        addUsageStatisticStrategy("average", new AverageUsageStatisticStrategy());
+        this.out = new NiceAppendable(out, FlushPolicy.forOutput(out, FlushPolicy.LINE, FlushPolicy.CLOSE));
     }
 
     @Override
@@ -61,196 +68,192 @@ class UsageFormatter implements Formatter {
 
     void handleTestStepFinished(TestStepFinished event) {
         if (!event.testStep.isHook() && event.result.is(Result.Type.PASSED)) {
-            addUsageEntry(event.result, event.testStep.getPattern(), event.testStep.getStepText(), event.testStep.getStepLocation());
+            StepDefUsage usage = usageMap.get(event.testStep.getPattern());
+            if (usage == null) {
+                usage = new StepDefUsage();
+                usageMap.put(event.testStep.getPattern(), usage);
+            }
+            usage.add(event.result, event.testStep.getStepText(), event.testStep.getStepLocation());
         }
     }
 
     void finishReport() {
+        List<Map.Entry<String, StepDefUsage>> usages = new ArrayList<Map.Entry<String, StepDefUsage>>(usageMap.entrySet());
+        Collections.sort(usages, new Comparator<Map.Entry<String, StepDefUsage>>() {
+            @Override
+            public int compare(Map.Entry<String, StepDefUsage> a, Map.Entry<String, StepDefUsage> b) {
+                long aTotal = a.getValue().durations.getTotal();
+                long bTotal = b.getValue().durations.getTotal();
+                if (aTotal != bTotal) {
+                    return aTotal > bTotal ? -1 : 1;
+                }
+                return a.getKey().compareTo(b.getKey());
+            }
+        });
+        long totalDuration = 0;
+        for (Map.Entry<String, StepDefUsage> usage : usages) {
+            totalDuration += usage.getValue().durations.getTotal();
+        }
+
         List<StepDefContainer> stepDefContainers = new ArrayList<StepDefContainer>();
-        for (Map.Entry<String, List<StepContainer>> usageEntry : usageMap.entrySet()) {
+        for (Map.Entry<String, StepDefUsage> usageEntry : usages) {
+            StepDefUsage usage = usageEntry.getValue();
             StepDefContainer stepDefContainer = new StepDefContainer();
             stepDefContainers.add(stepDefContainer);
 
+            stepDefContainer.rank = stepDefContainers.size();
             stepDefContainer.source = usageEntry.getKey();
-            stepDefContainer.steps = createStepContainer(usageEntry.getValue());
+            stepDefContainer.count = usage.durations.getCount();
+            stepDefContainer.shareOfTotalDuration = totalDuration == 0 ? BigDecimal.ZERO :
+                    BigDecimal.valueOf(usage.durations.getTotal()).divide(BigDecimal.valueOf(totalDuration), 4, RoundingMode.HALF_UP);
+            stepDefContainer.aggregatedDurations = toSeconds(createAggregates(usage.durations));
+            if (usage.cpuTimes != null) {
+                stepDefContainer.aggregatedCpuTimes = toSeconds(createAggregates(usage.cpuTimes));
+            }
+            if (usage.allocatedBytes != null) {
+                stepDefContainer.aggregatedAllocatedBytes = createAggregates(usage.allocatedBytes);
+            }
+            stepDefContainer.slowestSteps = usage.getSlowestSteps();
+            stepDefContainer.durationHistogram = usage.durations.getBuckets();
         }
 
         out.append(gson().toJson(stepDefContainers));
         out.close();
     }
 
-    private List<StepContainer> createStepContainer(List<StepContainer> stepContainers) {
-        for (StepContainer stepContainer : stepContainers) {
-            stepContainer.aggregatedDurations = createAggregatedDurations(stepContainer);
-            formatDurationAsSeconds(stepContainer.durations);
-        }
-        return stepContainers;
-    }
-
-    private void formatDurationAsSeconds(List<StepDuration> durations) {
-        for (StepDuration duration : durations) {
-            duration.duration = toSeconds(duration.duration.longValue());
-        }
+    private Map<String, Long> createAggregates(Histogram histogram) {
+        Map<String, Long> aggregates = new LinkedHashMap<String, Long>();
+        aggregates.put("total", histogram.getTotal());
+        aggregates.put("average", histogram.getCount() == 0 ? 0 : histogram.getTotal() / histogram.getCount());
+        aggregates.put("p50", histogram.getValueAtPercentile(50));
+        aggregates.put("p90", histogram.getValueAtPercentile(90));
+        aggregates.put("p99", histogram.getValueAtPercentile(99));
+        aggregates.put("max", histogram.getMax());
+        return aggregates;
     }
 
-    private Map<String, BigDecimal> createAggregatedDurations(StepContainer stepContainer) {
-        Map<String, BigDecimal> aggregatedResults = new HashMap<String, BigDecimal>();
-        for (Map.Entry<String, UsageStatisticStrategy> calculatorEntry : statisticStrategies.entrySet()) {
-            UsageStatisticStrategy statisticStrategy = calculatorEntry.getValue();
-            List<Long> rawDurations = getRawDurations(stepContainer.durations);
-            Long calculationResult = statisticStrategy.calculate(rawDurations);
-
-            String strategy = calculatorEntry.getKey();
-            aggregatedResults.put(strategy, toSeconds(calculationResult));
+    private Map<String, BigDecimal> toSeconds(Map<String, Long> aggregates) {
+        Map<String, BigDecimal> seconds = new LinkedHashMap<String, BigDecimal>();
+        for (Map.Entry<String, Long> aggregate : aggregates.entrySet()) {
+            seconds.put(aggregate.getKey(), toSeconds(aggregate.getValue()));
         }
-        return aggregatedResults;
+        return seconds;
     }
 
-    private BigDecimal toSeconds(Long nanoSeconds) {
+    private static BigDecimal toSeconds(long nanoSeconds) {
         return BigDecimal.valueOf(nanoSeconds).divide(NANOS_PER_SECOND);
     }
 
-    private List<Long> getRawDurations(List<StepDuration> stepDurations) {
-        List<Long> rawDurations = new ArrayList<Long>();
-
-        for (StepDuration stepDuration : stepDurations) {
-            rawDurations.add(stepDuration.duration.longValue());
-        }
-        return rawDurations;
-    }
-
     private Gson gson() {
         return new GsonBuilder().setPrettyPrinting().create();
     }
 
-    private void addUsageEntry(Result result, String stepDefinition, String stepNameWithArgs, String stepLocation) {
-        List<StepContainer> stepContainers = usageMap.get(stepDefinition);
-        if (stepContainers == null) {
-            stepContainers = new ArrayList<StepContainer>();
-            usageMap.put(stepDefinition, stepContainers);
-        }
-        StepContainer stepContainer = findOrCreateStepContainer(stepNameWithArgs, stepContainers);
-
-        Long duration = result.getDuration();
-        StepDuration stepDuration = createStepDuration(duration, stepLocation);
-        stepContainer.durations.add(stepDuration);
-    }
-
-    private StepDuration createStepDuration(Long duration, String location) {
-        StepDuration stepDuration = new StepDuration();
-        if (duration == null) {
-            stepDuration.duration = BigDecimal.ZERO;
-        } else {
-            stepDuration.duration = BigDecimal.valueOf(duration);
-        }
-        stepDuration.location = location;
-        return stepDuration;
-    }
-
-    private StepContainer findOrCreateStepContainer(String stepNameWithArgs, List<StepContainer> stepContainers) {
-        for (StepContainer container : stepContainers) {
-            if (stepNameWithArgs.equals(container.name)) {
-                return container;
+    /**
+     * What is known about the steps of a step definition
+     */
+    static class StepDefUsage {
+        final Histogram durations = new Histogram();
+        Histogram cpuTimes;
+        Histogram allocatedBytes;
+        private final PriorityQueue<StepDuration> slowestSteps = new PriorityQueue<StepDuration>(SLOWEST_STEPS + 1, new Comparator<StepDuration>() {
+            @Override
+            public int compare(StepDuration a, StepDuration b) {
+                return a.nanos < b.nanos ? -1 : (a.nanos == b.nanos ? 0 : 1);
+            }
+        });
+
+        void add(Result result, String stepNameWithArgs, String stepLocation) {
+            long duration = result.getDuration() == null ? 0 : result.getDuration();
+            durations.record(duration);
+            if (result.getCpuTime() != null) {
+                if (cpuTimes == null) {
+                    cpuTimes = new Histogram();
+                }
+                cpuTimes.record(result.getCpuTime());
+            }
+            if (result.getAllocatedBytes() != null) {
+                if (allocatedBytes == null) {
+                    allocatedBytes = new Histogram();
+                }
+                allocatedBytes.record(result.getAllocatedBytes());
+            }
+            if (slowestSteps.size() < SLOWEST_STEPS || slowestSteps.peek().nanos < duration) {
+                StepDuration stepDuration = new StepDuration();
+                stepDuration.name = stepNameWithArgs;
+                stepDuration.nanos = duration;
+                stepDuration.duration = toSeconds(duration);
+                stepDuration.location = stepLocation;
+                slowestSteps.add(stepDuration);
+                if (slowestSteps.size() > SLOWEST_STEPS) {
+                    slowestSteps.poll();
+                }
             }
         }
-        StepContainer stepContainer = new StepContainer();
-        stepContainer.name = stepNameWithArgs;
-        stepContainers.add(stepContainer);
-        return stepContainer;
-    }
 
-    /**
-     * Add a {@link UsageStatisticStrategy} to the formatter
-     *
-     * @param key      the key, will be displayed in the output
-     * @param strategy the strategy
-     */
-    public void addUsageStatisticStrategy(String key, UsageStatisticStrategy strategy) {
-        statisticStrategies.put(key, strategy);
+        /**
+         * @return the slowest steps, the slowest first
+         */
+        List<StepDuration> getSlowestSteps() {
+            List<StepDuration> steps = new ArrayList<StepDuration>(slowestSteps);
+            Collections.sort(steps, Collections.reverseOrder(slowestSteps.comparator()));
+            return steps;
+        }
     }
 
     /**
      * Container of Step Definitions (patterns)
      */
     static class StepDefContainer {
+        /**
+         * The position of the StepDefinition when ordered by the total duration of its steps, 1 for the slowest
+         */
+        public int rank;
+
         /**
          * The StepDefinition (pattern)
          */
         public String source;
 
         /**
-         * A list of Steps
+         * The number of steps that passed
          */
-        public List<StepContainer> steps;
-    }
+        public long count;
 
-    /**
-     * Contains for usage-entries of steps
-     */
-    static class StepContainer {
-        public String name;
-        public Map<String, BigDecimal> aggregatedDurations = new HashMap<String, BigDecimal>();
-        public List<StepDuration> durations = new ArrayList<StepDuration>();
-    }
+        /**
+         * The part of the duration of all steps that was spent in these steps, from 0 to 1
+         */
+        public BigDecimal shareOfTotalDuration;
 
-    static class StepDuration {
-        public BigDecimal duration;
-        public String location;
-    }
+        /**
+         * The total, average, percentiles and maximum of the durations in seconds
+         */
+        public Map<String, BigDecimal> aggregatedDurations;
 
-    /**
-     * Calculate a statistical value to be displayed in the usage-file
-     */
-    static interface UsageStatisticStrategy {
         /**
-         * @param durationEntries list of execution times of steps as nanoseconds
-         * @return a statistical value (e.g. median, average, ..)
+         * The CPU time of the steps in seconds, if it was measured (see {@code --measure-resources})
          */
-        Long calculate(List<Long> durationEntries);
-    }
+        public Map<String, BigDecimal> aggregatedCpuTimes;
 
-    /**
-     * Calculate the average of a list of duration entries
-     */
-    static class AverageUsageStatisticStrategy implements UsageStatisticStrategy {
-        @Override
-        public Long calculate(List<Long> durationEntries) {
-            if (verifyNoNulls(durationEntries)) {
-                return 0L;
-            }
+        /**
+         * The bytes allocated by the steps, if they were measured (see {@code --measure-resources})
+         */
+        public Map<String, Long> aggregatedAllocatedBytes;
 
-            long sum = 0;
-            for (Long duration : durationEntries) {
-                sum += duration;
-            }
-            return sum / durationEntries.size();
-        }
+        /**
+         * The slowest steps, at most {@link UsageFormatter#SLOWEST_STEPS}
+         */
+        public List<StepDuration> slowestSteps;
 
-        private boolean verifyNoNulls(List<Long> durationEntries) {
-            return durationEntries == null || durationEntries.isEmpty() || durationEntries.contains(null);
-        }
+        /**
+         * The number of steps by the lowest duration of their bucket in nanoseconds (see {@link Histogram})
+         */
+        public SortedMap<Long, Long> durationHistogram;
     }
 
-    /**
-     * Calculate the median of a list of duration entries
-     */
-    static class MedianUsageStatisticStrategy implements UsageStatisticStrategy {
-        @Override
-        public Long calculate(List<Long> durationEntries) {
-            if (verifyNoNulls(durationEntries)) {
-                return 0L;
-            }
-            Collections.sort(durationEntries);
-            int middle = durationEntries.size() / 2;
-            if (durationEntries.size() % 2 == 1) {
-                return durationEntries.get(middle);
-            } else {
-                return (durationEntries.get(middle - 1) + durationEntries.get(middle)) / 2;
-            }
-        }
-
-        private boolean verifyNoNulls(List<Long> durationEntries) {
-            return durationEntries == null || durationEntries.isEmpty() || durationEntries.contains(null);
-        }
+    static class StepDuration {
+        public String name;
+        public BigDecimal duration;
+        public String location;
+        transient long nanos;
     }
 }
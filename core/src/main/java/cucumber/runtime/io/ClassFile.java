@@ -0,0 +1,281 @@
+package cucumber.runtime.io;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The parts of a class file that tell whether it can be glue, read without loading the class.
+ * <p/>
+ * Only the constant pool, the super types and the runtime visible annotations of the class and
+ * its public methods are read. Everything else is skipped.
+ */
+class ClassFile {
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+
+    private final String name;
+    private final String superName;
+    private final List<String> interfaceNames;
+    private final Set<String> classAnnotations;
+    private final Set<String> publicMethodAnnotations;
+
+    private ClassFile(String name, String superName, List<String> interfaceNames, Set<String> classAnnotations, Set<String> publicMethodAnnotations) {
+        this.name = name;
+        this.superName = superName;
+        this.interfaceNames = interfaceNames;
+        this.classAnnotations = classAnnotations;
+        this.publicMethodAnnotations = publicMethodAnnotations;
+    }
+
+    /**
+     * @return the internal name of the class, e.g. {@code java/lang/String}
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the internal name of the super class, or null if this is {@code java/lang/Object}.
+     */
+    String getSuperName() {
+        return superName;
+    }
+
+    List<String> getInterfaceNames() {
+        return interfaceNames;
+    }
+
+    /**
+     * @return the descriptors of the annotations on the class, e.g. {@code Ljava/lang/Deprecated;}
+     */
+    Set<String> getClassAnnotations() {
+        return classAnnotations;
+    }
+
+    /**
+     * @return the descriptors of the annotations on the public methods of the class.
+     */
+    Set<String> getPublicMethodAnnotations() {
+        return publicMethodAnnotations;
+    }
+
+    static String descriptor(Class<?> type) {
+        return "L" + internalName(type) + ";";
+    }
+
+    static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    static ClassFile read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        try {
+            return read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static ClassFile read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        ConstantPool constantPool = new ConstantPool(in);
+        in.readUnsignedShort(); // access flags
+        String name = constantPool.className(in.readUnsignedShort());
+        int superIndex = in.readUnsignedShort();
+        String superName = superIndex == 0 ? null : constantPool.className(superIndex);
+        int interfacesCount = in.readUnsignedShort();
+        List<String> interfaceNames = new ArrayList<String>(interfacesCount);
+        for (int i = 0; i < interfacesCount; i++) {
+            interfaceNames.add(constantPool.className(in.readUnsignedShort()));
+        }
+
+        int fieldsCount = in.readUnsignedShort();
+        for (int i = 0; i < fieldsCount; i++) {
+            in.readUnsignedShort(); // access flags
+            in.readUnsignedShort(); // name
+            in.readUnsignedShort(); // descriptor
+            readAttributes(in, constantPool, null);
+        }
+
+        Set<String> publicMethodAnnotations = new HashSet<String>();
+        int methodsCount = in.readUnsignedShort();
+        for (int i = 0; i < methodsCount; i++) {
+            int accessFlags = in.readUnsignedShort();
+            in.readUnsignedShort(); // name
+            in.readUnsignedShort(); // descriptor
+            readAttributes(in, constantPool, (accessFlags & ACC_PUBLIC) != 0 ? publicMethodAnnotations : null);
+        }
+
+        Set<String> classAnnotations = new HashSet<String>();
+        readAttributes(in, constantPool, classAnnotations);
+        return new ClassFile(name, superName, interfaceNames, classAnnotations, publicMethodAnnotations);
+    }
+
+    private static void readAttributes(DataInputStream in, ConstantPool constantPool, Set<String> annotations) throws IOException {
+        int attributesCount = in.readUnsignedShort();
+        for (int i = 0; i < attributesCount; i++) {
+            String attributeName = constantPool.utf8(in.readUnsignedShort());
+            int length = in.readInt();
+            if (annotations != null && attributeName.equals(RUNTIME_VISIBLE_ANNOTATIONS)) {
+                int annotationsCount = in.readUnsignedShort();
+                for (int j = 0; j < annotationsCount; j++) {
+                    annotations.add(readAnnotation(in, constantPool));
+                }
+            } else {
+                skip(in, length);
+            }
+        }
+    }
+
+    private static String readAnnotation(DataInputStream in, ConstantPool constantPool) throws IOException {
+        String type = constantPool.utf8(in.readUnsignedShort());
+        int pairsCount = in.readUnsignedShort();
+        for (int i = 0; i < pairsCount; i++) {
+            in.readUnsignedShort(); // element name
+            skipElementValue(in, constantPool);
+        }
+        return type;
+    }
+
+    private static void skipElementValue(DataInputStream in, ConstantPool constantPool) throws IOException {
+        int tag = in.readUnsignedByte();
+        switch (tag) {
+            case 'B':
+            case 'C':
+            case 'D':
+            case 'F':
+            case 'I':
+            case 'J':
+            case 'S':
+            case 'Z':
+            case 's':
+            case 'c':
+                in.readUnsignedShort();
+                break;
+            case 'e':
+                in.readUnsignedShort();
+                in.readUnsignedShort();
+                break;
+            case '@':
+                readAnnotation(in, constantPool);
+                break;
+            case '[':
+                int valuesCount = in.readUnsignedShort();
+                for (int i = 0; i < valuesCount; i++) {
+                    skipElementValue(in, constantPool);
+                }
+                break;
+            default:
+                throw new IOException("Unknown element value tag: " + (char) tag);
+        }
+    }
+
+    private static void skip(DataInputStream in, int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                throw new IOException("Unexpected end of class file");
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private static class ConstantPool {
+        private static final int UTF8 = 1;
+        private static final int INTEGER = 3;
+        private static final int FLOAT = 4;
+        private static final int LONG = 5;
+        private static final int DOUBLE = 6;
+        private static final int CLASS = 7;
+        private static final int STRING = 8;
+        private static final int FIELD_REF = 9;
+        private static final int METHOD_REF = 10;
+        private static final int INTERFACE_METHOD_REF = 11;
+        private static final int NAME_AND_TYPE = 12;
+        private static final int METHOD_HANDLE = 15;
+        private static final int METHOD_TYPE = 16;
+        private static final int DYNAMIC = 17;
+        private static final int INVOKE_DYNAMIC = 18;
+        private static final int MODULE = 19;
+        private static final int PACKAGE = 20;
+
+        private final String[] utf8s;
+        private final int[] classNameIndexes;
+
+        ConstantPool(DataInputStream in) throws IOException {
+            int count = in.readUnsignedShort();
+            utf8s = new String[count];
+            classNameIndexes = new int[count];
+            for (int i = 1; i < count; i++) {
+                int tag = in.readUnsignedByte();
+                switch (tag) {
+                    case UTF8:
+                        utf8s[i] = in.readUTF();
+                        break;
+                    case CLASS:
+                        classNameIndexes[i] = in.readUnsignedShort();
+                        break;
+                    case STRING:
+                    case METHOD_TYPE:
+                    case MODULE:
+                    case PACKAGE:
+                        in.readUnsignedShort();
+                        break;
+                    case METHOD_HANDLE:
+                        in.readUnsignedByte();
+                        in.readUnsignedShort();
+                        break;
+                    case INTEGER:
+                    case FLOAT:
+                    case FIELD_REF:
+                    case METHOD_REF:
+                    case INTERFACE_METHOD_REF:
+                    case NAME_AND_TYPE:
+                    case DYNAMIC:
+                    case INVOKE_DYNAMIC:
+                        in.readInt();
+                        break;
+                    case LONG:
+                    case DOUBLE:
+                        in.readLong();
+                        // Takes two entries
+                        i++;
+                        break;
+                    default:
+                        throw new IOException("Unknown constant pool tag: " + tag);
+                }
+            }
+        }
+
+        String utf8(int index) throws IOException {
+            if (index <= 0 || index >= utf8s.length || utf8s[index] == null) {
+                throw new IOException("Bad constant pool index: " + index);
+            }
+            return utf8s[index];
+        }
+
+        String className(int index) throws IOException {
+            if (index <= 0 || index >= classNameIndexes.length || classNameIndexes[index] == 0) {
+                throw new IOException("Bad constant pool index: " + index);
+            }
+            return utf8(classNameIndexes[index]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
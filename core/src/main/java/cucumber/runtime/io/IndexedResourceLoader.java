@@ -0,0 +1,180 @@
+package cucumber.runtime.io;
+
+import cucumber.runtime.CucumberException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static cucumber.runtime.io.Helpers.hasSuffix;
+
+/**
+ * A {@link ResourceLoader} that remembers what it has seen on the classpath for the rest of the run.
+ * <p/>
+ * Features, glue and scripts are all looked up with separate calls to {@link #resources(String, String)},
+ * and {@link ClasspathResourceIterable} opens and walks every jar again for each of them. This loader
+ * opens each jar once, keeps its entries in a tree sorted by name (so the entries under a path are a
+ * single range of it), and shares the open jar between all resources it hands out. Directory listings
+ * and the classpath roots found for a path are remembered as well. Resources are returned in the same
+ * order as {@link ClasspathResourceIterable} returns them.
+ * <p/>
+ * Classpath roots that are neither directories nor jars, and all paths that are not classpath paths,
+ * are left to the decorated loader. Changes to the classpath made during the run are not seen, which
+ * is why an instance should only be used for a single run.
+ */
+public class IndexedResourceLoader implements ResourceLoader {
+    private final ResourceLoader delegate;
+    private final ClassLoader classLoader;
+    private final ResourceIteratorFactory fallbackIteratorFactory = new DelegatingResourceIteratorFactory(new ZipThenFileResourceIteratorFactory());
+    private final ConcurrentMap<String, List<URL>> urlsByPath = new ConcurrentHashMap<String, List<URL>>();
+    private final ConcurrentMap<String, JarIndex> jars = new ConcurrentHashMap<String, JarIndex>();
+    private final ConcurrentMap<File, File[]> directoryListings = new ConcurrentHashMap<File, File[]>();
+
+    public IndexedResourceLoader(ResourceLoader delegate, ClassLoader classLoader) {
+        this.delegate = delegate;
+        this.classLoader = classLoader;
+    }
+
+    @Override
+    public Iterable<Resource> resources(String path, final String suffix) {
+        if (!path.startsWith(MultiLoader.CLASSPATH_SCHEME)) {
+            return delegate.resources(path, suffix);
+        }
+        final String classpathPath = path.substring(MultiLoader.CLASSPATH_SCHEME.length());
+        return new Iterable<Resource>() {
+            @Override
+            public Iterator<Resource> iterator() {
+                FlatteningIterator<Resource> iterator = new FlatteningIterator<Resource>();
+                for (URL url : urls(classpathPath)) {
+                    iterator.push(resources(url, classpathPath, suffix));
+                }
+                return iterator;
+            }
+        };
+    }
+
+    private List<URL> urls(String path) {
+        List<URL> urls = urlsByPath.get(path);
+        if (urls == null) {
+            try {
+                urls = Collections.list(classLoader.getResources(path));
+            } catch (IOException e) {
+                throw new CucumberException(e);
+            }
+            urlsByPath.putIfAbsent(path, urls);
+        }
+        return urls;
+    }
+
+    private Iterator<Resource> resources(URL url, String path, String suffix) {
+        if ("jar".equals(url.getProtocol()) && url.getFile().startsWith("file:") && url.getFile().contains("!/")) {
+            return jar(Helpers.jarFilePath(url)).resources(path, suffix).iterator();
+        }
+        if ("file".equals(url.getProtocol())) {
+            File file = new File(Helpers.filePath(url));
+            File root = new File(file.getAbsolutePath().substring(0, file.getAbsolutePath().length() - path.length()));
+            List<Resource> resources = new ArrayList<Resource>();
+            addFileResources(resources, root, file, suffix);
+            return resources.iterator();
+        }
+        return fallbackIteratorFactory.createIterator(url, path, suffix);
+    }
+
+    private JarIndex jar(String jarPath) {
+        JarIndex jar = jars.get(jarPath);
+        if (jar == null) {
+            synchronized (jars) {
+                jar = jars.get(jarPath);
+                if (jar == null) {
+                    jar = new JarIndex(openJar(jarPath));
+                    jars.put(jarPath, jar);
+                }
+            }
+        }
+        return jar;
+    }
+
+    ZipFile openJar(String jarPath) {
+        try {
+            return new ZipFile(jarPath);
+        } catch (IOException e) {
+            throw new CucumberException(e);
+        }
+    }
+
+    private void addFileResources(List<Resource> resources, File root, File file, String suffix) {
+        // Same order and filtering as FileResourceIterator
+        if (file.isFile()) {
+            resources.add(new FileResource(root, file));
+            return;
+        }
+        if (!file.isDirectory()) {
+            throw new IllegalArgumentException("Not a file or directory: " + file.getAbsolutePath());
+        }
+        for (File child : listFiles(file)) {
+            if (child.isDirectory()) {
+                addFileResources(resources, root, child, suffix);
+            } else if (hasSuffix(suffix, child.getPath())) {
+                resources.add(new FileResource(root, child));
+            }
+        }
+    }
+
+    private File[] listFiles(File directory) {
+        File[] files = directoryListings.get(directory);
+        if (files == null) {
+            files = directory.listFiles();
+            if (files == null) {
+                files = new File[0];
+            }
+            directoryListings.putIfAbsent(directory, files);
+        }
+        return files;
+    }
+
+    private static class JarIndex {
+        private final ZipFile zipFile;
+        private final List<ZipEntry> entries = new ArrayList<ZipEntry>();
+        // The position of each entry in the jar, by name
+        private final NavigableMap<String, Integer> positions = new TreeMap<String, Integer>();
+
+        JarIndex(ZipFile zipFile) {
+            this.zipFile = zipFile;
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                ZipEntry entry = zipEntries.nextElement();
+                positions.put(entry.getName(), entries.size());
+                entries.add(entry);
+            }
+        }
+
+        List<Resource> resources(String path, String suffix) {
+            // Same as ZipResourceIterator, entries whose name starts with path in the order of the jar
+            Map<String, Integer> range = positions.subMap(path, true, path + Character.MAX_VALUE, true);
+            List<Integer> matching = new ArrayList<Integer>(range.size());
+            for (Map.Entry<String, Integer> position : range.entrySet()) {
+                if (hasSuffix(suffix, position.getKey())) {
+                    matching.add(position.getValue());
+                }
+            }
+            Collections.sort(matching);
+            List<Resource> resources = new ArrayList<Resource>(matching.size());
+            for (Integer position : matching) {
+                resources.add(new ZipResource(zipFile, entries.get(position)));
+            }
+            return resources;
+        }
+    }
+}
@@ -1,14 +1,55 @@
 package cucumber.runtime.io;
 
-import cucumber.runtime.ClassFinder;
+import cucumber.runtime.AnnotatedMethodClassFinder;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.DaemonThreadFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds classes by reading their class files first, and only loads the ones that can match.
+ * <p/>
+ * Loading a class runs its static initializer and takes up metaspace, so the class files in the
+ * package are parsed instead (in parallel on threads shared by all finders when there are many) and
+ * only classes whose super types or annotated methods fit the query are loaded. Super types outside
+ * the package are looked up as class file resources of the class loader. When a class file can't be
+ * read the class is loaded anyway and the class loader has the final word, as before.
+ */
+public class ResourceLoaderClassFinder implements AnnotatedMethodClassFinder {
+    private static final String OBJECT = "java/lang/Object";
+    private static final int MIN_CLASSES_PER_THREAD = 16;
+    private static final ClassFilePredicate ANY = new ClassFilePredicate() {
+        @Override
+        public boolean matches(ClassFile classFile) {
+            return true;
+        }
+    };
+
+    private static final int SCANNER_THREADS = Runtime.getRuntime().availableProcessors();
+    private static ExecutorService scanners;
 
-public class ResourceLoaderClassFinder implements ClassFinder {
     private final ResourceLoader resourceLoader;
     private final ClassLoader classLoader;
+    private final ConcurrentMap<String, ClassFile> classFiles = new ConcurrentHashMap<String, ClassFile>();
+    private final Set<String> missingClassFiles = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     public ResourceLoaderClassFinder(ResourceLoader resourceLoader, ClassLoader classLoader) {
         this.resourceLoader = resourceLoader;
@@ -16,12 +57,16 @@ public class ResourceLoaderClassFinder implements ClassFinder {
     }
 
     @Override
-    public <T> Collection<Class<? extends T>> getDescendants(Class<T> parentType, String packageName) {
+    public <T> Collection<Class<? extends T>> getDescendants(final Class<T> parentType, String packageName) {
+        final String parentName = ClassFile.internalName(parentType);
+        Collection<String> classNames = scan(packageName, parentType == Object.class ? ANY : new ClassFilePredicate() {
+            @Override
+            public boolean matches(ClassFile classFile) {
+                return isSubtype(classFile, parentName);
+            }
+        });
         Collection<Class<? extends T>> result = new HashSet<Class<? extends T>>();
-        String packagePath = "classpath:" + packageName.replace('.', '/').replace(File.separatorChar, '/');
-        for (Resource classResource : resourceLoader.resources(packagePath, ".class")) {
-            String className = classResource.getClassName(".class");
-
+        for (String className : classNames) {
             try {
                 Class<?> clazz = loadClass(className);
                 if (clazz != null && !parentType.equals(clazz) && parentType.isAssignableFrom(clazz)) {
@@ -34,7 +79,192 @@ public class ResourceLoaderClassFinder implements ClassFinder {
         return result;
     }
 
+    @Override
+    public Collection<Class<?>> getClassesWithAnnotatedMethods(String packageName, Collection<? extends Class<? extends Annotation>> annotationTypes) {
+        final Set<String> descriptors = new HashSet<String>();
+        for (Class<? extends Annotation> annotationType : annotationTypes) {
+            descriptors.add(ClassFile.descriptor(annotationType));
+        }
+        Collection<String> classNames = scan(packageName, new ClassFilePredicate() {
+            @Override
+            public boolean matches(ClassFile classFile) {
+                return hasAnnotatedMethod(classFile, descriptors);
+            }
+        });
+        Collection<Class<?>> result = new HashSet<Class<?>>();
+        for (String className : classNames) {
+            try {
+                result.add(loadClass(className));
+            } catch (ClassNotFoundException ignore) {
+            } catch (NoClassDefFoundError ignore) {
+            }
+        }
+        return result;
+    }
+
     public <T> Class<? extends T> loadClass(String className) throws ClassNotFoundException {
         return (Class<? extends T>) classLoader.loadClass(className);
     }
+
+    private Collection<String> scan(String packageName, final ClassFilePredicate predicate) {
+        String packagePath = "classpath:" + packageName.replace('.', '/').replace(File.separatorChar, '/');
+        List<Resource> classResources = new ArrayList<Resource>();
+        for (Resource classResource : resourceLoader.resources(packagePath, ".class")) {
+            classResources.add(classResource);
+        }
+        List<String> classNames = new ArrayList<String>();
+        int threads = Math.min(classResources.size() / MIN_CLASSES_PER_THREAD, SCANNER_THREADS);
+        if (threads <= 1) {
+            for (Resource classResource : classResources) {
+                addIfMatches(classNames, classResource, predicate);
+            }
+            return classNames;
+        }
+        ExecutorService executor = scanners();
+        List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+        try {
+            int batchSize = (classResources.size() + threads - 1) / threads;
+            for (int start = 0; start < classResources.size(); start += batchSize) {
+                final List<Resource> batch = classResources.subList(start, Math.min(start + batchSize, classResources.size()));
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() {
+                        List<String> matches = new ArrayList<String>();
+                        for (Resource classResource : batch) {
+                            addIfMatches(matches, classResource, predicate);
+                        }
+                        return matches;
+                    }
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                classNames.addAll(future.get());
+            }
+            return classNames;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while scanning " + packageName, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CucumberException(cause);
+        } finally {
+            // Only does something when the scan failed
+            for (Future<List<String>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @return the threads that scan large packages, shared by all finders. Idle threads end after a minute.
+     */
+    private static synchronized ExecutorService scanners() {
+        if (scanners == null) {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(SCANNER_THREADS, SCANNER_THREADS, 1, TimeUnit.MINUTES,
+                    new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory("cucumber-class-scanner-"));
+            executor.allowCoreThreadTimeOut(true);
+            scanners = executor;
+        }
+        return scanners;
+    }
+
+    private void addIfMatches(List<String> classNames, Resource classResource, ClassFilePredicate predicate) {
+        String className = classResource.getClassName(".class");
+        if (predicate == ANY) {
+            classNames.add(className);
+            return;
+        }
+        ClassFile classFile;
+        try {
+            classFile = ClassFile.read(classResource.getInputStream());
+        } catch (IOException e) {
+            // Can't tell, let the class loader decide
+            classNames.add(className);
+            return;
+        }
+        classFiles.putIfAbsent(classFile.getName(), classFile);
+        if (predicate.matches(classFile)) {
+            classNames.add(className);
+        }
+    }
+
+    private boolean isSubtype(ClassFile classFile, String parentName) {
+        if (parentName.equals(classFile.getSuperName()) || classFile.getInterfaceNames().contains(parentName)) {
+            return true;
+        }
+        for (String superTypeName : superTypeNames(classFile)) {
+            if (isJdkType(superTypeName) && !isJdkType(parentName)) {
+                // The JDK doesn't extend anything else
+                continue;
+            }
+            ClassFile superType = classFile(superTypeName);
+            if (superType == null || isSubtype(superType, parentName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnnotatedMethod(ClassFile classFile, Set<String> descriptors) {
+        for (String annotation : classFile.getPublicMethodAnnotations()) {
+            if (descriptors.contains(annotation)) {
+                return true;
+            }
+        }
+        for (String superTypeName : superTypeNames(classFile)) {
+            if (isJdkType(superTypeName)) {
+                continue;
+            }
+            ClassFile superType = classFile(superTypeName);
+            if (superType == null || hasAnnotatedMethod(superType, descriptors)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> superTypeNames(ClassFile classFile) {
+        List<String> superTypeNames = new ArrayList<String>(classFile.getInterfaceNames());
+        if (classFile.getSuperName() != null && !classFile.getSuperName().equals(OBJECT)) {
+            superTypeNames.add(classFile.getSuperName());
+        }
+        return superTypeNames;
+    }
+
+    private boolean isJdkType(String name) {
+        return name.startsWith("java/") || name.startsWith("javax/");
+    }
+
+    /**
+     * @return the class file of {@code name}, or null if it can't be read.
+     */
+    private ClassFile classFile(String name) {
+        ClassFile classFile = classFiles.get(name);
+        if (classFile != null || missingClassFiles.contains(name)) {
+            return classFile;
+        }
+        InputStream in = classLoader.getResourceAsStream(name + ".class");
+        try {
+            if (in != null) {
+                classFile = ClassFile.read(in);
+            }
+        } catch (IOException ignore) {
+        }
+        if (classFile == null) {
+            missingClassFiles.add(name);
+            return null;
+        }
+        classFiles.putIfAbsent(name, classFile);
+        return classFile;
+    }
+
+    private interface ClassFilePredicate {
+        boolean matches(ClassFile classFile);
+    }
 }
@@ -4,6 +4,7 @@ import cucumber.api.event.TestSourceRead;
 import cucumber.runner.EventBus;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.FeatureBuilder;
+import cucumber.runtime.FeatureCache;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.Resource;
 import cucumber.runtime.io.ResourceLoader;
@@ -27,7 +28,11 @@ public class CucumberFeature implements Serializable {
     private String gherkinSource;
 
     public static List<CucumberFeature> load(ResourceLoader resourceLoader, List<String> featurePaths, PrintStream out) {
-        final List<CucumberFeature> cucumberFeatures = load(resourceLoader, featurePaths);
+        return load(resourceLoader, featurePaths, null, out);
+    }
+
+    public static List<CucumberFeature> load(ResourceLoader resourceLoader, List<String> featurePaths, FeatureCache featureCache, PrintStream out) {
+        final List<CucumberFeature> cucumberFeatures = load(resourceLoader, featurePaths, featureCache);
         if (cucumberFeatures.isEmpty()) {
             if (featurePaths.isEmpty()) {
                 out.println("Got no path to feature directory or feature file");
@@ -39,27 +44,33 @@ public class CucumberFeature implements Serializable {
     }
 
     public static List<CucumberFeature> load(ResourceLoader resourceLoader, List<String> featurePaths) {
-        final List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
-        final FeatureBuilder builder = new FeatureBuilder(cucumberFeatures);
+        return load(resourceLoader, featurePaths, (FeatureCache) null);
+    }
+
+    public static List<CucumberFeature> load(ResourceLoader resourceLoader, List<String> featurePaths, FeatureCache featureCache) {
+        final List<Resource> resources = new ArrayList<Resource>();
         for (String featurePath : featurePaths) {
             if (featurePath.startsWith("@")) {
-                loadFromRerunFile(builder, resourceLoader, featurePath.substring(1));
+                loadFromRerunFile(resources, resourceLoader, featurePath.substring(1));
             } else {
-                loadFromFeaturePath(builder, resourceLoader, featurePath, false);
+                loadFromFeaturePath(resources, resourceLoader, featurePath, false);
             }
         }
+        final List<CucumberFeature> cucumberFeatures = new ArrayList<CucumberFeature>();
+        final FeatureBuilder builder = new FeatureBuilder(cucumberFeatures, featureCache);
+        builder.parse(resources);
         Collections.sort(cucumberFeatures, new CucumberFeatureUriComparator());
         return cucumberFeatures;
     }
 
-    private static void loadFromRerunFile(FeatureBuilder builder, ResourceLoader resourceLoader, String rerunPath) {
+    private static void loadFromRerunFile(List<Resource> featureResources, ResourceLoader resourceLoader, String rerunPath) {
         Iterable<Resource> resources = resourceLoader.resources(rerunPath, null);
         for (Resource resource : resources) {
             String source = read(resource);
             if (!source.isEmpty()) {
                 for (String featurePath : source.split(" ")) {
                     PathWithLines pathWithLines = new PathWithLines(featurePath);
-                    loadFromFileSystemOrClasspath(builder, resourceLoader, pathWithLines.path);
+                    loadFromFileSystemOrClasspath(featureResources, resourceLoader, pathWithLines.path);
                 }
             }
         }
@@ -85,14 +96,14 @@ public class CucumberFeature implements Serializable {
         }
     }
 
-    private static void loadFromFileSystemOrClasspath(FeatureBuilder builder, ResourceLoader resourceLoader, String featurePath) {
+    private static void loadFromFileSystemOrClasspath(List<Resource> featureResources, ResourceLoader resourceLoader, String featurePath) {
         try {
-            loadFromFeaturePath(builder, resourceLoader, featurePath, false);
+            loadFromFeaturePath(featureResources, resourceLoader, featurePath, false);
         } catch (IllegalArgumentException originalException) {
             if (!featurePath.startsWith(MultiLoader.CLASSPATH_SCHEME) &&
                     originalException.getMessage().contains("Not a file or directory")) {
                 try {
-                    loadFromFeaturePath(builder, resourceLoader, MultiLoader.CLASSPATH_SCHEME + featurePath, true);
+                    loadFromFeaturePath(featureResources, resourceLoader, MultiLoader.CLASSPATH_SCHEME + featurePath, true);
                 } catch (IllegalArgumentException secondException) {
                     if (secondException.getMessage().contains("No resource found for")) {
                         throw new IllegalArgumentException("Neither found on file system or on classpath: " +
@@ -107,13 +118,13 @@ public class CucumberFeature implements Serializable {
         }
     }
 
-    private static void loadFromFeaturePath(FeatureBuilder builder, ResourceLoader resourceLoader, String featurePath, boolean failOnNoResource) {
+    private static void loadFromFeaturePath(List<Resource> featureResources, ResourceLoader resourceLoader, String featurePath, boolean failOnNoResource) {
         Iterable<Resource> resources = resourceLoader.resources(featurePath, ".feature");
         if (failOnNoResource && !resources.iterator().hasNext()) {
             throw new IllegalArgumentException("No resource found for: " + featurePath);
         }
         for (Resource resource : resources) {
-            builder.parse(resource);
+            featureResources.add(resource);
         }
     }
 
@@ -0,0 +1,207 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.Result;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.Event;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestSourceRead;
+import cucumber.runner.EventBus;
+import cucumber.runner.TestCaseEventBus;
+import cucumber.runner.TimeService;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.DaemonThreadFactory;
+import cucumber.runtime.DurationHistory;
+import gherkin.events.PickleEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hands out pickles to {@link Worker}s over a socket on the loopback interface, one at a time
+ * and only when a worker asks for one, so a worker that is stuck with a slow pickle doesn't
+ * hold up the others.
+ * <p/>
+ * The events the workers send back are published on the bus of the coordinator, a whole
+ * test case at a time, so its plugins report on the run as if it had run in this JVM.
+ * When a worker goes away in the middle of a pickle, the pickle is reported as failed.
+ */
+public class Coordinator {
+    static final long ACCEPT_TIMEOUT_MILLIS = 60000;
+
+    private final EventBus bus;
+    private final List<PickleEvent> pickleEvents;
+    private final LinkedList<PickleEvent> queue;
+    private final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+    private final long acceptTimeoutMillis;
+    private ServerSocket serverSocket;
+
+    /**
+     * @param bus          the bus to publish the events of the workers on
+     * @param pickleEvents the pickles to run, in the order they are handed out
+     */
+    public Coordinator(EventBus bus, List<PickleEvent> pickleEvents) {
+        this(bus, pickleEvents, ACCEPT_TIMEOUT_MILLIS);
+    }
+
+    Coordinator(EventBus bus, List<PickleEvent> pickleEvents, long acceptTimeoutMillis) {
+        this.bus = bus;
+        this.pickleEvents = pickleEvents;
+        this.queue = new LinkedList<PickleEvent>(pickleEvents);
+        this.acceptTimeoutMillis = acceptTimeoutMillis;
+    }
+
+    /**
+     * @return the port workers should connect to.
+     */
+    public int bind() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getByName(null));
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Serves workers until all pickles have run. Stops waiting for more workers when no
+     * pickles are left, or when no worker connected for a minute.
+     *
+     * @param workers the number of workers to expect
+     */
+    public void serve(int workers) throws IOException {
+        if (serverSocket == null) {
+            bind();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(workers, new DaemonThreadFactory("cucumber-coordinator-"));
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        try {
+            serverSocket.setSoTimeout(100);
+            long deadline = System.currentTimeMillis() + acceptTimeoutMillis;
+            while (futures.size() < workers && hasQueuedPickles() && System.currentTimeMillis() < deadline) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                deadline = System.currentTimeMillis() + acceptTimeoutMillis;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        serve(socket);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CucumberException("Interrupted while waiting for workers", e);
+        } catch (ExecutionException e) {
+            throw new CucumberException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+            serverSocket.close();
+        }
+        PickleEvent pickleEvent;
+        while ((pickleEvent = nextPickle()) != null) {
+            fail(pickleEvent, new CucumberException("No worker was left to run " + DurationHistory.pickleId(pickleEvent)));
+        }
+    }
+
+    /**
+     * @return the errors of pickles that were lost with their worker, or never run.
+     */
+    public List<Throwable> getErrors() {
+        return errors;
+    }
+
+    private void serve(Socket socket) {
+        PickleEvent current = null;
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (Wire.readTag(in) != Wire.HELLO) {
+                throw new IOException("Expected a worker to say hello");
+            }
+            int version = in.readInt();
+            if (version != Wire.VERSION) {
+                throw new IOException("Worker speaks version " + version + ", expected " + Wire.VERSION);
+            }
+            EventReader reader = new EventReader(in, pickleEvents, bus.getTime() - in.readLong());
+            // Queues the events of a test case until it finished, like with --threads
+            EventBus testCaseBus = new TestCaseEventBus(TimeService.SYSTEM, bus);
+            int tag;
+            while ((tag = Wire.readTag(in)) != -1) {
+                if (tag == Wire.NEXT) {
+                    current = nextPickle();
+                    if (current == null) {
+                        out.writeByte(Wire.DONE);
+                    } else {
+                        out.writeByte(Wire.PICKLE);
+                        Wire.writeString(out, DurationHistory.pickleId(current));
+                    }
+                    out.flush();
+                    continue;
+                }
+                Event event = reader.read(tag);
+                if (event instanceof TestSourceRead || event instanceof TestRunFinished) {
+                    continue;
+                }
+                testCaseBus.send(event);
+                if (event instanceof TestCaseFinished) {
+                    current = null;
+                }
+            }
+            if (current != null) {
+                fail(current, new CucumberException("The worker running " + DurationHistory.pickleId(current) + " went away"));
+            }
+        } catch (IOException e) {
+            if (current != null) {
+                fail(current, new CucumberException("Lost the worker running " + DurationHistory.pickleId(current), e));
+            }
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    private boolean hasQueuedPickles() {
+        synchronized (queue) {
+            return !queue.isEmpty();
+        }
+    }
+
+    private PickleEvent nextPickle() {
+        synchronized (queue) {
+            return queue.poll();
+        }
+    }
+
+    private void fail(PickleEvent pickleEvent, Throwable error) {
+        errors.add(error);
+        TestCase testCase = new TestCase(Collections.<TestStep>emptyList(), pickleEvent);
+        synchronized (bus) {
+            Long time = bus.getTime();
+            bus.send(new TestCaseStarted(time, testCase));
+            bus.send(new TestCaseFinished(time, testCase, new Result(Result.Type.FAILED, 0L, error)));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.event.Event;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestSourceRead;
+import cucumber.runner.EventBus;
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ParserException;
+import gherkin.TokenMatcher;
+import gherkin.ast.GherkinDocument;
+import gherkin.events.PickleEvent;
+import gherkin.pickles.Compiler;
+import gherkin.pickles.Pickle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A recording of the events of a run, to feed them to plugins later.
+ * <p/>
+ * A log is a directory with the events in {@value #EVENTS} and the data of embeddings in
+ * {@value #EMBEDDINGS}, written by an {@link EventWriter} and only ever appended to. The
+ * sources of the features are part of the events, and the pickles are compiled from them
+ * again on replay, so replaying a log needs neither the features nor the glue.
+ */
+public final class EventLog {
+    public static final String EVENTS = "events.bin";
+    public static final String EMBEDDINGS = "embeddings.bin";
+
+    private static final int MAGIC = 0x43554b45; // CUKE
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private EventLog() {
+    }
+
+    /**
+     * Starts a new log in {@code directory}, replacing the log that may be there.
+     *
+     * @return the writer of the log. It must be closed when the run is finished.
+     */
+    public static EventWriter create(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("Failed to create " + directory);
+        }
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(directory, EVENTS)), BUFFER_SIZE));
+        DataOutputStream embeddings;
+        try {
+            embeddings = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(directory, EMBEDDINGS)), BUFFER_SIZE));
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        out.writeInt(MAGIC);
+        out.writeInt(Wire.VERSION);
+        return new EventWriter(out, embeddings);
+    }
+
+    /**
+     * Sends the events of the log in {@code directory} to {@code bus}.
+     * <p/>
+     * A log that was cut short, for instance because the JVM was killed, is replayed up to
+     * its last complete event. It is finished with a {@link TestRunFinished} if it has none,
+     * so the plugins still write their reports.
+     */
+    public static void replay(File directory, EventBus bus) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(directory, EVENTS)), BUFFER_SIZE));
+        try {
+            DataInputStream embeddings = new DataInputStream(new BufferedInputStream(new FileInputStream(new File(directory, EMBEDDINGS)), BUFFER_SIZE));
+            try {
+                readHeader(directory, in);
+                EventReader reader = new EventReader(in, embeddings, Collections.<PickleEvent>emptyList(), 0);
+                Event event;
+                Event lastEvent = null;
+                while ((event = readUnlessTruncated(reader)) != null) {
+                    if (event instanceof TestSourceRead) {
+                        reader.addPickleEvents(compile((TestSourceRead) event));
+                    }
+                    bus.send(event);
+                    lastEvent = event;
+                }
+                if (!(lastEvent instanceof TestRunFinished)) {
+                    bus.send(new TestRunFinished(lastEvent != null ? lastEvent.getTimeStamp() : 0));
+                }
+            } finally {
+                embeddings.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void readHeader(File directory, DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(directory + " is not an event log");
+            }
+            int version = in.readInt();
+            if (version != Wire.VERSION) {
+                throw new IOException("The event log in " + directory + " has version " + version + ", expected " + Wire.VERSION);
+            }
+        } catch (EOFException e) {
+            throw new IOException(directory + " is not an event log", e);
+        }
+    }
+
+    private static Event readUnlessTruncated(EventReader reader) throws IOException {
+        try {
+            return reader.read();
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static List<PickleEvent> compile(TestSourceRead testSourceRead) throws IOException {
+        GherkinDocument gherkinDocument;
+        try {
+            gherkinDocument = new Parser<GherkinDocument>(new AstBuilder()).parse(testSourceRead.source, new TokenMatcher());
+        } catch (ParserException e) {
+            throw new IOException("The event log has a source that doesn't parse: " + testSourceRead.path, e);
+        }
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        for (Pickle pickle : new Compiler().compile(gherkinDocument)) {
+            pickleEvents.add(new PickleEvent(testSourceRead.path, pickle));
+        }
+        return pickleEvents;
+    }
+}
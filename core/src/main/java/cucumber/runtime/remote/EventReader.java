@@ -0,0 +1,189 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.HookType;
+import cucumber.api.Result;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.EmbedEvent;
+import cucumber.api.event.Event;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestSourceRead;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.event.TestStepStarted;
+import cucumber.api.event.WriteEvent;
+import cucumber.runner.PickleTestStep;
+import cucumber.runner.UnskipableStep;
+import cucumber.runtime.Argument;
+import cucumber.runtime.DurationHistory;
+import gherkin.events.PickleEvent;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cucumber.runtime.remote.Wire.readBytes;
+import static cucumber.runtime.remote.Wire.readResult;
+import static cucumber.runtime.remote.Wire.readString;
+import static cucumber.runtime.remote.Wire.readSymbol;
+
+/**
+ * Reads the events written by an {@link EventWriter}.
+ * <p/>
+ * Test cases are rebuilt from the pickles given to the reader, so plugins see the same
+ * pickles and pickle steps as in the JVM that wrote the events. Their steps can't be run.
+ */
+public class EventReader {
+    private final DataInputStream in;
+    private final DataInputStream embeddings;
+    private final Map<String, PickleEvent> pickleEvents = new HashMap<String, PickleEvent>();
+    private final List<String> symbols = new ArrayList<String>();
+    private final long timeOffset;
+    private TestCase currentTestCase;
+
+    /**
+     * @param in           the events
+     * @param pickleEvents the pickles the events can refer to
+     * @param timeOffset   added to the time stamps of the events, to make them comparable to the time of this JVM
+     */
+    public EventReader(DataInputStream in, List<PickleEvent> pickleEvents, long timeOffset) {
+        this(in, null, pickleEvents, timeOffset);
+    }
+
+    /**
+     * @param in           the events
+     * @param embeddings   the data of the embeddings, if the writer wrote it to a stream of its own
+     * @param pickleEvents the pickles the events can refer to
+     * @param timeOffset   added to the time stamps of the events, to make them comparable to the time of this JVM
+     */
+    public EventReader(DataInputStream in, DataInputStream embeddings, List<PickleEvent> pickleEvents, long timeOffset) {
+        this.in = in;
+        this.embeddings = embeddings;
+        this.timeOffset = timeOffset;
+        addPickleEvents(pickleEvents);
+    }
+
+    /**
+     * Makes more pickles known, for instance those compiled from a {@link TestSourceRead} that was just read.
+     */
+    public void addPickleEvents(List<PickleEvent> pickleEvents) {
+        for (PickleEvent pickleEvent : pickleEvents) {
+            this.pickleEvents.put(DurationHistory.pickleId(pickleEvent), pickleEvent);
+        }
+    }
+
+    /**
+     * @return the next event, or null at the end of the stream.
+     */
+    public Event read() throws IOException {
+        int tag = Wire.readTag(in);
+        return tag == -1 ? null : read(tag);
+    }
+
+    Event read(int tag) throws IOException {
+        long timeStamp = in.readLong() + timeOffset;
+        switch (tag) {
+            case Wire.TEST_SOURCE_READ:
+                return new TestSourceRead(timeStamp, readString(in), readString(in), readString(in));
+            case Wire.TEST_CASE_STARTED:
+                currentTestCase = readTestCase();
+                return new TestCaseStarted(timeStamp, currentTestCase);
+            case Wire.TEST_STEP_STARTED:
+                return new TestStepStarted(timeStamp, readTestStep());
+            case Wire.TEST_STEP_FINISHED:
+                TestStep testStep = readTestStep();
+                return new TestStepFinished(timeStamp, testStep, readResult(in, symbols));
+            case Wire.TEST_CASE_FINISHED:
+                TestCase testCase = requireTestCase();
+                Result result = readResult(in, symbols);
+                currentTestCase = null;
+                return new TestCaseFinished(timeStamp, testCase, result);
+            case Wire.WRITE:
+                return new WriteEvent(timeStamp, readString(in));
+            case Wire.EMBED:
+                String mimeType = readSymbol(in, symbols);
+                return new EmbedEvent(timeStamp, readBytes(in), mimeType);
+            case Wire.EMBEDDING:
+                String embeddingMimeType = readSymbol(in, symbols);
+                return new EmbedEvent(timeStamp, readEmbedding(in.readInt()), embeddingMimeType);
+            case Wire.TEST_RUN_FINISHED:
+                return new TestRunFinished(timeStamp);
+            default:
+                throw new IOException("Unknown event tag: " + tag);
+        }
+    }
+
+    private byte[] readEmbedding(int length) throws IOException {
+        if (embeddings == null) {
+            throw new IOException("The events refer to embeddings, but there are none");
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt embedding length: " + length);
+        }
+        byte[] data = new byte[length];
+        embeddings.readFully(data);
+        return data;
+    }
+
+    private TestCase readTestCase() throws IOException {
+        String pickleId = DurationHistory.pickleId(readSymbol(in, symbols), in.readInt());
+        PickleEvent pickleEvent = pickleEvents.get(pickleId);
+        if (pickleEvent == null) {
+            throw new IOException("Unknown pickle: " + pickleId);
+        }
+        int testStepCount = in.readInt();
+        List<TestStep> testSteps = new ArrayList<TestStep>();
+        for (int i = 0; i < testStepCount; i++) {
+            if (in.readBoolean()) {
+                HookType hookType = HookType.valueOf(readSymbol(in, symbols));
+                testSteps.add(new UnskipableStep(hookType, readDefinitionMatch()));
+            } else {
+                int pickleStepIndex = in.readInt();
+                if (pickleStepIndex < 0 || pickleStepIndex >= pickleEvent.pickle.getSteps().size()) {
+                    throw new IOException("Pickle " + pickleId + " has no step " + pickleStepIndex);
+                }
+                testSteps.add(new PickleTestStep(pickleEvent.uri, pickleEvent.pickle.getSteps().get(pickleStepIndex), readDefinitionMatch()));
+            }
+        }
+        return new TestCase(testSteps, pickleEvent);
+    }
+
+    private ReplayedDefinitionMatch readDefinitionMatch() throws IOException {
+        boolean hasPattern = in.readBoolean();
+        String pattern = readSymbol(in, symbols);
+        boolean hasCodeLocation = in.readBoolean();
+        String codeLocation = readSymbol(in, symbols);
+        int argumentCount = in.readInt();
+        List<Argument> arguments = null;
+        if (argumentCount >= 0) {
+            arguments = new ArrayList<Argument>();
+            for (int i = 0; i < argumentCount; i++) {
+                Integer offset = in.readBoolean() ? in.readInt() : null;
+                arguments.add(new Argument(offset, readString(in)));
+            }
+        }
+        return new ReplayedDefinitionMatch(hasPattern, pattern, hasCodeLocation, codeLocation,
+                arguments == null ? Collections.<Argument>emptyList() : arguments);
+    }
+
+    private TestStep readTestStep() throws IOException {
+        List<TestStep> testSteps = requireTestCase().getTestSteps();
+        int index = in.readInt();
+        if (index < 0 || index >= testSteps.size()) {
+            throw new IOException("The test case has no step " + index);
+        }
+        return testSteps.get(index);
+    }
+
+    private TestCase requireTestCase() throws IOException {
+        if (currentTestCase == null) {
+            throw new IOException("Test step event outside of a test case");
+        }
+        return currentTestCase;
+    }
+}
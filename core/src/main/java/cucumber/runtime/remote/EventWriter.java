@@ -0,0 +1,236 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.EmbedEvent;
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventListener;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestSourceRead;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.event.TestStepStarted;
+import cucumber.api.event.WriteEvent;
+import cucumber.runtime.Argument;
+import cucumber.runtime.CucumberException;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cucumber.runtime.remote.Wire.writeBytes;
+import static cucumber.runtime.remote.Wire.writeResult;
+import static cucumber.runtime.remote.Wire.writeString;
+import static cucumber.runtime.remote.Wire.writeSymbol;
+
+/**
+ * Writes events in a compact binary form that {@link EventReader} turns back into events.
+ * <p/>
+ * Pickles are written as their id and test steps as their index in the test case, so the
+ * reader must know the same pickles. The definitions that steps matched are written as far
+ * as plugins can see them: pattern, code location and arguments. Strings that repeat, like
+ * code locations and the frames of stack traces, are only written in full once.
+ * <p/>
+ * Embeddings can be written to a stream of their own, which keeps the events small when
+ * screenshots and the like are embedded.
+ * <p/>
+ * The events of one test case must not be interleaved with those of another, as is the
+ * case on the bus of a {@link cucumber.runtime.Runtime}.
+ */
+public class EventWriter implements EventListener {
+    private final DataOutputStream out;
+    private final DataOutputStream embeddings;
+    private final Map<String, Integer> symbols = new HashMap<String, Integer>();
+    private TestCase currentTestCase;
+
+    private final EventHandler<Event> handler = new EventHandler<Event>() {
+        @Override
+        public void receive(Event event) {
+            try {
+                write(event);
+            } catch (IOException e) {
+                throw new CucumberException("Failed to write " + event.getClass().getSimpleName(), e);
+            }
+        }
+    };
+
+    public EventWriter(DataOutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * @param out        the events
+     * @param embeddings the data of embeddings, or null to write it with the events
+     */
+    public EventWriter(DataOutputStream out, DataOutputStream embeddings) {
+        this.out = out;
+        this.embeddings = embeddings;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        registerHandlerFor(publisher, TestSourceRead.class);
+        registerHandlerFor(publisher, TestCaseStarted.class);
+        registerHandlerFor(publisher, TestStepStarted.class);
+        registerHandlerFor(publisher, TestStepFinished.class);
+        registerHandlerFor(publisher, TestCaseFinished.class);
+        registerHandlerFor(publisher, WriteEvent.class);
+        registerHandlerFor(publisher, EmbedEvent.class);
+        registerHandlerFor(publisher, TestRunFinished.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Event> void registerHandlerFor(EventPublisher publisher, Class<T> eventType) {
+        publisher.registerHandlerFor(eventType, (EventHandler<T>) (EventHandler<?>) handler);
+    }
+
+    public synchronized void write(Event event) throws IOException {
+        if (event instanceof TestSourceRead) {
+            TestSourceRead testSourceRead = (TestSourceRead) event;
+            out.writeByte(Wire.TEST_SOURCE_READ);
+            out.writeLong(event.getTimeStamp());
+            writeString(out, testSourceRead.path);
+            writeString(out, testSourceRead.language);
+            writeString(out, testSourceRead.source);
+        } else if (event instanceof TestCaseStarted) {
+            currentTestCase = ((TestCaseStarted) event).testCase;
+            out.writeByte(Wire.TEST_CASE_STARTED);
+            out.writeLong(event.getTimeStamp());
+            writeTestCase(currentTestCase);
+        } else if (event instanceof TestStepStarted) {
+            out.writeByte(Wire.TEST_STEP_STARTED);
+            out.writeLong(event.getTimeStamp());
+            out.writeInt(indexOf(((TestStepStarted) event).testStep));
+        } else if (event instanceof TestStepFinished) {
+            TestStepFinished testStepFinished = (TestStepFinished) event;
+            out.writeByte(Wire.TEST_STEP_FINISHED);
+            out.writeLong(event.getTimeStamp());
+            out.writeInt(indexOf(testStepFinished.testStep));
+            writeResult(out, symbols, testStepFinished.result);
+        } else if (event instanceof TestCaseFinished) {
+            out.writeByte(Wire.TEST_CASE_FINISHED);
+            out.writeLong(event.getTimeStamp());
+            writeResult(out, symbols, ((TestCaseFinished) event).result);
+            currentTestCase = null;
+        } else if (event instanceof WriteEvent) {
+            out.writeByte(Wire.WRITE);
+            out.writeLong(event.getTimeStamp());
+            writeString(out, ((WriteEvent) event).text);
+        } else if (event instanceof EmbedEvent && embeddings != null) {
+            EmbedEvent embedEvent = (EmbedEvent) event;
+            out.writeByte(Wire.EMBEDDING);
+            out.writeLong(event.getTimeStamp());
+            writeSymbol(out, symbols, embedEvent.mimeType);
+            out.writeInt(embedEvent.data.length);
+            embeddings.write(embedEvent.data);
+        } else if (event instanceof EmbedEvent) {
+            EmbedEvent embedEvent = (EmbedEvent) event;
+            out.writeByte(Wire.EMBED);
+            out.writeLong(event.getTimeStamp());
+            writeSymbol(out, symbols, embedEvent.mimeType);
+            writeBytes(out, embedEvent.data);
+        } else if (event instanceof TestRunFinished) {
+            out.writeByte(Wire.TEST_RUN_FINISHED);
+            out.writeLong(event.getTimeStamp());
+        } else {
+            return;
+        }
+        if (event instanceof TestCaseFinished || event instanceof TestRunFinished) {
+            // Embeddings first, so a reader never finds an event without its data
+            if (embeddings != null) {
+                embeddings.flush();
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Closes the streams of this writer.
+     */
+    public synchronized void close() throws IOException {
+        try {
+            if (embeddings != null) {
+                embeddings.close();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeTestCase(TestCase testCase) throws IOException {
+        writeSymbol(out, symbols, testCase.getPath().replace('\\', '/'));
+        out.writeInt(testCase.getLine());
+        List<TestStep> testSteps = testCase.getTestSteps();
+        out.writeInt(testSteps.size());
+        int pickleStepIndex = 0;
+        for (TestStep testStep : testSteps) {
+            out.writeBoolean(testStep.isHook());
+            if (testStep.isHook()) {
+                writeSymbol(out, symbols, testStep.getHookType().name());
+            } else {
+                // The pickle steps are run in order, between the hooks
+                out.writeInt(pickleStepIndex++);
+            }
+            writeDefinitionMatch(testStep);
+        }
+    }
+
+    private void writeDefinitionMatch(TestStep testStep) throws IOException {
+        String pattern = null;
+        boolean hasPattern = !testStep.isHook();
+        if (hasPattern) {
+            try {
+                pattern = testStep.getPattern();
+            } catch (RuntimeException e) {
+                hasPattern = false;
+            }
+        }
+        out.writeBoolean(hasPattern);
+        writeSymbol(out, symbols, pattern);
+
+        String codeLocation = null;
+        boolean hasCodeLocation = true;
+        try {
+            codeLocation = testStep.getCodeLocation();
+        } catch (RuntimeException e) {
+            hasCodeLocation = false;
+        }
+        out.writeBoolean(hasCodeLocation);
+        writeSymbol(out, symbols, codeLocation);
+
+        List<Argument> arguments = null;
+        try {
+            arguments = testStep.getDefinitionArgument();
+        } catch (RuntimeException ignore) {
+        }
+        if (arguments == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(arguments.size());
+        for (Argument argument : arguments) {
+            out.writeBoolean(argument.getOffset() != null);
+            if (argument.getOffset() != null) {
+                out.writeInt(argument.getOffset());
+            }
+            writeString(out, argument.getVal());
+        }
+    }
+
+    private int indexOf(TestStep testStep) {
+        if (currentTestCase != null) {
+            List<TestStep> testSteps = currentTestCase.getTestSteps();
+            for (int i = 0; i < testSteps.size(); i++) {
+                if (testSteps.get(i) == testStep) {
+                    return i;
+                }
+            }
+        }
+        throw new CucumberException("Test step outside of the current test case: " + testStep);
+    }
+}
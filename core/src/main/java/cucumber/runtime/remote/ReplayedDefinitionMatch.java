@@ -0,0 +1,70 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.Scenario;
+import cucumber.runtime.Argument;
+import cucumber.runtime.DefinitionMatch;
+import cucumber.runtime.Match;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What plugins can ask about the definition a step or hook matched in another JVM. The
+ * definition itself can't be run here.
+ */
+class ReplayedDefinitionMatch implements DefinitionMatch {
+    private final String pattern;
+    private final String codeLocation;
+    private final List<Argument> arguments;
+    private final boolean hasPattern;
+    private final boolean hasCodeLocation;
+
+    ReplayedDefinitionMatch(boolean hasPattern, String pattern, boolean hasCodeLocation, String codeLocation, List<Argument> arguments) {
+        this.hasPattern = hasPattern;
+        this.pattern = pattern;
+        this.hasCodeLocation = hasCodeLocation;
+        this.codeLocation = codeLocation;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public void runStep(String language, Scenario scenario) throws Throwable {
+        throw new UnsupportedOperationException("Replayed steps can't be run");
+    }
+
+    @Override
+    public void dryRunStep(String language, Scenario scenario) throws Throwable {
+        throw new UnsupportedOperationException("Replayed steps can't be run");
+    }
+
+    @Override
+    public Match getMatch() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getPattern() {
+        if (!hasPattern) {
+            throw new UnsupportedOperationException();
+        }
+        return pattern;
+    }
+
+    @Override
+    public String getCodeLocation() {
+        if (!hasCodeLocation) {
+            throw new UnsupportedOperationException();
+        }
+        return codeLocation;
+    }
+
+    @Override
+    public List<Argument> getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public List<String> getSnippets() {
+        return Collections.emptyList();
+    }
+}
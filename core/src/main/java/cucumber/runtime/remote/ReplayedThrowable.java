@@ -0,0 +1,31 @@
+package cucumber.runtime.remote;
+
+/**
+ * An error that was thrown in another JVM, or in an earlier run.
+ * <p/>
+ * The class of the original error may not be on the classpath, so only its name, message,
+ * stack trace and cause are kept. It prints like the original did.
+ */
+public class ReplayedThrowable extends Throwable {
+    private static final long serialVersionUID = 1L;
+
+    private final String className;
+
+    public ReplayedThrowable(String className, String message, Throwable cause) {
+        super(message, cause);
+        this.className = className;
+    }
+
+    /**
+     * @return the name of the class of the original error.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    @Override
+    public String toString() {
+        String message = getLocalizedMessage();
+        return message != null ? className + ": " + message : className;
+    }
+}
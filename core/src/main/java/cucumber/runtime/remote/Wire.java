@@ -0,0 +1,203 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.Result;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tags and value encodings shared by {@link EventWriter}, {@link EventReader} and the
+ * messages between {@link Coordinator} and {@link Worker}.
+ */
+final class Wire {
+    static final int VERSION = 2;
+
+    // Worker to coordinator
+    static final byte HELLO = 1;
+    static final byte NEXT = 2;
+    // Coordinator to worker
+    static final byte PICKLE = 3;
+    static final byte DONE = 4;
+    // Events
+    static final byte TEST_SOURCE_READ = 10;
+    static final byte TEST_CASE_STARTED = 11;
+    static final byte TEST_STEP_STARTED = 12;
+    static final byte TEST_STEP_FINISHED = 13;
+    static final byte TEST_CASE_FINISHED = 14;
+    static final byte WRITE = 15;
+    static final byte EMBED = 16;
+    static final byte TEST_RUN_FINISHED = 17;
+    // An embedding whose data is in a separate stream
+    static final byte EMBEDDING = 18;
+
+    private static final int NULL = -1;
+    private static final int NEW_SYMBOL = -2;
+
+    private Wire() {
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        byte[] bytes = value.getBytes("UTF-8");
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes == null ? null : new String(bytes, "UTF-8");
+    }
+
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL) {
+            return null;
+        }
+        if (length < 0) {
+            throw new IOException("Corrupt length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * Writes a string that is likely to be written again, such as a code location or a class name
+     * in a stack trace. It is written in full the first time and as its index in {@code symbols}
+     * after that.
+     */
+    static void writeSymbol(DataOutputStream out, Map<String, Integer> symbols, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL);
+            return;
+        }
+        Integer index = symbols.get(value);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        out.writeInt(NEW_SYMBOL);
+        writeString(out, value);
+        symbols.put(value, symbols.size());
+    }
+
+    static String readSymbol(DataInputStream in, List<String> symbols) throws IOException {
+        int index = in.readInt();
+        if (index == NULL) {
+            return null;
+        }
+        if (index == NEW_SYMBOL) {
+            String value = readString(in);
+            symbols.add(value);
+            return value;
+        }
+        if (index < 0 || index >= symbols.size()) {
+            throw new IOException("Corrupt symbol: " + index);
+        }
+        return symbols.get(index);
+    }
+
+    static void writeResult(DataOutputStream out, Map<String, Integer> symbols, Result result) throws IOException {
+        writeSymbol(out, symbols, result.getStatus().name());
+        writeOptionalLong(out, result.getDuration());
+        writeOptionalLong(out, result.getCpuTime());
+        writeOptionalLong(out, result.getAllocatedBytes());
+        writeThrowable(out, symbols, result.getError());
+        List<String> snippets = result.getSnippets();
+        out.writeInt(snippets.size());
+        for (String snippet : snippets) {
+            writeString(out, snippet);
+        }
+    }
+
+    static Result readResult(DataInputStream in, List<String> symbols) throws IOException {
+        Result.Type status = Result.Type.valueOf(readSymbol(in, symbols));
+        Long duration = readOptionalLong(in);
+        Long cpuTime = readOptionalLong(in);
+        Long allocatedBytes = readOptionalLong(in);
+        Throwable error = readThrowable(in, symbols);
+        int snippetCount = in.readInt();
+        List<String> snippets = new ArrayList<String>();
+        for (int i = 0; i < snippetCount; i++) {
+            snippets.add(readString(in));
+        }
+        if (status == Result.Type.SKIPPED && duration == null && error == null && snippets.isEmpty()) {
+            return Result.SKIPPED;
+        }
+        return new Result(status, duration, error, snippets.isEmpty() ? Collections.<String>emptyList() : snippets, cpuTime, allocatedBytes);
+    }
+
+    private static void writeOptionalLong(DataOutputStream out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readOptionalLong(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    static void writeThrowable(DataOutputStream out, Map<String, Integer> symbols, Throwable error) throws IOException {
+        out.writeBoolean(error != null);
+        if (error == null) {
+            return;
+        }
+        writeSymbol(out, symbols, error instanceof ReplayedThrowable ? ((ReplayedThrowable) error).getClassName() : error.getClass().getName());
+        writeString(out, error.getMessage());
+        StackTraceElement[] stackTrace = error.getStackTrace() != null ? error.getStackTrace() : new StackTraceElement[0];
+        out.writeInt(stackTrace.length);
+        for (StackTraceElement element : stackTrace) {
+            writeSymbol(out, symbols, element.getClassName());
+            writeSymbol(out, symbols, element.getMethodName());
+            writeSymbol(out, symbols, element.getFileName());
+            out.writeInt(element.getLineNumber());
+        }
+        writeThrowable(out, symbols, error.getCause() == error ? null : error.getCause());
+    }
+
+    static Throwable readThrowable(DataInputStream in, List<String> symbols) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String className = readSymbol(in, symbols);
+        String message = readString(in);
+        int stackTraceLength = in.readInt();
+        if (stackTraceLength < 0) {
+            throw new IOException("Corrupt stack trace length: " + stackTraceLength);
+        }
+        List<StackTraceElement> stackTrace = new ArrayList<StackTraceElement>();
+        for (int i = 0; i < stackTraceLength; i++) {
+            stackTrace.add(new StackTraceElement(readSymbol(in, symbols), readSymbol(in, symbols), readSymbol(in, symbols), in.readInt()));
+        }
+        Throwable cause = readThrowable(in, symbols);
+        ReplayedThrowable error = new ReplayedThrowable(className, message, cause);
+        error.setStackTrace(stackTrace.toArray(new StackTraceElement[stackTrace.size()]));
+        return error;
+    }
+
+    /**
+     * @return the next tag, or -1 at the end of the stream.
+     */
+    static int readTag(DataInputStream in) throws IOException {
+        try {
+            return in.readByte();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+}
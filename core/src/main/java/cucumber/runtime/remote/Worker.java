@@ -0,0 +1,72 @@
+package cucumber.runtime.remote;
+
+import cucumber.runner.EventBus;
+import cucumber.runner.Runner;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.DurationHistory;
+import gherkin.events.PickleEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asks a {@link Coordinator} for pickles, runs them and sends their events back, until the
+ * coordinator has no pickles left.
+ */
+public class Worker {
+    private final Runner runner;
+    private final EventBus bus;
+    private final Map<String, PickleEvent> pickleEvents = new HashMap<String, PickleEvent>();
+
+    /**
+     * @param runner       runs the pickles
+     * @param bus          the bus of the runner
+     * @param pickleEvents all pickles the coordinator may hand out
+     */
+    public Worker(Runner runner, EventBus bus, List<PickleEvent> pickleEvents) {
+        this.runner = runner;
+        this.bus = bus;
+        for (PickleEvent pickleEvent : pickleEvents) {
+            this.pickleEvents.put(DurationHistory.pickleId(pickleEvent), pickleEvent);
+        }
+    }
+
+    public void run(String host, int port) throws IOException {
+        Socket socket = new Socket(host, port);
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            new EventWriter(out).setEventPublisher(bus);
+            out.writeByte(Wire.HELLO);
+            out.writeInt(Wire.VERSION);
+            out.writeLong(bus.getTime());
+            while (true) {
+                out.writeByte(Wire.NEXT);
+                out.flush();
+                int tag = Wire.readTag(in);
+                if (tag == Wire.DONE || tag == -1) {
+                    return;
+                }
+                if (tag != Wire.PICKLE) {
+                    throw new IOException("Unexpected message from the coordinator: " + tag);
+                }
+                String pickleId = Wire.readString(in);
+                PickleEvent pickleEvent = pickleEvents.get(pickleId);
+                if (pickleEvent == null) {
+                    throw new CucumberException("The coordinator handed out " + pickleId + ", which this worker doesn't have. " +
+                            "Are the workers running with the same features?");
+                }
+                runner.runPickle(pickleEvent);
+            }
+        } finally {
+            socket.close();
+        }
+    }
+}
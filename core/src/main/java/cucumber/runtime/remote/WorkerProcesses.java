@@ -0,0 +1,93 @@
+package cucumber.runtime.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * Starts worker JVMs with the classpath and JVM arguments of this JVM, running
+ * {@code cucumber.api.cli.Main} with {@code --worker}. Their output is copied to
+ * {@link System#err}, so it doesn't end up in reports the plugins write to {@link System#out}.
+ */
+public class WorkerProcesses {
+    private final List<Process> processes = new ArrayList<Process>();
+
+    /**
+     * @param count the number of workers
+     * @param port  the port of the {@link Coordinator} on the loopback interface
+     * @param args  the command line options and feature paths of the run
+     */
+    public void start(int count, int port, List<String> args) throws IOException {
+        List<String> command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(jvmArguments(ManagementFactory.getRuntimeMXBean().getInputArguments(), System.getProperties()));
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("cucumber.api.cli.Main");
+        command.add("--worker");
+        command.add("127.0.0.1:" + port);
+        command.addAll(args);
+        for (int i = 0; i < count; i++) {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            processes.add(process);
+            copyInBackground(process.getInputStream(), System.err, "cucumber-worker-" + (i + 1) + "-output");
+        }
+    }
+
+    /**
+     * @param inputArguments   the arguments this JVM was started with
+     * @param systemProperties the system properties of this JVM
+     * @return the arguments for a worker JVM: the ones of this JVM (except for a debugger, which
+     * would listen on the same port) and the {@code cucumber.*} system properties set since it started
+     */
+    static List<String> jvmArguments(List<String> inputArguments, Properties systemProperties) {
+        List<String> jvmArguments = new ArrayList<String>();
+        for (String argument : inputArguments) {
+            if (!argument.startsWith("-agentlib:jdwp") && !argument.startsWith("-Xrunjdwp") && !argument.equals("-Xdebug")) {
+                jvmArguments.add(argument);
+            }
+        }
+        for (String name : new TreeSet<String>(systemProperties.stringPropertyNames())) {
+            String argument = "-D" + name + "=" + systemProperties.getProperty(name);
+            if (name.startsWith("cucumber.") && !jvmArguments.contains(argument)) {
+                jvmArguments.add(argument);
+            }
+        }
+        return jvmArguments;
+    }
+
+    /**
+     * Stops the workers that are still running.
+     */
+    public void destroy() {
+        for (Process process : processes) {
+            process.destroy();
+        }
+    }
+
+    private static void copyInBackground(final InputStream in, final OutputStream out, String threadName) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                byte[] buffer = new byte[8192];
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        out.write(buffer, 0, read);
+                    }
+                    out.flush();
+                } catch (IOException ignore) {
+                    // The worker is gone
+                }
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -9,14 +9,18 @@ import cucumber.deps.com.thoughtworks.xstream.core.DefaultConverterLookup;
 import cucumber.runtime.ParameterInfo;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates and holds one {@link LocalizedXStream} per locale.
+ * <p/>
+ * Safe for use by several threads. Looking up an existing XStream doesn't lock. Creating one does,
+ * so that an XStream is never created twice for the same locale.
+ */
 public class LocalizedXStreams {
-    private final Map<Locale, LocalizedXStream> xStreamsByLocale = new HashMap<Locale, LocalizedXStream>();
+    private final ConcurrentMap<Locale, LocalizedXStream> xStreamsByLocale = new ConcurrentHashMap<Locale, LocalizedXStream>();
     private final ClassLoader classLoader;
 
     public LocalizedXStreams(ClassLoader classLoader) {
@@ -26,8 +30,13 @@ public class LocalizedXStreams {
     public LocalizedXStream get(Locale locale) {
         LocalizedXStream xStream = xStreamsByLocale.get(locale);
         if (xStream == null) {
-            xStream = newXStream(locale);
-            xStreamsByLocale.put(locale, xStream);
+            synchronized (xStreamsByLocale) {
+                xStream = xStreamsByLocale.get(locale);
+                if (xStream == null) {
+                    xStream = newXStream(locale);
+                    xStreamsByLocale.put(locale, xStream);
+                }
+            }
         }
         return xStream;
     }
@@ -39,12 +48,7 @@ public class LocalizedXStreams {
 
     public static class LocalizedXStream extends XStream {
         private final Locale locale;
-        private final ThreadLocal<List<TimeConverter>> timeConverters = new ThreadLocal<List<TimeConverter>>() {
-            @Override
-            protected List<TimeConverter> initialValue() {
-                return new ArrayList<TimeConverter>();
-            }
-        };
+        private final TimeConverter[] timeConverters;
 
         public LocalizedXStream(ClassLoader classLoader, ConverterLookup converterLookup, ConverterRegistry converterRegistry, Locale locale) {
             super(null, null, classLoader, null, converterLookup, converterRegistry);
@@ -55,8 +59,10 @@ public class LocalizedXStreams {
             register(converterRegistry, new BigDecimalConverter(locale));
             register(converterRegistry, new BigIntegerConverter(locale));
             register(converterRegistry, new ByteConverter(locale));
-            register(converterRegistry, new DateConverter(locale));
-            register(converterRegistry, new CalendarConverter(locale));
+            timeConverters = new TimeConverter[]{new DateConverter(locale), new CalendarConverter(locale)};
+            for (TimeConverter timeConverter : timeConverters) {
+                register(converterRegistry, timeConverter);
+            }
             register(converterRegistry, new DoubleConverter(locale));
             register(converterRegistry, new FloatConverter(locale));
             register(converterRegistry, new IntegerConverter(locale));
@@ -72,23 +78,22 @@ public class LocalizedXStreams {
             lookup.registerConverter(new SingleValueConverterWrapperExt(converter), XStream.PRIORITY_VERY_HIGH);
         }
 
+        /**
+         * Makes the date converters use the format of {@code parameterInfo} on the current thread,
+         * until {@link #unsetParameterInfo()} is called.
+         */
         public void setParameterInfo(ParameterInfo parameterInfo) {
             if (parameterInfo != null) {
-                List<Class> timeClasses = TimeConverter.getTimeClasses();
-                for (Class timeClass : timeClasses) {
-                    SingleValueConverterWrapperExt converterWrapper = (SingleValueConverterWrapperExt) getConverterLookup().lookupConverterForType(timeClass);
-                    TimeConverter timeConverter = (TimeConverter) converterWrapper.getConverter();
+                for (TimeConverter timeConverter : timeConverters) {
                     timeConverter.setParameterInfoAndLocale(parameterInfo, locale);
-                    timeConverters.get().add(timeConverter);
                 }
             }
         }
 
         public void unsetParameterInfo() {
-            for (TimeConverter timeConverter : timeConverters.get()) {
+            for (TimeConverter timeConverter : timeConverters) {
                 timeConverter.removeOnlyFormat();
             }
-            timeConverters.get().clear();
         }
 
         public SingleValueConverter getSingleValueConverter(Type type) {
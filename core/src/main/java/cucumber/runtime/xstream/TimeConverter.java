@@ -7,40 +7,50 @@ import java.text.Format;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 
 import static java.util.Arrays.asList;
 
+/**
+ * Converts dates using the formats of a locale, or the format of the parameter that is being converted.
+ * <p/>
+ * A converter is shared by all threads using the same {@link LocalizedXStreams.LocalizedXStream}. DateFormats
+ * are not thread safe, so every thread gets its own, and the format of the parameter is only visible to the
+ * thread converting it.
+ */
 abstract class TimeConverter<T> extends ConverterWithFormat<T> {
-    private final List<DateFormat> formats = new ArrayList<DateFormat>();
-    private String format;
+    private final ThreadLocal<List<DateFormat>> formats;
+    private final ThreadLocal<String> format = new ThreadLocal<String>();
 
-    TimeConverter(Locale locale, Class[] convertibleTypes) {
+    TimeConverter(final Locale locale, Class[] convertibleTypes) {
         super(convertibleTypes);
-
-        // TODO - these are expensive to create. Cache by format+string, or use the XStream DF cache util thingy
-        addFormat(DateFormat.SHORT, locale);
-        addFormat(DateFormat.MEDIUM, locale);
-        addFormat(DateFormat.LONG, locale);
-        addFormat(DateFormat.FULL, locale);
-    }
-
-    void addFormat(int style, Locale locale) {
-        add(DateFormat.getDateInstance(style, locale));
+        super.setParameterInfoAndLocale(null, locale);
+        this.formats = new ThreadLocal<List<DateFormat>>() {
+            @Override
+            protected List<DateFormat> initialValue() {
+                List<DateFormat> dateFormats = new ArrayList<DateFormat>();
+                addFormat(dateFormats, DateFormat.SHORT, locale);
+                addFormat(dateFormats, DateFormat.MEDIUM, locale);
+                addFormat(dateFormats, DateFormat.LONG, locale);
+                addFormat(dateFormats, DateFormat.FULL, locale);
+                return dateFormats;
+            }
+        };
     }
 
-    void add(DateFormat dateFormat) {
+    private static void addFormat(List<DateFormat> formats, int style, Locale locale) {
+        DateFormat dateFormat = DateFormat.getDateInstance(style, locale);
         dateFormat.setLenient(false);
         formats.add(dateFormat);
     }
 
     public List<? extends Format> getFormats() {
-        return format == null ? formats : asList(getOnlyFormat());
+        String onlyFormat = format.get();
+        return onlyFormat == null ? formats.get() : asList(getOnlyFormat(onlyFormat));
     }
 
-    private Format getOnlyFormat() {
+    private Format getOnlyFormat(String format) {
         DateFormat dateFormat = new SimpleDateFormat(format, getLocale());
         dateFormat.setLenient(false);
 
@@ -55,23 +65,18 @@ abstract class TimeConverter<T> extends ConverterWithFormat<T> {
         return super.toString(obj);
     }
 
+    /**
+     * Uses the format of {@code parameterInfo}, if it has one, for conversions on the current thread.
+     * The locale is fixed when the converter is created.
+     */
     @Override
     public void setParameterInfoAndLocale(ParameterInfo parameterInfo, Locale locale) {
-        super.setParameterInfoAndLocale(parameterInfo, locale);
-
         if (parameterInfo.getFormat() != null) {
-            format = parameterInfo.getFormat();
+            format.set(parameterInfo.getFormat());
         }
     }
 
     public void removeOnlyFormat() {
-        format = null;
-    }
-
-    public static List<Class> getTimeClasses() {
-        List<Class> classes = new ArrayList<Class>();
-        classes.add(Date.class);
-        classes.add(Calendar.class);
-        return classes;
+        format.remove();
     }
 }
@@ -10,6 +10,7 @@ import org.junit.Test;
 import org.mockito.InOrder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.isA;
@@ -88,4 +89,25 @@ public class TestStepTest {
         assertEquals(duration, result.getDuration());
     }
 
+    @Test
+    public void step_cpu_time_and_allocated_bytes_are_measured() throws Throwable {
+        when(bus.getCpuTime()).thenReturn(100L, 350L);
+        when(bus.getAllocatedBytes()).thenReturn(1000L, 5096L);
+
+        Result result = step.run(bus, language, scenario, false);
+
+        assertEquals(Long.valueOf(250), result.getCpuTime());
+        assertEquals(Long.valueOf(4096), result.getAllocatedBytes());
+    }
+
+    @Test
+    public void step_cpu_time_and_allocated_bytes_are_null_when_not_measured() throws Throwable {
+        when(bus.getCpuTime()).thenReturn(-1L);
+        when(bus.getAllocatedBytes()).thenReturn(-1L);
+
+        Result result = step.run(bus, language, scenario, false);
+
+        assertNull(result.getCpuTime());
+        assertNull(result.getAllocatedBytes());
+    }
 }
@@ -0,0 +1,103 @@
+package cucumber.api.formatter;
+
+import cucumber.api.formatter.NiceAppendable.FlushPolicy;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.PrintStream;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class NiceAppendableTest {
+
+    @Test
+    public void flushes_after_every_append_by_default() {
+        FlushCounter out = new FlushCounter();
+        NiceAppendable appendable = new NiceAppendable(out);
+
+        appendable.append("a").append('b').append("cd", 0, 1).println("e");
+
+        assertEquals(4, out.flushes);
+    }
+
+    @Test
+    public void flushes_after_every_line() {
+        FlushCounter out = new FlushCounter();
+        NiceAppendable appendable = new NiceAppendable(out, FlushPolicy.LINE);
+
+        appendable.append("a").append('b');
+        assertEquals(0, out.flushes);
+        appendable.append("c\nd");
+        assertEquals(1, out.flushes);
+        appendable.append('\n').println("e").println();
+        assertEquals(4, out.flushes);
+    }
+
+    @Test
+    public void flushes_when_a_test_case_has_finished() {
+        FlushCounter out = new FlushCounter();
+        NiceAppendable appendable = new NiceAppendable(out, FlushPolicy.TEST_CASE);
+
+        appendable.append("a").println("b");
+        assertEquals(0, out.flushes);
+        appendable.testCaseFinished();
+        assertEquals(1, out.flushes);
+    }
+
+    @Test
+    public void flushes_only_when_closed() {
+        FlushCounter out = new FlushCounter();
+        NiceAppendable appendable = new NiceAppendable(out, FlushPolicy.CLOSE);
+
+        appendable.append("a").println("b");
+        appendable.testCaseFinished();
+        assertEquals(0, out.flushes);
+        appendable.close();
+        assertEquals(1, out.flushes);
+        assertEquals("ab\n", out.toString());
+    }
+
+    @Test
+    public void uses_the_console_policy_for_print_streams() {
+        PrintStream console = new PrintStream(new ByteArrayOutputStream());
+
+        assertSame(FlushPolicy.LINE, FlushPolicy.forOutput(console, FlushPolicy.LINE, FlushPolicy.CLOSE));
+        assertSame(FlushPolicy.CLOSE, FlushPolicy.forOutput(new StringWriter(), FlushPolicy.LINE, FlushPolicy.CLOSE));
+    }
+
+    private static class FlushCounter implements Appendable, Flushable {
+        private final StringBuilder text = new StringBuilder();
+        private int flushes;
+
+        @Override
+        public Appendable append(CharSequence csq) {
+            text.append(csq);
+            return this;
+        }
+
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            text.append(csq, start, end);
+            return this;
+        }
+
+        @Override
+        public Appendable append(char c) {
+            text.append(c);
+            return this;
+        }
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package cucumber.runner;
+
+import cucumber.api.Result;
+import cucumber.api.TestStep;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestStepFinished;
+import cucumber.api.event.TestStepStarted;
+import cucumber.runtime.CucumberException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class AsyncEventPublisherTest {
+
+    @Test
+    public void handlers_receive_all_events_in_order_on_another_thread_before_the_test_run_finishes() {
+        final List<Object> received = new ArrayList<Object>();
+        final List<Thread> threads = new ArrayList<Thread>();
+        EventBus bus = new EventBus(new TimeService.Stub(0));
+        AsyncEventPublisher publisher = new AsyncEventPublisher(bus, 2);
+        publisher.registerHandlerFor(TestStepStarted.class, new EventHandler<TestStepStarted>() {
+            @Override
+            public void receive(TestStepStarted event) {
+                received.add(event);
+                threads.add(Thread.currentThread());
+            }
+        });
+        publisher.registerHandlerFor(TestStepFinished.class, new EventHandler<TestStepFinished>() {
+            @Override
+            public void receive(TestStepFinished event) {
+                received.add(event);
+            }
+        });
+        publisher.registerHandlerFor(TestRunFinished.class, new EventHandler<TestRunFinished>() {
+            @Override
+            public void receive(TestRunFinished event) {
+                received.add(event);
+            }
+        });
+        TestStep testStep = mock(TestStep.class);
+        TestStepStarted stepStarted = new TestStepStarted(0l, testStep);
+        TestStepFinished stepFinished = new TestStepFinished(0l, testStep, mock(Result.class));
+        TestStepStarted nextStepStarted = new TestStepStarted(0l, testStep);
+        TestRunFinished runFinished = new TestRunFinished(0l);
+
+        bus.send(stepStarted);
+        bus.send(stepFinished);
+        bus.send(nextStepStarted);
+        bus.send(runFinished);
+
+        assertEquals(Arrays.<Object>asList(stepStarted, stepFinished, nextStepStarted, runFinished), received);
+        assertNotSame(Thread.currentThread(), threads.get(0));
+    }
+
+    @Test
+    public void stops_the_consumer_thread_when_the_test_run_finished() throws InterruptedException {
+        final List<Thread> threads = new ArrayList<Thread>();
+        EventBus bus = new EventBus(new TimeService.Stub(0));
+        AsyncEventPublisher publisher = new AsyncEventPublisher(bus);
+        publisher.registerHandlerFor(TestStepStarted.class, new EventHandler<TestStepStarted>() {
+            @Override
+            public void receive(TestStepStarted event) {
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        bus.send(new TestStepStarted(0l, mock(TestStep.class)));
+        bus.send(new TestRunFinished(0l));
+        threads.get(0).join(10000);
+
+        assertFalse(threads.get(0).isAlive());
+    }
+
+    @Test
+    public void rethrows_handler_failures_when_the_test_run_finishes() {
+        final RuntimeException failure = new RuntimeException("boom");
+        EventBus bus = new EventBus(new TimeService.Stub(0));
+        AsyncEventPublisher publisher = new AsyncEventPublisher(bus);
+        publisher.registerHandlerFor(TestStepStarted.class, new EventHandler<TestStepStarted>() {
+            @Override
+            public void receive(TestStepStarted event) {
+                throw failure;
+            }
+        });
+
+        bus.send(new TestStepStarted(0l, mock(TestStep.class)));
+        try {
+            bus.send(new TestRunFinished(0l));
+            fail("should have failed");
+        } catch (CucumberException expected) {
+            assertSame(failure, expected.getCause());
+        }
+    }
+}
@@ -40,4 +40,16 @@ public class EventBusTest {
         verify(handler, never()).receive(event);
     }
 
+    @Test
+    public void concurrent_handlers_receive_the_events_they_registered_for() {
+        EventHandler<TestStepFinished> handler = mock(EventHandler.class);
+        TestStepFinished event = new TestStepFinished(0l, mock(TestStep.class), mock(Result.class));
+
+        EventBus bus = new EventBus(new TimeService.Stub(0));
+        bus.getConcurrentEventPublisher().registerHandlerFor(TestStepFinished.class, handler);
+        bus.send(event);
+
+        verify(handler).receive(event);
+    }
+
 }
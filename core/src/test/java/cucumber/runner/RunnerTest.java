@@ -99,6 +99,7 @@ public class RunnerTest {
     @Test
     public void backends_are_asked_for_snippets_for_undefined_steps() throws Throwable {
         PickleStep step = mock(PickleStep.class);
+        when(step.getText()).thenReturn("step text");
         runner.runPickle(createPickleEventWithSteps(asList(step)));
 
         verify(backend).getSnippet(Matchers.eq(step), Matchers.anyString(), Matchers.<FunctionNameGenerator>any());
@@ -146,6 +147,7 @@ public class RunnerTest {
         int i = 0;
         for (StepDefinition stepDefinition : stepDefinitions) {
             PickleStep step = mock(PickleStep.class);
+            when(step.getText()).thenReturn("step text " + Integer.toString(i));
             steps.add(step);
             when(stepDefinition.matchedArguments(step)).thenReturn(Collections.<Argument>emptyList());
             when(stepDefinition.getPattern()).thenReturn("pattern" + Integer.toString(++i));
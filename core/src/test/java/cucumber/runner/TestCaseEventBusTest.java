@@ -0,0 +1,57 @@
+package cucumber.runner;
+
+import cucumber.api.Result;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestStepFinished;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TestCaseEventBusTest {
+
+    @Test
+    public void holds_back_events_until_the_test_case_is_finished() {
+        EventHandler<TestStepFinished> stepHandler = mock(EventHandler.class);
+        EventHandler<TestCaseFinished> testCaseHandler = mock(EventHandler.class);
+        TestStepFinished stepFinished = new TestStepFinished(0l, mock(TestStep.class), mock(Result.class));
+        TestCaseFinished testCaseFinished = new TestCaseFinished(0l, mock(TestCase.class), mock(Result.class));
+
+        EventBus sharedBus = new EventBus(new TimeService.Stub(0));
+        EventBus bus = new TestCaseEventBus(new TimeService.Stub(0), sharedBus);
+        bus.registerHandlerFor(TestStepFinished.class, stepHandler);
+        sharedBus.registerHandlerFor(TestCaseFinished.class, testCaseHandler);
+
+        bus.send(stepFinished);
+        verify(stepHandler, never()).receive(stepFinished);
+
+        bus.send(testCaseFinished);
+        InOrder inOrder = inOrder(stepHandler, testCaseHandler);
+        inOrder.verify(stepHandler).receive(stepFinished);
+        inOrder.verify(testCaseHandler).receive(testCaseFinished);
+    }
+
+    @Test
+    public void passes_events_to_concurrent_handlers_right_away_and_once() {
+        EventHandler<TestStepFinished> stepHandler = mock(EventHandler.class);
+        TestStepFinished stepFinished = new TestStepFinished(0l, mock(TestStep.class), mock(Result.class));
+        TestCaseFinished testCaseFinished = new TestCaseFinished(0l, mock(TestCase.class), mock(Result.class));
+
+        EventBus sharedBus = new EventBus(new TimeService.Stub(0));
+        EventBus bus = new TestCaseEventBus(new TimeService.Stub(0), sharedBus);
+        bus.getConcurrentEventPublisher().registerHandlerFor(TestStepFinished.class, stepHandler);
+
+        bus.send(stepFinished);
+        verify(stepHandler).receive(stepFinished);
+
+        bus.send(testCaseFinished);
+        verify(stepHandler, times(1)).receive(stepFinished);
+    }
+}
@@ -0,0 +1,41 @@
+package cucumber.runner;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ThreadResourceMeterTest {
+    private byte[] allocated;
+
+    @Test
+    public void measures_the_allocations_of_the_current_thread() {
+        ResourceMeter meter = ThreadResourceMeter.create();
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+
+        long before = meter.allocatedBytes();
+        allocated = new byte[1024 * 1024];
+        long after = meter.allocatedBytes();
+
+        assertTrue(before >= 0);
+        assertTrue(after - before >= allocated.length);
+    }
+
+    @Test
+    public void measures_the_cpu_time_of_the_current_thread() {
+        ResourceMeter meter = ThreadResourceMeter.create();
+        assumeTrue(ManagementFactory.getThreadMXBean().isCurrentThreadCpuTimeSupported());
+
+        long before = meter.cpuTime();
+        long spin = System.nanoTime() + 20000000;
+        while (System.nanoTime() < spin) {
+            allocated = null;
+        }
+        long after = meter.cpuTime();
+
+        assertTrue(before >= 0);
+        assertTrue(after > before);
+    }
+}
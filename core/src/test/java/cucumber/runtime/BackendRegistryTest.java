@@ -0,0 +1,143 @@
+package cucumber.runtime;
+
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.snippets.FunctionNameGenerator;
+import gherkin.pickles.PickleStep;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class BackendRegistryTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void is_empty_without_registrations() {
+        assertTrue(new BackendRegistry(classLoaderWithRegistrations()).isEmpty());
+    }
+
+    @Test
+    public void instantiates_registered_backends_with_the_resource_loader() throws IOException {
+        ResourceLoader resourceLoader = mock(ResourceLoader.class);
+        BackendRegistry backendRegistry = new BackendRegistry(classLoaderWithRegistrations(
+                "# comment\n" + RegisteredBackend.class.getName() + " # trailing comment\n",
+                RegisteredBackend.class.getName() + "\n"));
+
+        Collection<? extends Backend> backends = backendRegistry.instantiate(resourceLoader);
+
+        assertEquals(1, backends.size());
+        assertSame(resourceLoader, ((RegisteredBackend) backends.iterator().next()).resourceLoader);
+    }
+
+    @Test
+    public void skips_backends_that_are_not_on_the_classpath() throws IOException {
+        BackendRegistry backendRegistry = new BackendRegistry(classLoaderWithRegistrations("com.example.MissingBackend\n"));
+
+        assertEquals(0, backendRegistry.instantiate(mock(ResourceLoader.class)).size());
+    }
+
+    @Test
+    public void fails_on_registered_classes_that_are_not_backends() throws IOException {
+        BackendRegistry backendRegistry = new BackendRegistry(classLoaderWithRegistrations(String.class.getName() + "\n"));
+
+        try {
+            backendRegistry.instantiate(mock(ResourceLoader.class));
+            fail();
+        } catch (CucumberException e) {
+            assertEquals("java.lang.String is registered in META-INF/services/cucumber.runtime.Backend but isn't a cucumber.runtime.Backend", e.getMessage());
+        }
+    }
+
+    @Test
+    public void runtime_with_registered_backends_does_not_scan_for_backends() {
+        ClassFinder classFinder = mock(ClassFinder.class);
+        ClassLoader classLoader = classLoaderWithRegistrations(RegisteredBackend.class.getName() + "\n");
+
+        new Runtime(mock(ResourceLoader.class), classFinder, classLoader, new RuntimeOptions("-p null"));
+
+        verifyZeroInteractions(classFinder);
+    }
+
+    @Test
+    public void runtime_without_registered_backends_scans_for_backends() {
+        ClassFinder classFinder = mock(ClassFinder.class);
+        when(classFinder.getDescendants(Backend.class, "cucumber.runtime")).thenReturn(
+                Collections.<Class<? extends Backend>>singletonList(RegisteredBackend.class));
+
+        new Runtime(mock(ResourceLoader.class), classFinder, classLoaderWithRegistrations(), new RuntimeOptions("-p null"));
+
+        verify(classFinder).getDescendants(Backend.class, "cucumber.runtime");
+    }
+
+    private ClassLoader classLoaderWithRegistrations(String... registrations) {
+        final List<URL> urls = new ArrayList<URL>();
+        try {
+            for (String registration : registrations) {
+                File file = tempFolder.newFile();
+                FileOutputStream out = new FileOutputStream(file);
+                out.write(registration.getBytes("UTF-8"));
+                out.close();
+                urls.add(file.toURI().toURL());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (name.equals(BackendRegistry.RESOURCE)) {
+                    return Collections.enumeration(urls);
+                }
+                return super.getResources(name);
+            }
+        };
+    }
+
+    public static class RegisteredBackend implements Backend {
+        private final ResourceLoader resourceLoader;
+
+        public RegisteredBackend(ResourceLoader resourceLoader) {
+            this.resourceLoader = resourceLoader;
+        }
+
+        @Override
+        public void loadGlue(Glue glue, List<String> gluePaths) {
+        }
+
+        @Override
+        public void setUnreportedStepExecutor(UnreportedStepExecutor executor) {
+        }
+
+        @Override
+        public void buildWorld() {
+        }
+
+        @Override
+        public void disposeWorld() {
+        }
+
+        @Override
+        public String getSnippet(PickleStep step, String keyword, FunctionNameGenerator functionNameGenerator) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package cucumber.runtime;
+
+import gherkin.events.PickleEvent;
+import gherkin.pickles.Pickle;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleStep;
+import gherkin.pickles.PickleTag;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DurationHistoryTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void saves_and_loads_durations() {
+        File file = new File(tempFolder.getRoot(), "history/durations.txt");
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/a.feature:3", 1200);
+        durationHistory.record("path/b.feature:7", 30);
+        durationHistory.save(file);
+
+        DurationHistory loaded = DurationHistory.load(file);
+
+        assertEquals(Long.valueOf(1200), loaded.getDuration("path/a.feature:3"));
+        assertEquals(Long.valueOf(30), loaded.getDuration("path/b.feature:7"));
+    }
+
+    @Test
+    public void ignores_missing_and_unreadable_files() throws IOException {
+        File file = tempFolder.newFile();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("not a history".getBytes("UTF-8"));
+        out.close();
+
+        assertTrue(DurationHistory.load(file).isEmpty());
+        assertTrue(DurationHistory.load(new File(tempFolder.getRoot(), "missing")).isEmpty());
+    }
+
+    @Test
+    public void averages_new_durations_with_the_recorded_ones() {
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/a.feature:3", 1000);
+        durationHistory.record("path/a.feature:3", 2000);
+
+        assertEquals(Long.valueOf(1500), durationHistory.getDuration("path/a.feature:3"));
+        assertNull(durationHistory.getDuration("path/a.feature:4"));
+    }
+
+    @Test
+    public void estimates_pickles_without_history_by_the_mean() {
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/a.feature:3", 1000);
+        durationHistory.record("path/a.feature:4", 3000);
+
+        assertEquals(2000, durationHistory.estimate(pickleEvent("path/a.feature", 5)));
+    }
+
+    @Test
+    public void orders_pickles_longest_first() {
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/a.feature:3", 10);
+        durationHistory.record("path/a.feature:4", 300);
+        durationHistory.record("path/a.feature:5", 20);
+        PickleEvent short1 = pickleEvent("path/a.feature", 3);
+        PickleEvent long1 = pickleEvent("path/a.feature", 4);
+        PickleEvent short2 = pickleEvent("path/a.feature", 5);
+
+        assertEquals(asList(long1, short2, short1), durationHistory.longestFirst(asList(short1, long1, short2)));
+    }
+
+    @Test
+    public void balances_shards_by_duration() {
+        DurationHistory durationHistory = new DurationHistory();
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        // One long pickle and many short ones: counting pickles would put the long one with 4 short ones
+        durationHistory.record("path/a.feature:1", 1000);
+        pickleEvents.add(pickleEvent("path/a.feature", 1));
+        for (int line = 2; line <= 11; line++) {
+            durationHistory.record("path/a.feature:" + line, 100);
+            pickleEvents.add(pickleEvent("path/a.feature", line));
+        }
+
+        Map<String, Integer> shards = durationHistory.assignShards(pickleEvents, 2);
+
+        long[] loads = new long[2];
+        for (PickleEvent pickleEvent : pickleEvents) {
+            loads[shards.get(DurationHistory.pickleId(pickleEvent)) - 1] += durationHistory.estimate(pickleEvent);
+        }
+        assertEquals(1000, loads[0]);
+        assertEquals(1000, loads[1]);
+        Collections.reverse(pickleEvents);
+        assertEquals(shards, durationHistory.assignShards(pickleEvents, 2));
+    }
+
+    private PickleEvent pickleEvent(String uri, int line) {
+        return new PickleEvent(uri, new Pickle("pickle_name", "en", Collections.<PickleStep>emptyList(),
+                Collections.<PickleTag>emptyList(), asList(new PickleLocation(line, 0))));
+    }
+}
@@ -2,6 +2,9 @@ package cucumber.runtime;
 
 import cucumber.runtime.io.Resource;
 import cucumber.runtime.model.CucumberFeature;
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ast.GherkinDocument;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -10,7 +13,13 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class FeatureBuilderTest {
@@ -57,10 +66,65 @@ public class FeatureBuilderTest {
         assertEquals("path/foo.feature", features.get(0).getPath());
     }
 
+    @Test
+    public void parses_several_resources_in_order_and_keeps_the_first_of_duplicates() throws IOException {
+        List<Resource> resources = new ArrayList<Resource>();
+        for (int i = 0; i < 20; i++) {
+            resources.add(createResourceMock("path/" + i + ".feature", "Feature: " + (i % 10)));
+        }
+        List<CucumberFeature> features = new ArrayList<CucumberFeature>();
+        FeatureBuilder builder = new FeatureBuilder(features, '/');
+
+        builder.parse(resources);
+
+        assertEquals(10, features.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("path/" + i + ".feature", features.get(i).getPath());
+            assertEquals(String.valueOf(i), features.get(i).getGherkinFeature().getFeature().getName());
+        }
+    }
+
+    @Test
+    public void reports_the_first_parse_error_in_resource_order() throws IOException {
+        List<Resource> resources = new ArrayList<Resource>();
+        resources.add(createResourceMock("path/good.feature", "Feature: good"));
+        resources.add(createResourceMock("path/first.feature", "Not gherkin 1"));
+        resources.add(createResourceMock("path/second.feature", "Not gherkin 2"));
+        FeatureBuilder builder = new FeatureBuilder(new ArrayList<CucumberFeature>(), '/');
+
+        try {
+            builder.parse(resources);
+            fail();
+        } catch (CucumberException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Not gherkin 1"));
+        }
+    }
+
+    @Test
+    public void uses_cached_documents_and_caches_parsed_ones() throws IOException {
+        GherkinDocument cached = new Parser<GherkinDocument>(new AstBuilder()).parse("Feature: cached");
+        FeatureCache featureCache = mock(FeatureCache.class);
+        when(featureCache.load(anyString())).thenReturn(null, cached);
+        List<CucumberFeature> features = new ArrayList<CucumberFeature>();
+        FeatureBuilder builder = new FeatureBuilder(features, '/', featureCache);
+
+        builder.parse(createResourceMock("path/parsed.feature", "Feature: parsed"));
+        builder.parse(createResourceMock("path/cached.feature", "Feature: other"));
+
+        assertEquals("parsed", features.get(0).getGherkinFeature().getFeature().getName());
+        assertEquals("cached", features.get(1).getGherkinFeature().getFeature().getName());
+        verify(featureCache).store(anyString(), eq(features.get(0).getGherkinFeature()));
+        verify(featureCache, never()).store(anyString(), eq(cached));
+    }
+
     private Resource createResourceMock(String featurePath) throws IOException {
+        return createResourceMock(featurePath, "Feature: foo");
+    }
+
+    private Resource createResourceMock(String featurePath, String source) throws IOException {
         Resource resource = mock(Resource.class);
         when(resource.getPath()).thenReturn(featurePath);
-        ByteArrayInputStream feature = new ByteArrayInputStream("Feature: foo".getBytes("UTF-8"));
+        ByteArrayInputStream feature = new ByteArrayInputStream(source.getBytes("UTF-8"));
         when(resource.getInputStream()).thenReturn(feature);
         return resource;
     }
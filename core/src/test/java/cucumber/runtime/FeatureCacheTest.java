@@ -0,0 +1,119 @@
+package cucumber.runtime;
+
+import gherkin.AstBuilder;
+import gherkin.Parser;
+import gherkin.ast.GherkinDocument;
+import gherkin.deps.com.google.gson.Gson;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FeatureCacheTest {
+    private static final String FEATURE = "" +
+            "# language: en\n" +
+            "@feature-tag\n" +
+            "Feature: Cached\n" +
+            "  A description\n" +
+            "\n" +
+            "  Background: Setup\n" +
+            "    Given a background step\n" +
+            "\n" +
+            "  # a comment\n" +
+            "  @scenario-tag\n" +
+            "  Scenario: With arguments\n" +
+            "    Given a doc string\n" +
+            "      \"\"\"text/plain\n" +
+            "      content ü\n" +
+            "      \"\"\"\n" +
+            "    And a data table\n" +
+            "      | a | b |\n" +
+            "      | 1 | 2 |\n" +
+            "\n" +
+            "  Scenario Outline: An outline\n" +
+            "    When <x> happens\n" +
+            "\n" +
+            "    @examples-tag\n" +
+            "    Examples: Some\n" +
+            "      | x |\n" +
+            "      | y |\n";
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void returns_the_stored_document() throws IOException {
+        GherkinDocument gherkinDocument = parse(FEATURE);
+        FeatureCache cache = new FeatureCache(tempFolder.getRoot(), "1.0");
+
+        cache.store("abc", gherkinDocument);
+        GherkinDocument cached = new FeatureCache(tempFolder.getRoot(), "1.0").load("abc");
+
+        assertNotNull(cached);
+        assertEquals(new Gson().toJson(gherkinDocument), new Gson().toJson(cached));
+    }
+
+    @Test
+    public void returns_the_stored_document_of_an_empty_feature_file() throws IOException {
+        GherkinDocument gherkinDocument = parse("# only a comment\n");
+        FeatureCache cache = new FeatureCache(tempFolder.getRoot(), "1.0");
+
+        cache.store("abc", gherkinDocument);
+
+        assertEquals(new Gson().toJson(gherkinDocument), new Gson().toJson(cache.load("abc")));
+    }
+
+    @Test
+    public void misses_unknown_checksums_and_other_gherkin_versions() throws IOException {
+        new FeatureCache(tempFolder.getRoot(), "1.0").store("abc", parse(FEATURE));
+
+        assertNull(new FeatureCache(tempFolder.getRoot(), "1.0").load("def"));
+        assertNull(new FeatureCache(tempFolder.getRoot(), "2.0").load("abc"));
+    }
+
+    @Test
+    public void ignores_corrupt_entries() throws IOException {
+        File directory = tempFolder.newFolder("gherkin-1.0");
+        write(new File(directory, "garbage"), new byte[]{1, 2, 3});
+        write(new File(directory, "truncated"), new byte[]{0x43, 0x55, 0x4b, 0x45, 0, 0, 0, 1, 1, 0, 0, 0, 0, 0x7f, 0, 0, 0});
+        FeatureCache cache = new FeatureCache(tempFolder.getRoot(), "1.0");
+
+        assertNull(cache.load("garbage"));
+        assertNull(cache.load("truncated"));
+    }
+
+    @Test
+    public void is_disabled_when_the_gherkin_version_is_unknown() throws IOException {
+        FeatureCache cache = new FeatureCache(tempFolder.getRoot(), null);
+
+        cache.store("abc", parse(FEATURE));
+
+        assertNull(cache.load("abc"));
+        assertEquals(0, tempFolder.getRoot().list().length);
+    }
+
+    @Test
+    public void knows_the_gherkin_version() {
+        assertNotNull(FeatureCache.gherkinVersion());
+    }
+
+    private void write(File file, byte[] bytes) throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private GherkinDocument parse(String source) {
+        return new Parser<GherkinDocument>(new AstBuilder()).parse(source);
+    }
+}
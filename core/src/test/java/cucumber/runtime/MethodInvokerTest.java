@@ -0,0 +1,64 @@
+package cucumber.runtime;
+
+import cucumber.runtime.UtilsTest.MyAbstractClass;
+import cucumber.runtime.UtilsTest.MyClass;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MethodInvokerTest {
+    @Test
+    public void invokes_methods_of_any_visibility() throws Throwable {
+        Object target = new MyClass();
+
+        assertEquals(Boolean.TRUE, new MethodInvoker(MyClass.class.getMethod("publicInterfaceMethod")).invoke(target, 0));
+        assertEquals(Boolean.TRUE, new MethodInvoker(MyClass.class.getDeclaredMethod("protectedAbstractMethod")).invoke(target, 0));
+        assertEquals(Boolean.TRUE, new MethodInvoker(MyAbstractClass.class.getDeclaredMethod("privateMethod")).invoke(target, 1000));
+    }
+
+    @Test
+    public void makes_the_method_accessible_once() throws Throwable {
+        Method privateMethod = MyAbstractClass.class.getDeclaredMethod("privateMethod");
+
+        MethodInvoker invoker = new MethodInvoker(privateMethod);
+        invoker.invoke(new MyClass(), 0);
+
+        assertTrue(privateMethod.isAccessible());
+    }
+
+    @Test
+    public void invokes_methods_on_targets_from_other_class_loaders() throws Throwable {
+        URL[] urls = ((URLClassLoader) ClassLoader.getSystemClassLoader()).getURLs();
+        ClassLoader myClassLoader = new URLClassLoader(urls, null);
+        Object target = myClassLoader.loadClass(MyClass.class.getName()).getConstructor().newInstance();
+
+        MethodInvoker invoker = new MethodInvoker(MyAbstractClass.class.getDeclaredMethod("privateMethod"));
+
+        assertEquals(Boolean.TRUE, invoker.invoke(target, 0));
+        assertEquals(Boolean.TRUE, invoker.invoke(new MyClass(), 0));
+        assertEquals(Boolean.TRUE, invoker.invoke(target, 0));
+    }
+
+    @Test
+    public void times_out() throws Throwable {
+        MethodInvoker invoker = new MethodInvoker(Sleeper.class.getMethod("sleep"));
+        try {
+            invoker.invoke(new Sleeper(), 10);
+            fail();
+        } catch (TimeoutException expected) {
+        }
+    }
+
+    public static class Sleeper {
+        public void sleep() throws InterruptedException {
+            Thread.sleep(5000);
+        }
+    }
+}
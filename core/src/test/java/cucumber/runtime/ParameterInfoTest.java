@@ -37,6 +37,17 @@ public class ParameterInfoTest {
         assertEquals(23, pt.convert("23", US));
     }
 
+    public void withDouble(double d) {
+    }
+
+    @Test
+    public void converts_with_the_converter_of_each_locale() throws NoSuchMethodException {
+        ParameterInfo pt = ParameterInfo.fromMethod(getClass().getMethod("withDouble", Double.TYPE)).get(0);
+        assertEquals(1.5, pt.convert("1.5", US));
+        assertEquals(1.5, pt.convert("1,5", FR));
+        assertEquals(2.5, pt.convert("2.5", US));
+    }
+
     public void withJodaTime(@Transform(JodaTransformer.class) LocalDate date) {
     }
 
@@ -1,11 +1,23 @@
 package cucumber.runtime;
 
 import cucumber.runtime.xstream.LocalizedXStreams;
+import gherkin.pickles.Argument;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleStep;
 import org.junit.Test;
 
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RuntimeGlueTest {
@@ -60,4 +72,114 @@ public class RuntimeGlueTest {
         assertEquals(0, glue.beforeHooks.size());
         assertEquals(0, glue.afterHooks.size());
     }
+
+    @Test
+    public void reports_all_matching_step_definitions_as_ambiguous() {
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(Thread.currentThread().getContextClassLoader()));
+        PickleStep step = new PickleStep("I am logged in as admin", Collections.<Argument>emptyList(), asList(new PickleLocation(1, 1)));
+
+        StepDefinition loggedIn = mock(StepDefinition.class);
+        when(loggedIn.getPattern()).thenReturn("^I am logged in as (.*)$");
+        when(loggedIn.matchedArguments(step)).thenReturn(asList(new cucumber.runtime.Argument(18, "admin")));
+        glue.addStepDefinition(loggedIn);
+
+        StepDefinition anything = mock(StepDefinition.class);
+        when(anything.getPattern()).thenReturn("^(.*)$");
+        when(anything.matchedArguments(step)).thenReturn(asList(new cucumber.runtime.Argument(0, "I am logged in as admin")));
+        glue.addStepDefinition(anything);
+
+        StepDefinition other = mock(StepDefinition.class);
+        when(other.getPattern()).thenReturn("^I have (\\d+) cukes$");
+        glue.addStepDefinition(other);
+
+        try {
+            glue.stepDefinitionMatch("uri", step);
+            fail("should have failed");
+        } catch (AmbiguousStepDefinitionsException expected) {
+            assertEquals(2, expected.getMatches().size());
+            assertEquals("^(.*)$", expected.getMatches().get(0).getPattern());
+            assertEquals("^I am logged in as (.*)$", expected.getMatches().get(1).getPattern());
+        }
+        verify(other, never()).matchedArguments(step);
+    }
+
+    @Test
+    public void matches_steps_with_the_same_text_only_once() {
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(Thread.currentThread().getContextClassLoader()));
+        PickleStep step = new PickleStep("I have 5 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(1, 1)));
+        PickleStep sameStepElsewhere = new PickleStep("I have 5 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(7, 1)));
+
+        StepDefinition stepDefinition = mock(StepDefinition.class);
+        when(stepDefinition.getPattern()).thenReturn("^I have (\\d+) cukes$");
+        when(stepDefinition.matchedArguments(any(PickleStep.class))).thenReturn(asList(new cucumber.runtime.Argument(7, "5")));
+        glue.addStepDefinition(stepDefinition);
+
+        StepDefinitionMatch match = glue.stepDefinitionMatch("first.feature", step);
+        StepDefinitionMatch otherMatch = glue.stepDefinitionMatch("second.feature", sameStepElsewhere);
+
+        verify(stepDefinition, times(1)).matchedArguments(any(PickleStep.class));
+        assertEquals("5", otherMatch.getArguments().get(0).getVal());
+        assertEquals("first.feature", match.getStepLocation().getFileName());
+        assertEquals("second.feature", otherMatch.getStepLocation().getFileName());
+        assertEquals(7, otherMatch.getStepLocation().getLineNumber());
+    }
+
+    @Test
+    public void formats_the_location_of_a_step_definition_once() {
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(Thread.currentThread().getContextClassLoader()));
+        PickleStep step = new PickleStep("I have 5 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(1, 1)));
+        PickleStep otherStep = new PickleStep("I have 6 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(2, 1)));
+
+        StepDefinition stepDefinition = mock(StepDefinition.class);
+        when(stepDefinition.getPattern()).thenReturn("^I have (\\d+) cukes$");
+        when(stepDefinition.getLocation(false)).thenReturn("Stepdefs.cukes(int)");
+        when(stepDefinition.matchedArguments(any(PickleStep.class))).thenReturn(asList(new cucumber.runtime.Argument(7, "5")));
+        glue.addStepDefinition(stepDefinition);
+
+        glue.stepDefinitionMatch("uri", step);
+        glue.stepDefinitionMatch("uri", step);
+        StepDefinitionMatch match = glue.stepDefinitionMatch("uri", otherStep);
+
+        verify(stepDefinition, times(1)).getLocation(false);
+        assertEquals("Stepdefs.cukes(int)", match.getLocation());
+    }
+
+    @Test
+    public void resolves_the_parameters_of_the_arguments_once() throws Throwable {
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(Thread.currentThread().getContextClassLoader()));
+        PickleStep step = new PickleStep("I have 5 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(1, 1)));
+
+        StepDefinition stepDefinition = mock(StepDefinition.class);
+        when(stepDefinition.getPattern()).thenReturn("^I have (\\d+) cukes$");
+        when(stepDefinition.getParameterCount()).thenReturn(1);
+        when(stepDefinition.getParameterType(0, String.class)).thenReturn(new ParameterInfo(Integer.class, null, null, null));
+        when(stepDefinition.matchedArguments(any(PickleStep.class))).thenReturn(asList(new cucumber.runtime.Argument(7, "5")));
+        glue.addStepDefinition(stepDefinition);
+
+        glue.stepDefinitionMatch("uri", step).runStep("en", null);
+        glue.stepDefinitionMatch("uri", step).runStep("en", null);
+
+        verify(stepDefinition, times(1)).getParameterType(0, String.class);
+        verify(stepDefinition, times(2)).execute("en", new Object[]{5});
+    }
+
+    @Test
+    public void forgets_cached_matches_when_scenario_scoped_glue_is_removed() {
+        RuntimeGlue glue = new RuntimeGlue(new UndefinedStepsTracker(), new LocalizedXStreams(Thread.currentThread().getContextClassLoader()));
+        PickleStep step = new PickleStep("I have 5 cukes", Collections.<Argument>emptyList(), asList(new PickleLocation(1, 1)));
+
+        StepDefinition stepDefinition = mock(StepDefinition.class);
+        when(stepDefinition.isScenarioScoped()).thenReturn(true);
+        when(stepDefinition.getPattern()).thenReturn("^I have (\\d+) cukes$");
+        when(stepDefinition.matchedArguments(step)).thenReturn(asList(new cucumber.runtime.Argument(7, "5")));
+        glue.addStepDefinition(stepDefinition);
+
+        assertNotNull(glue.stepDefinitionMatch("uri", step));
+        assertEquals(1, glue.matchCache.size());
+
+        glue.removeScenarioScopedGlue();
+
+        assertEquals(0, glue.matchCache.size());
+        assertNull(glue.stepDefinitionMatch("uri", step));
+    }
 }
@@ -1,7 +1,9 @@
 package cucumber.runtime;
 
 import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
 import cucumber.api.SnippetType;
+import cucumber.api.event.ConcurrentEventListener;
 import cucumber.api.formatter.ColorAware;
 import cucumber.api.formatter.Formatter;
 import cucumber.api.formatter.StrictAware;
@@ -13,6 +15,7 @@ import cucumber.runtime.model.CucumberFeature;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
@@ -26,10 +29,12 @@ import java.util.regex.Pattern;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -127,6 +132,122 @@ public class RuntimeOptionsTest {
         assertFalse(options.isStrict());
     }
 
+    @Test
+    public void assigns_threads() {
+        RuntimeOptions options = new RuntimeOptions(asList("--threads", "4", "--glue", "somewhere"));
+        assertEquals(4, options.getThreads());
+    }
+
+    @Test
+    public void default_threads() {
+        RuntimeOptions options = new RuntimeOptions(asList("--glue", "somewhere"));
+        assertEquals(1, options.getThreads());
+    }
+
+    @Test
+    public void fail_on_threads_less_than_one() {
+        try {
+            new RuntimeOptions(asList("--threads", "0", "--glue", "somewhere"));
+            fail();
+        } catch (CucumberException e) {
+            assertEquals("--threads must be at least 1, but was: 0", e.getMessage());
+        }
+    }
+
+    @Test
+    public void assigns_shard() {
+        RuntimeOptions options = new RuntimeOptions(asList("--shard", "3/12", "--glue", "somewhere"));
+        assertEquals(3, options.getShardIndex());
+        assertEquals(12, options.getShardTotal());
+    }
+
+    @Test
+    public void default_shard() {
+        RuntimeOptions options = new RuntimeOptions(asList("--glue", "somewhere"));
+        assertEquals(1, options.getShardIndex());
+        assertEquals(1, options.getShardTotal());
+    }
+
+    @Test
+    public void assigns_shard_history() {
+        RuntimeOptions options = new RuntimeOptions(asList("--shard", "1/2", "--shard-history", "build/durations.txt", "--plugin", "duration-history:durations.txt"));
+        assertEquals(new File("build/durations.txt"), options.getShardHistory());
+    }
+
+    @Test
+    public void fail_on_shard_history_written_by_the_run() {
+        try {
+            new RuntimeOptions(asList("--shard-history", "durations.txt", "--plugin", "duration-history:durations.txt"));
+            fail();
+        } catch (CucumberException e) {
+            assertEquals("--shard-history must be a file the run doesn't write, but the duration-history plugin writes durations.txt", e.getMessage());
+        }
+    }
+
+    @Test
+    public void fail_on_shard_outside_of_total() {
+        try {
+            new RuntimeOptions(asList("--shard", "13/12", "--glue", "somewhere"));
+            fail();
+        } catch (CucumberException e) {
+            assertEquals("--shard must be INDEX/TOTAL with INDEX from 1 to TOTAL, but was: 13/12", e.getMessage());
+        }
+    }
+
+    @Test
+    public void assigns_feature_cache_dir() {
+        RuntimeOptions options = new RuntimeOptions(asList("--feature-cache", "target/features", "--glue", "somewhere"));
+        assertEquals(new File("target/features"), options.getFeatureCacheDir());
+    }
+
+    @Test
+    public void has_no_feature_cache_by_default() {
+        RuntimeOptions options = new RuntimeOptions(asList("--glue", "somewhere"));
+        assertNull(options.getFeatureCacheDir());
+    }
+
+    @Test
+    public void assigns_replay_dir() {
+        RuntimeOptions options = new RuntimeOptions(asList("--replay", "target/events", "--plugin", "json:target/cucumber.json"));
+        assertEquals(new File("target/events"), options.getReplayDir());
+    }
+
+    @Test
+    public void assigns_async_plugins() {
+        RuntimeOptions options = new RuntimeOptions(asList("--async-plugins", "--glue", "somewhere"));
+        assertTrue(options.isAsyncPlugins());
+    }
+
+    @Test
+    public void default_async_plugins() {
+        RuntimeOptions options = new RuntimeOptions(asList("--glue", "somewhere"));
+        assertFalse(options.isAsyncPlugins());
+    }
+
+    @Test
+    public void concurrent_event_listener_plugins_listen_to_the_concurrent_publisher() {
+        RuntimeOptions options = new RuntimeOptions(asList("--async-plugins", "--glue", "somewhere"));
+        EventBus bus = new EventBus(TimeService.SYSTEM);
+        options.setEventBus(bus);
+        Formatter plugin = mock(Formatter.class, withSettings().extraInterfaces(ConcurrentEventListener.class));
+
+        options.addPlugin(plugin);
+
+        verify(plugin).setEventPublisher(bus.getConcurrentEventPublisher());
+    }
+
+    @Test
+    public void assigns_measure_resources() {
+        RuntimeOptions options = new RuntimeOptions(asList("--measure-resources", "--glue", "somewhere"));
+        assertTrue(options.isMeasureResources());
+    }
+
+    @Test
+    public void default_measure_resources() {
+        RuntimeOptions options = new RuntimeOptions(asList("--glue", "somewhere"));
+        assertFalse(options.isMeasureResources());
+    }
+
     @Test
     public void name_without_spaces_is_preserved() {
         RuntimeOptions options = new RuntimeOptions(asList("--name", "someName"));
@@ -347,6 +468,27 @@ public class RuntimeOptionsTest {
         verify((StrictAware) strictAwareFormatter).setStrict(true);
     }
 
+    @Test
+    public void creates_no_plugins_in_a_worker() {
+        PluginFactory factory = mock(PluginFactory.class);
+        Properties properties = new Properties();
+        properties.setProperty("cucumber.options", "--plugin json:out.json");
+
+        RuntimeOptions options = new RuntimeOptions(new Env(properties), factory, asList("--worker", "127.0.0.1:4242", "--plugin", "pretty"));
+
+        assertTrue(options.getPlugins().isEmpty());
+        verifyZeroInteractions(factory);
+    }
+
+    @Test
+    public void leaves_out_the_plugins_and_the_number_of_workers_from_the_worker_args() {
+        RuntimeOptions options = new RuntimeOptions(asList(
+                "--workers", "2", "--plugin", "pretty", "-p", "json:out.json", "--add-plugin", "usage", "--format", "progress",
+                "-f", "junit:out.xml", "--glue", "somewhere", "--monochrome", "features"));
+
+        assertEquals(asList("--glue", "somewhere", "--monochrome", "features"), options.getWorkerArgs());
+    }
+
     @Test
     public void ensure_default_snippet_type_is_underscore() {
         Properties properties = new Properties();
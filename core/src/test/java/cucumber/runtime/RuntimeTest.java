@@ -5,6 +5,7 @@ import cucumber.api.Result;
 import cucumber.api.Scenario;
 import cucumber.api.StepDefinitionReporter;
 import cucumber.api.TestStep;
+import cucumber.runner.TimeService;
 import cucumber.runtime.formatter.FormatterSpy;
 import cucumber.runtime.io.ClasspathResourceLoader;
 import cucumber.runtime.io.Resource;
@@ -17,11 +18,15 @@ import gherkin.pickles.PickleLocation;
 import gherkin.pickles.PickleStep;
 import gherkin.pickles.PickleTag;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.AssumptionViolatedException;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.Invocation;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.AbstractMap.SimpleEntry;
@@ -41,6 +46,7 @@ import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyCollectionOf;
@@ -48,12 +54,16 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RuntimeTest {
     private final static String ENGLISH = "en";
 
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Ignore
     @Test
     public void runs_feature_with_json_formatter() throws Exception {
@@ -210,6 +220,60 @@ public class RuntimeTest {
         assertEquals(0x0, runtime.exitStatus());
     }
 
+    @Test
+    public void shards_split_the_pickles_left_after_the_other_filters() {
+        List<Runtime> shards = asList(
+                createRuntime("-g", "anything", "--name", "^kept", "--shard", "1/2"),
+                createRuntime("-g", "anything", "--name", "^kept", "--shard", "2/2"));
+
+        for (int line = 1; line < 100; line++) {
+            String name = line % 3 == 0 ? "dropped" : "kept";
+            PickleEvent pickleEvent = new PickleEvent("path/file.feature", new Pickle(name, "en",
+                    Collections.<PickleStep>emptyList(), Collections.<PickleTag>emptyList(), asList(new PickleLocation(line, 0))));
+            int matches = 0;
+            for (Runtime shard : shards) {
+                if (shard.matchesFilters(pickleEvent)) {
+                    matches++;
+                }
+            }
+            assertEquals(name + " on line " + line, name.equals("kept") ? 1 : 0, matches);
+        }
+    }
+
+    @Test
+    public void plans_the_shards_with_the_durations_in_the_shard_history() throws IOException {
+        File shardHistory = temporaryFolder.newFile("durations.txt");
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/test.feature:3", 900);
+        durationHistory.record("path/test.feature:5", 100);
+        durationHistory.record("path/test.feature:7", 100);
+        durationHistory.record("path/test.feature:9", 100);
+        durationHistory.save(shardHistory);
+        List<CucumberFeature> features = asList(feature("path/test.feature", "" +
+                "Feature: feature name\n" +
+                "\n" +
+                "  Scenario: slow\n" +
+                "    * step\n" +
+                "  Scenario: fast\n" +
+                "    * step\n" +
+                "  Scenario: faster\n" +
+                "    * step\n" +
+                "  Scenario: fastest\n" +
+                "    * step\n"));
+        Runtime slowShard = createRuntime("-g", "anything", "--shard", "1/2", "--shard-history", shardHistory.getPath());
+        Runtime fastShard = createRuntime("-g", "anything", "--shard", "2/2", "--shard-history", shardHistory.getPath());
+
+        slowShard.planShards(features);
+        fastShard.planShards(features);
+
+        for (int line = 3; line <= 9; line += 2) {
+            PickleEvent pickleEvent = new PickleEvent("path/test.feature", new Pickle("scenario", "en",
+                    Collections.<PickleStep>emptyList(), Collections.<PickleTag>emptyList(), asList(new PickleLocation(line, 0))));
+            assertEquals("line " + line, line == 3, slowShard.matchesFilters(pickleEvent));
+            assertEquals("line " + line, line != 3, fastShard.matchesFilters(pickleEvent));
+        }
+    }
+
     @Test
     public void reports_step_definitions_to_plugin() throws IOException, NoSuchMethodException {
         Runtime runtime = createRuntime("--plugin", "cucumber.runtime.RuntimeTest$StepdefsPrinter");
@@ -466,6 +530,51 @@ public class RuntimeTest {
                 "TestRun finished\n", formatterOutput);
     }
 
+    @Test
+    public void runs_pickles_in_parallel_with_a_runner_and_backend_per_thread() throws Throwable {
+        CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
+                "Feature: feature name\n" +
+                "  Scenario: scenario_1 name\n" +
+                "    Given first step\n" +
+                "  Scenario: scenario_2 name\n" +
+                "    Given first step\n" +
+                "  Scenario: scenario_3 name\n" +
+                "    Given first step\n" +
+                "  Scenario: scenario_4 name\n" +
+                "    Given first step\n");
+        final List<Backend> createdBackends = Collections.synchronizedList(new ArrayList<Backend>());
+        BackendSupplier backendSupplier = new BackendSupplier() {
+            @Override
+            public Collection<? extends Backend> get() {
+                Backend backend = mock(Backend.class);
+                createdBackends.add(backend);
+                return asList(backend);
+            }
+        };
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        RuntimeOptions runtimeOptions = new RuntimeOptions(asList("--threads", "2", "--monochrome", "-p", "null"));
+        Runtime runtime = new Runtime(mock(ResourceLoader.class), classLoader, backendSupplier, runtimeOptions, TimeService.SYSTEM, null);
+
+        runtime.runFeaturesInParallel(asList(feature));
+        runtime.printStats(new PrintStream(baos));
+
+        assertThat(baos.toString(), containsString(String.format("" +
+                "4 Scenarios (4 undefined)%n" +
+                "4 Steps (4 undefined)%n")));
+        // One set of backends for the main runner and at most one set per worker thread
+        assertTrue(createdBackends.size() <= 3);
+        int worldsBuilt = 0;
+        for (Backend backend : createdBackends.subList(1, createdBackends.size())) {
+            for (Invocation invocation : mockingDetails(backend).getInvocations()) {
+                if (invocation.getMethod().getName().equals("buildWorld")) {
+                    worldsBuilt++;
+                }
+            }
+        }
+        assertEquals(4, worldsBuilt);
+    }
+
     private String runFeatureWithFormatterSpy(CucumberFeature feature, Map<String, Result> stepsToResult) throws Throwable {
         FormatterSpy formatterSpy = new FormatterSpy();
         TestHelper.runFeatureWithFormatter(feature, stepsToResult, Collections.<SimpleEntry<String, Result>>emptyList(), 0L, formatterSpy);
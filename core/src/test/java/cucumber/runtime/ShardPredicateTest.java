@@ -0,0 +1,105 @@
+package cucumber.runtime;
+
+import gherkin.events.PickleEvent;
+import gherkin.pickles.Pickle;
+import gherkin.pickles.PickleLocation;
+import gherkin.pickles.PickleStep;
+import gherkin.pickles.PickleTag;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShardPredicateTest {
+    private static final String NAME = "pickle_name";
+    private static final String LANGUAGE = "en";
+    private static final List<PickleStep> NO_STEPS = Collections.<PickleStep>emptyList();
+    private static final List<PickleTag> NO_TAGS = Collections.<PickleTag>emptyList();
+
+    @Test
+    public void every_pickle_is_in_exactly_one_shard() {
+        List<ShardPredicate> shards = asList(new ShardPredicate(1, 3), new ShardPredicate(2, 3), new ShardPredicate(3, 3));
+        int[] sizes = new int[shards.size()];
+
+        for (PickleEvent pickleEvent : pickleEvents(300)) {
+            int matches = 0;
+            for (int i = 0; i < shards.size(); i++) {
+                if (shards.get(i).apply(pickleEvent)) {
+                    matches++;
+                    sizes[i]++;
+                }
+            }
+            assertEquals(1, matches);
+        }
+        for (int size : sizes) {
+            assertTrue("Unbalanced shard of " + size, size > 70 && size < 130);
+        }
+    }
+
+    @Test
+    public void assigns_pickles_to_the_same_shard_every_time() {
+        PickleEvent pickleEvent = createPickleEventWithLocations("path/file.feature", asList(pickleLocation(4), pickleLocation(12)));
+        PickleEvent samePickleEvent = createPickleEventWithLocations("path\\file.feature", asList(pickleLocation(4), pickleLocation(12)));
+
+        assertEquals(ShardPredicate.shard(pickleEvent, 12), ShardPredicate.shard(samePickleEvent, 12));
+    }
+
+    @Test
+    public void follows_the_plan_and_falls_back_to_the_hash() {
+        PickleEvent planned = createPickleEventWithLocations("path/file.feature", asList(pickleLocation(4)));
+        PickleEvent unplanned = createPickleEventWithLocations("path/file.feature", asList(pickleLocation(8)));
+        int plannedShard = ShardPredicate.shard(planned, 3) % 3 + 1;
+        ShardPredicate predicate = new ShardPredicate(plannedShard, 3);
+
+        predicate.plan(Collections.singletonMap("path/file.feature:4", plannedShard));
+
+        assertTrue(predicate.apply(planned));
+        assertEquals(ShardPredicate.shard(unplanned, 3) == plannedShard, predicate.apply(unplanned));
+    }
+
+    @Test
+    public void digests_the_plan() {
+        Map<String, Integer> plan = new HashMap<String, Integer>();
+        plan.put("path/file.feature:4", 1);
+        plan.put("path/file.feature:8", 2);
+        Map<String, Integer> samePlan = new LinkedHashMap<String, Integer>();
+        samePlan.put("path/file.feature:8", 2);
+        samePlan.put("path/file.feature:4", 1);
+        Map<String, Integer> otherPlan = new HashMap<String, Integer>(plan);
+        otherPlan.put("path/file.feature:8", 1);
+
+        assertEquals(8, ShardPredicate.digest(plan).length());
+        assertEquals(ShardPredicate.digest(plan), ShardPredicate.digest(samePlan));
+        assertNotEquals(ShardPredicate.digest(plan), ShardPredicate.digest(otherPlan));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejects_shards_that_do_not_exist() {
+        new ShardPredicate(4, 3);
+    }
+
+    private List<PickleEvent> pickleEvents(int count) {
+        List<PickleEvent> pickleEvents = new ArrayList<PickleEvent>();
+        for (int i = 0; i < count; i++) {
+            pickleEvents.add(createPickleEventWithLocations("path/file" + (i / 10) + ".feature", asList(pickleLocation(3 + i % 10 * 4))));
+        }
+        return pickleEvents;
+    }
+
+    private PickleEvent createPickleEventWithLocations(String uri, List<PickleLocation> locations) {
+        return new PickleEvent(uri, new Pickle(NAME, LANGUAGE, NO_STEPS, NO_TAGS, locations));
+    }
+
+    private PickleLocation pickleLocation(int line) {
+        return new PickleLocation(line, 0);
+    }
+}
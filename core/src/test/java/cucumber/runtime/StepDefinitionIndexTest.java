@@ -0,0 +1,79 @@
+package cucumber.runtime;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StepDefinitionIndexTest {
+
+    @Test
+    public void literal_prefix_of_anchored_pattern() {
+        assertEquals("I am logged in as \"", StepDefinitionIndex.literalPrefix("^I am logged in as \"([^\"]*)\"$"));
+        assertEquals("I have ", StepDefinitionIndex.literalPrefix("^I have (\\d+) cukes$"));
+    }
+
+    @Test
+    public void literal_prefix_drops_optional_and_repeated_characters() {
+        assertEquals("I have cucumber", StepDefinitionIndex.literalPrefix("^I have cucumbers?$"));
+        assertEquals("I wai", StepDefinitionIndex.literalPrefix("^I wait+$"));
+        assertEquals("a", StepDefinitionIndex.literalPrefix("^ab{2}$"));
+        assertEquals("", StepDefinitionIndex.literalPrefix("^a*b$"));
+    }
+
+    @Test
+    public void literal_prefix_includes_escaped_literals_only() {
+        assertEquals("price is $", StepDefinitionIndex.literalPrefix("^price is \\$(\\d+)$"));
+        assertEquals("", StepDefinitionIndex.literalPrefix("^\\d+ cukes$"));
+        assertEquals("a", StepDefinitionIndex.literalPrefix("^a\\.?b$"));
+    }
+
+    @Test
+    public void no_literal_prefix_for_patterns_that_can_match_anywhere() {
+        assertEquals("", StepDefinitionIndex.literalPrefix("I have (\\d+) cukes"));
+        assertEquals("", StepDefinitionIndex.literalPrefix("^I have cukes|I had cukes$"));
+        assertEquals("", StepDefinitionIndex.literalPrefix("/^I have cukes$/"));
+    }
+
+    @Test
+    public void literal_prefix_ignores_alternation_in_groups_and_classes() {
+        assertEquals("I ", StepDefinitionIndex.literalPrefix("^I (have|had) cukes$"));
+        assertEquals("I ", StepDefinitionIndex.literalPrefix("^I [|] cukes$"));
+    }
+
+    @Test
+    public void returns_candidates_by_prefix_and_unindexed_in_pattern_order() {
+        StepDefinition loggedIn = stepDefinition("^I am logged in as \"([^\"]*)\"$");
+        StepDefinition am = stepDefinition("^I am (.*)$");
+        StepDefinition other = stepDefinition("^I have (\\d+) cukes$");
+        StepDefinition unanchored = stepDefinition("logged in");
+        StepDefinitionIndex index = new StepDefinitionIndex();
+        index.add(loggedIn);
+        index.add(am);
+        index.add(other);
+        index.add(unanchored);
+
+        assertEquals(asList(am, loggedIn, unanchored), index.candidates("I am logged in as \"admin\""));
+        assertEquals(asList(unanchored), index.candidates("something else"));
+    }
+
+    @Test
+    public void removed_step_definitions_are_no_candidates() {
+        StepDefinition stepDefinition = stepDefinition("^I have (\\d+) cukes$");
+        StepDefinitionIndex index = new StepDefinitionIndex();
+        index.add(stepDefinition);
+        index.remove(stepDefinition);
+
+        assertEquals(Collections.<StepDefinition>emptyList(), index.candidates("I have 5 cukes"));
+    }
+
+    private StepDefinition stepDefinition(String pattern) {
+        StepDefinition stepDefinition = mock(StepDefinition.class);
+        when(stepDefinition.getPattern()).thenReturn(pattern);
+        return stepDefinition;
+    }
+}
@@ -5,6 +5,7 @@ import cucumber.api.Result;
 import cucumber.api.Scenario;
 import cucumber.api.event.TestRunFinished;
 import cucumber.api.formatter.Formatter;
+import cucumber.runner.ResourceMeter;
 import cucumber.runner.TimeService;
 import cucumber.runtime.formatter.PickleStepMatcher;
 import cucumber.runtime.io.ClasspathResourceLoader;
@@ -137,11 +138,20 @@ public class TestHelper {
 
     public static void runFeaturesWithFormatter(final List<CucumberFeature> features, final Map<String, Result> stepsToResult, final Map<String, String> stepsToLocation,
             final List<SimpleEntry<String, Result>> hooks, final List<String> hookLocations, final List<Answer<Object>> hookActions, final long stepHookDuration, final Formatter formatter) throws Throwable {
-        final RuntimeOptions runtimeOptions = new RuntimeOptions("-p null");
+        runFeaturesWithFormatter(features, stepsToResult, stepsToLocation, hooks, hookLocations, hookActions, stepHookDuration, null, formatter);
+    }
+
+    /**
+     * @param resourceMeter measures the steps and hooks, or null to not measure them
+     */
+    public static void runFeaturesWithFormatter(final List<CucumberFeature> features, final Map<String, Result> stepsToResult, final Map<String, String> stepsToLocation,
+            final List<SimpleEntry<String, Result>> hooks, final List<String> hookLocations, final List<Answer<Object>> hookActions, final long stepHookDuration,
+            final ResourceMeter resourceMeter, final Formatter formatter) throws Throwable {
+        final RuntimeOptions runtimeOptions = new RuntimeOptions(resourceMeter != null ? "-p null --measure-resources" : "-p null");
         final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
         final ClasspathResourceLoader resourceLoader = new ClasspathResourceLoader(classLoader);
         final RuntimeGlue glue = createMockedRuntimeGlueThatMatchesTheSteps(stepsToResult, stepsToLocation, hooks, hookLocations, hookActions);
-        final Runtime runtime = new Runtime(resourceLoader, classLoader, asList(mock(Backend.class)), runtimeOptions, new TimeService.Stub(stepHookDuration), glue);
+        final Runtime runtime = new Runtime(resourceLoader, classLoader, asList(mock(Backend.class)), runtimeOptions, new TimeService.Stub(stepHookDuration), resourceMeter, glue);
 
         formatter.setEventPublisher(runtime.getEventBus());
         for (CucumberFeature feature : features) {
@@ -151,7 +161,7 @@ public class TestHelper {
         runtime.getEventBus().send(new TestRunFinished(runtime.getEventBus().getTime()));
     }
 
-    private static RuntimeGlue createMockedRuntimeGlueThatMatchesTheSteps(final Map<String, Result> stepsToResult, final Map<String, String> stepsToLocation,
+    public static RuntimeGlue createMockedRuntimeGlueThatMatchesTheSteps(final Map<String, Result> stepsToResult, final Map<String, String> stepsToLocation,
                                                                           final List<SimpleEntry<String, Result>> hooks, final List<String> hookLocations,
                                                                           final List<Answer<Object>> hookActions) throws Throwable {
         RuntimeGlue glue = mock(RuntimeGlue.class);
@@ -0,0 +1,61 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.runtime.DurationHistory;
+import cucumber.runtime.TestHelper;
+import cucumber.runtime.model.CucumberFeature;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static cucumber.runtime.TestHelper.result;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DurationHistoryFormatterTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void records_the_durations_of_passed_and_failed_test_cases() throws Throwable {
+        File file = new File(tempFolder.getRoot(), "durations.txt");
+        CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
+                "Feature: feature name\n" +
+                "  Scenario: passed scenario\n" +
+                "    Given passed step\n" +
+                "  Scenario: failed scenario\n" +
+                "    Given failed step\n" +
+                "  Scenario: undefined scenario\n" +
+                "    Given undefined step\n");
+        Map<String, Result> stepsToResult = new HashMap<String, Result>();
+        stepsToResult.put("passed step", result("passed"));
+        stepsToResult.put("failed step", result("failed"));
+        stepsToResult.put("undefined step", result("undefined"));
+
+        TestHelper.runFeaturesWithFormatter(asList(feature), stepsToResult, Collections.<SimpleEntry<String, Result>>emptyList(),
+                1000000000L, new DurationHistoryFormatter(file));
+
+        DurationHistory durationHistory = DurationHistory.load(file);
+        assertTrue(durationHistory.getDuration("path/test.feature:2") > 0);
+        assertTrue(durationHistory.getDuration("path/test.feature:4") > 0);
+        assertNull(durationHistory.getDuration("path/test.feature:6"));
+    }
+
+    @Test
+    public void reads_the_history_when_created() {
+        File file = new File(tempFolder.getRoot(), "durations.txt");
+        DurationHistory durationHistory = new DurationHistory();
+        durationHistory.record("path/test.feature:2", 1500);
+        durationHistory.save(file);
+
+        assertEquals(Long.valueOf(1500), new DurationHistoryFormatter(file).getDurationHistory().getDuration("path/test.feature:2"));
+    }
+}
@@ -0,0 +1,144 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.EventPublisher;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.formatter.Formatter;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
+import cucumber.runtime.TestHelper;
+import cucumber.runtime.model.CucumberFeature;
+import cucumber.runtime.remote.EventLog;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static cucumber.runtime.TestHelper.createEmbedHookAction;
+import static cucumber.runtime.TestHelper.createWriteHookAction;
+import static cucumber.runtime.TestHelper.result;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventLogFormatterTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final Map<String, Result> stepsToResult = new HashMap<String, Result>();
+    private final Map<String, String> stepsToLocation = new HashMap<String, String>();
+    private final List<SimpleEntry<String, Result>> hooks = new ArrayList<SimpleEntry<String, Result>>();
+    private final List<Answer<Object>> hookActions = new ArrayList<Answer<Object>>();
+    private List<CucumberFeature> features;
+
+    @Before
+    public void createFeatures() throws IOException {
+        features = asList(
+                TestHelper.feature("path/test1.feature", "" +
+                        "Feature: Banana party\n" +
+                        "\n" +
+                        "  Background: There are bananas\n" +
+                        "    Given there are bananas\n" +
+                        "\n" +
+                        "  Scenario Outline: Monkey eats bananas\n" +
+                        "    Then the monkey eats <count> bananas\n" +
+                        "    Examples:\n" +
+                        "      | count |\n" +
+                        "      | 1     |\n" +
+                        "      | 2     |\n"),
+                TestHelper.feature("path/test2.feature", "" +
+                        "# language: no\n" +
+                        "Egenskap: Appelsinfest\n" +
+                        "\n" +
+                        "  Scenario: Apekatten spiser appelsiner\n" +
+                        "    Gitt det er appelsiner\n"));
+        stepsToResult.put("there are bananas", result("passed"));
+        stepsToResult.put("the monkey eats 1 bananas", result("passed"));
+        stepsToResult.put("the monkey eats 2 bananas", result("failed", new AssertionError("too many bananas")));
+        stepsToResult.put("det er appelsiner", result("undefined"));
+        stepsToLocation.put("there are bananas", "StepDefs.there_are_bananas()");
+        stepsToLocation.put("the monkey eats 1 bananas", "StepDefs.monkey_eats_bananas(int)");
+        stepsToLocation.put("the monkey eats 2 bananas", "StepDefs.monkey_eats_bananas(int)");
+        hooks.add(TestHelper.hookEntry("before", result("passed")));
+        hooks.add(TestHelper.hookEntry("after", result("passed")));
+        hookActions.add(createEmbedHookAction(new byte[]{1, 2, 3}, "image/png"));
+        hookActions.add(createWriteHookAction("printed from hook"));
+    }
+
+    @Test
+    public void replays_the_same_report_as_the_run_made() throws Throwable {
+        File log = tempFolder.newFolder("log");
+        StringBuilder liveReport = new StringBuilder();
+        final Formatter jsonFormatter = new JSONFormatter(liveReport);
+        final Formatter eventLogFormatter = new EventLogFormatter(log);
+        run(new Formatter() {
+            @Override
+            public void setEventPublisher(EventPublisher publisher) {
+                jsonFormatter.setEventPublisher(publisher);
+                eventLogFormatter.setEventPublisher(publisher);
+            }
+        });
+
+        StringBuilder replayedReport = new StringBuilder();
+        EventBus bus = new EventBus(TimeService.SYSTEM);
+        new JSONFormatter(replayedReport).setEventPublisher(bus);
+        EventLog.replay(log, bus);
+
+        assertEquals(liveReport.toString(), replayedReport.toString());
+    }
+
+    @Test
+    public void replays_a_log_that_was_cut_short_up_to_the_last_complete_event() throws Throwable {
+        File log = tempFolder.newFolder("log");
+        run(new EventLogFormatter(log));
+        RandomAccessFile events = new RandomAccessFile(new File(log, EventLog.EVENTS), "rw");
+        events.setLength(events.length() / 2);
+        events.close();
+
+        final List<TestCaseFinished> testCasesFinished = new ArrayList<TestCaseFinished>();
+        final List<TestRunFinished> testRunsFinished = new ArrayList<TestRunFinished>();
+        EventBus bus = new EventBus(TimeService.SYSTEM);
+        bus.registerHandlerFor(TestCaseFinished.class, new EventHandler<TestCaseFinished>() {
+            @Override
+            public void receive(TestCaseFinished event) {
+                testCasesFinished.add(event);
+            }
+        });
+        bus.registerHandlerFor(TestRunFinished.class, new EventHandler<TestRunFinished>() {
+            @Override
+            public void receive(TestRunFinished event) {
+                testRunsFinished.add(event);
+            }
+        });
+        EventLog.replay(log, bus);
+
+        assertTrue(testCasesFinished.size() < 3);
+        assertEquals(1, testRunsFinished.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void fails_on_directories_without_a_log() throws IOException {
+        File log = tempFolder.newFolder("log");
+        assertTrue(new File(log, EventLog.EVENTS).createNewFile());
+        assertTrue(new File(log, EventLog.EMBEDDINGS).createNewFile());
+
+        EventLog.replay(log, new EventBus(TimeService.SYSTEM));
+    }
+
+    private void run(Formatter formatter) throws Throwable {
+        TestHelper.runFeaturesWithFormatter(features, stepsToResult, stepsToLocation, hooks,
+                asList("Hooks.before_hook_1()", "Hooks.after_hook_1()"), hookActions, 1000000L, formatter);
+    }
+}
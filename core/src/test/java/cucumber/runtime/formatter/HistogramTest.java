@@ -0,0 +1,130 @@
+package cucumber.runtime.formatter;
+
+import org.junit.Test;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistogramTest {
+    @Test
+    public void buckets_cover_all_values_without_gaps() {
+        assertEquals(0, Histogram.lowestValue(0));
+        for (int i = 1; i < Histogram.BUCKETS; i++) {
+            assertEquals(Histogram.highestValue(i - 1) + 1, Histogram.lowestValue(i));
+            assertEquals(i, Histogram.bucketIndex(Histogram.lowestValue(i)));
+            assertEquals(i, Histogram.bucketIndex(Histogram.highestValue(i)));
+        }
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void buckets_are_at_most_a_sixteenth_of_their_values_wide() {
+        for (int i = 32; i < Histogram.BUCKETS - 1; i++) {
+            long width = Histogram.highestValue(i) - Histogram.lowestValue(i) + 1;
+            assertTrue(width * 16 <= Histogram.lowestValue(i));
+        }
+    }
+
+    @Test
+    public void small_values_are_exact() {
+        Histogram histogram = new Histogram();
+        for (long value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(10, histogram.getCount());
+        assertEquals(55, histogram.getTotal());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5, histogram.getValueAtPercentile(50));
+        assertEquals(9, histogram.getValueAtPercentile(90));
+        assertEquals(10, histogram.getValueAtPercentile(99));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void percentiles_of_large_values_are_within_a_sixteenth() {
+        Histogram histogram = new Histogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(millis * 1000000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500000000L, histogram.getTotal());
+        assertEquals(1000000000L, histogram.getMax());
+        assertWithinASixteenth(500000000L, histogram.getValueAtPercentile(50));
+        assertWithinASixteenth(900000000L, histogram.getValueAtPercentile(90));
+        assertWithinASixteenth(990000000L, histogram.getValueAtPercentile(99));
+        assertEquals(1000000000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void negative_values_are_recorded_as_zero() {
+        Histogram histogram = new Histogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getTotal());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void empty_histogram_has_no_values() {
+        Histogram histogram = new Histogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertTrue(histogram.getBuckets().isEmpty());
+    }
+
+    @Test
+    public void adds_up_histograms() {
+        Histogram first = new Histogram();
+        first.record(3);
+        first.record(1000);
+        Histogram second = new Histogram();
+        second.record(3);
+        second.record(5000);
+
+        first.add(second);
+
+        assertEquals(4, first.getCount());
+        assertEquals(6006, first.getTotal());
+        assertEquals(5000, first.getMax());
+        SortedMap<Long, Long> expected = new TreeMap<Long, Long>();
+        expected.put(3L, 2L);
+        expected.put(992L, 1L);
+        expected.put(4864L, 1L);
+        assertEquals(expected, first.getBuckets());
+    }
+
+    @Test
+    public void records_from_several_threads() throws InterruptedException {
+        final Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (long value = 1; value <= 10000; value++) {
+                        histogram.record(value);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40000, histogram.getCount());
+        assertEquals(4 * 50005000L, histogram.getTotal());
+        assertEquals(10000, histogram.getMax());
+    }
+
+    private static void assertWithinASixteenth(long expected, long actual) {
+        assertTrue(expected + " != " + actual, Math.abs(actual - expected) * 16 <= expected);
+    }
+}
@@ -1,6 +1,7 @@
 package cucumber.runtime.formatter;
 
 import cucumber.api.Result;
+import cucumber.runner.ResourceMeter;
 import cucumber.runner.TimeService;
 import cucumber.runtime.Backend;
 import cucumber.runtime.HookDefinition;
@@ -50,6 +51,65 @@ public class JSONFormatterTest {
         assertPrettyJsonEquals(expected, actual);
     }
 
+    @Test
+    public void streaming_writes_the_same_report() throws Exception {
+        List<String> featurePaths = asList("cucumber/runtime/formatter/JSONPrettyFormatterTest.feature");
+
+        assertEquals(runFeaturesWithJSONPrettyFormatter(featurePaths, "json"), runFeaturesWithJSONPrettyFormatter(featurePaths, "json-stream"));
+    }
+
+    @Test
+    public void streaming_writes_the_same_report_for_backgrounds_hooks_and_several_features() throws Throwable {
+        CucumberFeature feature1 = TestHelper.feature("path/test1.feature", "" +
+                "Feature: Banana party\n" +
+                "\n" +
+                "  Background: There are bananas\n" +
+                "    Given there are bananas\n" +
+                "\n" +
+                "  Scenario: Monkey eats bananas\n" +
+                "    Then the monkey eats bananas\n" +
+                "\n" +
+                "  Scenario: Monkey eats more bananas\n" +
+                "    Then the monkey eats more bananas\n");
+        CucumberFeature feature2 = TestHelper.feature("path/test2.feature", "" +
+                "Feature: Orange party\n" +
+                "\n" +
+                "  Scenario: Monkey eats oranges\n" +
+                "    Given there are oranges\n");
+        Map<String, Result> stepsToResult = new HashMap<String, Result>();
+        stepsToResult.put("there are bananas", result("passed"));
+        stepsToResult.put("the monkey eats bananas", result("passed"));
+        stepsToResult.put("the monkey eats more bananas", result("failed"));
+        stepsToResult.put("there are oranges", result("undefined"));
+        Map<String, String> stepsToLocation = new HashMap<String, String>();
+        stepsToLocation.put("there are bananas", "StepDefs.there_are_bananas()");
+        stepsToLocation.put("the monkey eats bananas", "StepDefs.monkey_eats_bananas()");
+        stepsToLocation.put("the monkey eats more bananas", "StepDefs.monkey_eats_more_bananas()");
+        List<SimpleEntry<String, Result>> hooks = new ArrayList<SimpleEntry<String, Result>>();
+        hooks.add(TestHelper.hookEntry("before", result("passed")));
+        List<String> hookLocations = asList("Hooks.before_hook_1()");
+        List<Answer<Object>> hookActions = new ArrayList<Answer<Object>>();
+        hookActions.add(createEmbedHookAction(new byte[]{1, 2, 3}, "mime-type;base64"));
+        List<CucumberFeature> features = asList(feature1, feature2);
+
+        StringBuilder buffered = new StringBuilder();
+        TestHelper.runFeaturesWithFormatter(features, stepsToResult, stepsToLocation, hooks, hookLocations, hookActions, milliSeconds(1), new JSONFormatter(buffered));
+        StringBuilder streamed = new StringBuilder();
+        TestHelper.runFeaturesWithFormatter(features, stepsToResult, stepsToLocation, hooks, hookLocations, hookActions, milliSeconds(1), new JSONFormatter(streamed, true));
+
+        assertEquals(buffered.toString(), streamed.toString());
+    }
+
+    @Test
+    public void streaming_writes_an_empty_array_when_nothing_was_run() throws Throwable {
+        StringBuilder report = new StringBuilder();
+
+        TestHelper.runFeaturesWithFormatter(Collections.<CucumberFeature>emptyList(), Collections.<String, Result>emptyMap(), Collections.<String, String>emptyMap(),
+                Collections.<SimpleEntry<String, Result>>emptyList(), Collections.<String>emptyList(), Collections.<Answer<Object>>emptyList(), 0L, new JSONFormatter(report, true));
+
+        assertEquals("[]", report.toString());
+    }
+
     @Test
     public void should_format_scenario_with_an_undefined_step() throws Throwable {
         CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
@@ -468,6 +528,79 @@ public class JSONFormatterTest {
         assertPrettyJsonEquals(expected, formatterOutput);
     }
 
+    @Test
+    public void should_format_the_measured_resources_of_steps_and_hooks() throws Throwable {
+        CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
+                "Feature: Banana party\n" +
+                "\n" +
+                "  Scenario: Monkey eats bananas\n" +
+                "    Given there are bananas\n");
+        Map<String, Result> stepsToResult = new HashMap<String, Result>();
+        stepsToResult.put("there are bananas", result("passed"));
+        Map<String, String> stepsToLocation = new HashMap<String, String>();
+        stepsToLocation.put("there are bananas", "StepDefs.there_are_bananas()");
+        List<SimpleEntry<String, Result>> hooks = new ArrayList<SimpleEntry<String, Result>>();
+        hooks.add(TestHelper.hookEntry("before", result("passed")));
+        List<String> hookLocations = new ArrayList<String>();
+        hookLocations.add("Hooks.before_hook_1()");
+        final StringBuilder report = new StringBuilder();
+
+        TestHelper.runFeaturesWithFormatter(asList(feature), stepsToResult, stepsToLocation, hooks, hookLocations, Collections.<Answer<Object>>emptyList(),
+                milliSeconds(1), new ResourceMeter.Stub(500000L, 4096L), createJsonFormatter(report));
+
+        String expected = "" +
+                "[\n" +
+                "  {\n" +
+                "    \"id\": \"banana-party\",\n" +
+                "    \"uri\": \"path/test.feature\",\n" +
+                "    \"keyword\": \"Feature\",\n" +
+                "    \"name\": \"Banana party\",\n" +
+                "    \"line\": 1,\n" +
+                "    \"description\": \"\",\n" +
+                "    \"elements\": [\n" +
+                "      {\n" +
+                "        \"id\": \"banana-party;monkey-eats-bananas\",\n" +
+                "        \"keyword\": \"Scenario\",\n" +
+                "        \"name\": \"Monkey eats bananas\",\n" +
+                "        \"line\": 3,\n" +
+                "        \"description\": \"\",\n" +
+                "        \"type\": \"scenario\",\n" +
+                "        \"before\": [\n" +
+                "          {\n" +
+                "            \"match\": {\n" +
+                "              \"location\": \"Hooks.before_hook_1()\"\n" +
+                "            },\n" +
+                "            \"result\": {\n" +
+                "              \"status\": \"passed\",\n" +
+                "              \"duration\": 1000000,\n" +
+                "              \"cpu_time\": 500000,\n" +
+                "              \"allocated_bytes\": 4096\n" +
+                "            }\n" +
+                "          }\n" +
+                "        ],\n" +
+                "        \"steps\": [\n" +
+                "          {\n" +
+                "            \"keyword\": \"Given \",\n" +
+                "            \"name\": \"there are bananas\",\n" +
+                "            \"line\": 4,\n" +
+                "            \"match\": {\n" +
+                "              \"location\": \"StepDefs.there_are_bananas()\"\n" +
+                "            },\n" +
+                "            \"result\": {\n" +
+                "              \"status\": \"passed\",\n" +
+                "              \"duration\": 1000000,\n" +
+                "              \"cpu_time\": 500000,\n" +
+                "              \"allocated_bytes\": 4096\n" +
+                "            }\n" +
+                "          }\n" +
+                "        ]\n" +
+                "      }\n" +
+                "    ]\n" +
+                "  }\n" +
+                "]";
+        assertPrettyJsonEquals(expected, report.toString());
+    }
+
     @Test
     public void should_handle_write_from_a_hooks() throws Throwable {
         CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
@@ -860,6 +993,10 @@ public class JSONFormatterTest {
     }
 
     private String runFeaturesWithJSONPrettyFormatter(final List<String> featurePaths) throws IOException {
+        return runFeaturesWithJSONPrettyFormatter(featurePaths, "json");
+    }
+
+    private String runFeaturesWithJSONPrettyFormatter(final List<String> featurePaths, final String pluginName) throws IOException {
         HookDefinition hook = mock(HookDefinition.class);
         when(hook.matches(anyListOf(PickleTag.class))).thenReturn(true);
         File report = File.createTempFile("cucumber-jvm-junit", ".json");
@@ -868,7 +1005,7 @@ public class JSONFormatterTest {
 
         List<String> args = new ArrayList<String>();
         args.add("--plugin");
-        args.add("json:" + report.getAbsolutePath());
+        args.add(pluginName + ":" + report.getAbsolutePath());
         args.addAll(featurePaths);
 
         RuntimeOptions runtimeOptions = new RuntimeOptions(args);
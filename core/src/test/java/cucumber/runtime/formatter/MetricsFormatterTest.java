@@ -0,0 +1,133 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.api.TestCase;
+import cucumber.api.TestStep;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestRunFinished;
+import cucumber.api.event.TestStepFinished;
+import cucumber.runner.EventBus;
+import cucumber.runner.TimeService;
+import cucumber.runtime.CucumberException;
+import cucumber.util.FixJava;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MetricsFormatterTest {
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    private final EventBus bus = new EventBus(new TimeService.Stub(0));
+    private MetricsFormatter formatter;
+
+    @After
+    public void stopFormatter() {
+        if (formatter != null) {
+            formatter.stop();
+        }
+    }
+
+    @Test
+    public void registers_the_metrics_with_jmx_until_the_run_finishes() throws Exception {
+        formatter = new MetricsFormatter();
+        formatter.setEventPublisher(bus.getConcurrentEventPublisher());
+        ObjectName name = new ObjectName(MetricsFormatter.OBJECT_NAME);
+
+        bus.send(new TestCaseStarted(0L, mock(TestCase.class)));
+        bus.send(new TestStepFinished(0L, mockTestStep("^a step$"), new Result(Result.Type.PASSED, 1000000L, null)));
+        bus.send(new TestCaseStarted(0L, mock(TestCase.class)));
+        bus.send(new TestCaseFinished(0L, mock(TestCase.class), new Result(Result.Type.PASSED, 1000000L, null)));
+
+        assertEquals(1L, mBeanServer.getAttribute(name, "Passed"));
+        assertEquals(2L, mBeanServer.getAttribute(name, "Started"));
+        assertEquals(1L, mBeanServer.getAttribute(name, "InFlight"));
+        TabularData latencies = (TabularData) mBeanServer.getAttribute(name, "StepLatencies");
+        assertEquals(1, latencies.size());
+
+        bus.send(new TestRunFinished(0L));
+        assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    @Test
+    public void registers_the_metrics_of_a_second_run_under_another_name() throws Exception {
+        formatter = new MetricsFormatter();
+        formatter.setEventPublisher(bus.getConcurrentEventPublisher());
+        MetricsFormatter second = new MetricsFormatter();
+        second.setEventPublisher(new EventBus(new TimeService.Stub(0)).getConcurrentEventPublisher());
+        try {
+            assertTrue(mBeanServer.isRegistered(new ObjectName(MetricsFormatter.OBJECT_NAME + ",run=2")));
+        } finally {
+            second.stop();
+        }
+    }
+
+    @Test
+    public void serves_the_metrics_in_the_prometheus_text_format() throws Exception {
+        formatter = new MetricsFormatter(new URI("0"));
+        formatter.setEventPublisher(bus.getConcurrentEventPublisher());
+        bus.send(new TestCaseStarted(0L, mock(TestCase.class)));
+        bus.send(new TestStepFinished(0L, mockTestStep("^a step$"), new Result(Result.Type.PASSED, 1000000L, null)));
+
+        InetSocketAddress address = formatter.getEndpointAddress();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + address.getPort() + "/metrics").openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("text/plain; version=0.0.4; charset=utf-8", connection.getContentType());
+            String text = FixJava.readReader(new InputStreamReader(connection.getInputStream(), "UTF-8"));
+            assertTrue(text, text.contains("cucumber_scenarios_in_flight 1\n"));
+            assertTrue(text, text.contains("cucumber_step_duration_seconds_count{step_definition=\"^a step$\"} 1\n"));
+        } finally {
+            connection.disconnect();
+        }
+
+        bus.send(new TestRunFinished(0L));
+        assertNull(formatter.getEndpointAddress());
+    }
+
+    @Test
+    public void takes_an_http_endpoint() throws Exception {
+        formatter = new MetricsFormatter(new URI("http://127.0.0.1:0/cucumber"));
+        formatter.setEventPublisher(bus.getConcurrentEventPublisher());
+
+        InetSocketAddress address = formatter.getEndpointAddress();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + address.getPort() + "/cucumber").openConnection();
+        try {
+            assertEquals(200, connection.getResponseCode());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    public void fails_on_an_endpoint_without_a_port() throws Exception {
+        try {
+            new MetricsFormatter(new URI("http://localhost/metrics"));
+            fail();
+        } catch (CucumberException expected) {
+            assertEquals("The metrics plugin takes PORT or http://HOST:PORT/PATH, not: http://localhost/metrics", expected.getMessage());
+        }
+    }
+
+    private TestStep mockTestStep(String pattern) {
+        TestStep testStep = mock(TestStep.class);
+        when(testStep.getPattern()).thenReturn(pattern);
+        return testStep;
+    }
+}
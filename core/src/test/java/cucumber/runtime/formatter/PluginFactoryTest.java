@@ -22,6 +22,7 @@ import java.net.URL;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
@@ -82,6 +83,32 @@ public class PluginFactoryTest {
         assertEquals(UsageFormatter.class, plugin.getClass());
     }
 
+    @Test
+    public void instantiates_metrics_plugin_without_arg() {
+        Object plugin = fc.create("metrics");
+        assertEquals(MetricsFormatter.class, plugin.getClass());
+    }
+
+    @Test
+    public void instantiates_metrics_plugin_with_port_arg() {
+        MetricsFormatter plugin = (MetricsFormatter) fc.create("metrics:0");
+        plugin.setEventPublisher(new EventBus(new TimeService.Stub(0)));
+        try {
+            assertThat(plugin.getEndpointAddress(), is(not(nullValue())));
+        } finally {
+            plugin.stop();
+        }
+    }
+
+    @Test
+    public void plugin_string_with_arg_uses_constructor_with_arg() throws IOException {
+        WantsFileOrNothing plugin = (WantsFileOrNothing) fc.create("cucumber.runtime.formatter.PluginFactoryTest$WantsFileOrNothing:halp.txt");
+        assertEquals(new File("halp.txt"), plugin.out);
+
+        plugin = (WantsFileOrNothing) fc.create("cucumber.runtime.formatter.PluginFactoryTest$WantsFileOrNothing");
+        assertEquals(null, plugin.out);
+    }
+
     @Test
     public void plugin_does_not_buffer_its_output() throws IOException {
         PrintStream previousSystemOut = System.out;
@@ -177,6 +204,18 @@ public class PluginFactoryTest {
         }
     }
 
+    public static class WantsFileOrNothing extends StubFormatter {
+        public final File out;
+
+        public WantsFileOrNothing() {
+            this.out = null;
+        }
+
+        public WantsFileOrNothing(File out) {
+            this.out = out;
+        }
+    }
+
     public static class WantsFile extends StubFormatter {
         public final File out;
 
@@ -0,0 +1,97 @@
+package cucumber.runtime.formatter;
+
+import cucumber.api.Result;
+import cucumber.runner.TimeService;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunMetricsTest {
+    private final ManualTime time = new ManualTime();
+    private final RunMetrics metrics = new RunMetrics(time);
+
+    @Test
+    public void counts_the_scenarios_by_result() {
+        metrics.testCaseStarted();
+        metrics.testCaseStarted();
+        metrics.testCaseStarted();
+        metrics.testCaseFinished(Result.Type.PASSED);
+        metrics.testCaseFinished(Result.Type.FAILED);
+
+        assertEquals(1, metrics.getPassed());
+        assertEquals(1, metrics.getFailed());
+        assertEquals(0, metrics.getPending());
+        assertEquals(3, metrics.getStarted());
+        assertEquals(2, metrics.getFinished());
+        assertEquals(1, metrics.getInFlight());
+    }
+
+    @Test
+    public void measures_the_scenarios_per_second_since_the_first_one_started() {
+        assertEquals(0, metrics.getScenariosPerSecond(), 0);
+        assertEquals(-1, metrics.getSecondsSinceLastFinished(), 0);
+
+        time.now = 1000000000L;
+        metrics.testCaseStarted();
+        metrics.testCaseStarted();
+        time.now = 1500000000L;
+        metrics.testCaseFinished(Result.Type.PASSED);
+        time.now = 2000000000L;
+        metrics.testCaseFinished(Result.Type.PASSED);
+        time.now = 5000000000L;
+
+        assertEquals(0.5, metrics.getScenariosPerSecond(), 1e-9);
+        assertEquals(3, metrics.getSecondsSinceLastFinished(), 1e-9);
+    }
+
+    @Test
+    public void measures_the_step_latency_by_step_definition() {
+        for (int i = 0; i < 100; i++) {
+            metrics.testStepFinished("^fast$", 1000);
+        }
+        metrics.testStepFinished("^slow$", 2000000000L);
+
+        Map<String, RunMetricsMXBean.StepLatency> latencies = metrics.getStepLatencies();
+        assertEquals(2, latencies.size());
+        assertEquals(100, latencies.get("^fast$").getCount());
+        assertEquals(0.0001, latencies.get("^fast$").getTotalSeconds(), 1e-12);
+        assertEquals(1e-6, latencies.get("^fast$").getP99Seconds(), 1e-6 / 16);
+        assertEquals(2, latencies.get("^slow$").getMaxSeconds(), 0);
+    }
+
+    @Test
+    public void writes_the_prometheus_text_format() {
+        time.now = 0;
+        metrics.testCaseStarted();
+        metrics.testCaseStarted();
+        time.now = 2000000000L;
+        metrics.testCaseFinished(Result.Type.PASSED);
+        metrics.testStepFinished("^a \"quoted\" (\\d+)$", 3000000000L);
+
+        StringBuilder text = new StringBuilder();
+        metrics.writePrometheus(text);
+
+        String prometheus = text.toString();
+        assertTrue(prometheus, prometheus.contains("# TYPE cucumber_scenarios_total counter\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_scenarios_total{result=\"passed\"} 1\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_scenarios_total{result=\"failed\"} 0\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_scenarios_in_flight 1\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_scenarios_per_second 0.5\n"));
+        assertTrue(prometheus, prometheus.contains("# TYPE cucumber_step_duration_seconds summary\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_step_duration_seconds{step_definition=\"^a \\\"quoted\\\" (\\\\d+)$\",quantile=\"0.99\"} 3\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_step_duration_seconds_sum{step_definition=\"^a \\\"quoted\\\" (\\\\d+)$\"} 3\n"));
+        assertTrue(prometheus, prometheus.contains("cucumber_step_duration_seconds_count{step_definition=\"^a \\\"quoted\\\" (\\\\d+)$\"} 1\n"));
+    }
+
+    private static class ManualTime implements TimeService {
+        volatile long now;
+
+        @Override
+        public long time() {
+            return now;
+        }
+    }
+}
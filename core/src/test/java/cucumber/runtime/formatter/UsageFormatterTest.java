@@ -9,11 +9,12 @@ import org.mockito.Mockito;
 import java.io.Closeable;
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -53,13 +54,15 @@ public class UsageFormatterTest {
 
         usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, result));
 
-        Map<String, List<UsageFormatter.StepContainer>> usageMap = usageFormatter.usageMap;
+        Map<String, UsageFormatter.StepDefUsage> usageMap = usageFormatter.usageMap;
         assertEquals(usageMap.size(), 1);
-        List<UsageFormatter.StepContainer> durationEntries = usageMap.get("stepDef");
-        assertEquals(durationEntries.size(), 1);
-        assertEquals(durationEntries.get(0).name, "step");
-        assertEquals(durationEntries.get(0).durations.size(), 1);
-        assertEquals(durationEntries.get(0).durations.get(0).duration, BigDecimal.valueOf(12345));
+        UsageFormatter.StepDefUsage usage = usageMap.get("stepDef");
+        assertEquals(1, usage.durations.getCount());
+        assertEquals(12345L, usage.durations.getTotal());
+        List<UsageFormatter.StepDuration> slowestSteps = usage.getSlowestSteps();
+        assertEquals(slowestSteps.size(), 1);
+        assertEquals(slowestSteps.get(0).name, "step");
+        assertEquals(slowestSteps.get(0).duration, new BigDecimal("0.000012345"));
     }
 
     @Test
@@ -74,13 +77,10 @@ public class UsageFormatterTest {
 
         usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, result));
 
-        Map<String, List<UsageFormatter.StepContainer>> usageMap = usageFormatter.usageMap;
-        assertEquals(usageMap.size(), 1);
-        List<UsageFormatter.StepContainer> durationEntries = usageMap.get("stepDef");
-        assertEquals(durationEntries.size(), 1);
-        assertEquals(durationEntries.get(0).name, "step");
-        assertEquals(durationEntries.get(0).durations.size(), 1);
-        assertEquals(durationEntries.get(0).durations.get(0).duration, BigDecimal.ZERO);
+        UsageFormatter.StepDefUsage usage = usageFormatter.usageMap.get("stepDef");
+        assertEquals(1, usage.durations.getCount());
+        assertEquals(0L, usage.durations.getTotal());
+        assertEquals(usage.getSlowestSteps().get(0).duration.signum(), 0);
     }
 
     @Test
@@ -95,59 +95,113 @@ public class UsageFormatterTest {
 
         usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, result));
 
-        Map<String, List<UsageFormatter.StepContainer>> usageMap = usageFormatter.usageMap;
-        assertEquals(usageMap.size(), 1);
-        List<UsageFormatter.StepContainer> durationEntries = usageMap.get("stepDef");
-        assertEquals(durationEntries.size(), 1);
-        assertEquals(durationEntries.get(0).name, "step");
-        assertEquals(durationEntries.get(0).durations.size(), 1);
-        assertEquals(durationEntries.get(0).durations.get(0).duration, BigDecimal.ZERO);
+        UsageFormatter.StepDefUsage usage = usageFormatter.usageMap.get("stepDef");
+        assertEquals(1, usage.durations.getCount());
+        assertEquals(0L, usage.durations.getTotal());
+        assertEquals(usage.getSlowestSteps().get(0).duration.signum(), 0);
     }
 
     @Test
-    public void doneWithoutUsageStatisticStrategies() throws IOException {
+    public void keepsOnlyTheSlowestSteps() {
+        UsageFormatter usageFormatter = new UsageFormatter(mock(Appendable.class));
+        TestStep testStep = mockTestStep();
+
+        for (long duration = 1; duration <= 1000; duration++) {
+            usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, passed(duration * 1000000L)));
+        }
+
+        UsageFormatter.StepDefUsage usage = usageFormatter.usageMap.get("stepDef");
+        assertEquals(1000, usage.durations.getCount());
+        List<UsageFormatter.StepDuration> slowestSteps = usage.getSlowestSteps();
+        assertEquals(UsageFormatter.SLOWEST_STEPS, slowestSteps.size());
+        assertEquals(new BigDecimal("1"), slowestSteps.get(0).duration);
+        assertEquals(new BigDecimal("0.991"), slowestSteps.get(UsageFormatter.SLOWEST_STEPS - 1).duration);
+    }
+
+    @Test
+    public void doneWithPercentiles() throws IOException {
         StringBuffer out = new StringBuffer();
         UsageFormatter usageFormatter = new UsageFormatter(out);
 
-        UsageFormatter.StepContainer stepContainer = new UsageFormatter.StepContainer();
-        UsageFormatter.StepDuration stepDuration = new UsageFormatter.StepDuration();
-        stepDuration.duration = BigDecimal.valueOf(12345678L);
-        stepDuration.location = "location.feature";
-        stepContainer.durations = Arrays.asList(stepDuration);
+        TestStep testStep = mockTestStep();
+        for (int i = 0; i < 99; i++) {
+            usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, passed(12345678L)));
+        }
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep, passed(2000000000L)));
+        usageFormatter.finishReport();
+
+        String report = out.toString().replaceAll("\\s+", "");
+        assertTrue(report, report.contains("\"count\":100"));
+        assertTrue(report, report.contains("\"total\":3.222222122"));
+        assertTrue(report, report.contains("\"average\":0.032222221"));
+        assertTrue(report, report.contains("\"p50\":0.012582911"));
+        assertTrue(report, report.contains("\"p99\":0.012582911"));
+        assertTrue(report, report.contains("\"max\":2"));
+        assertTrue(report, report.contains("\"duration\":0.012345678"));
+        assertTrue(report, report.contains("\"durationHistogram\":{\"12058624\":99,\"1946157056\":1}"));
+    }
 
-        usageFormatter.usageMap.put("aStep", Arrays.asList(stepContainer));
+    @Test
+    public void doneWithStepDefinitionsBySlowestTotalDuration() throws IOException {
+        StringBuffer out = new StringBuffer();
+        UsageFormatter usageFormatter = new UsageFormatter(out);
 
+        TestStep fast = mockTestStep("fast");
+        TestStep slow = mockTestStep("slow");
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, fast, passed(1000000L)));
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, slow, passed(2000000L)));
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, slow, passed(1000000L)));
         usageFormatter.finishReport();
 
-        assertTrue(out.toString().contains("0.012345678"));
+        String report = out.toString().replaceAll("\\s+", "");
+        assertTrue(report, report.startsWith("[{\"rank\":1,\"source\":\"slow\",\"count\":2,\"shareOfTotalDuration\":0.7500,"));
+        assertTrue(report, report.contains("{\"rank\":2,\"source\":\"fast\",\"count\":1,\"shareOfTotalDuration\":0.2500,"));
     }
 
     @Test
-    public void doneWithUsageStatisticStrategies() throws IOException {
+    public void doneWithCpuTimeAndAllocatedBytes() throws IOException {
         StringBuffer out = new StringBuffer();
         UsageFormatter usageFormatter = new UsageFormatter(out);
 
-        UsageFormatter.StepContainer stepContainer = new UsageFormatter.StepContainer();
-        UsageFormatter.StepDuration stepDuration = new UsageFormatter.StepDuration();
-        stepDuration.duration = BigDecimal.valueOf(12345678L);
-        stepDuration.location = "location.feature";
-        stepContainer.durations = Arrays.asList(stepDuration);
+        TestStep testStep = mockTestStep();
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep,
+                new Result(Result.Type.PASSED, 3000000L, null, Collections.<String>emptyList(), 2000000L, 1024L)));
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, testStep,
+                new Result(Result.Type.PASSED, 5000000L, null, Collections.<String>emptyList(), 4000000L, 3072L)));
+        usageFormatter.finishReport();
 
-        usageFormatter.usageMap.put("aStep", Arrays.asList(stepContainer));
+        String report = out.toString().replaceAll("\\s+", "");
+        assertTrue(report, report.contains("\"aggregatedCpuTimes\":{"));
+        assertTrue(report, report.contains("\"total\":0.006"));
+        assertTrue(report, report.contains("\"p50\":0.002031615"));
+        assertTrue(report, report.contains("\"aggregatedAllocatedBytes\":{"));
+        assertTrue(report, report.contains("\"total\":4096"));
+        assertTrue(report, report.contains("\"average\":2048"));
+    }
 
-        UsageFormatter.UsageStatisticStrategy usageStatisticStrategy = mock(UsageFormatter.UsageStatisticStrategy.class);
-        when(usageStatisticStrategy.calculate(Arrays.asList(12345678L))).thenReturn(23456L);
-        usageFormatter.addUsageStatisticStrategy("average", usageStatisticStrategy);
+    @Test
+    public void doneWithoutCpuTimeAndAllocatedBytes() throws IOException {
+        StringBuffer out = new StringBuffer();
+        UsageFormatter usageFormatter = new UsageFormatter(out);
+
+        usageFormatter.handleTestStepFinished(new TestStepFinished(0l, mockTestStep(), new Result(Result.Type.PASSED, 3000000L, null)));
+        usageFormatter.finishReport();
 
-        usageFormatter.finishReport();;
+        assertFalse(out.toString().contains("aggregatedCpuTimes"));
+        assertFalse(out.toString().contains("aggregatedAllocatedBytes"));
+    }
 
-        assertTrue(out.toString().contains("0.000023456"));
-        assertTrue(out.toString().contains("0.012345678"));
+    private Result passed(long duration) {
+        return new Result(Result.Type.PASSED, duration, null);
     }
 
     private TestStep mockTestStep() {
+        return mockTestStep("stepDef");
+    }
+
+    private TestStep mockTestStep(String pattern) {
         TestStep testStep = mock(TestStep.class, Mockito.RETURNS_MOCKS);
-        when(testStep.getPattern()).thenReturn("stepDef");
+        when(testStep.getPattern()).thenReturn(pattern);
         when(testStep.getStepText()).thenReturn("step");
         return testStep;
     }
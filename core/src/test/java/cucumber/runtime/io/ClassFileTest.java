@@ -0,0 +1,50 @@
+package cucumber.runtime.io;
+
+import cucumber.runtime.io.classfinder.Glue;
+import cucumber.runtime.io.classfinder.Marker;
+import cucumber.runtime.io.classfinder.NotGlue;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ClassFileTest {
+    @Test
+    public void reads_the_super_types() throws IOException {
+        ClassFile classFile = read(Glue.class);
+
+        assertEquals("cucumber/runtime/io/classfinder/Glue", classFile.getName());
+        assertEquals("java/lang/Object", classFile.getSuperName());
+        assertEquals(asList("java/lang/Runnable"), classFile.getInterfaceNames());
+    }
+
+    @Test
+    public void reads_the_annotations_of_public_methods() throws IOException {
+        assertEquals(Collections.singleton("Lcucumber/runtime/io/classfinder/Marker;"), read(Glue.class).getPublicMethodAnnotations());
+        assertEquals(Collections.singleton("Ljava/lang/Deprecated;"), read(NotGlue.class).getPublicMethodAnnotations());
+    }
+
+    @Test
+    public void reads_the_annotations_of_the_class() throws IOException {
+        assertEquals(Collections.singleton("Ljava/lang/annotation/Retention;"), read(Marker.class).getClassAnnotations());
+    }
+
+    @Test
+    public void fails_on_anything_else() {
+        try {
+            ClassFile.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}));
+            fail();
+        } catch (IOException expected) {
+            assertEquals("Not a class file", expected.getMessage());
+        }
+    }
+
+    private ClassFile read(Class<?> type) throws IOException {
+        return ClassFile.read(type.getResourceAsStream(type.getSimpleName() + ".class"));
+    }
+}
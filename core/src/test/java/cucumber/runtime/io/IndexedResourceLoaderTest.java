@@ -0,0 +1,149 @@
+package cucumber.runtime.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IndexedResourceLoaderTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File jar;
+    private ClassLoader classLoader;
+
+    @Before
+    public void createClasspath() throws IOException {
+        jar = tempFolder.newFile("features.jar");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar));
+        // Not sorted by name, the resources are found in the order of the jar
+        for (String name : asList("features/", "features/z.feature", "features/nested/b.feature", "features/nested/b.txt", "features/a.feature", "featuresque/c.feature")) {
+            out.putNextEntry(new ZipEntry(name));
+            if (!name.endsWith("/")) {
+                out.write(name.getBytes("UTF-8"));
+            }
+            out.closeEntry();
+        }
+        out.close();
+
+        File dir = tempFolder.newFolder("classes");
+        write(new File(dir, "features/d.feature"));
+        write(new File(dir, "features/nested/e.feature"));
+        write(new File(dir, "features/nested/e.txt"));
+
+        classLoader = new URLClassLoader(new URL[]{jar.toURI().toURL(), dir.toURI().toURL()}, null);
+    }
+
+    @Test
+    public void finds_the_same_classpath_resources_as_the_multi_loader() {
+        ResourceLoader multiLoader = new MultiLoader(classLoader);
+        ResourceLoader indexedLoader = new IndexedResourceLoader(multiLoader, classLoader);
+
+        for (String path : asList("classpath:features", "classpath:features/nested", "classpath:features/a.feature", "classpath:feature", "classpath:missing")) {
+            for (String suffix : asList(".feature", ".txt", null)) {
+                assertEquals(path + " " + suffix, paths(multiLoader.resources(path, suffix)), paths(indexedLoader.resources(path, suffix)));
+            }
+        }
+    }
+
+    @Test
+    public void answers_repeated_queries_from_the_same_jar() throws IOException {
+        final AtomicInteger enumerations = new AtomicInteger();
+        IndexedResourceLoader indexedLoader = spy(new IndexedResourceLoader(new MultiLoader(classLoader), classLoader));
+        doAnswer(new Answer<ZipFile>() {
+            @Override
+            public ZipFile answer(InvocationOnMock invocation) throws Throwable {
+                // Not a Mockito spy, the copy would close the same native zip file again
+                return new ZipFile((String) invocation.getArguments()[0]) {
+                    @Override
+                    public Enumeration<? extends ZipEntry> entries() {
+                        enumerations.incrementAndGet();
+                        return super.entries();
+                    }
+                };
+            }
+        }).when(indexedLoader).openJar(anyString());
+
+        for (Resource resource : indexedLoader.resources("classpath:features", ".feature")) {
+            read(resource);
+        }
+        List<String> contents = new ArrayList<String>();
+        for (Resource resource : indexedLoader.resources("classpath:features/a.feature", ".feature")) {
+            contents.add(read(resource));
+        }
+
+        assertEquals(asList("features/a.feature"), contents);
+        verify(indexedLoader, times(1)).openJar(jar.getAbsolutePath());
+        assertEquals(1, enumerations.get());
+    }
+
+    @Test
+    public void finds_the_resources_of_a_jar_in_the_order_of_the_jar() throws IOException {
+        ClassLoader jarClassLoader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null);
+        ResourceLoader indexedLoader = new IndexedResourceLoader(new MultiLoader(jarClassLoader), jarClassLoader);
+
+        assertEquals(asList("features/z.feature", "features/nested/b.feature", "features/a.feature"), paths(indexedLoader.resources("classpath:features/", ".feature")));
+    }
+
+    @Test
+    public void leaves_other_paths_to_the_delegate() {
+        ResourceLoader delegate = mock(ResourceLoader.class);
+        Iterable<Resource> resources = Collections.emptyList();
+        when(delegate.resources("src/test/resources/features", ".feature")).thenReturn(resources);
+
+        assertSame(resources, new IndexedResourceLoader(delegate, classLoader).resources("src/test/resources/features", ".feature"));
+    }
+
+    private List<String> paths(Iterable<Resource> resources) {
+        List<String> paths = new ArrayList<String>();
+        for (Resource resource : resources) {
+            paths.add(resource.getPath().replace(File.separatorChar, '/'));
+        }
+        return paths;
+    }
+
+    private void write(File file) throws IOException {
+        file.getParentFile().mkdirs();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(file.getName().getBytes("UTF-8"));
+        out.close();
+    }
+
+    private String read(Resource resource) throws IOException {
+        InputStream in = resource.getInputStream();
+        try {
+            return new Scanner(in, "UTF-8").useDelimiter("\\A").next();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package cucumber.runtime.io;
+
+import cucumber.runtime.io.classfinder.Glue;
+import cucumber.runtime.io.classfinder.Marker;
+import cucumber.runtime.io.classfinder.SubGlue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class ResourceLoaderClassFinderTest {
+    private final RecordingClassLoader classLoader = new RecordingClassLoader(getClass().getClassLoader());
+    private final ResourceLoaderClassFinder classFinder = new ResourceLoaderClassFinder(new MultiLoader(classLoader), classLoader);
+
+    @Test
+    public void finds_descendants_without_loading_other_classes() {
+        assertEquals(new HashSet<Class<?>>(asList(Glue.class, SubGlue.class)), new HashSet<Class<?>>(classFinder.getDescendants(Runnable.class, "cucumber.runtime.io.classfinder")));
+        assertEquals(new HashSet<Class<?>>(asList(SubGlue.class)), new HashSet<Class<?>>(classFinder.getDescendants(Glue.class, "cucumber.runtime.io.classfinder")));
+
+        assertFalse(classLoader.loaded.contains("cucumber.runtime.io.classfinder.NotGlue"));
+        assertFalse(classLoader.loaded.contains("cucumber.runtime.io.classfinder.Marker"));
+    }
+
+    @Test
+    public void still_finds_all_classes_as_descendants_of_object() {
+        assertEquals(4, classFinder.getDescendants(Object.class, "cucumber.runtime.io.classfinder").size());
+    }
+
+    @Test
+    public void finds_classes_with_declared_or_inherited_annotated_methods() {
+        assertEquals(new HashSet<Class<?>>(asList(Glue.class, SubGlue.class)), new HashSet<Class<?>>(classFinder.getClassesWithAnnotatedMethods("cucumber.runtime.io.classfinder", Collections.singleton(Marker.class))));
+
+        assertFalse(classLoader.loaded.contains("cucumber.runtime.io.classfinder.NotGlue"));
+    }
+
+    private static class RecordingClassLoader extends ClassLoader {
+        private final List<String> loaded = Collections.synchronizedList(new ArrayList<String>());
+
+        RecordingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            loaded.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package cucumber.runtime.io.classfinder;
+
+public class Glue implements Runnable {
+    @Marker(value = "glue", numbers = {1, 2})
+    public void glue() {
+    }
+
+    @Override
+    public void run() {
+    }
+}
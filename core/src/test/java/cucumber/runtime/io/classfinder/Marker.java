@@ -0,0 +1,11 @@
+package cucumber.runtime.io.classfinder;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Marker {
+    String value() default "";
+
+    long[] numbers() default {};
+}
@@ -0,0 +1,13 @@
+package cucumber.runtime.io.classfinder;
+
+public class NotGlue {
+    public static final double CONSTANT = 4.2;
+
+    @Marker
+    void notPublic() {
+    }
+
+    @Deprecated
+    public void other() {
+    }
+}
@@ -0,0 +1,4 @@
+package cucumber.runtime.io.classfinder;
+
+public class SubGlue extends Glue {
+}
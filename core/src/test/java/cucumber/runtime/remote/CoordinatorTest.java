@@ -0,0 +1,197 @@
+package cucumber.runtime.remote;
+
+import cucumber.api.Result;
+import cucumber.api.event.Event;
+import cucumber.api.event.EventHandler;
+import cucumber.api.event.TestCaseFinished;
+import cucumber.api.event.TestCaseStarted;
+import cucumber.api.event.TestStepFinished;
+import cucumber.runner.EventBus;
+import cucumber.runner.Runner;
+import cucumber.runner.TimeService;
+import cucumber.runtime.Backend;
+import cucumber.runtime.RuntimeGlue;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.TestHelper;
+import cucumber.runtime.model.CucumberFeature;
+import gherkin.events.PickleEvent;
+import gherkin.pickles.Compiler;
+import gherkin.pickles.Pickle;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static cucumber.runtime.TestHelper.result;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class CoordinatorTest {
+    private final EventBus bus = new EventBus(TimeService.SYSTEM);
+    private final List<Event> events = Collections.synchronizedList(new ArrayList<Event>());
+    private List<PickleEvent> pickleEvents;
+
+    @Before
+    public void compilePickles() throws IOException {
+        CucumberFeature feature = TestHelper.feature("path/test.feature", "" +
+                "Feature: feature name\n" +
+                "  Scenario: first\n" +
+                "    Given passed step\n" +
+                "  Scenario: second\n" +
+                "    Given failed step\n" +
+                "  Scenario Outline: third\n" +
+                "    Given <step> step\n" +
+                "    Examples:\n" +
+                "      | step   |\n" +
+                "      | passed |\n" +
+                "      | failed |\n");
+        pickleEvents = new ArrayList<PickleEvent>();
+        for (Pickle pickle : new Compiler().compile(feature.getGherkinFeature())) {
+            pickleEvents.add(new PickleEvent(feature.getPath(), pickle));
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void hands_out_pickles_to_workers_and_publishes_their_events() throws Throwable {
+        recordEvents();
+        final Coordinator coordinator = new Coordinator(bus, pickleEvents);
+        final int port = coordinator.bind();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Void>> workers = new ArrayList<Future<Void>>();
+            for (int i = 0; i < 2; i++) {
+                final RuntimeGlue glue = glue();
+                workers.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        EventBus workerBus = new EventBus(TimeService.SYSTEM);
+                        Runner runner = new Runner(glue, workerBus, asList(mock(Backend.class)), new RuntimeOptions("-p null"));
+                        new Worker(runner, workerBus, pickleEvents).run("127.0.0.1", port);
+                        return null;
+                    }
+                }));
+            }
+            coordinator.serve(2);
+            for (Future<Void> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, coordinator.getErrors().size());
+        Map<Integer, Result.Type> statusByLine = new HashMap<Integer, Result.Type>();
+        PickleEvent currentPickle = null;
+        for (Event event : events) {
+            if (event instanceof TestCaseStarted) {
+                assertEquals("Test cases must not interleave", null, currentPickle);
+                currentPickle = pickleAt(((TestCaseStarted) event).testCase.getLine());
+            } else if (event instanceof TestStepFinished) {
+                TestStepFinished testStepFinished = (TestStepFinished) event;
+                assertSame(currentPickle.pickle.getSteps().get(0), testStepFinished.testStep.getPickleStep());
+                if (testStepFinished.result.is(Result.Type.FAILED)) {
+                    assertEquals("java.lang.AssertionError: boom", testStepFinished.result.getError().toString());
+                }
+            } else if (event instanceof TestCaseFinished) {
+                TestCaseFinished testCaseFinished = (TestCaseFinished) event;
+                statusByLine.put(testCaseFinished.testCase.getLine(), testCaseFinished.result.getStatus());
+                currentPickle = null;
+            }
+        }
+        Map<Integer, Result.Type> expected = new HashMap<Integer, Result.Type>();
+        expected.put(2, Result.Type.PASSED);
+        expected.put(4, Result.Type.FAILED);
+        expected.put(10, Result.Type.PASSED);
+        expected.put(11, Result.Type.FAILED);
+        assertEquals(expected, statusByLine);
+    }
+
+    @Test(timeout = 30000)
+    public void fails_pickles_of_workers_that_went_away() throws Exception {
+        recordEvents();
+        final Coordinator coordinator = new Coordinator(bus, pickleEvents, 1000);
+        int port = coordinator.bind();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Void> serving = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                coordinator.serve(1);
+                return null;
+            }
+        });
+
+        Socket socket = new Socket("127.0.0.1", port);
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        out.writeByte(Wire.HELLO);
+        out.writeInt(Wire.VERSION);
+        out.writeLong(0);
+        out.writeByte(Wire.NEXT);
+        out.flush();
+        assertEquals(Wire.PICKLE, in.readByte());
+        assertEquals("path/test.feature:2", Wire.readString(in));
+        socket.close();
+        serving.get();
+        executor.shutdown();
+
+        assertEquals(4, coordinator.getErrors().size());
+        assertEquals("The worker running path/test.feature:2 went away", coordinator.getErrors().get(0).getMessage());
+        Set<Integer> failedLines = new HashSet<Integer>();
+        for (Event event : events) {
+            if (event instanceof TestCaseFinished) {
+                assertTrue(((TestCaseFinished) event).result.is(Result.Type.FAILED));
+                failedLines.add(((TestCaseFinished) event).testCase.getLine());
+            }
+        }
+        assertEquals(new HashSet<Integer>(asList(2, 4, 10, 11)), failedLines);
+    }
+
+    private void recordEvents() {
+        EventHandler recorder = new EventHandler<Event>() {
+            @Override
+            public void receive(Event event) {
+                events.add(event);
+            }
+        };
+        bus.registerHandlerFor(TestCaseStarted.class, recorder);
+        bus.registerHandlerFor(TestStepFinished.class, recorder);
+        bus.registerHandlerFor(TestCaseFinished.class, recorder);
+    }
+
+    private PickleEvent pickleAt(int line) {
+        for (PickleEvent pickleEvent : pickleEvents) {
+            if (pickleEvent.pickle.getLocations().get(0).getLine() == line) {
+                return pickleEvent;
+            }
+        }
+        throw new AssertionError("No pickle on line " + line);
+    }
+
+    private static RuntimeGlue glue() throws Throwable {
+        Map<String, Result> stepsToResult = new HashMap<String, Result>();
+        stepsToResult.put("passed step", result("passed"));
+        stepsToResult.put("failed step", result("failed", new AssertionError("boom")));
+        return TestHelper.createMockedRuntimeGlueThatMatchesTheSteps(stepsToResult, Collections.<String, String>emptyMap(),
+                Collections.<SimpleEntry<String, Result>>emptyList(), Collections.<String>emptyList(),
+                Collections.<org.mockito.stubbing.Answer<Object>>emptyList());
+    }
+}
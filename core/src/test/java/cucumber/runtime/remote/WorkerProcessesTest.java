@@ -0,0 +1,30 @@
+package cucumber.runtime.remote;
+
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+public class WorkerProcessesTest {
+    @Test
+    public void passes_the_jvm_arguments_and_cucumber_system_properties_to_the_workers() {
+        Properties systemProperties = new Properties();
+        systemProperties.setProperty("cucumber.options", "--tags @fast");
+        systemProperties.setProperty("cucumber.java.ignore-glue-index", "true");
+        systemProperties.setProperty("user.dir", "/tmp");
+
+        assertEquals(asList("-Xmx512m", "-Dcucumber.options=--tags @fast", "-Dcucumber.java.ignore-glue-index=true"),
+                WorkerProcesses.jvmArguments(asList("-Xmx512m", "-Dcucumber.options=--tags @fast"), systemProperties));
+    }
+
+    @Test
+    public void does_not_pass_a_debugger_to_the_workers() {
+        assertEquals(asList("-Xmx512m"), WorkerProcesses.jvmArguments(asList(
+                "-agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=5005",
+                "-Xdebug",
+                "-Xrunjdwp:transport=dt_socket",
+                "-Xmx512m"), new Properties()));
+    }
+}
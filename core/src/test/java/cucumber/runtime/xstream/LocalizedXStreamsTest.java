@@ -0,0 +1,85 @@
+package cucumber.runtime.xstream;
+
+import cucumber.runtime.ParameterInfo;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LocalizedXStreamsTest {
+    private static final int THREADS = 4;
+
+    @Test
+    public void creates_one_xstream_per_locale_when_used_by_several_threads() throws Exception {
+        final LocalizedXStreams xStreams = new LocalizedXStreams(Thread.currentThread().getContextClassLoader());
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Callable<LocalizedXStreams.LocalizedXStream>> tasks = new ArrayList<Callable<LocalizedXStreams.LocalizedXStream>>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(new Callable<LocalizedXStreams.LocalizedXStream>() {
+                @Override
+                public LocalizedXStreams.LocalizedXStream call() throws Exception {
+                    start.await();
+                    return xStreams.get(Locale.US);
+                }
+            });
+        }
+
+        List<Future<LocalizedXStreams.LocalizedXStream>> results = runConcurrently(tasks, start);
+
+        for (Future<LocalizedXStreams.LocalizedXStream> result : results) {
+            assertSame(xStreams.get(Locale.US), result.get());
+        }
+    }
+
+    @Test
+    public void converts_dates_with_different_formats_on_several_threads() throws Exception {
+        final LocalizedXStreams.LocalizedXStream xStream = new LocalizedXStreams(Thread.currentThread().getContextClassLoader()).get(Locale.US);
+        final Date expected = new SimpleDateFormat("yyyy-MM-dd").parse("1971-02-28");
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+        for (int i = 0; i < THREADS; i++) {
+            final String format = i % 2 == 0 ? "yyyy-MM-dd" : "dd/MM/yyyy";
+            final String value = i % 2 == 0 ? "1971-02-28" : "28/02/1971";
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    ParameterInfo parameterInfo = new ParameterInfo(Date.class, format, null, null);
+                    start.await();
+                    for (int j = 0; j < 500; j++) {
+                        assertEquals(expected, parameterInfo.convert(value, xStream));
+                    }
+                    return null;
+                }
+            });
+        }
+
+        for (Future<Void> result : runConcurrently(tasks, start)) {
+            result.get();
+        }
+    }
+
+    private <T> List<Future<T>> runConcurrently(List<Callable<T>> tasks, CountDownLatch start) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> results = new ArrayList<Future<T>>();
+            for (Callable<T> task : tasks) {
+                results.add(executor.submit(task));
+            }
+            start.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package cucumber.runtime.java;
+
+import cucumber.api.java8.GlueBase;
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.io.ClasspathResourceIterable;
+import cucumber.runtime.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * The glue index written by {@link GlueIndexProcessor}.
+ * <p/>
+ * The index is a UTF-8 text file with one tab separated entry per line. It names the class files
+ * that were compiled (with their size and CRC-32), the step definitions and hooks declared in them
+ * (with everything their annotations say), the classes implementing {@link GlueBase} and the
+ * classes that illegally extend a class declaring glue. All indexes on the classpath are merged.
+ * <p/>
+ * A glue path is taken from the index only when the index is complete and up to date for it: every
+ * class file in the glue path has to be named by the index in the same jar or directory, with the
+ * same size and CRC-32. Glue compiled without the processor (by another compiler, with
+ * {@code -proc:none} or by an incremental build) is then still found by scanning the glue path.
+ * When the index is up to date, the class files in the glue path are read but only the classes the
+ * index names are loaded, instead of every class in the glue path.
+ */
+class GlueIndex {
+    static final String RESOURCE = "META-INF/cucumber/glue.index";
+    static final String HEADER = "# Cucumber glue index 3";
+    static final String CLASS = "class";
+    static final String STEP = "step";
+    static final String BEFORE = "before";
+    static final String AFTER = "after";
+    static final String GLUE_BASE = "glue-base";
+    static final String SUBCLASS = "subclass";
+
+    private static final Map<String, Class<?>> PRIMITIVES = new HashMap<String, Class<?>>();
+
+    static {
+        for (Class<?> primitive : Arrays.<Class<?>>asList(boolean.class, byte.class, char.class, short.class, int.class, long.class, float.class, double.class)) {
+            PRIMITIVES.put(primitive.getName(), primitive);
+        }
+    }
+
+    // The fingerprints of the class files in the index of each jar or directory on the class path
+    private final Map<String, Map<String, String>> classesByRoot = new HashMap<String, Map<String, String>>();
+    private final List<String[]> entries = new ArrayList<String[]>();
+    private final ClassLoader classLoader;
+
+    private GlueIndex(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * @param classLoader where to look for indexes and glue classes
+     * @return all indexes found by {@code classLoader}, or null if there are none.
+     */
+    static GlueIndex load(ClassLoader classLoader) {
+        GlueIndex glueIndex = new GlueIndex(classLoader);
+        String directory = RESOURCE.substring(0, RESOURCE.lastIndexOf('/'));
+        try {
+            for (Resource resource : new ClasspathResourceIterable(classLoader, directory, ".index")) {
+                if (resource.getPath().replace(File.separatorChar, '/').equals(RESOURCE)) {
+                    glueIndex.read(resource);
+                }
+            }
+        } catch (IOException e) {
+            throw new CucumberException("Failed to read the glue index", e);
+        }
+        return glueIndex.classesByRoot.isEmpty() ? null : glueIndex;
+    }
+
+    private void read(Resource resource) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), "UTF-8"));
+        try {
+            String line = reader.readLine();
+            if (!HEADER.equals(line)) {
+                // Written by another version of the processor, the glue next to it is scanned for
+                return;
+            }
+            Map<String, String> classes = new HashMap<String, String>();
+            while ((line = reader.readLine()) != null) {
+                if (line.length() == 0) {
+                    continue;
+                }
+                String[] entry = line.split("\t", -1);
+                for (int i = 0; i < entry.length; i++) {
+                    entry[i] = unescape(entry[i]);
+                }
+                if (entry[0].equals(CLASS)) {
+                    // class, class, fingerprint
+                    classes.put(entry[1], entry[2]);
+                } else {
+                    entries.add(entry);
+                }
+            }
+            classesByRoot.put(root(resource), classes);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * @param packageName the package of a glue path
+     * @return true if the index has the glue of {@code packageName}: every class file in it is named
+     * by the index of its jar or directory, with the fingerprint it had when it was indexed.
+     */
+    boolean covers(String packageName) {
+        if (packageName.length() == 0) {
+            // The whole class path, there is no telling if all of it was indexed.
+            return false;
+        }
+        boolean hasClasses = false;
+        for (Resource resource : new ClasspathResourceIterable(classLoader, packageName.replace('.', '/'), ".class")) {
+            String className = resource.getClassName(".class");
+            if (className.endsWith(".package-info")) {
+                continue;
+            }
+            Map<String, String> indexed = classesByRoot.get(root(resource));
+            if (indexed == null || !fingerprint(resource).equals(indexed.get(className))) {
+                return false;
+            }
+            hasClasses = true;
+        }
+        return hasClasses;
+    }
+
+    /**
+     * Registers the step definitions, hooks and {@link GlueBase} classes in {@code packageName}
+     * with {@code javaBackend}.
+     *
+     * @param javaBackend the backend where stepdefs and hooks will be registered
+     * @param packageName the package of a glue path
+     * @return the {@link GlueBase} classes in {@code packageName}
+     */
+    List<Class<? extends GlueBase>> loadGlue(JavaBackend javaBackend, String packageName) {
+        List<Class<? extends GlueBase>> glueBaseClasses = new ArrayList<Class<? extends GlueBase>>();
+        for (String[] entry : entries) {
+            String type = entry[0];
+            if (!isInPackage(packageName(entry[1]), packageName)) {
+                continue;
+            }
+            if (type.equals(SUBCLASS)) {
+                throw new CucumberException(String.format("You're not allowed to extend classes that define Step Definitions or hooks. %s extends %s", loadClass(entry[1]), loadClass(entry[2])));
+            } else if (type.equals(GLUE_BASE)) {
+                glueBaseClasses.add(loadClass(entry[1]).asSubclass(GlueBase.class));
+            } else if (type.equals(STEP)) {
+                // step, class, method, parameter types, timeout, pattern
+                javaBackend.addStepDefinition(method(entry[1], entry[2], entry[3]), entry[5], Long.parseLong(entry[4]));
+            } else if (type.equals(BEFORE) || type.equals(AFTER)) {
+                // before|after, class, method, parameter types, timeout, order, tag expressions...
+                String[] tagExpressions = Arrays.copyOfRange(entry, 6, entry.length);
+                javaBackend.addHook(method(entry[1], entry[2], entry[3]), type.equals(BEFORE), tagExpressions, Integer.parseInt(entry[5]), Long.parseLong(entry[4]));
+            } else {
+                throw new CucumberException("Unknown glue index entry: " + Arrays.asList(entry));
+            }
+        }
+        return glueBaseClasses;
+    }
+
+    private Method method(String className, String methodName, String parameterTypeNames) {
+        Class<?> glueCodeClass = loadClass(className);
+        List<Class<?>> parameterTypes = new ArrayList<Class<?>>();
+        if (parameterTypeNames.length() > 0) {
+            for (String parameterTypeName : parameterTypeNames.split(",")) {
+                Class<?> primitive = PRIMITIVES.get(parameterTypeName);
+                parameterTypes.add(primitive != null ? primitive : loadClass(parameterTypeName));
+            }
+        }
+        try {
+            return glueCodeClass.getMethod(methodName, parameterTypes.toArray(new Class<?>[parameterTypes.size()]));
+        } catch (NoSuchMethodException e) {
+            throw new CucumberException("The glue index is out of date, recompile " + className, e);
+        }
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new CucumberException("The glue index is out of date, " + className + " was not found", e);
+        }
+    }
+
+    /**
+     * @return the jar or directory {@code resource} is in
+     */
+    private static String root(Resource resource) {
+        String absolutePath = resource.getAbsolutePath();
+        return absolutePath.substring(0, absolutePath.length() - resource.getPath().length());
+    }
+
+    private static String fingerprint(Resource resource) {
+        try {
+            return fingerprint(resource.getInputStream());
+        } catch (IOException e) {
+            throw new CucumberException("Failed to read " + resource.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @param inputStream a class file, closed when it has been read
+     * @return the size and CRC-32 of the class file
+     */
+    static String fingerprint(InputStream inputStream) throws IOException {
+        try {
+            CRC32 crc = new CRC32();
+            byte[] buffer = new byte[8192];
+            long size = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                size += read;
+            }
+            return size + ":" + Long.toHexString(crc.getValue());
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private static String packageName(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot == -1 ? "" : className.substring(0, lastDot);
+    }
+
+    private static boolean isInPackage(String packageName, String gluePackage) {
+        return packageName.equals(gluePackage) || packageName.startsWith(gluePackage + ".");
+    }
+
+    static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') == -1) {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                c = value.charAt(++i);
+                switch (c) {
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    default:
+                        break;
+                }
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+}
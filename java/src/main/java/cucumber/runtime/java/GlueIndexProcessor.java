@@ -0,0 +1,369 @@
+package cucumber.runtime.java;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the {@link GlueIndex} of the classes being compiled.
+ * <p/>
+ * <b>The processor is opt-in.</b> It isn't registered as a service, because it has to see every
+ * class of a compilation and writes {@code META-INF/cucumber/glue.index} into the class output.
+ * Pass it to javac explicitly where glue is compiled, e.g. with
+ * {@code -processor cucumber.runtime.java.GlueIndexProcessor} or with the
+ * {@code annotationProcessors} of the maven-compiler-plugin. {@link JavaBackend} then loads only the
+ * classes named in the index instead of scanning every class in the glue path.
+ * <p/>
+ * The index only describes the classes of one compilation. Once javac has written a class file, its
+ * size and CRC-32 are added to the index, so {@link GlueIndex} can tell when a class file in a glue
+ * path isn't the one that was indexed (compiled by another compiler, without this processor or by an
+ * incremental build that only passed the changed files to javac) and the glue path has to be scanned
+ * after all. Other compilers than javac don't tell when they have written a class file, so they get
+ * no index. Set {@code cucumber.java.ignore-glue-index=true} to always scan the glue path.
+ */
+public class GlueIndexProcessor extends AbstractProcessor {
+    private static final String BEFORE = "cucumber.api.java.Before";
+    private static final String AFTER = "cucumber.api.java.After";
+    private static final String STEP_DEF_ANNOTATION = StepDefAnnotation.class.getName();
+    private static final String GLUE_BASE = "cucumber.api.java8.GlueBase";
+
+    private final Set<String> classes = new TreeSet<String>();
+    private final List<String> entries = new ArrayList<String>();
+    private boolean listensToGeneratedClasses;
+    private File index;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        listensToGeneratedClasses = listenToGeneratedClasses();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Every compiled class has to be recorded, not just the ones with annotated glue.
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            if (!classes.isEmpty() && listensToGeneratedClasses) {
+                write();
+            } else if (!classes.isEmpty()) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "The glue index is only written by javac, the glue will be scanned for");
+            }
+            return false;
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            classes.add(binaryName(type));
+            index(type);
+        }
+        return false;
+    }
+
+    private void index(TypeElement type) {
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            index(nested);
+        }
+        if (type.getKind() != ElementKind.CLASS) {
+            return;
+        }
+        if (isGlueBase(type)) {
+            entries.add(entry(GlueIndex.GLUE_BASE, binaryName(type)));
+        }
+        if (!isInstantiable(type)) {
+            // MethodScanner doesn't register the glue of these either
+            return;
+        }
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)) {
+                index(type, method);
+            }
+        }
+        TypeElement superclass = superclass(type);
+        while (superclass != null) {
+            for (ExecutableElement method : ElementFilter.methodsIn(superclass.getEnclosedElements())) {
+                if (method.getModifiers().contains(Modifier.PUBLIC) && isGlue(method)) {
+                    entries.add(entry(GlueIndex.SUBCLASS, binaryName(type), binaryName(superclass)));
+                    return;
+                }
+            }
+            superclass = superclass(superclass);
+        }
+    }
+
+    private void index(TypeElement type, ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+            Map<? extends ExecutableElement, ? extends AnnotationValue> values = processingEnv.getElementUtils().getElementValuesWithDefaults(annotation);
+            if (annotationName.equals(BEFORE) || annotationName.equals(AFTER)) {
+                List<String> entry = new ArrayList<String>();
+                entry.add(annotationName.equals(BEFORE) ? GlueIndex.BEFORE : GlueIndex.AFTER);
+                entry.add(binaryName(type));
+                entry.add(method.getSimpleName().toString());
+                entry.add(parameterTypes(method));
+                entry.add(String.valueOf(value(values, "timeout")));
+                entry.add(String.valueOf(value(values, "order")));
+                for (Object tagExpression : (List<?>) value(values, "value")) {
+                    entry.add(String.valueOf(((AnnotationValue) tagExpression).getValue()));
+                }
+                entries.add(entry(entry.toArray(new String[entry.size()])));
+            } else if (isStepDefAnnotation(annotationType)) {
+                entries.add(entry(GlueIndex.STEP,
+                        binaryName(type),
+                        method.getSimpleName().toString(),
+                        parameterTypes(method),
+                        String.valueOf(value(values, "timeout")),
+                        String.valueOf(value(values, "value"))));
+            }
+        }
+    }
+
+    /**
+     * Calls {@link #generated(TypeElement)} for every class file javac writes. The javac API is used
+     * reflectively, because it isn't on the class path of the JDK this is compiled with.
+     *
+     * @return false if the compiler isn't javac
+     */
+    private boolean listenToGeneratedClasses() {
+        try {
+            ClassLoader classLoader = processingEnv.getClass().getClassLoader();
+            Class<?> javacTask = Class.forName("com.sun.source.util.JavacTask", false, classLoader);
+            Class<?> taskListener = Class.forName("com.sun.source.util.TaskListener", false, classLoader);
+            final Class<?> taskEvent = Class.forName("com.sun.source.util.TaskEvent", false, classLoader);
+            Object task = javacTask.getMethod("instance", ProcessingEnvironment.class).invoke(null, processingEnv);
+            Object listener = Proxy.newProxyInstance(taskListener.getClassLoader(), new Class<?>[]{taskListener}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    if (method.getName().equals("finished")) {
+                        if (taskEvent.getMethod("getKind").invoke(args[0]).toString().equals("GENERATE")) {
+                            generated((TypeElement) taskEvent.getMethod("getTypeElement").invoke(args[0]));
+                        }
+                    } else if (method.getName().equals("equals")) {
+                        return proxy == args[0];
+                    } else if (method.getName().equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    } else if (method.getName().equals("toString")) {
+                        return GlueIndexProcessor.class.getName();
+                    }
+                    return null;
+                }
+            });
+            javacTask.getMethod("addTaskListener", taskListener).invoke(task, listener);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void generated(TypeElement type) {
+        if (index == null || !classes.contains(binaryName(topLevelType(type)))) {
+            // Not processed, like the classes javac found on the source path
+            return;
+        }
+        String className = binaryName(type);
+        try {
+            FileObject classFile = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", className.replace('.', '/') + ".class");
+            String fingerprint = GlueIndex.fingerprint(classFile.openInputStream());
+            Writer writer = new OutputStreamWriter(new FileOutputStream(index, true), "UTF-8");
+            try {
+                writer.write(entry(GlueIndex.CLASS, className, fingerprint));
+                writer.write('\n');
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to add " + className + " to " + GlueIndex.RESOURCE + ": " + e);
+        }
+    }
+
+    private void write() {
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", GlueIndex.RESOURCE);
+            if (!"file".equals(resource.toUri().getScheme())) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "The glue index is only written to a directory, the glue will be scanned for");
+                return;
+            }
+            Writer writer = new OutputStreamWriter(resource.openOutputStream(), "UTF-8");
+            try {
+                writer.write(GlueIndex.HEADER);
+                writer.write('\n');
+                for (String entry : entries) {
+                    writer.write(entry);
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+            // The class entries are added by generated(TypeElement) when javac has written the classes
+            index = new File(resource.toUri());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + GlueIndex.RESOURCE + ": " + e);
+        }
+    }
+
+    private boolean isGlue(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            String annotationName = annotationType.getQualifiedName().toString();
+            if (annotationName.equals(BEFORE) || annotationName.equals(AFTER) || isStepDefAnnotation(annotationType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isStepDefAnnotation(TypeElement annotationType) {
+        for (AnnotationMirror metaAnnotation : annotationType.getAnnotationMirrors()) {
+            if (((TypeElement) metaAnnotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(STEP_DEF_ANNOTATION)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isGlueBase(TypeElement type) {
+        TypeElement glueBase = processingEnv.getElementUtils().getTypeElement(GLUE_BASE);
+        return glueBase != null && processingEnv.getTypeUtils().isAssignable(
+                processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(glueBase.asType()));
+    }
+
+    private boolean isInstantiable(TypeElement type) {
+        // Same as cucumber.runtime.Utils.isInstantiable
+        Set<Modifier> modifiers = type.getModifiers();
+        boolean isNonStaticInnerClass = type.getNestingKind() == NestingKind.MEMBER && !modifiers.contains(Modifier.STATIC);
+        return modifiers.contains(Modifier.PUBLIC) && !modifiers.contains(Modifier.ABSTRACT) && !isNonStaticInnerClass;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals(Object.class.getName()) ? null : element;
+    }
+
+    private String parameterTypes(ExecutableElement method) {
+        StringBuilder names = new StringBuilder();
+        for (VariableElement parameter : method.getParameters()) {
+            if (names.length() > 0) {
+                names.append(',');
+            }
+            names.append(className(processingEnv.getTypeUtils().erasure(parameter.asType())));
+        }
+        return names.toString();
+    }
+
+    /**
+     * @return the name of {@code type} as returned by {@link Class#getName()}
+     */
+    private String className(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                return "[" + descriptor(((ArrayType) type).getComponentType());
+            case DECLARED:
+                return binaryName((TypeElement) ((DeclaredType) type).asElement());
+            default:
+                return type.getKind().name().toLowerCase();
+        }
+    }
+
+    private String descriptor(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "Z";
+            case BYTE:
+                return "B";
+            case CHAR:
+                return "C";
+            case SHORT:
+                return "S";
+            case INT:
+                return "I";
+            case LONG:
+                return "J";
+            case FLOAT:
+                return "F";
+            case DOUBLE:
+                return "D";
+            case ARRAY:
+                return "[" + descriptor(((ArrayType) type).getComponentType());
+            default:
+                return "L" + className(processingEnv.getTypeUtils().erasure(type)) + ";";
+        }
+    }
+
+    private static TypeElement topLevelType(TypeElement type) {
+        TypeElement topLevelType = type;
+        for (Element element = type; element != null && element.getKind() != ElementKind.PACKAGE; element = element.getEnclosingElement()) {
+            if (element instanceof TypeElement) {
+                topLevelType = (TypeElement) element;
+            }
+        }
+        return topLevelType;
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private Object value(Map<? extends ExecutableElement, ? extends AnnotationValue> values, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : values.entrySet()) {
+            if (value.getKey().getSimpleName().contentEquals(name)) {
+                return value.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("No " + name + " in " + values);
+    }
+
+    private static String entry(String... values) {
+        StringBuilder entry = new StringBuilder();
+        for (String value : values) {
+            if (entry.length() > 0) {
+                entry.append('\t');
+            }
+            entry.append(GlueIndex.escape(value));
+        }
+        return entry.toString();
+    }
+}
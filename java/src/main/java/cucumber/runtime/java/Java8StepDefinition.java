@@ -4,9 +4,9 @@ import cucumber.api.java8.StepdefBody;
 import cucumber.runtime.Argument;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.JdkPatternArgumentMatcher;
+import cucumber.runtime.MethodInvoker;
 import cucumber.runtime.ParameterInfo;
 import cucumber.runtime.StepDefinition;
-import cucumber.runtime.Utils;
 import gherkin.pickles.PickleStep;
 
 import java.lang.reflect.Method;
@@ -28,6 +28,7 @@ public class Java8StepDefinition implements StepDefinition {
 
     private final List<ParameterInfo> parameterInfos;
     private final Method method;
+    private final MethodInvoker invoker;
 
     public Java8StepDefinition(Pattern pattern, long timeoutMillis, StepdefBody body, TypeIntrospector typeIntrospector) throws Exception {
         this.pattern = pattern;
@@ -40,6 +41,7 @@ public class Java8StepDefinition implements StepDefinition {
         Class<? extends StepdefBody> bodyClass = body.getClass();
 
         this.method = getAcceptMethod(bodyClass);
+        this.invoker = new MethodInvoker(method);
         this.parameterInfos = getParameterInfos(bodyClass, typeIntrospector, method.getParameterTypes().length);
     }
 
@@ -111,7 +113,7 @@ public class Java8StepDefinition implements StepDefinition {
 
     @Override
     public void execute(final String language, final Object[] args) throws Throwable {
-        Utils.invoke(body, method, timeoutMillis, args);
+        invoker.invoke(body, timeoutMillis, args);
     }
 
     @Override
@@ -33,6 +33,12 @@ import java.util.regex.Pattern;
 import static cucumber.runtime.io.MultiLoader.packageName;
 
 public class JavaBackend implements Backend {
+    /**
+     * Set to {@code true} to scan the glue path for glue even when there is a glue index.
+     *
+     * @see GlueIndexProcessor
+     */
+    public static final String IGNORE_GLUE_INDEX = "cucumber.java.ignore-glue-index";
     public static final ThreadLocal<JavaBackend> INSTANCE = new ThreadLocal<JavaBackend>();
     private final SnippetGenerator snippetGenerator = new SnippetGenerator(createSnippet());
 
@@ -48,6 +54,7 @@ public class JavaBackend implements Backend {
 
     private final ObjectFactory objectFactory;
     private final ClassFinder classFinder;
+    private final ClassLoader classLoader;
 
     private final MethodScanner methodScanner;
     private Glue glue;
@@ -59,14 +66,14 @@ public class JavaBackend implements Backend {
      * @param resourceLoader
      */
     public JavaBackend(ResourceLoader resourceLoader) {
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        classLoader = Thread.currentThread().getContextClassLoader();
         classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
         methodScanner = new MethodScanner(classFinder);
         objectFactory = ObjectFactoryLoader.loadObjectFactory(classFinder, Env.INSTANCE.get(ObjectFactory.class.getName()));
     }
 
     public JavaBackend(ObjectFactory objectFactory) {
-        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        classLoader = Thread.currentThread().getContextClassLoader();
         ResourceLoader resourceLoader = new MultiLoader(classLoader);
         classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
         methodScanner = new MethodScanner(classFinder);
@@ -76,26 +83,41 @@ public class JavaBackend implements Backend {
     public JavaBackend(ObjectFactory objectFactory, ClassFinder classFinder) {
         this.objectFactory = objectFactory;
         this.classFinder = classFinder;
+        this.classLoader = Thread.currentThread().getContextClassLoader();
         methodScanner = new MethodScanner(classFinder);
     }
 
     @Override
     public void loadGlue(Glue glue, List<String> gluePaths) {
         this.glue = glue;
+        // Glue paths that the GlueIndexProcessor indexed completely don't have to be scanned for
+        GlueIndex glueIndex = "true".equals(Env.INSTANCE.get(IGNORE_GLUE_INDEX)) ? null : GlueIndex.load(classLoader);
+        List<String> scannedGluePaths = new ArrayList<String>();
+        for (String gluePath : gluePaths) {
+            if (glueIndex != null && glueIndex.covers(packageName(gluePath))) {
+                addGlueBaseClasses(glueIndex.loadGlue(this, packageName(gluePath)));
+            } else {
+                scannedGluePaths.add(gluePath);
+            }
+        }
+
         // Scan for Java7 style glue (annotated methods)
-        methodScanner.scan(this, gluePaths);
+        methodScanner.scan(this, scannedGluePaths);
 
         // Scan for Java8 style glue (lambdas)
-        for (final String gluePath : gluePaths) {
-            Collection<Class<? extends GlueBase>> glueDefinerClasses = classFinder.getDescendants(GlueBase.class, packageName(gluePath));
-            for (final Class<? extends GlueBase> glueClass : glueDefinerClasses) {
-                if (glueClass.isInterface()) {
-                    continue;
-                }
-
-                if (objectFactory.addClass(glueClass)) {
-                    glueBaseClasses.add(glueClass);
-                }
+        for (final String gluePath : scannedGluePaths) {
+            addGlueBaseClasses(classFinder.getDescendants(GlueBase.class, packageName(gluePath)));
+        }
+    }
+
+    private void addGlueBaseClasses(Collection<Class<? extends GlueBase>> glueDefinerClasses) {
+        for (final Class<? extends GlueBase> glueClass : glueDefinerClasses) {
+            if (glueClass.isInterface()) {
+                continue;
+            }
+
+            if (objectFactory.addClass(glueClass)) {
+                glueBaseClasses.add(glueClass);
             }
         }
     }
@@ -146,9 +168,19 @@ public class JavaBackend implements Backend {
     }
 
     void addStepDefinition(Annotation annotation, Method method) {
+        try {
+            addStepDefinition(method, pattern(annotation), timeoutMillis(annotation));
+        } catch (CucumberException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new CucumberException(e);
+        }
+    }
+
+    void addStepDefinition(Method method, String regexp, long timeoutMillis) {
         try {
             if (objectFactory.addClass(method.getDeclaringClass())) {
-                glue.addStepDefinition(new JavaStepDefinition(method, pattern(annotation), timeoutMillis(annotation), objectFactory));
+                glue.addStepDefinition(new JavaStepDefinition(method, Pattern.compile(regexp), timeoutMillis, objectFactory));
             }
         } catch (DuplicateStepDefinitionException e) {
             throw e;
@@ -168,15 +200,21 @@ public class JavaBackend implements Backend {
     }
 
     void addHook(Annotation annotation, Method method) {
+        if (annotation.annotationType().equals(Before.class)) {
+            Before before = (Before) annotation;
+            addHook(method, true, before.value(), before.order(), before.timeout());
+        } else {
+            After after = (After) annotation;
+            addHook(method, false, after.value(), after.order(), after.timeout());
+        }
+    }
+
+    void addHook(Method method, boolean before, String[] tagExpressions, int order, long timeoutMillis) {
         if (objectFactory.addClass(method.getDeclaringClass())) {
-            if (annotation.annotationType().equals(Before.class)) {
-                String[] tagExpressions = ((Before) annotation).value();
-                long timeout = ((Before) annotation).timeout();
-                glue.addBeforeHook(new JavaHookDefinition(method, tagExpressions, ((Before) annotation).order(), timeout, objectFactory));
+            if (before) {
+                glue.addBeforeHook(new JavaHookDefinition(method, tagExpressions, order, timeoutMillis, objectFactory));
             } else {
-                String[] tagExpressions = ((After) annotation).value();
-                long timeout = ((After) annotation).timeout();
-                glue.addAfterHook(new JavaHookDefinition(method, tagExpressions, ((After) annotation).order(), timeout, objectFactory));
+                glue.addAfterHook(new JavaHookDefinition(method, tagExpressions, order, timeoutMillis, objectFactory));
             }
         }
     }
@@ -197,10 +235,9 @@ public class JavaBackend implements Backend {
         glue.addAfterHook(new Java8HookDefinition(tagExpressions, order, timeoutMillis, body));
     }
 
-    private Pattern pattern(Annotation annotation) throws Throwable {
+    private String pattern(Annotation annotation) throws Throwable {
         Method regexpMethod = annotation.getClass().getMethod("value");
-        String regexpString = (String) Utils.invoke(annotation, regexpMethod, 0);
-        return Pattern.compile(regexpString);
+        return (String) Utils.invoke(annotation, regexpMethod, 0);
     }
 
     private long timeoutMillis(Annotation annotation) throws Throwable {
@@ -5,7 +5,7 @@ import cucumber.api.java.ObjectFactory;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.HookDefinition;
 import cucumber.runtime.MethodFormat;
-import cucumber.runtime.Utils;
+import cucumber.runtime.MethodInvoker;
 import cucumber.runtime.TagPredicate;
 import gherkin.pickles.PickleTag;
 
@@ -17,6 +17,8 @@ import static java.util.Arrays.asList;
 class JavaHookDefinition implements HookDefinition {
 
     private final Method method;
+    private final MethodInvoker invoker;
+    private final Class<?>[] parameterTypes;
     private final long timeoutMillis;
     private final TagPredicate tagPredicate;
     private final int order;
@@ -24,6 +26,8 @@ class JavaHookDefinition implements HookDefinition {
 
     public JavaHookDefinition(Method method, String[] tagExpressions, int order, long timeoutMillis, ObjectFactory objectFactory) {
         this.method = method;
+        this.invoker = new MethodInvoker(method);
+        this.parameterTypes = method.getParameterTypes();
         this.timeoutMillis = timeoutMillis;
         this.tagPredicate = new TagPredicate(asList(tagExpressions));
         this.order = order;
@@ -43,12 +47,12 @@ class JavaHookDefinition implements HookDefinition {
     @Override
     public void execute(Scenario scenario) throws Throwable {
         Object[] args;
-        switch (method.getParameterTypes().length) {
+        switch (parameterTypes.length) {
             case 0:
                 args = new Object[0];
                 break;
             case 1:
-                if (!Scenario.class.equals(method.getParameterTypes()[0])) {
+                if (!Scenario.class.equals(parameterTypes[0])) {
                     throw new CucumberException("When a hook declares an argument it must be of type " + Scenario.class.getName() + ". " + method.toString());
                 }
                 args = new Object[]{scenario};
@@ -57,7 +61,7 @@ class JavaHookDefinition implements HookDefinition {
                 throw new CucumberException("Hooks must declare 0 or 1 arguments. " + method.toString());
         }
 
-        Utils.invoke(objectFactory.getInstance(method.getDeclaringClass()), method, timeoutMillis, args);
+        invoker.invoke(objectFactory.getInstance(method.getDeclaringClass()), timeoutMillis, args);
     }
 
     @Override
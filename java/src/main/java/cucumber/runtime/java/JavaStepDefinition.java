@@ -4,9 +4,9 @@ import cucumber.api.java.ObjectFactory;
 import cucumber.runtime.Argument;
 import cucumber.runtime.JdkPatternArgumentMatcher;
 import cucumber.runtime.MethodFormat;
+import cucumber.runtime.MethodInvoker;
 import cucumber.runtime.ParameterInfo;
 import cucumber.runtime.StepDefinition;
-import cucumber.runtime.Utils;
 import gherkin.pickles.PickleStep;
 
 import java.lang.reflect.Method;
@@ -16,6 +16,7 @@ import java.util.regex.Pattern;
 
 class JavaStepDefinition implements StepDefinition {
     private final Method method;
+    private final MethodInvoker invoker;
     private final Pattern pattern;
     private final long timeoutMillis;
     private final ObjectFactory objectFactory;
@@ -25,6 +26,7 @@ class JavaStepDefinition implements StepDefinition {
 
     public JavaStepDefinition(Method method, Pattern pattern, long timeoutMillis, ObjectFactory objectFactory) {
         this.method = method;
+        this.invoker = new MethodInvoker(method);
         this.pattern = pattern;
         this.timeoutMillis = timeoutMillis;
         this.objectFactory = objectFactory;
@@ -34,7 +36,7 @@ class JavaStepDefinition implements StepDefinition {
     }
 
     public void execute(String language, Object[] args) throws Throwable {
-        Utils.invoke(objectFactory.getInstance(method.getDeclaringClass()), method, timeoutMillis, args);
+        invoker.invoke(objectFactory.getInstance(method.getDeclaringClass()), timeoutMillis, args);
     }
 
     public List<Argument> matchedArguments(PickleStep step) {
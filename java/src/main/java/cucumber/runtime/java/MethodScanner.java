@@ -2,6 +2,7 @@ package cucumber.runtime.java;
 
 import cucumber.api.java.After;
 import cucumber.api.java.Before;
+import cucumber.runtime.AnnotatedMethodClassFinder;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.Utils;
 import cucumber.runtime.ClassFinder;
@@ -31,7 +32,7 @@ class MethodScanner {
      */
     public void scan(JavaBackend javaBackend, List<String> gluePaths) {
         for (String gluePath : gluePaths) {
-            for (Class<?> glueCodeClass : classFinder.getDescendants(Object.class, packageName(gluePath))) {
+            for (Class<?> glueCodeClass : findGlueCodeClasses(packageName(gluePath))) {
                 while (glueCodeClass != null && glueCodeClass != Object.class && !Utils.isInstantiable(glueCodeClass)) {
                     // those can't be instantiated without container class present.
                     glueCodeClass = glueCodeClass.getSuperclass();
@@ -71,6 +72,14 @@ class MethodScanner {
         }
     }
 
+    private Collection<? extends Class<?>> findGlueCodeClasses(String packageName) {
+        if (classFinder instanceof AnnotatedMethodClassFinder) {
+            // Don't load the classes that can't have stepdefs or hooks
+            return ((AnnotatedMethodClassFinder) classFinder).getClassesWithAnnotatedMethods(packageName, cucumberAnnotationClasses);
+        }
+        return classFinder.getDescendants(Object.class, packageName);
+    }
+
     private Collection<Class<? extends Annotation>> findCucumberAnnotationClasses() {
         return classFinder.getDescendants(Annotation.class, "cucumber.api");
     }
@@ -0,0 +1,88 @@
+package cucumber.runtime.java;
+
+import cucumber.api.cli.Main;
+import cucumber.util.FixJava;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+// Runs the features in worker JVMs through Main, the way --workers is used from the command line.
+public class CoordinatorTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void reports_every_scenario_once_with_the_plugins_of_the_coordinator() throws Exception {
+        File feature = temporaryFolder.newFile("workers.feature");
+        write(feature, "" +
+                "Feature: Workers\n" +
+                "\n" +
+                "  Scenario: first\n" +
+                "    Given test\n" +
+                "\n" +
+                "  Scenario: second\n" +
+                "    Given test\n" +
+                "\n" +
+                "  Scenario: third\n" +
+                "    Given test\n");
+        File json = new File(temporaryFolder.getRoot(), "report.json");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream previousSystemOut = System.out;
+        byte exitStatus;
+        try {
+            System.setOut(new PrintStream(out, true, "UTF-8"));
+            exitStatus = Main.run(new String[]{
+                    "--workers", "2",
+                    "--glue", "cucumber.runtime.java.stepdefs",
+                    "--plugin", "pretty",
+                    "--plugin", "json:" + json.getPath(),
+                    "--monochrome",
+                    feature.getPath()
+            }, Thread.currentThread().getContextClassLoader());
+        } finally {
+            System.setOut(previousSystemOut);
+        }
+
+        String output = out.toString("UTF-8");
+        assertEquals(output, 0, exitStatus);
+        assertEquals(output, 1, occurrences(output, "Scenario: first"));
+        assertEquals(output, 1, occurrences(output, "Scenario: second"));
+        assertEquals(output, 1, occurrences(output, "Scenario: third"));
+        assertEquals(output, 1, occurrences(output, "3 Scenarios (3 passed)"));
+        assertFalse(output, output.contains("Exception"));
+
+        String report = FixJava.readReader(new InputStreamReader(new FileInputStream(json), "UTF-8"));
+        assertEquals(report, 3, occurrences(report, "\"keyword\": \"Scenario\""));
+        assertEquals(report, 3, occurrences(report, "\"status\": \"passed\""));
+    }
+
+    private static void write(File file, String text) throws Exception {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static int occurrences(String text, String part) {
+        int count = 0;
+        for (int index = text.indexOf(part); index != -1; index = text.indexOf(part, index + part.length())) {
+            count++;
+        }
+        return count;
+    }
+}
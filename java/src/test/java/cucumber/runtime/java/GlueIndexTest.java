@@ -0,0 +1,183 @@
+package cucumber.runtime.java;
+
+import cucumber.runtime.CucumberException;
+import cucumber.runtime.java.java8test.AnonInnerClassStepdefs;
+import cucumber.runtime.java.stepdefs.Stepdefs;
+import cucumber.runtime.java.test.ScenarioStepDefs;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+// The index read here is the one GlueIndexProcessor wrote when the test classes were compiled.
+public class GlueIndexTest {
+    private final GlueIndex glueIndex = GlueIndex.load(Thread.currentThread().getContextClassLoader());
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void covers_the_packages_with_only_indexed_classes() {
+        assertTrue(glueIndex.covers("cucumber.runtime.java.stepdefs"));
+        assertTrue(glueIndex.covers("cucumber.runtime.java.java8test"));
+        assertFalse(glueIndex.covers("cucumber.runtime.java.stepdefs.other"));
+        assertFalse(glueIndex.covers("cucumber.runtime.jav"));
+        assertFalse(glueIndex.covers(""));
+    }
+
+    @Test
+    public void does_not_cover_packages_with_classes_compiled_without_the_processor() {
+        // The main classes of cucumber-java and core are compiled without it
+        assertFalse(glueIndex.covers("cucumber.runtime.java"));
+        assertFalse(glueIndex.covers("cucumber.runtime"));
+    }
+
+    @Test
+    public void covers_nested_and_anonymous_classes_of_indexed_classes() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        touch(root, "glue/Stepdefs.class");
+        touch(root, "glue/Stepdefs$Nested.class");
+        touch(root, "glue/Stepdefs$1.class");
+        writeIndex(root, "glue/Stepdefs.class", "glue/Stepdefs$Nested.class", "glue/Stepdefs$1.class");
+
+        assertTrue(GlueIndex.load(classLoader(root)).covers("glue"));
+    }
+
+    @Test
+    public void does_not_cover_packages_with_classes_missing_from_the_index() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        touch(root, "glue/Stepdefs.class");
+        writeIndex(root, "glue/Stepdefs.class");
+        touch(root, "glue/CompiledLater.class");
+
+        assertFalse(GlueIndex.load(classLoader(root)).covers("glue"));
+    }
+
+    @Test
+    public void does_not_cover_packages_with_classes_recompiled_after_indexing() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        write(new File(root, "glue/Stepdefs.class"), "indexed");
+        writeIndex(root, "glue/Stepdefs.class");
+        GlueIndex glueIndex = GlueIndex.load(classLoader(root));
+        assertTrue(glueIndex.covers("glue"));
+
+        write(new File(root, "glue/Stepdefs.class"), "recompiled");
+
+        assertFalse(glueIndex.covers("glue"));
+    }
+
+    @Test
+    public void does_not_cover_packages_with_classes_in_another_root() throws IOException {
+        File indexed = temporaryFolder.newFolder("classes");
+        touch(indexed, "glue/Stepdefs.class");
+        writeIndex(indexed, "glue/Stepdefs.class");
+        File notIndexed = temporaryFolder.newFolder("kotlin-classes");
+        touch(notIndexed, "glue/KotlinStepdefs.class");
+
+        assertFalse(GlueIndex.load(classLoader(indexed, notIndexed)).covers("glue"));
+    }
+
+    @Test
+    public void ignores_indexes_of_other_versions() throws IOException {
+        File root = temporaryFolder.newFolder("classes");
+        write(new File(root, GlueIndex.RESOURCE), "# Cucumber glue index 1\npackage\tglue\n");
+
+        assertNull(GlueIndex.load(classLoader(root)));
+    }
+
+    @Test
+    public void registers_step_definitions() throws NoSuchMethodException {
+        JavaBackend backend = mock(JavaBackend.class);
+
+        assertEquals(0, glueIndex.loadGlue(backend, "cucumber.runtime.java.stepdefs").size());
+
+        verify(backend).addStepDefinition(Stepdefs.class.getMethod("test"), "test", 0);
+        verifyNoMoreInteractions(backend);
+    }
+
+    @Test
+    public void registers_hooks() throws NoSuchMethodException {
+        JavaBackend backend = mock(JavaBackend.class);
+
+        glueIndex.loadGlue(backend, "cucumber.runtime.java.test");
+
+        verify(backend).addHook(ScenarioStepDefs.class.getMethod("get_scenario_name", cucumber.api.Scenario.class), true, new String[0], 10000, 0);
+    }
+
+    @Test
+    public void returns_glue_base_classes() {
+        JavaBackend backend = mock(JavaBackend.class);
+
+        assertEquals(asList(AnonInnerClassStepdefs.class), glueIndex.loadGlue(backend, "cucumber.runtime.java.java8test"));
+    }
+
+    @Test
+    public void fails_on_subclassed_glue() {
+        try {
+            glueIndex.loadGlue(mock(JavaBackend.class), "cucumber.runtime.java.incorrectlysubclassedstepdefs");
+            fail();
+        } catch (CucumberException e) {
+            assertEquals("You're not allowed to extend classes that define Step Definitions or hooks. " +
+                    "class cucumber.runtime.java.incorrectlysubclassedstepdefs.SubclassesStepdefs extends class cucumber.runtime.java.stepdefs.Stepdefs", e.getMessage());
+        }
+    }
+
+    @Test
+    public void escapes_separators() {
+        String value = "^a\\tb\tc\nd\\\\$";
+
+        assertFalse(GlueIndex.escape(value).contains("\t"));
+        assertFalse(GlueIndex.escape(value).contains("\n"));
+        assertEquals(value, GlueIndex.unescape(GlueIndex.escape(value)));
+    }
+
+    private static void writeIndex(File root, String... classFiles) throws IOException {
+        StringBuilder index = new StringBuilder(GlueIndex.HEADER).append('\n');
+        for (String classFile : classFiles) {
+            String className = classFile.substring(0, classFile.length() - ".class".length()).replace('/', '.');
+            String fingerprint = GlueIndex.fingerprint(new FileInputStream(new File(root, classFile)));
+            index.append(GlueIndex.CLASS).append('\t').append(className).append('\t').append(fingerprint).append('\n');
+        }
+        write(new File(root, GlueIndex.RESOURCE), index.toString());
+    }
+
+    private static void touch(File root, String path) throws IOException {
+        write(new File(root, path), "");
+    }
+
+    private static void write(File file, String text) throws IOException {
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(text);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static ClassLoader classLoader(File... roots) throws IOException {
+        URL[] urls = new URL[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            urls[i] = roots[i].toURI().toURL();
+        }
+        return new URLClassLoader(urls, null);
+    }
+}
@@ -7,6 +7,7 @@ import cucumber.runtime.ClassFinder;
 import cucumber.runtime.Runtime;
 import cucumber.runtime.RuntimeOptions;
 import cucumber.runtime.RuntimeOptionsFactory;
+import cucumber.runtime.io.IndexedResourceLoader;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
@@ -58,12 +59,13 @@ public class Cucumber extends ParentRunner<FeatureRunner> {
         RuntimeOptionsFactory runtimeOptionsFactory = new RuntimeOptionsFactory(clazz);
         RuntimeOptions runtimeOptions = runtimeOptionsFactory.create();
 
-        ResourceLoader resourceLoader = new MultiLoader(classLoader);
+        ResourceLoader resourceLoader = new IndexedResourceLoader(new MultiLoader(classLoader), classLoader);
         runtime = createRuntime(resourceLoader, classLoader, runtimeOptions);
         formatter = runtimeOptions.formatter(classLoader);
         final JUnitOptions junitOptions = new JUnitOptions(runtimeOptions.getJunitOptions());
         final List<CucumberFeature> cucumberFeatures = runtimeOptions.cucumberFeatures(resourceLoader, runtime.getEventBus());
         jUnitReporter = new JUnitReporter(runtime.getEventBus(), runtimeOptions.isStrict(), junitOptions);
+        runtime.planShards(cucumberFeatures);
         addChildren(cucumberFeatures);
     }
 
@@ -6,6 +6,7 @@ import cucumber.runtime.CucumberException;
 import cucumber.runtime.Runtime;
 import cucumber.runtime.RuntimeOptions;
 import cucumber.runtime.RuntimeOptionsFactory;
+import cucumber.runtime.io.IndexedResourceLoader;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
@@ -31,7 +32,7 @@ public class TestNGCucumberRunner {
      */
     public TestNGCucumberRunner(Class clazz) {
         ClassLoader classLoader = clazz.getClassLoader();
-        resourceLoader = new MultiLoader(classLoader);
+        resourceLoader = new IndexedResourceLoader(new MultiLoader(classLoader), classLoader);
 
         RuntimeOptionsFactory runtimeOptionsFactory = new RuntimeOptionsFactory(clazz);
         runtimeOptions = runtimeOptionsFactory.create();
@@ -77,7 +78,9 @@ public class TestNGCucumberRunner {
      * @return List of detected cucumber features
      */
     public List<CucumberFeature> getFeatures() {
-        return runtimeOptions.cucumberFeatures(resourceLoader, runtime.getEventBus());
+        List<CucumberFeature> features = runtimeOptions.cucumberFeatures(resourceLoader, runtime.getEventBus());
+        runtime.planShards(features);
+        return features;
     }
 
     /**